@@ -0,0 +1,99 @@
+package benchmarks;
+
+import model.transaction.AmountApi;
+import model.transaction.TransactionApi;
+import model.transaction.compact.SymbolTable;
+import model.transaction.compact.TransactionColumns;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import util.analytics.TransactionAnalytics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Compares volume by recipient and daily buckets computed with streams over {@link TransactionApi}
+ * with {@link TransactionAnalytics} over {@link TransactionColumns} on 1, 2, 4 and 8 threads.
+ * The history has 1 000 000 transactions over 10 000 recipients and 2 years
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class AnalyticsBenchmark {
+    private static final int TRANSACTIONS = 1_000_000;
+    private static final int ADDRESSES = 10_000;
+    private static final long DAY = TimeUnit.DAYS.toSeconds(1);
+
+    @Param({"1", "2", "4", "8"})
+    private int parallelism;
+
+    private ForkJoinPool pool;
+    private List<TransactionApi> transactions;
+    private TransactionColumns columns;
+    private TransactionAnalytics analytics;
+
+    @Setup
+    public void setUp() {
+        transactions = new ArrayList<>(TRANSACTIONS);
+        for (int i = 0; i < TRANSACTIONS; i++) {
+            transactions.add(TransactionApi.builder()
+                    .txid("tx-" + i)
+                    .time(1_600_000_000L + i * 60L)
+                    .confirmations(i % 12)
+                    .totalAmountSent(1_000)
+                    .senders(List.of(Payloads.address(ADDRESSES + i % 7)))
+                    .amountsSent(List.of(new AmountApi(Payloads.address(i % ADDRESSES), 1_000)))
+                    .build());
+        }
+        columns = TransactionColumns.of(transactions, new SymbolTable());
+        pool = new ForkJoinPool(parallelism);
+        analytics = new TransactionAnalytics(pool);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Benchmark
+    public Map<String, Long> volumeByRecipientStream() {
+        return pool.submit(() -> transactions.parallelStream()
+                .flatMap(transaction -> transaction.getAmountsSent().stream())
+                .collect(Collectors.groupingByConcurrent(AmountApi::getRecipient,
+                        Collectors.summingLong(AmountApi::getAmount)))).join();
+    }
+
+    @Benchmark
+    public Object volumeByRecipientColumns() {
+        return analytics.volumeByRecipient(columns);
+    }
+
+    @Benchmark
+    public Map<Long, Long> dailyVolumeStream() {
+        return pool.submit(() -> transactions.parallelStream()
+                .collect(Collectors.groupingByConcurrent(transaction -> Math.floorDiv(transaction.getTime(), DAY),
+                        Collectors.summingLong(TransactionApi::getTotalAmountSent)))).join();
+    }
+
+    @Benchmark
+    public Object dailyVolumeColumns() {
+        return analytics.dailyVolume(columns);
+    }
+}
@@ -0,0 +1,47 @@
+package benchmarks;
+
+import model.amount.Satoshis;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Balance update done by WalletApi.withdrawBalance/depositBalance: the former String/BigDecimal round-trip against satoshi arithmetic.
+ * Run with "-prof gc" to compare allocations
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BalanceMathBenchmark {
+    private final BigDecimal fee = BigDecimal.valueOf(0.0000208);
+    private final BigDecimal amount = BigDecimal.valueOf(0.00001);
+    private final long feeSatoshis = Satoshis.of(fee);
+    private final long amountSatoshis = Satoshis.of(amount);
+
+    private String balanceText = "0.01000000";
+    private long balance = Satoshis.parse(balanceText);
+
+    @Benchmark
+    public String bigDecimalRoundTrip() {
+        balanceText = new BigDecimal(balanceText).subtract(fee).subtract(amount).add(fee).add(amount).toString();
+        return balanceText;
+    }
+
+    @Benchmark
+    public long satoshiArithmetic() {
+        balance = Satoshis.add(Satoshis.subtract(balance, feeSatoshis + amountSatoshis), feeSatoshis + amountSatoshis);
+        return balance;
+    }
+}
@@ -0,0 +1,110 @@
+package benchmarks;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import config.ExecutorConfig;
+import config.JacksonConfig;
+import config.MetricsConfig;
+import config.RestTemplateConfig;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import util.AsyncRequestsUtil;
+import util.ConcurrencyLimiter;
+import util.PayoutBatcher;
+import util.RequestsUtil;
+import util.StreamingResponseParser;
+import util.WalletIndexCache;
+import util.cache.ResponseCacheInterceptor;
+import util.confirmation.ConfirmationWatcher;
+import util.metrics.BlockIoMetrics;
+import util.metrics.MetricsInterceptor;
+import util.reconciliation.BalanceReconciler;
+import util.resilience.ResilienceInterceptor;
+import util.snapshot.WalletSnapshot;
+import util.store.TransactionStore;
+import util.sync.FileCursorStore;
+import util.sync.TransactionSyncEngine;
+import util.url.BaseUrlRouter;
+import web.api.stubs.PrepareTransactionOKStub;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.any;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathMatching;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+
+/**
+ * Spring context and local WireMock server shared by end-to-end benchmarks.
+ * The context includes the same beans as tests do. Client-side rate limit and retries are off,
+ * so benchmarks measure the client itself and not the quota of BlockIo. Responses are not cached and wallets
+ * are not taken from the warm-start snapshot of a previous run, so every read goes through the client.
+ * A benchmark may turn them on with its properties
+ */
+public final class BenchmarkContext {
+    /**
+     * Port of the local stand-in used by {@link RequestsUtil} for "prepare_transaction"
+     */
+    public static final int STUB_PORT = 9090;
+
+    private BenchmarkContext() {
+    }
+
+    /**
+     * Starts the context
+     *
+     * @param properties - "key=value" pairs overriding "blockio.*" settings
+     * @return started context which must be closed
+     */
+    public static ConfigurableApplicationContext start(final String... properties) {
+        return new SpringApplicationBuilder(RestTemplateConfig.class,
+                ExecutorConfig.class,
+                RequestsUtil.class,
+                AsyncRequestsUtil.class,
+                ConcurrencyLimiter.class,
+                MetricsConfig.class,
+                BlockIoMetrics.class,
+                MetricsInterceptor.class,
+                ResponseCacheInterceptor.class,
+                ResilienceInterceptor.class,
+                BalanceReconciler.class,
+                ConfirmationWatcher.class,
+                PayoutBatcher.class,
+                PrepareTransactionOKStub.class,
+                StreamingResponseParser.class,
+                WalletIndexCache.class,
+                WalletSnapshot.class,
+                BaseUrlRouter.class,
+                FileCursorStore.class,
+                TransactionSyncEngine.class,
+                TransactionStore.class,
+                JacksonConfig.class)
+                .web(WebApplicationType.NONE)
+                .bannerMode(Banner.Mode.OFF)
+                .logStartupInfo(false)
+                .properties("logging.level.root=WARN")
+                .properties("blockio.resilience.enabled=false")
+                .properties("blockio.response-cache.enabled=false")
+                .properties("blockio.snapshot.enabled=false")
+                .properties(properties)
+                .run();
+    }
+
+    /**
+     * Starts WireMock which answers "prepare_transaction" with given latency
+     *
+     * @param port        - port of server, 0 for a random one
+     * @param delayMillis - latency of every response
+     * @return started server which must be stopped
+     */
+    public static WireMockServer startPrepareTransactionServer(final int port, final int delayMillis) {
+        final WireMockServer server = new WireMockServer(options().port(port).containerThreads(300));
+        server.stubFor(any(urlPathMatching("/api/v2/prepare_transaction/.*"))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/json")
+                        .withFixedDelay(delayMillis)
+                        .withBody("{\"result\": \"success\"}")));
+        server.start();
+        return server;
+    }
+}
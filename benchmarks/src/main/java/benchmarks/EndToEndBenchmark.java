@@ -0,0 +1,88 @@
+package benchmarks;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import model.TestConstants;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import util.AsyncRequestsUtil;
+import util.RequestsUtil;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * End-to-end calls of {@link RequestsUtil} and {@link AsyncRequestsUtil} against the in-process WireMock stand-in.
+ * "fanOut*" benchmarks send {@link #FAN_OUT} independent requests, blocking one after another or concurrently
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EndToEndBenchmark {
+    private static final int FAN_OUT = 16;
+
+    private final BigDecimal fee = BigDecimal.valueOf(0.0000208);
+    private final BigDecimal amount = BigDecimal.valueOf(0.00001);
+    private final String destinationAddress = "2N9zGCfYdRVaZW7LGwVeJVyuuhB5KoEfe7N";
+
+    @Param({"0", "20"})
+    private int latencyMillis;
+
+    private WireMockServer wireMockServer;
+    private ConfigurableApplicationContext context;
+    private RequestsUtil requestsUtil;
+    private AsyncRequestsUtil asyncRequestsUtil;
+
+    @Setup
+    public void setUp() {
+        wireMockServer = BenchmarkContext.startPrepareTransactionServer(BenchmarkContext.STUB_PORT, latencyMillis);
+        context = BenchmarkContext.start("blockio.execution.threads=" + FAN_OUT);
+        requestsUtil = context.getBean(RequestsUtil.class);
+        asyncRequestsUtil = context.getBean(AsyncRequestsUtil.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+        wireMockServer.stop();
+    }
+
+    @Benchmark
+    public String prepareTransaction() {
+        return requestsUtil.prepareTransaction(TestConstants.VALID_KEY, fee, amount, destinationAddress);
+    }
+
+    @Benchmark
+    public List<String> fanOutBlocking() {
+        return IntStream.range(0, FAN_OUT)
+                .mapToObj(i -> requestsUtil.prepareTransaction(TestConstants.VALID_KEY, fee, amount, destinationAddress))
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<String> fanOutAsync() {
+        final List<CompletableFuture<String>> responses = IntStream.range(0, FAN_OUT)
+                .mapToObj(i -> asyncRequestsUtil.prepareTransaction(TestConstants.VALID_KEY, fee, amount, destinationAddress))
+                .collect(Collectors.toList());
+        return responses.stream()
+                .map(CompletableFuture::join)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,79 @@
+package benchmarks;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import model.TestConstants;
+import model.transaction.Payout;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import util.RequestsUtil;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Throughput of the batch {@link RequestsUtil#prepareTransactions} with a fixed pool of platform threads
+ * and with a virtual thread per task. Virtual threads need Java 21+, otherwise both modes use the fixed pool
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class ExecutorModeBenchmark {
+    private static final int BATCH = 256;
+    private static final int LATENCY_MILLIS = 20;
+
+    private final BigDecimal fee = BigDecimal.valueOf(0.0000208);
+
+    @Param({"PLATFORM", "VIRTUAL"})
+    private String mode;
+
+    @Param({"64"})
+    private int maxConcurrentRequests;
+
+    private WireMockServer wireMockServer;
+    private ConfigurableApplicationContext context;
+    private RequestsUtil requestsUtil;
+    private List<Payout> payouts;
+
+    @Setup
+    public void setUp() {
+        wireMockServer = BenchmarkContext.startPrepareTransactionServer(BenchmarkContext.STUB_PORT, LATENCY_MILLIS);
+        context = BenchmarkContext.start(
+                "blockio.execution.mode=" + mode,
+                "blockio.execution.threads=16",
+                "blockio.execution.max-concurrent-requests=" + maxConcurrentRequests,
+                "blockio.http.max-total-connections=" + maxConcurrentRequests,
+                "blockio.http.max-connections-per-route=" + maxConcurrentRequests);
+        requestsUtil = context.getBean(RequestsUtil.class);
+        payouts = IntStream.range(0, BATCH)
+                .mapToObj(i -> new Payout(BigDecimal.valueOf(0.00001), Payloads.address(i)))
+                .collect(Collectors.toList());
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+        wireMockServer.stop();
+    }
+
+    @Benchmark
+    public List<String> prepareTransactions() {
+        return requestsUtil.prepareTransactions(TestConstants.VALID_KEY, fee, payouts);
+    }
+}
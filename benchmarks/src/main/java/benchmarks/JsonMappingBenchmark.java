@@ -0,0 +1,72 @@
+package benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import model.transaction.TransactionResponseApi;
+import model.wallet.ResponseApi;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import util.StreamingResponseParser;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares binding of whole responses through a String (the former mapJsonToObject path)
+ * with streaming of wallets and transactions from the body
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonMappingBenchmark {
+
+    @Param({"10", "1000", "10000"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+    private StreamingResponseParser parser;
+    private byte[] wallets;
+    private byte[] transactions;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new ObjectMapper();
+        parser = new StreamingResponseParser(objectMapper);
+        wallets = Payloads.wallets(size).getBytes(StandardCharsets.UTF_8);
+        transactions = Payloads.transactions(size).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public ResponseApi walletsThroughString() throws IOException {
+        return objectMapper.readValue(new String(wallets, StandardCharsets.UTF_8), ResponseApi.class);
+    }
+
+    @Benchmark
+    public TransactionResponseApi transactionsThroughString() throws IOException {
+        return objectMapper.readValue(new String(transactions, StandardCharsets.UTF_8), TransactionResponseApi.class);
+    }
+
+    @Benchmark
+    public void walletsStreamed(final Blackhole blackhole) throws IOException {
+        parser.readWallets(new ByteArrayInputStream(wallets), blackhole::consume);
+    }
+
+    @Benchmark
+    public void transactionsStreamed(final Blackhole blackhole) throws IOException {
+        parser.readTransactions(new ByteArrayInputStream(transactions), blackhole::consume);
+    }
+}
@@ -0,0 +1,51 @@
+package benchmarks;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.impl.NoOpLog;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import util.LazyLog;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import static java.lang.String.format;
+
+/**
+ * Cost of a debug message when DEBUG is disabled. Run with "-prof gc": "gc.alloc.rate.norm" of
+ * {@link #lazyDebug} is expected to be 0 B/op, while {@link #eagerFormat} builds the message anyway
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoggingBenchmark {
+    private final Log log = new NoOpLog();
+    private final LazyLog lazyLog = new LazyLog(log);
+
+    private final String apiKey = "2701-0827-6937-ec93";
+    private final BigDecimal fee = BigDecimal.valueOf(0.0000208);
+    private final BigDecimal amount = BigDecimal.valueOf(0.00001);
+    private final String destinationAddress = "2N9zGCfYdRVaZW7LGwVeJVyuuhB5KoEfe7N";
+
+    @Benchmark
+    public void eagerFormat() {
+        log.debug(format("Send BTC with next params: {apiKey=%s}, {fee=%s}, {amount=%s}, {destinationAddress=%s}",
+                apiKey, fee.toString(), amount.toString(), destinationAddress));
+    }
+
+    @Benchmark
+    public void lazyDebug() {
+        lazyLog.debug("Send BTC with next params: {apiKey=%s}, {fee=%s}, {amount=%s}, {destinationAddress=%s}",
+                apiKey, fee, amount, destinationAddress);
+    }
+}
@@ -0,0 +1,106 @@
+package benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import config.JacksonConfig;
+import model.transaction.TransactionApi;
+import model.wallet.WalletApi;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import util.StreamingResponseParser;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parse throughput per wallet and per transaction. "default" is a plain {@link ObjectMapper} with reflective binding,
+ * "tuned" is the shared mapper of {@link JacksonConfig}. Single elements are bound by the mapper, which looks up
+ * the deserializer on every call, or by a pre-resolved {@link ObjectReader}. "*Page" benchmarks stream a page
+ * of {@link #PAGE_SIZE} elements through {@link StreamingResponseParser} and are reported per element
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ModelBindingBenchmark {
+    private static final int PAGE_SIZE = 1_000;
+
+    @Param({"default", "tuned"})
+    private String mapper;
+
+    private ObjectMapper objectMapper;
+    private ObjectReader walletReader;
+    private ObjectReader transactionReader;
+    private StreamingResponseParser parser;
+    private byte[] wallet;
+    private byte[] transaction;
+    private byte[] walletPage;
+    private byte[] transactionPage;
+
+    @Setup
+    public void setUp() {
+        objectMapper = "tuned".equals(mapper) ? JacksonConfig.newObjectMapper() : new ObjectMapper();
+        walletReader = objectMapper.readerFor(WalletApi.class);
+        transactionReader = objectMapper.readerFor(TransactionApi.class);
+        parser = new StreamingResponseParser(objectMapper);
+        walletPage = Payloads.wallets(PAGE_SIZE).getBytes(StandardCharsets.UTF_8);
+        transactionPage = Payloads.transactions(PAGE_SIZE).getBytes(StandardCharsets.UTF_8);
+        wallet = element(Payloads.wallets(1), "\"addresses\":[");
+        transaction = element(Payloads.transactions(1), "\"txs\":[");
+    }
+
+    @Benchmark
+    public WalletApi wallet() throws IOException {
+        return objectMapper.readValue(wallet, WalletApi.class);
+    }
+
+    @Benchmark
+    public WalletApi walletWithReader() throws IOException {
+        return walletReader.readValue(wallet);
+    }
+
+    @Benchmark
+    public TransactionApi transaction() throws IOException {
+        return objectMapper.readValue(transaction, TransactionApi.class);
+    }
+
+    @Benchmark
+    public TransactionApi transactionWithReader() throws IOException {
+        return transactionReader.readValue(transaction);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAGE_SIZE)
+    public void walletPage(final Blackhole blackhole) throws IOException {
+        parser.readWallets(new ByteArrayInputStream(walletPage), blackhole::consume);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAGE_SIZE)
+    public void transactionPage(final Blackhole blackhole) throws IOException {
+        parser.readTransactions(new ByteArrayInputStream(transactionPage), blackhole::consume);
+    }
+
+    /**
+     * Cuts the only element of the array out of a response
+     */
+    private static byte[] element(final String response, final String array) {
+        final int start = response.indexOf(array) + array.length();
+        return response.substring(start, response.lastIndexOf(']')).getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,101 @@
+package benchmarks;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import config.JacksonConfig;
+import model.wallet.ResponseDataApi;
+import model.wallet.WalletApi;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.client.RestTemplate;
+import util.StreamingResponseParser;
+import util.WalletPageIterator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static java.lang.String.format;
+
+/**
+ * Reads hundreds of pages of wallets served with latency by WireMock, with different numbers of prefetched pages
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class PaginationBenchmark {
+    private static final int PAGES = 300;
+    private static final int WALLETS_PER_PAGE = 25;
+    private static final int PAGE_LATENCY_MILLIS = 10;
+
+    @Param({"1", "4", "16"})
+    private int prefetchPages;
+
+    private WireMockServer wireMockServer;
+    private ExecutorService executor;
+    private RestTemplate restTemplate;
+    private StreamingResponseParser parser;
+
+    @Setup
+    public void setUp() {
+        wireMockServer = new WireMockServer(options().dynamicPort().containerThreads(64));
+        for (int page = 1; page <= PAGES + 16; page++) {
+            final int size = page <= PAGES ? WALLETS_PER_PAGE : 0;
+            wireMockServer.stubFor(get(urlPathEqualTo("/api/v2/get_my_addresses/"))
+                    .withQueryParam("page", equalTo(String.valueOf(page)))
+                    .willReturn(aResponse()
+                            .withStatus(200)
+                            .withHeader("Content-Type", "application/json")
+                            .withFixedDelay(PAGE_LATENCY_MILLIS)
+                            .withBody(Payloads.walletPage(page, (page - 1) * WALLETS_PER_PAGE, size, page < PAGES))));
+        }
+        wireMockServer.start();
+        executor = Executors.newFixedThreadPool(16);
+        restTemplate = new RestTemplate();
+        parser = new StreamingResponseParser(JacksonConfig.newObjectMapper());
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdownNow();
+        wireMockServer.stop();
+    }
+
+    @Benchmark
+    public void readAllPages(final Blackhole blackhole) {
+        try (WalletPageIterator wallets = new WalletPageIterator(this::loadPage, prefetchPages, executor)) {
+            wallets.forEachRemaining(blackhole::consume);
+        }
+    }
+
+    private ResponseDataApi loadPage(final int page) {
+        final String url = format("%s/api/v2/get_my_addresses/?api_key=key&page=%d", wireMockServer.baseUrl(), page);
+        return restTemplate.execute(url, HttpMethod.GET, null, response -> {
+            final List<WalletApi> wallets = new ArrayList<>();
+            final ResponseDataApi data = parser.readWallets(response.getBody(), wallets::add);
+            data.setAddresses(wallets);
+            return data;
+        });
+    }
+}
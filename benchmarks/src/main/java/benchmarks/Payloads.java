@@ -0,0 +1,73 @@
+package benchmarks;
+
+import static java.lang.String.format;
+
+/**
+ * Generates BlockIo-like responses of given size
+ */
+public final class Payloads {
+
+    private Payloads() {
+    }
+
+    public static String address(final int index) {
+        return format("2N%032d", index);
+    }
+
+    public static String wallets(final int size) {
+        return walletPage(1, 0, size, false);
+    }
+
+    /**
+     * Page of "get_my_addresses" response
+     *
+     * @param page    - number of page
+     * @param firstId - user_id of the first wallet of the page
+     * @param size    - number of wallets of the page
+     * @param hasMore - value of has_more flag
+     * @return json of response
+     */
+    public static String walletPage(final int page, final int firstId, final int size, final boolean hasMore) {
+        final StringBuilder json = new StringBuilder(160 * size + 128)
+                .append("{\"status\":\"success\",\"data\":{\"network\":\"BTCTEST\",\"addresses\":[");
+        for (int i = 0; i < size; i++) {
+            final int userId = firstId + i;
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"user_id\":").append(userId)
+                    .append(",\"address\":\"").append(address(userId))
+                    .append("\",\"label\":\"label-").append(userId)
+                    .append("\",\"pending_received_balance\":\"0.00000000\",\"available_balance\":\"0.")
+                    .append(format("%08d", userId % 100_000_000))
+                    .append("\",\"is_segwit\":true}");
+        }
+        return json.append("],\"page\":").append(page).append(",\"has_more\":").append(hasMore).append("}}").toString();
+    }
+
+    /**
+     * "get_transactions" response. Addresses repeat across transactions like in a real account
+     *
+     * @param size - number of transactions
+     * @return json of response
+     */
+    public static String transactions(final int size) {
+        final StringBuilder json = new StringBuilder(420 * size + 64)
+                .append("{\"status\":\"success\",\"data\":{\"network\":\"BTCTEST\",\"txs\":[");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"txid\":\"").append(format("%064x", i))
+                    .append("\",\"from_green_address\":false,\"time\":").append(1_600_000_000L + i * 60L)
+                    .append(",\"confirmations\":").append(i % 12)
+                    .append(",\"total_amount_sent\":\"0.00001000\",\"amounts_sent\":[{\"recipient\":\"")
+                    .append(address(i % 50)).append("\",\"amount\":\"0.00001000\"}],\"senders\":[\"")
+                    .append(address(50 + i % 7)).append("\"],\"confidence\":1.0,\"propagated_by_nodes\":")
+                    .append(i % 3 == 0 ? "null" : String.valueOf(i % 100))
+                    .append(",\"amounts_received\":[{\"recipient\":\"").append(address(i % 50))
+                    .append("\",\"amount\":\"0.00001000\"}]}");
+        }
+        return json.append("]}}").toString();
+    }
+}
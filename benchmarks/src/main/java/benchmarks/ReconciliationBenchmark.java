@@ -0,0 +1,75 @@
+package benchmarks;
+
+import model.transaction.AmountApi;
+import model.transaction.TransactionApi;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import util.reconciliation.ExpectedBalance;
+import util.reconciliation.ExpectedBalances;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shows how computation of expected balances by {@link ExpectedBalances} scales with the number of threads
+ * of the fork-join pool. The history has 1 000 000 transactions over 10 000 addresses
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class ReconciliationBenchmark {
+    private static final int TRANSACTIONS = 1_000_000;
+    private static final int ADDRESSES = 10_000;
+
+    @Param({"1", "2", "4", "8"})
+    private int parallelism;
+
+    private ForkJoinPool pool;
+    private List<TransactionApi> sent;
+    private List<TransactionApi> received;
+
+    @Setup
+    public void setUp() {
+        pool = new ForkJoinPool(parallelism);
+        sent = new ArrayList<>(TRANSACTIONS / 2);
+        received = new ArrayList<>(TRANSACTIONS / 2);
+        for (int i = 0; i < TRANSACTIONS / 2; i++) {
+            final String address = Payloads.address(i % ADDRESSES);
+            sent.add(TransactionApi.builder()
+                    .txid("sent-" + i)
+                    .senders(List.of(address))
+                    .totalAmountSent(1_000)
+                    .build());
+            received.add(TransactionApi.builder()
+                    .txid("received-" + i)
+                    .amountsReceived(List.of(new AmountApi(address, 3_000)))
+                    .build());
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Benchmark
+    public Map<String, ExpectedBalance> expectedBalances() {
+        return ExpectedBalances.compute(pool, sent, received);
+    }
+}
@@ -0,0 +1,126 @@
+package benchmarks;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import model.TestConstants;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import util.RequestsUtil;
+import util.metrics.BlockIoMetrics;
+import util.snapshot.WalletSnapshot;
+import web.api.simulator.BlockIoSimulator;
+import web.api.simulator.SimulatorProfile;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Time from a cold start of the context to the first answer, like a short-lived job or a test class pays it.
+ * "startContext" starts the context with eager or lazy beans. "firstWalletLookup" starts the context and looks up
+ * one wallet of an account with {@link #WALLETS} wallets against the simulator with realistic latency,
+ * loading all pages of wallets or taking them from the {@link WalletSnapshot} written by the previous run.
+ * Requests of the lookup are reported as the "walletRequests" and "transactionRequests" counters, the snapshot
+ * saves pages of wallets at the cost of two requests of transactions
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class StartupBenchmark {
+    private static final int WALLETS = 10_000;
+    private static final String ADDRESS = "2N4Xv6LXJjfgTCjv9mCn5EFYFTAg5dEUdJB";
+
+    @Param({"false", "true"})
+    private boolean lazy;
+
+    @Param({"false", "true"})
+    private boolean snapshot;
+
+    private BlockIoSimulator simulator;
+    private Path directory;
+
+    @Setup
+    public void setUp() throws IOException {
+        simulator = new BlockIoSimulator(0, SimulatorProfile.realistic().toBuilder().seededWallets(WALLETS).build()).start();
+        simulator.getLedger().addWallet(TestConstants.VALID_KEY, ADDRESS, "startup", 1_000);
+        directory = Files.createTempDirectory("startup");
+        try (ConfigurableApplicationContext context = start()) {
+            context.getBean(RequestsUtil.class).getWalletByAddress(TestConstants.VALID_KEY, ADDRESS);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        simulator.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Benchmark
+    public int startContext() {
+        try (ConfigurableApplicationContext context = start()) {
+            return context.getBeanDefinitionCount();
+        }
+    }
+
+    @Benchmark
+    public long firstWalletLookup(final Requests requests) {
+        try (ConfigurableApplicationContext context = start()) {
+            final long balance = context.getBean(RequestsUtil.class)
+                    .getWalletByAddress(TestConstants.VALID_KEY, ADDRESS).getAvailableBalance();
+            final MeterRegistry registry = context.getBean(BlockIoMetrics.class).getRegistry();
+            requests.walletRequests = Requests.count(registry, "get_my_addresses");
+            requests.transactionRequests = Requests.count(registry, "get_transactions");
+            return balance;
+        }
+    }
+
+    private ConfigurableApplicationContext start() {
+        return BenchmarkContext.start(
+                "spring.main.lazy-initialization=" + lazy,
+                "blockio.api.base-url=" + simulator.getBaseUrl(),
+                "blockio.api.stub-base-url=" + simulator.getBaseUrl(),
+                "blockio.snapshot.enabled=" + snapshot,
+                "blockio.snapshot.file=" + directory.resolve("wallets.snapshot"));
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Requests {
+        public long walletRequests;
+        public long transactionRequests;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            walletRequests = 0;
+            transactionRequests = 0;
+        }
+
+        static long count(final MeterRegistry registry, final String endpoint) {
+            return registry.find(BlockIoMetrics.REQUESTS).tag(BlockIoMetrics.ENDPOINT_TAG, endpoint).timers().stream()
+                    .mapToLong(Timer::count)
+                    .sum();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import model.transaction.TransactionApi;
+import model.transaction.TransactionResponseApi;
+import model.transaction.compact.CompactTransactions;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the heap retained by a history of transactions in the regular form of {@link TransactionApi}
+ * with the compact form of {@link CompactTransactions}. The retained heap is reported as the "retainedBytes" counter,
+ * it is measured after a full GC with the history still reachable
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class TransactionFootprintBenchmark {
+
+    @Param({"100000"})
+    private int size;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private String json;
+
+    @Setup
+    public void setUp() {
+        json = Payloads.transactions(size);
+    }
+
+    @Benchmark
+    public Object regular(final Footprint footprint) throws IOException {
+        final long before = footprint.used();
+        final List<TransactionApi> transactions = parse();
+        footprint.retainedBytes = footprint.used() - before;
+        return transactions;
+    }
+
+    @Benchmark
+    public Object compact(final Footprint footprint) throws IOException {
+        final long before = footprint.used();
+        final CompactTransactions transactions = new CompactTransactions();
+        parse().forEach(transactions::add);
+        footprint.retainedBytes = footprint.used() - before;
+        return transactions;
+    }
+
+    private List<TransactionApi> parse() throws IOException {
+        return objectMapper.readValue(json, TransactionResponseApi.class).getData().getTransactions();
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+        public long retainedBytes;
+
+        private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            retainedBytes = 0;
+        }
+
+        long used() {
+            for (int i = 0; i < 3; i++) {
+                System.gc();
+            }
+            return memory.getHeapMemoryUsage().getUsed();
+        }
+    }
+}
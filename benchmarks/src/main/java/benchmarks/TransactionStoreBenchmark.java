@@ -0,0 +1,90 @@
+package benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import config.BlockIoProperties;
+import model.transaction.TransactionApi;
+import model.transaction.TransactionResponseApi;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import util.store.TransactionStore;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static java.lang.String.format;
+
+/**
+ * Compares reading a transaction from {@link TransactionStore} by txid with parsing the page of transactions
+ * which would have to be requested again without the store. The network is excluded
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransactionStoreBenchmark {
+
+    @Param({"100", "10000"})
+    private int size;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private String json;
+    private Path directory;
+    private TransactionStore store;
+    private String txid;
+
+    @Setup
+    public void setUp() throws IOException {
+        json = Payloads.transactions(size);
+        final List<TransactionApi> transactions = parse().getData().getTransactions();
+        directory = Files.createTempDirectory("transactions");
+        final BlockIoProperties properties = new BlockIoProperties();
+        properties.getStore().setDirectory(directory);
+        store = new TransactionStore(properties);
+        store.putAll(transactions);
+        txid = format("%064x", size - 1);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        store.destroy();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Benchmark
+    public TransactionApi parsePage() throws IOException {
+        return parse().getData().getTransactions().stream()
+                .filter(transaction -> transaction.getTxid().equals(txid))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    @Benchmark
+    public TransactionApi storeLookup() {
+        return store.get(txid).orElseThrow();
+    }
+
+    private TransactionResponseApi parse() throws IOException {
+        return objectMapper.readValue(json, TransactionResponseApi.class);
+    }
+}
@@ -0,0 +1,68 @@
+package benchmarks;
+
+import config.BlockIoProperties;
+import model.TestConstants;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import util.url.BaseUrlRouter;
+import util.url.UrlTemplate;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+import static java.lang.String.format;
+
+/**
+ * Measures building of the "prepare_transaction" url: "stringFormat" is the way {@link util.RequestsUtil} did it
+ * before {@link UrlTemplate}, "concatenation" is the lower bound without encoding, "template" builds the encoded
+ * string and "templateUri" also parses it into the {@link URI} which is passed to RestTemplate
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UrlBuildingBenchmark {
+
+    private final BigDecimal fee = BigDecimal.valueOf(0.0000208);
+    private final BigDecimal amount = BigDecimal.valueOf(0.00001);
+    private final String destinationAddress = "2N9zGCfYdRVaZW7LGwVeJVyuuhB5KoEfe7N";
+
+    private final UrlTemplate template = UrlTemplate.compile(
+            "prepare_transaction/?api_key={api_key}&priority=custom&custom_network_fee={fee}&amounts={amounts}&to_addresses={to_addresses}");
+    private final BaseUrlRouter router = new BaseUrlRouter(new BlockIoProperties());
+
+    @Benchmark
+    public String stringFormat() {
+        return format("%sprepare_transaction/?api_key=%s&priority=custom&custom_network_fee=%s&amounts=%s&to_addresses=%s",
+                TestConstants.BASE_URL, TestConstants.VALID_KEY, fee, amount, destinationAddress)
+                .replace("https://block.io", "http://localhost:9090");
+    }
+
+    @Benchmark
+    public String concatenation() {
+        return "http://localhost:9090/api/v2/prepare_transaction/?api_key=" + TestConstants.VALID_KEY
+                + "&priority=custom&custom_network_fee=" + fee
+                + "&amounts=" + amount
+                + "&to_addresses=" + destinationAddress;
+    }
+
+    @Benchmark
+    public String template() {
+        return template.build("http://localhost:9090/api/v2/", TestConstants.VALID_KEY, fee, amount, destinationAddress);
+    }
+
+    @Benchmark
+    public URI templateUri() {
+        return template.expand(router, TestConstants.VALID_KEY, fee, amount, destinationAddress);
+    }
+}
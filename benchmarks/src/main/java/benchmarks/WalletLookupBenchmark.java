@@ -0,0 +1,66 @@
+package benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import config.BlockIoProperties;
+import model.wallet.ResponseApi;
+import model.wallet.WalletApi;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import util.WalletIndexCache;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the linear scan of wallets done by getWalletByAddress before the index
+ * with the lookup through {@link WalletIndexCache}. Loading of wallets is excluded
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WalletLookupBenchmark {
+
+    @Param({"100", "10000"})
+    private int size;
+
+    private List<WalletApi> wallets;
+    private WalletIndexCache cache;
+    private String address;
+
+    @Setup
+    public void setUp() throws IOException {
+        wallets = new ObjectMapper().readValue(Payloads.wallets(size), ResponseApi.class).getData().getAddresses();
+        final BlockIoProperties properties = new BlockIoProperties();
+        properties.getWalletCache().setTtl(Duration.ofDays(1));
+        cache = new WalletIndexCache(properties);
+        address = Payloads.address(size - 1);
+        cache.findByAddress("key", address, apiKey -> wallets);
+    }
+
+    @Benchmark
+    public WalletApi linearScan() {
+        return wallets.stream()
+                .filter(wallet -> wallet.getAddress().equals(address))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    @Benchmark
+    public WalletApi indexLookup() {
+        return cache.findByAddress("key", address, apiKey -> wallets).orElseThrow();
+    }
+}
@@ -0,0 +1,116 @@
+package benchmarks.load;
+
+import web.api.simulator.SimulatorProfile;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Options of {@link LoadTestRunner} given as "--name=value" arguments
+ */
+public final class LoadOptions {
+    /**
+     * Scenarios started per second, whatever the response time is
+     */
+    private final int rate;
+
+    private final Duration duration;
+
+    private final Duration warmup;
+
+    /**
+     * Max number of scenarios running at the same time, the rest wait in a queue
+     */
+    private final int concurrency;
+
+    private final Scenario scenario;
+
+    private final SimulatorProfile profile;
+
+    /**
+     * True to serve repeated reads from the response cache instead of measuring every request of the client
+     */
+    private final boolean responseCache;
+
+    /**
+     * Prefix of result files: ".hgrm" with percentiles and ".hlog" with histograms of every second
+     */
+    private final String output;
+
+    private LoadOptions(final int rate, final Duration duration, final Duration warmup, final int concurrency,
+                        final Scenario scenario, final SimulatorProfile profile, final boolean responseCache,
+                        final String output) {
+        this.rate = rate;
+        this.duration = duration;
+        this.warmup = warmup;
+        this.concurrency = concurrency;
+        this.scenario = scenario;
+        this.profile = profile;
+        this.responseCache = responseCache;
+        this.output = output;
+    }
+
+    public static LoadOptions parse(final String... args) {
+        final Map<String, String> values = new HashMap<>();
+        for (final String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, but was " + arg);
+            }
+            values.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        return new LoadOptions(Integer.parseInt(values.getOrDefault("rate", "100")),
+                Duration.parse("PT" + values.getOrDefault("duration", "60s")),
+                Duration.parse("PT" + values.getOrDefault("warmup", "10s")),
+                Integer.parseInt(values.getOrDefault("concurrency", "64")),
+                Scenario.valueOf(values.getOrDefault("scenario", "mixed").toUpperCase()),
+                profile(values.getOrDefault("profile", "realistic")),
+                Boolean.parseBoolean(values.getOrDefault("response-cache", "false")),
+                values.getOrDefault("output", "load-result"));
+    }
+
+    public int getRate() {
+        return rate;
+    }
+
+    public Duration getDuration() {
+        return duration;
+    }
+
+    public Duration getWarmup() {
+        return warmup;
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public Scenario getScenario() {
+        return scenario;
+    }
+
+    public SimulatorProfile getProfile() {
+        return profile;
+    }
+
+    public boolean isResponseCache() {
+        return responseCache;
+    }
+
+    public String getOutput() {
+        return output;
+    }
+
+    private static SimulatorProfile profile(final String name) {
+        switch (name) {
+            case "instant":
+                return SimulatorProfile.instant();
+            case "realistic":
+                return SimulatorProfile.realistic();
+            case "flaky":
+                return SimulatorProfile.flaky();
+            default:
+                throw new IllegalArgumentException("Unknown profile " + name);
+        }
+    }
+}
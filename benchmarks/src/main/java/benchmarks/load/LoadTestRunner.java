@@ -0,0 +1,110 @@
+package benchmarks.load;
+
+import benchmarks.BenchmarkContext;
+import model.TestConstants;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+import org.springframework.context.ConfigurableApplicationContext;
+import util.RequestsUtil;
+import web.api.simulator.BlockIoSimulator;
+
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static java.lang.String.format;
+
+/**
+ * Load test of {@link RequestsUtil} flows against a local {@link BlockIoSimulator}. Reports sustained throughput
+ * and latency percentiles with coordinated omission correction. For example:
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar benchmarks.load.LoadTestRunner --rate=200 --duration=60s --scenario=mixed
+ * </pre>
+ * Options: rate, duration, warmup, concurrency, scenario (send, transactions, wallets, mixed),
+ * profile (instant, realistic, flaky), response-cache (false by default) and output
+ */
+public final class LoadTestRunner {
+    private static final double MICROS_PER_MILLI = 1000.0;
+
+    private LoadTestRunner() {
+    }
+
+    public static void main(final String[] args) throws Exception {
+        final LoadOptions options = LoadOptions.parse(args);
+        try (BlockIoSimulator simulator = new BlockIoSimulator(0, options.getProfile()).start();
+             ConfigurableApplicationContext context = BenchmarkContext.start(
+                     "blockio.api.base-url=" + simulator.getBaseUrl(),
+                     "blockio.api.stub-base-url=" + simulator.getBaseUrl(),
+                     "blockio.http.max-total-connections=" + options.getConcurrency(),
+                     "blockio.http.max-connections-per-route=" + options.getConcurrency(),
+                     "blockio.execution.max-concurrent-requests=" + options.getConcurrency(),
+                     "blockio.response-cache.enabled=" + options.isResponseCache());
+             PrintStream log = new PrintStream(options.getOutput() + ".hlog")) {
+            simulator.getLedger().addWallet(TestConstants.VALID_KEY, Scenario.FROM_ADDRESS, Scenario.FROM_ADDRESS, 100_000_000_000_000L);
+            simulator.getLedger().addWallet(TestConstants.VALID_KEY, Scenario.TO_ADDRESS, Scenario.TO_ADDRESS, 0);
+            final RequestsUtil requestsUtil = context.getBean(RequestsUtil.class);
+            final Runnable scenario = () -> options.getScenario().run(requestsUtil);
+
+            final ExecutorService workers = Executors.newFixedThreadPool(options.getConcurrency());
+            final OpenModelLoadGenerator generator = new OpenModelLoadGenerator(workers);
+            System.out.printf("Warmup %s at %d/s%n", options.getWarmup(), options.getRate());
+            generator.run(options.getRate(), options.getWarmup(), scenario, (latency, serviceTime) -> {
+            });
+            generator.reset();
+
+            final Histogram latency = new Histogram(3);
+            final Histogram serviceTime = new Histogram(3);
+            final HistogramLogWriter logWriter = new HistogramLogWriter(log);
+            logWriter.outputLogFormatVersion();
+            logWriter.outputLegend();
+            System.out.printf("Run %s of %s at %d/s with concurrency %d%n",
+                    options.getDuration(), options.getScenario(), options.getRate(), options.getConcurrency());
+            final long start = System.nanoTime();
+            generator.run(options.getRate(), options.getDuration(), scenario, (latencyInterval, serviceTimeInterval) -> {
+                record(logWriter, latency, latencyInterval, "latency");
+                record(logWriter, serviceTime, serviceTimeInterval, "service-time");
+                System.out.printf("%6d/s  p99 %8.1fms  max %8.1fms%n", latencyInterval.getTotalCount(),
+                        latencyInterval.getValueAtPercentile(99) / MICROS_PER_MILLI,
+                        latencyInterval.getMaxValue() / MICROS_PER_MILLI);
+            });
+            workers.shutdown();
+            workers.awaitTermination(1, TimeUnit.MINUTES);
+            final double seconds = (System.nanoTime() - start) / 1e9;
+            record(logWriter, latency, generator.getLatencyInterval(), "latency");
+            record(logWriter, serviceTime, generator.getServiceTimeInterval(), "service-time");
+
+            report(options, generator, latency, serviceTime, seconds);
+        }
+    }
+
+    private static void record(final HistogramLogWriter logWriter, final Histogram total, final Histogram interval,
+                               final String tag) {
+        interval.setTag(tag);
+        logWriter.outputIntervalHistogram(interval);
+        total.add(interval);
+    }
+
+    private static void report(final LoadOptions options, final OpenModelLoadGenerator generator,
+                               final Histogram latency, final Histogram serviceTime, final double seconds)
+            throws FileNotFoundException {
+        System.out.printf("%nCompleted %d scenarios, %.1f/s, errors %s%n",
+                generator.getCompleted(), generator.getCompleted() / seconds, generator.getErrors());
+        System.out.println(summary("Latency (corrected)", latency));
+        System.out.println(summary("Service time", serviceTime));
+        try (PrintStream percentiles = new PrintStream(options.getOutput() + ".hgrm")) {
+            latency.outputPercentileDistribution(percentiles, MICROS_PER_MILLI);
+        }
+        System.out.printf("Percentiles in ms are written to %s.hgrm, histograms of every second to %s.hlog%n",
+                options.getOutput(), options.getOutput());
+    }
+
+    private static String summary(final String name, final Histogram histogram) {
+        return format("%-20s p50 %8.1fms  p99 %8.1fms  p99.9 %8.1fms  max %8.1fms", name,
+                histogram.getValueAtPercentile(50) / MICROS_PER_MILLI,
+                histogram.getValueAtPercentile(99) / MICROS_PER_MILLI,
+                histogram.getValueAtPercentile(99.9) / MICROS_PER_MILLI,
+                histogram.getMaxValue() / MICROS_PER_MILLI);
+    }
+}
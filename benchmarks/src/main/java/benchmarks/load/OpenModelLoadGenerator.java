@@ -0,0 +1,112 @@
+package benchmarks.load;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Starts a scenario at a fixed rate whatever the response time is (open model).
+ * Latency is measured from the intended start of a scenario, not from the moment a worker took it,
+ * so time spent in the queue behind slow scenarios is counted (coordinated omission correction).
+ * Service time, measured from the actual start, is recorded separately to show the difference
+ */
+public class OpenModelLoadGenerator {
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(10);
+
+    private final Recorder latency = new Recorder(HIGHEST_TRACKABLE_MICROS, 3);
+    private final Recorder serviceTime = new Recorder(HIGHEST_TRACKABLE_MICROS, 3);
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+    private final LongAdder completed = new LongAdder();
+
+    private final ExecutorService workers;
+
+    public OpenModelLoadGenerator(final ExecutorService workers) {
+        this.workers = workers;
+    }
+
+    /**
+     * Starts scenarios till the end of the duration
+     *
+     * @param rate     - scenarios per second
+     * @param duration - how long to start scenarios
+     * @param scenario - action to measure
+     * @param interval - called with histograms of latency and service time every second
+     */
+    public void run(final int rate, final Duration duration, final Runnable scenario, final IntervalListener interval) {
+        final long period = TimeUnit.SECONDS.toNanos(1) / rate;
+        final long start = System.nanoTime();
+        final long end = start + duration.toNanos();
+        long nextInterval = start + TimeUnit.SECONDS.toNanos(1);
+        Histogram latencyInterval = null;
+        Histogram serviceTimeInterval = null;
+        for (long intendedStart = start; intendedStart < end; intendedStart += period) {
+            waitUntil(intendedStart);
+            final long scheduled = intendedStart;
+            workers.execute(() -> execute(scheduled, scenario));
+            if (System.nanoTime() >= nextInterval) {
+                latencyInterval = latency.getIntervalHistogram(latencyInterval);
+                serviceTimeInterval = serviceTime.getIntervalHistogram(serviceTimeInterval);
+                interval.accept(latencyInterval, serviceTimeInterval);
+                nextInterval += TimeUnit.SECONDS.toNanos(1);
+            }
+        }
+    }
+
+    /**
+     * Drops everything recorded so far, used after warmup
+     */
+    public void reset() {
+        latency.reset();
+        serviceTime.reset();
+        errors.clear();
+        completed.reset();
+    }
+
+    public Histogram getLatencyInterval() {
+        return latency.getIntervalHistogram();
+    }
+
+    public Histogram getServiceTimeInterval() {
+        return serviceTime.getIntervalHistogram();
+    }
+
+    public Map<String, LongAdder> getErrors() {
+        return errors;
+    }
+
+    public long getCompleted() {
+        return completed.sum();
+    }
+
+    private void execute(final long intendedStart, final Runnable scenario) {
+        final long actualStart = System.nanoTime();
+        try {
+            scenario.run();
+            completed.increment();
+        } catch (final RuntimeException e) {
+            errors.computeIfAbsent(e.getClass().getSimpleName(), key -> new LongAdder()).increment();
+        } finally {
+            final long finish = System.nanoTime();
+            latency.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(finish - intendedStart), HIGHEST_TRACKABLE_MICROS));
+            serviceTime.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(finish - actualStart), HIGHEST_TRACKABLE_MICROS));
+        }
+    }
+
+    private static void waitUntil(final long deadline) {
+        for (long remaining = deadline - System.nanoTime(); remaining > 0; remaining = deadline - System.nanoTime()) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    @FunctionalInterface
+    public interface IntervalListener {
+        void accept(Histogram latency, Histogram serviceTime);
+    }
+}
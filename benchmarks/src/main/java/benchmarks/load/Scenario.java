@@ -0,0 +1,63 @@
+package benchmarks.load;
+
+import model.TestConstants;
+import model.transaction.TransactionType;
+import util.RequestsUtil;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Flows replayed by {@link LoadTestRunner}, taken from TransactionTests and WalletActionsTests
+ */
+public enum Scenario {
+    /**
+     * Sends BTC and reads both wallets again, like TransactionTests.verifyBalanceAfterTransaction
+     */
+    SEND {
+        @Override
+        void run(final RequestsUtil requestsUtil) {
+            requestsUtil.sendBTC(TestConstants.VALID_KEY, FEE, AMOUNT, TO_ADDRESS);
+            requestsUtil.getWalletByAddress(TestConstants.VALID_KEY, FROM_ADDRESS);
+            requestsUtil.getWalletByAddress(TestConstants.VALID_KEY, TO_ADDRESS);
+        }
+    },
+    /**
+     * Reads the newest sent and received transactions, like TransactionTests.verifyCountTransactions
+     */
+    TRANSACTIONS {
+        @Override
+        void run(final RequestsUtil requestsUtil) {
+            requestsUtil.getTransactions(TestConstants.VALID_KEY, TransactionType.SENT, null);
+            requestsUtil.getTransactions(TestConstants.VALID_KEY, TransactionType.RECEIVED, null);
+        }
+    },
+    /**
+     * Looks for a wallet by label in all wallets, like WalletActionsTests
+     */
+    WALLETS {
+        @Override
+        void run(final RequestsUtil requestsUtil) {
+            requestsUtil.getWallets(TestConstants.VALID_KEY).stream()
+                    .anyMatch(wallet -> FROM_ADDRESS.equals(wallet.getLabel()));
+        }
+    },
+    /**
+     * 20% of sends, 50% of reads of transactions, 30% of reads of wallets
+     */
+    MIXED {
+        @Override
+        void run(final RequestsUtil requestsUtil) {
+            final int choice = ThreadLocalRandom.current().nextInt(10);
+            (choice < 2 ? SEND : choice < 7 ? TRANSACTIONS : WALLETS).run(requestsUtil);
+        }
+    };
+
+    static final String FROM_ADDRESS = "load-from";
+    static final String TO_ADDRESS = "load-to";
+
+    private static final BigDecimal FEE = BigDecimal.valueOf(0.0000208);
+    private static final BigDecimal AMOUNT = BigDecimal.valueOf(0.00001);
+
+    abstract void run(RequestsUtil requestsUtil);
+}
@@ -0,0 +1,266 @@
+package config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Externalized settings of the BlockIo client. Every value can be overridden with "blockio.*" properties
+ */
+@Data
+@ConfigurationProperties(prefix = "blockio")
+public class BlockIoProperties {
+    private final Api api = new Api();
+    private final Http http = new Http();
+    private final Execution execution = new Execution();
+    private final Pagination pagination = new Pagination();
+    private final WalletCache walletCache = new WalletCache();
+    private final PayoutBatch payoutBatch = new PayoutBatch();
+    private final Logging logging = new Logging();
+    private final Sync sync = new Sync();
+    private final Store store = new Store();
+    private final Metrics metrics = new Metrics();
+    private final ResponseCache responseCache = new ResponseCache();
+    private final Resilience resilience = new Resilience();
+    private final Reconciliation reconciliation = new Reconciliation();
+    private final Confirmation confirmation = new Confirmation();
+    private final Snapshot snapshot = new Snapshot();
+
+    /**
+     * Where requests are sent. Requests for fake operations, like "prepare_transaction", go to the stub url
+     */
+    @Data
+    public static class Api {
+        private String baseUrl = "https://block.io/api/v2/";
+        private String stubBaseUrl = "http://localhost:9090/api/v2/";
+
+        /**
+         * Endpoints which are sent to the stub url
+         */
+        private Set<String> stubEndpoints = new HashSet<>(Set.of("prepare_transaction"));
+    }
+
+    /**
+     * Settings of the pooled HTTP client used by {@link org.springframework.web.client.RestTemplate}
+     */
+    @Data
+    public static class Http {
+        private int maxTotalConnections = 50;
+        private int maxConnectionsPerRoute = 20;
+        private Duration connectTimeout = Duration.ofSeconds(5);
+        private Duration readTimeout = Duration.ofSeconds(30);
+        private Duration connectionRequestTimeout = Duration.ofSeconds(5);
+        private Duration keepAlive = Duration.ofSeconds(30);
+        private Duration idleEviction = Duration.ofSeconds(30);
+        private Duration validateAfterInactivity = Duration.ofSeconds(2);
+        private boolean gzip = true;
+    }
+
+    /**
+     * Settings of the executor used for concurrent BlockIo calls
+     */
+    @Data
+    public static class Execution {
+        private Mode mode = Mode.PLATFORM;
+        private int threads = 8;
+        private int maxConcurrentRequests = 16;
+        private Duration shutdownTimeout = Duration.ofSeconds(30);
+
+        public enum Mode {
+            /**
+             * Fixed pool of platform threads, the size is defined by "threads"
+             */
+            PLATFORM,
+            /**
+             * New virtual thread per task, requires Java 21+. Falls back to PLATFORM on older runtimes
+             */
+            VIRTUAL
+        }
+    }
+
+    /**
+     * Settings of paginated endpoints like "get_my_addresses"
+     */
+    @Data
+    public static class Pagination {
+        private int prefetchPages = 4;
+    }
+
+    /**
+     * Settings of the in-memory index of wallets per api key
+     */
+    @Data
+    public static class WalletCache {
+        private Duration ttl = Duration.ofSeconds(30);
+        private int maxAccounts = 100;
+    }
+
+    /**
+     * Settings of coalescing of payouts into multi-recipient transactions
+     */
+    @Data
+    public static class PayoutBatch {
+        private Duration window = Duration.ofMillis(200);
+        private int maxPayouts = 100;
+    }
+
+    /**
+     * Settings of logging of response bodies on DEBUG level
+     */
+    @Data
+    public static class Logging {
+        private int maxBodyLength = 1000;
+        private int bodySampleRate = 1;
+    }
+
+    /**
+     * Settings of incremental synchronization of transactions
+     */
+    @Data
+    public static class Sync {
+        private Path cursorFile = Paths.get(System.getProperty("user.home"), ".blockio", "transaction-cursors.properties");
+        private int maxPages = 40;
+    }
+
+    /**
+     * Settings of the local append-only store of transactions
+     */
+    @Data
+    public static class Store {
+        private Path directory = Paths.get(System.getProperty("user.home"), ".blockio", "transactions");
+        private DataSize segmentSize = DataSize.ofMegabytes(64);
+        private double compactionThreshold = 0.5;
+    }
+
+    /**
+     * Settings of client-side metrics of BlockIo requests
+     */
+    @Data
+    public static class Metrics {
+        private boolean percentileHistogram = true;
+        private double[] percentiles = {0.5, 0.95, 0.99};
+    }
+
+    /**
+     * Settings of the HTTP response cache of read-only endpoints. Endpoints without ttl are not cached,
+     * a call of an invalidating endpoint drops cached responses of its account
+     */
+    @Data
+    public static class ResponseCache {
+        private boolean enabled = true;
+        private Map<String, Duration> ttl = new HashMap<>(Map.of(
+                "get_my_addresses", Duration.ofSeconds(5),
+                "get_my_archived_addresses", Duration.ofSeconds(30),
+                "get_transactions", Duration.ofSeconds(5)));
+        private DataSize maxSize = DataSize.ofMegabytes(32);
+        private Set<String> invalidatingEndpoints = new HashSet<>(Set.of("prepare_transaction", "get_new_address"));
+    }
+
+    /**
+     * Settings of the resilience of requests: rate limit per account, retries of idempotent requests,
+     * circuit breaker and bulkhead
+     */
+    @Data
+    public static class Resilience {
+        private boolean enabled = true;
+        private final RateLimit rateLimit = new RateLimit();
+        private final Retry retry = new Retry();
+        private final CircuitBreaker circuitBreaker = new CircuitBreaker();
+        private final Bulkhead bulkhead = new Bulkhead();
+
+        /**
+         * Token bucket per api key. A request waits for a token at most max-wait, otherwise it is rejected
+         */
+        @Data
+        public static class RateLimit {
+            private double requestsPerSecond = 20;
+            private int burst = 10;
+            private Duration maxWait = Duration.ofSeconds(5);
+        }
+
+        /**
+         * Exponential backoff with full jitter, "Retry-After" of 429 is respected if it is not longer than max-backoff
+         */
+        @Data
+        public static class Retry {
+            private int maxAttempts = 3;
+            private Duration initialBackoff = Duration.ofMillis(200);
+            private Duration maxBackoff = Duration.ofSeconds(5);
+            private Set<Integer> statuses = new HashSet<>(Set.of(429, 502, 503, 504));
+            private Set<String> nonIdempotentEndpoints = new HashSet<>(Set.of("get_new_address"));
+        }
+
+        /**
+         * Opens when the share of failed calls among the last window-size calls reaches failure-rate-threshold,
+         * lets half-open-calls trial calls through after open-duration
+         */
+        @Data
+        public static class CircuitBreaker {
+            private int windowSize = 20;
+            private int minimumCalls = 10;
+            private double failureRateThreshold = 0.5;
+            private Duration openDuration = Duration.ofSeconds(30);
+            private int halfOpenCalls = 3;
+        }
+
+        /**
+         * Max number of calls in progress, a call waits for a place at most max-wait, otherwise it is rejected
+         */
+        @Data
+        public static class Bulkhead {
+            private int maxConcurrentCalls = 32;
+            private Duration maxWait = Duration.ofSeconds(5);
+        }
+    }
+
+    /**
+     * Settings of reconciliation of balances: accounts fetched at the same time, threads computing expected balances,
+     * max pages of history per type, allowed difference of balances and max network fee of a sent transaction in satoshis
+     */
+    @Data
+    public static class Reconciliation {
+        private int maxConcurrentAccounts = 8;
+        private int parallelism = Runtime.getRuntime().availableProcessors();
+        private int maxPages = 400;
+        private long tolerance = 0;
+        private long maxFee = 100_000;
+    }
+
+    /**
+     * Settings of watching of pending transactions: confirmations to consider a transaction final,
+     * period of the scheduler, backoff of checks of a transaction, pages of history read per check
+     * and time after which a transaction is not watched anymore
+     */
+    @Data
+    public static class Confirmation {
+        private int threshold = 6;
+        private Duration tickInterval = Duration.ofSeconds(1);
+        private Duration initialInterval = Duration.ofSeconds(30);
+        private Duration maxInterval = Duration.ofMinutes(10);
+        private double backoffMultiplier = 2;
+        private int maxPages = 4;
+        private Duration maxAge = Duration.ofHours(24);
+    }
+
+    /**
+     * Settings of the warm-start snapshot of wallets: file written on shutdown, max age of wallets taken from it,
+     * whether the newest transactions of an account are checked before its wallets are taken
+     * and the min number of wallets which is worth the check
+     */
+    @Data
+    public static class Snapshot {
+        private boolean enabled = true;
+        private Path file = Paths.get(System.getProperty("user.home"), ".blockio", "wallets.snapshot");
+        private Duration maxAge = Duration.ofMinutes(10);
+        private boolean verifyTransactions = true;
+        private int minWallets = 5_000;
+    }
+}
@@ -0,0 +1,44 @@
+package config;
+
+import lombok.RequiredArgsConstructor;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Read-only view on the occupancy of the HTTP connection pool
+ */
+@RequiredArgsConstructor
+public class ConnectionPoolMonitor {
+    private final PoolingHttpClientConnectionManager connectionManager;
+
+    public int getLeased() {
+        return connectionManager.getTotalStats().getLeased();
+    }
+
+    public int getAvailable() {
+        return connectionManager.getTotalStats().getAvailable();
+    }
+
+    public int getPending() {
+        return connectionManager.getTotalStats().getPending();
+    }
+
+    public int getMax() {
+        return connectionManager.getTotalStats().getMax();
+    }
+
+    /**
+     * Gets statistics of every route known by the pool
+     *
+     * @return map of route to its pool statistics
+     */
+    public Map<HttpRoute, PoolStats> getRouteStats() {
+        final Map<HttpRoute, PoolStats> stats = new LinkedHashMap<>();
+        connectionManager.getRoutes().forEach(route -> stats.put(route, connectionManager.getStats(route)));
+        return stats;
+    }
+}
@@ -0,0 +1,72 @@
+package config;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.Objects;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.lang.String.format;
+
+/**
+ * The BlockIo executor is shut down by this configuration, not by the bean itself. The executor depends on
+ * its configuration, so every bean using the executor is destroyed before it and may still hand tasks over.
+ * Tasks in progress and queued ones are given "blockio.execution.shutdown-timeout" to finish, then they are interrupted
+ */
+@Configuration
+public class ExecutorConfig implements DisposableBean {
+    private final Log logger = LogFactory.getLog(this.getClass());
+
+    private ExecutorService blockIoExecutor;
+
+    private Duration shutdownTimeout;
+
+    @Bean(destroyMethod = "")
+    public ExecutorService blockIoExecutor(final BlockIoProperties properties) {
+        final BlockIoProperties.Execution execution = properties.getExecution();
+        shutdownTimeout = execution.getShutdownTimeout();
+        blockIoExecutor = createExecutor(execution);
+        return blockIoExecutor;
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        if (Objects.isNull(blockIoExecutor)) {
+            return;
+        }
+        blockIoExecutor.shutdown();
+        if (!blockIoExecutor.awaitTermination(shutdownTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+            logger.warn(format("Tasks of BlockIo executor are not finished in %s, they are interrupted", shutdownTimeout));
+            blockIoExecutor.shutdownNow();
+        }
+    }
+
+    private ExecutorService createExecutor(final BlockIoProperties.Execution execution) {
+        if (execution.getMode() == BlockIoProperties.Execution.Mode.VIRTUAL) {
+            try {
+                return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (final ReflectiveOperationException e) {
+                logger.warn("Virtual threads are not supported by this runtime, a fixed pool of platform threads is used");
+            }
+        }
+        return platformExecutor(execution.getThreads());
+    }
+
+    private ExecutorService platformExecutor(final int threads) {
+        final AtomicInteger counter = new AtomicInteger();
+        final ThreadFactory threadFactory = runnable -> {
+            final Thread thread = new Thread(runnable, "blockio-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return Executors.newFixedThreadPool(threads, threadFactory);
+    }
+}
@@ -0,0 +1,34 @@
+package config;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Shared mapper of the "model" package. Blackbird replaces reflective constructors and accessors with generated
+ * lambdas, and unknown fields of BlockIo responses are skipped for every type, so a new field in the API
+ * doesn't break parsing
+ */
+@Configuration
+public class JacksonConfig {
+
+    @Bean
+    public ObjectMapper objectMapper() {
+        return newObjectMapper();
+    }
+
+    /**
+     * Creates the mapper outside of the context, for example in tests and benchmarks
+     *
+     * @return new mapper with the same settings as the bean
+     */
+    public static ObjectMapper newObjectMapper() {
+        return JsonMapper.builder()
+                .addModule(new BlackbirdModule())
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .build();
+    }
+}
@@ -0,0 +1,19 @@
+package config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Local registry of client-side metrics. Meters are kept in memory, so they can be read by tests and benchmarks
+ * without any monitoring system
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean(destroyMethod = "close")
+    public MeterRegistry meterRegistry() {
+        return new SimpleMeterRegistry();
+    }
+}
@@ -1,14 +1,92 @@
 package config;
 
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
+import util.cache.ResponseCacheInterceptor;
+import util.metrics.MetricsInterceptor;
+import util.resilience.ResilienceInterceptor;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 @Configuration
+@EnableConfigurationProperties(BlockIoProperties.class)
 public class RestTemplateConfig {
 
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public PoolingHttpClientConnectionManager connectionManager(final BlockIoProperties properties) {
+        final BlockIoProperties.Http http = properties.getHttp();
+        final PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(http.getMaxTotalConnections());
+        connectionManager.setDefaultMaxPerRoute(http.getMaxConnectionsPerRoute());
+        connectionManager.setValidateAfterInactivity(toMillis(http.getValidateAfterInactivity()));
+        return connectionManager;
+    }
+
+    @Bean
+    public CloseableHttpClient httpClient(final PoolingHttpClientConnectionManager connectionManager,
+                                          final BlockIoProperties properties) {
+        final BlockIoProperties.Http http = properties.getHttp();
+        final RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(toMillis(http.getConnectTimeout()))
+                .setSocketTimeout(toMillis(http.getReadTimeout()))
+                .setConnectionRequestTimeout(toMillis(http.getConnectionRequestTimeout()))
+                .build();
+
+        final HttpClientBuilder builder = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .setKeepAliveStrategy(keepAliveStrategy(http.getKeepAlive()))
+                .evictExpiredConnections()
+                .evictIdleConnections(http.getIdleEviction().toMillis(), TimeUnit.MILLISECONDS);
+        if (!http.isGzip()) {
+            builder.disableContentCompression();
+        }
+        return builder.build();
+    }
+
+    /**
+     * Cached responses are served before the resilience layer and metrics, so neither rate limit nor metrics
+     * count them. {@link MetricsInterceptor} is not a link of the chain: the resilience layer sends every attempt
+     * through it, so every retry is measured
+     */
+    @Bean
+    public RestTemplate restTemplate(final CloseableHttpClient httpClient,
+                                     final ResponseCacheInterceptor responseCacheInterceptor,
+                                     final ResilienceInterceptor resilienceInterceptor) {
+        final RestTemplate restTemplate = new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
+        restTemplate.setInterceptors(List.of(responseCacheInterceptor, resilienceInterceptor));
+        return restTemplate;
+    }
+
+    @Bean
+    public ConnectionPoolMonitor connectionPoolMonitor(final PoolingHttpClientConnectionManager connectionManager) {
+        return new ConnectionPoolMonitor(connectionManager);
+    }
+
+    /**
+     * Keeps a connection alive for as long as the server allows, but never longer than the configured limit
+     */
+    private ConnectionKeepAliveStrategy keepAliveStrategy(final Duration keepAlive) {
+        final long maxKeepAlive = keepAlive.toMillis();
+        return (response, context) -> {
+            final long serverKeepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return serverKeepAlive > 0 ? Math.min(serverKeepAlive, maxKeepAlive) : maxKeepAlive;
+        };
+    }
+
+    private int toMillis(final Duration duration) {
+        return Math.toIntExact(duration.toMillis());
     }
 }
@@ -0,0 +1,12 @@
+package exceptions;
+
+import org.springframework.web.client.RestClientException;
+
+/**
+ * A request to BlockIo is not sent because of the rate limit, open circuit breaker or full bulkhead
+ */
+public class CallRejectedException extends RestClientException {
+    public CallRejectedException(final String message) {
+        super(message);
+    }
+}
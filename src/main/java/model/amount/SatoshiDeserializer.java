@@ -0,0 +1,40 @@
+package model.amount;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+import java.io.IOException;
+
+/**
+ * Reads a decimal amount of BTC, given as a string or as a number, into a number of satoshis
+ */
+public class SatoshiDeserializer extends StdDeserializer<Long> {
+
+    public SatoshiDeserializer() {
+        super(Long.class);
+    }
+
+    @Override
+    public Long deserialize(final JsonParser parser, final DeserializationContext context) throws IOException {
+        final JsonToken token = parser.currentToken();
+        try {
+            if (token == JsonToken.VALUE_STRING) {
+                final String text = parser.getText().trim();
+                return text.isEmpty() ? 0L : Satoshis.parse(text);
+            }
+            if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT) {
+                return Satoshis.of(parser.getDecimalValue());
+            }
+        } catch (final ArithmeticException | NumberFormatException e) {
+            return (Long) context.handleWeirdStringValue(Long.class, parser.getText(), e.getMessage());
+        }
+        return (Long) context.handleUnexpectedToken(Long.class, parser);
+    }
+
+    @Override
+    public Long getNullValue(final DeserializationContext context) {
+        return 0L;
+    }
+}
@@ -0,0 +1,22 @@
+package model.amount;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/**
+ * Writes a number of satoshis as a decimal amount of BTC string like BlockIo does
+ */
+public class SatoshiSerializer extends StdSerializer<Long> {
+
+    public SatoshiSerializer() {
+        super(Long.class);
+    }
+
+    @Override
+    public void serialize(final Long satoshis, final JsonGenerator generator, final SerializerProvider provider) throws IOException {
+        generator.writeString(Satoshis.format(satoshis));
+    }
+}
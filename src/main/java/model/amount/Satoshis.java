@@ -0,0 +1,117 @@
+package model.amount;
+
+import java.math.BigDecimal;
+
+/**
+ * Amounts of BTC are kept as a primitive {@code long} number of satoshis (1 BTC = 100 000 000 satoshis).
+ * This class converts them from and to the decimal representation used by BlockIo.
+ * Parsing, formatting into a given buffer and arithmetic are exact and don't allocate
+ */
+public final class Satoshis {
+    public static final int SCALE = 8;
+    public static final long PER_BTC = 100_000_000L;
+
+    private Satoshis() {
+    }
+
+    /**
+     * Parses a decimal amount of BTC like "0.00001000"
+     *
+     * @param value - decimal amount with at most 8 significant decimal places
+     * @return number of satoshis
+     */
+    public static long parse(final CharSequence value) {
+        final int length = value.length();
+        int index = 0;
+        boolean negative = false;
+        if (length > 0 && (value.charAt(0) == '-' || value.charAt(0) == '+')) {
+            negative = value.charAt(0) == '-';
+            index++;
+        }
+
+        long whole = 0;
+        long fraction = 0;
+        int fractionDigits = 0;
+        boolean point = false;
+        boolean digits = false;
+        for (; index < length; index++) {
+            final char symbol = value.charAt(index);
+            if (symbol == '.' && !point) {
+                point = true;
+                continue;
+            }
+            if (symbol < '0' || symbol > '9') {
+                throw new NumberFormatException(String.format("Invalid amount of BTC: %s", value));
+            }
+            digits = true;
+            if (!point) {
+                whole = Math.addExact(Math.multiplyExact(whole, 10), symbol - '0');
+            } else if (fractionDigits < SCALE) {
+                fraction = fraction * 10 + (symbol - '0');
+                fractionDigits++;
+            } else if (symbol != '0') {
+                throw new ArithmeticException(String.format("Amount of BTC has more than %d decimal places: %s", SCALE, value));
+            }
+        }
+        if (!digits) {
+            throw new NumberFormatException(String.format("Invalid amount of BTC: %s", value));
+        }
+        for (; fractionDigits < SCALE; fractionDigits++) {
+            fraction *= 10;
+        }
+        final long satoshis = Math.addExact(Math.multiplyExact(whole, PER_BTC), fraction);
+        return negative ? -satoshis : satoshis;
+    }
+
+    /**
+     * @param btc - amount of BTC
+     * @return number of satoshis
+     */
+    public static long of(final BigDecimal btc) {
+        return btc.movePointRight(SCALE).longValueExact();
+    }
+
+    /**
+     * @param satoshis - number of satoshis
+     * @return amount of BTC with scale 8
+     */
+    public static BigDecimal toBtc(final long satoshis) {
+        return BigDecimal.valueOf(satoshis, SCALE);
+    }
+
+    /**
+     * @param satoshis - number of satoshis
+     * @return decimal amount of BTC with 8 decimal places like "0.00001000"
+     */
+    public static String format(final long satoshis) {
+        return appendTo(new StringBuilder(20), satoshis).toString();
+    }
+
+    /**
+     * Appends a decimal amount of BTC with 8 decimal places to the buffer
+     *
+     * @param buffer   - buffer to append to
+     * @param satoshis - number of satoshis
+     * @return the same buffer
+     */
+    public static StringBuilder appendTo(final StringBuilder buffer, final long satoshis) {
+        if (satoshis < 0) {
+            buffer.append('-');
+        }
+        final long absolute = Math.abs(satoshis);
+        buffer.append(absolute / PER_BTC).append('.');
+        final long fraction = absolute % PER_BTC;
+        for (long divider = PER_BTC / 10; divider > 0; divider /= 10) {
+            buffer.append((char) ('0' + fraction / divider % 10));
+        }
+        return buffer;
+    }
+
+    public static long add(final long first, final long second) {
+        return Math.addExact(first, second);
+    }
+
+    public static long subtract(final long first, final long second) {
+        return Math.subtractExact(first, second);
+    }
+}
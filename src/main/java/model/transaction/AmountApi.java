@@ -1,10 +1,21 @@
 package model.transaction;
 
-import lombok.Data;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Value;
+import model.amount.SatoshiAmount;
 
-@Data
+@Value
 public class AmountApi {
-    private String recipient;
+    String recipient;
 
-    private String amount;
+    @SatoshiAmount
+    long amount;
+
+    @JsonCreator
+    public AmountApi(@JsonProperty("recipient") final String recipient,
+                     @JsonProperty("amount") final long amount) {
+        this.recipient = recipient;
+        this.amount = amount;
+    }
 }
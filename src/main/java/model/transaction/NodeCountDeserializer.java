@@ -0,0 +1,30 @@
+package model.transaction;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+import java.io.IOException;
+
+/**
+ * Reads propagated_by_nodes. Only json integers which fit an {@code int} are accepted,
+ * strings and fractional numbers are rejected instead of being coerced
+ */
+public class NodeCountDeserializer extends StdDeserializer<Integer> {
+
+    public NodeCountDeserializer() {
+        super(Integer.class);
+    }
+
+    @Override
+    public Integer deserialize(final JsonParser parser, final DeserializationContext context) throws IOException {
+        if (parser.currentToken() != JsonToken.VALUE_NUMBER_INT) {
+            return (Integer) context.handleUnexpectedToken(Integer.class, parser);
+        }
+        if (parser.getNumberType() != JsonParser.NumberType.INT) {
+            return (Integer) context.handleWeirdNumberValue(Integer.class, parser.getNumberValue(), "out of int range");
+        }
+        return parser.getIntValue();
+    }
+}
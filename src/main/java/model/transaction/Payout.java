@@ -0,0 +1,15 @@
+package model.transaction;
+
+import lombok.Value;
+
+import java.math.BigDecimal;
+
+/**
+ * Single payment of given amount to a destination address
+ */
+@Value
+public class Payout {
+    BigDecimal amount;
+
+    String destinationAddress;
+}
@@ -1,49 +1,82 @@
 package model.transaction;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
-import lombok.AllArgsConstructor;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import lombok.Builder;
-import lombok.Data;
-import lombok.NoArgsConstructor;
+import lombok.Value;
+import lombok.With;
+import model.amount.SatoshiAmount;
 
 import java.util.List;
+import java.util.Objects;
 
-@Data
+/**
+ * Immutable transaction. Lists are unmodifiable, so derived transactions made with "with" methods
+ * or {@link #toBuilder()} share them instead of copying.
+ * propagated_by_nodes is either null or a non-negative integer, anything else is rejected when the json is parsed
+ */
+@Value
 @Builder(toBuilder = true)
-@NoArgsConstructor
-@AllArgsConstructor
-public class TransactionApi implements Cloneable {
-    private String txid;
+@With
+public class TransactionApi {
+    String txid;
 
     @JsonProperty("from_green_address")
-    private boolean fromGreenAddress;
+    boolean fromGreenAddress;
 
-    private long time;
+    long time;
 
-    private int confirmations;
+    int confirmations;
 
+    @SatoshiAmount
     @JsonProperty("total_amount_sent")
-    private String totalAmountSent;
+    long totalAmountSent;
 
     @JsonProperty("amounts_sent")
-    private List<AmountApi> amountsSent;
+    List<AmountApi> amountsSent;
 
-    private List<String> senders;
+    List<String> senders;
 
-    private double confidence;
+    double confidence;
 
     @JsonProperty("propagated_by_nodes")
-    private Object propagatedByNodes;
+    Integer propagatedByNodes;
 
     @JsonProperty("amounts_received")
-    private List<AmountApi> amountsReceived;
-
-    @Override
-    public TransactionApi clone() {
-        try {
-            return (TransactionApi) super.clone();
-        } catch (CloneNotSupportedException e) {
-            throw new RuntimeException("Cloning not supported", e);
+    List<AmountApi> amountsReceived;
+
+    @JsonCreator
+    public TransactionApi(@JsonProperty("txid") final String txid,
+                          @JsonProperty("from_green_address") final boolean fromGreenAddress,
+                          @JsonProperty("time") final long time,
+                          @JsonProperty("confirmations") final int confirmations,
+                          @JsonProperty("total_amount_sent") final long totalAmountSent,
+                          @JsonProperty("amounts_sent") final List<AmountApi> amountsSent,
+                          @JsonProperty("senders") final List<String> senders,
+                          @JsonProperty("confidence") final double confidence,
+                          @JsonProperty("propagated_by_nodes") @JsonDeserialize(using = NodeCountDeserializer.class)
+                          final Integer propagatedByNodes,
+                          @JsonProperty("amounts_received") final List<AmountApi> amountsReceived) {
+        this.txid = txid;
+        this.fromGreenAddress = fromGreenAddress;
+        this.time = time;
+        this.confirmations = confirmations;
+        this.totalAmountSent = totalAmountSent;
+        this.amountsSent = unmodifiable(amountsSent);
+        this.senders = unmodifiable(senders);
+        this.confidence = confidence;
+        if (Objects.nonNull(propagatedByNodes) && propagatedByNodes < 0) {
+            throw new IllegalArgumentException("propagated_by_nodes must not be negative: " + propagatedByNodes);
         }
+        this.propagatedByNodes = propagatedByNodes;
+        this.amountsReceived = unmodifiable(amountsReceived);
+    }
+
+    /**
+     * {@link List#copyOf(java.util.Collection)} returns an unmodifiable list as is, so it is copied only once
+     */
+    private static <T> List<T> unmodifiable(final List<T> values) {
+        return Objects.isNull(values) ? null : List.copyOf(values);
     }
 }
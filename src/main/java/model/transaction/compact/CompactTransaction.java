@@ -0,0 +1,111 @@
+package model.transaction.compact;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import model.transaction.AmountApi;
+import model.transaction.TransactionApi;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Compact form of {@link TransactionApi}. Addresses are ids of a {@link SymbolTable},
+ * amounts are kept in primitive arrays and propagated_by_nodes is an int with {@link #UNKNOWN_NODES} for null,
+ * which can't clash with a real value since {@link TransactionApi} doesn't accept negative ones.
+ * Null lists of the original transaction are null arrays
+ */
+@Getter
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public class CompactTransaction {
+    public static final int UNKNOWN_NODES = -1;
+
+    private final String txid;
+    private final boolean fromGreenAddress;
+    private final long time;
+    private final int confirmations;
+    private final long totalAmountSent;
+    private final int[] senders;
+    private final int[] sentRecipients;
+    private final long[] sentAmounts;
+    private final int[] receivedRecipients;
+    private final long[] receivedAmounts;
+    private final double confidence;
+    private final int propagatedByNodes;
+
+    /**
+     * @param transaction - transaction to compact
+     * @param symbols     - table to intern addresses into
+     * @return compact transaction
+     */
+    public static CompactTransaction of(final TransactionApi transaction, final SymbolTable symbols) {
+        final List<AmountApi> sent = transaction.getAmountsSent();
+        final List<AmountApi> received = transaction.getAmountsReceived();
+        return new CompactTransaction(transaction.getTxid(),
+                transaction.isFromGreenAddress(),
+                transaction.getTime(),
+                transaction.getConfirmations(),
+                transaction.getTotalAmountSent(),
+                intern(transaction.getSenders(), symbols),
+                recipients(sent, symbols),
+                amounts(sent),
+                recipients(received, symbols),
+                amounts(received),
+                transaction.getConfidence(),
+                Objects.isNull(transaction.getPropagatedByNodes()) ? UNKNOWN_NODES : transaction.getPropagatedByNodes());
+    }
+
+    /**
+     * @param symbols - table the addresses were interned into
+     * @return transaction in the regular form
+     */
+    public TransactionApi toTransactionApi(final SymbolTable symbols) {
+        return TransactionApi.builder()
+                .txid(txid)
+                .fromGreenAddress(fromGreenAddress)
+                .time(time)
+                .confirmations(confirmations)
+                .totalAmountSent(totalAmountSent)
+                .amountsSent(amounts(sentRecipients, sentAmounts, symbols))
+                .senders(symbols(senders, symbols))
+                .confidence(confidence)
+                .propagatedByNodes(propagatedByNodes == UNKNOWN_NODES ? null : propagatedByNodes)
+                .amountsReceived(amounts(receivedRecipients, receivedAmounts, symbols))
+                .build();
+    }
+
+    private static int[] intern(final List<String> values, final SymbolTable symbols) {
+        return Objects.isNull(values) ? null : values.stream().mapToInt(symbols::intern).toArray();
+    }
+
+    private static int[] recipients(final List<AmountApi> amounts, final SymbolTable symbols) {
+        return Objects.isNull(amounts) ? null : amounts.stream().map(AmountApi::getRecipient).mapToInt(symbols::intern).toArray();
+    }
+
+    private static long[] amounts(final List<AmountApi> amounts) {
+        return Objects.isNull(amounts) ? null : amounts.stream().mapToLong(AmountApi::getAmount).toArray();
+    }
+
+    private static List<String> symbols(final int[] ids, final SymbolTable symbols) {
+        if (Objects.isNull(ids)) {
+            return null;
+        }
+        final List<String> values = new ArrayList<>(ids.length);
+        for (final int id : ids) {
+            values.add(symbols.symbol(id));
+        }
+        return values;
+    }
+
+    private static List<AmountApi> amounts(final int[] recipients, final long[] amounts, final SymbolTable symbols) {
+        if (Objects.isNull(recipients)) {
+            return null;
+        }
+        final List<AmountApi> values = new ArrayList<>(recipients.length);
+        for (int i = 0; i < recipients.length; i++) {
+            values.add(new AmountApi(symbols.symbol(recipients[i]), amounts[i]));
+        }
+        return values;
+    }
+}
@@ -0,0 +1,57 @@
+package model.transaction.compact;
+
+import model.transaction.TransactionApi;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * History of transactions in compact form which share one {@link SymbolTable}.
+ * Transactions should be added while they are parsed, so the regular form is never retained
+ */
+public class CompactTransactions {
+    private final SymbolTable symbols;
+
+    private final List<CompactTransaction> transactions = new ArrayList<>();
+
+    public CompactTransactions() {
+        this(new SymbolTable());
+    }
+
+    public CompactTransactions(final SymbolTable symbols) {
+        this.symbols = symbols;
+    }
+
+    public synchronized void add(final TransactionApi transaction) {
+        transactions.add(CompactTransaction.of(transaction, symbols));
+    }
+
+    public synchronized CompactTransaction get(final int index) {
+        return transactions.get(index);
+    }
+
+    /**
+     * @param index - position of transaction
+     * @return transaction in the regular form, it is created on every call
+     */
+    public synchronized TransactionApi getTransactionApi(final int index) {
+        return transactions.get(index).toTransactionApi(symbols);
+    }
+
+    public synchronized void forEach(final Consumer<CompactTransaction> consumer) {
+        transactions.forEach(consumer);
+    }
+
+    public synchronized int size() {
+        return transactions.size();
+    }
+
+    public SymbolTable getSymbols() {
+        return symbols;
+    }
+
+    public synchronized List<CompactTransaction> asList() {
+        return List.copyOf(transactions);
+    }
+}
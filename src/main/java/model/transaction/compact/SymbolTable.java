@@ -0,0 +1,68 @@
+package model.transaction.compact;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shared table of strings which repeat a lot, such as addresses. Every distinct string is kept once
+ * and referred to by its int id, so a transaction holds 4 bytes per address instead of a String
+ */
+public class SymbolTable {
+    public static final int NO_SYMBOL = -1;
+
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+
+    private volatile String[] symbols = new String[256];
+
+    private int size;
+
+    /**
+     * @param value - string to intern, may be null
+     * @return id of the string or {@link #NO_SYMBOL} for null
+     */
+    public int intern(final String value) {
+        if (Objects.isNull(value)) {
+            return NO_SYMBOL;
+        }
+        final Integer id = ids.get(value);
+        return Objects.nonNull(id) ? id : add(value);
+    }
+
+    /**
+     * @param value - string to look up, may be null
+     * @return id of the string or {@link #NO_SYMBOL} if it was never interned
+     */
+    public int id(final String value) {
+        final Integer id = Objects.isNull(value) ? null : ids.get(value);
+        return Objects.nonNull(id) ? id : NO_SYMBOL;
+    }
+
+    /**
+     * @param id - id returned by {@link #intern(String)}
+     * @return interned string or null for {@link #NO_SYMBOL}
+     */
+    public String symbol(final int id) {
+        return id == NO_SYMBOL ? null : symbols[id];
+    }
+
+    public int size() {
+        return ids.size();
+    }
+
+    private synchronized int add(final String value) {
+        final Integer existing = ids.get(value);
+        if (Objects.nonNull(existing)) {
+            return existing;
+        }
+        String[] current = symbols;
+        if (size == current.length) {
+            current = Arrays.copyOf(current, size * 2);
+        }
+        current[size] = value;
+        symbols = current;
+        ids.put(value, size);
+        return size++;
+    }
+}
@@ -0,0 +1,187 @@
+package model.transaction.compact;
+
+import lombok.Getter;
+import model.transaction.AmountApi;
+import model.transaction.TransactionApi;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Columnar form of a history of transactions for analytics. Every scalar field is a primitive array indexed
+ * by the number of transaction, addresses are ids of a {@link SymbolTable}.
+ * Lists are flattened: entries of transaction i are at positions from offsets[i] to offsets[i + 1],
+ * so null and empty lists are the same. Arrays are shared, they must not be modified
+ */
+@Getter
+public class TransactionColumns {
+    private final SymbolTable symbols;
+    private final int size;
+    private final long[] times;
+    private final int[] confirmations;
+    private final long[] totalAmountsSent;
+    private final int[] senderOffsets;
+    private final int[] senders;
+    private final int[] sentOffsets;
+    private final int[] sentRecipients;
+    private final long[] sentAmounts;
+    private final int[] receivedOffsets;
+    private final int[] receivedRecipients;
+    private final long[] receivedAmounts;
+    private final long minTime;
+    private final long maxTime;
+
+    private TransactionColumns(final Builder builder) {
+        this.symbols = builder.symbols;
+        this.size = builder.size;
+        this.times = Arrays.copyOf(builder.times, size);
+        this.confirmations = Arrays.copyOf(builder.confirmations, size);
+        this.totalAmountsSent = Arrays.copyOf(builder.totalAmountsSent, size);
+        this.senderOffsets = Arrays.copyOf(builder.senderOffsets, size + 1);
+        this.senders = Arrays.copyOf(builder.senders, builder.senderOffsets[size]);
+        this.sentOffsets = Arrays.copyOf(builder.sentOffsets, size + 1);
+        this.sentRecipients = Arrays.copyOf(builder.sentRecipients, builder.sentOffsets[size]);
+        this.sentAmounts = Arrays.copyOf(builder.sentAmounts, builder.sentOffsets[size]);
+        this.receivedOffsets = Arrays.copyOf(builder.receivedOffsets, size + 1);
+        this.receivedRecipients = Arrays.copyOf(builder.receivedRecipients, builder.receivedOffsets[size]);
+        this.receivedAmounts = Arrays.copyOf(builder.receivedAmounts, builder.receivedOffsets[size]);
+        this.minTime = builder.minTime;
+        this.maxTime = builder.maxTime;
+    }
+
+    /**
+     * @param transactions - transactions to convert
+     * @param symbols      - table to intern addresses into
+     * @return columns of transactions in the same order
+     */
+    public static TransactionColumns of(final Collection<TransactionApi> transactions, final SymbolTable symbols) {
+        final Builder builder = new Builder(symbols, transactions.size());
+        transactions.forEach(builder::add);
+        return builder.build();
+    }
+
+    /**
+     * @param index - position of transaction
+     * @return id of the first sender of transaction or {@link SymbolTable#NO_SYMBOL} if it has no senders
+     */
+    public int firstSender(final int index) {
+        return senderOffsets[index] < senderOffsets[index + 1] ? senders[senderOffsets[index]] : SymbolTable.NO_SYMBOL;
+    }
+
+    /**
+     * Appends transactions to growing columns. Transactions should be added while they are parsed,
+     * so the regular form is never retained. It is not thread safe
+     */
+    public static class Builder {
+        private final SymbolTable symbols;
+        private int size;
+        private long[] times;
+        private int[] confirmations;
+        private long[] totalAmountsSent;
+        private int[] senderOffsets;
+        private int[] senders;
+        private int[] sentOffsets;
+        private int[] sentRecipients;
+        private long[] sentAmounts;
+        private int[] receivedOffsets;
+        private int[] receivedRecipients;
+        private long[] receivedAmounts;
+        private long minTime = Long.MAX_VALUE;
+        private long maxTime = Long.MIN_VALUE;
+
+        public Builder(final SymbolTable symbols) {
+            this(symbols, 1024);
+        }
+
+        /**
+         * @param symbols  - table to intern addresses into
+         * @param capacity - expected number of transactions
+         */
+        public Builder(final SymbolTable symbols, final int capacity) {
+            final int rows = Math.max(16, capacity);
+            this.symbols = symbols;
+            this.times = new long[rows];
+            this.confirmations = new int[rows];
+            this.totalAmountsSent = new long[rows];
+            this.senderOffsets = new int[rows + 1];
+            this.senders = new int[rows];
+            this.sentOffsets = new int[rows + 1];
+            this.sentRecipients = new int[rows];
+            this.sentAmounts = new long[rows];
+            this.receivedOffsets = new int[rows + 1];
+            this.receivedRecipients = new int[rows];
+            this.receivedAmounts = new long[rows];
+        }
+
+        public Builder add(final TransactionApi transaction) {
+            if (size == times.length) {
+                final int rows = size * 2;
+                times = Arrays.copyOf(times, rows);
+                confirmations = Arrays.copyOf(confirmations, rows);
+                totalAmountsSent = Arrays.copyOf(totalAmountsSent, rows);
+                senderOffsets = Arrays.copyOf(senderOffsets, rows + 1);
+                sentOffsets = Arrays.copyOf(sentOffsets, rows + 1);
+                receivedOffsets = Arrays.copyOf(receivedOffsets, rows + 1);
+            }
+            times[size] = transaction.getTime();
+            confirmations[size] = transaction.getConfirmations();
+            totalAmountsSent[size] = transaction.getTotalAmountSent();
+            minTime = Math.min(minTime, transaction.getTime());
+            maxTime = Math.max(maxTime, transaction.getTime());
+
+            final List<String> transactionSenders = transaction.getSenders();
+            int senderCount = senderOffsets[size];
+            if (Objects.nonNull(transactionSenders)) {
+                senders = ensureCapacity(senders, senderCount + transactionSenders.size());
+                for (final String sender : transactionSenders) {
+                    senders[senderCount++] = symbols.intern(sender);
+                }
+            }
+            senderOffsets[size + 1] = senderCount;
+            addSent(transaction.getAmountsSent());
+            addReceived(transaction.getAmountsReceived());
+            size++;
+            return this;
+        }
+
+        public TransactionColumns build() {
+            return new TransactionColumns(this);
+        }
+
+        private void addSent(final List<AmountApi> amounts) {
+            int count = sentOffsets[size];
+            if (Objects.nonNull(amounts)) {
+                sentRecipients = ensureCapacity(sentRecipients, count + amounts.size());
+                sentAmounts = ensureCapacity(sentAmounts, count + amounts.size());
+                for (final AmountApi amount : amounts) {
+                    sentRecipients[count] = symbols.intern(amount.getRecipient());
+                    sentAmounts[count++] = amount.getAmount();
+                }
+            }
+            sentOffsets[size + 1] = count;
+        }
+
+        private void addReceived(final List<AmountApi> amounts) {
+            int count = receivedOffsets[size];
+            if (Objects.nonNull(amounts)) {
+                receivedRecipients = ensureCapacity(receivedRecipients, count + amounts.size());
+                receivedAmounts = ensureCapacity(receivedAmounts, count + amounts.size());
+                for (final AmountApi amount : amounts) {
+                    receivedRecipients[count] = symbols.intern(amount.getRecipient());
+                    receivedAmounts[count++] = amount.getAmount();
+                }
+            }
+            receivedOffsets[size + 1] = count;
+        }
+
+        private static int[] ensureCapacity(final int[] values, final int capacity) {
+            return capacity <= values.length ? values : Arrays.copyOf(values, Math.max(capacity, values.length * 2));
+        }
+
+        private static long[] ensureCapacity(final long[] values, final int capacity) {
+            return capacity <= values.length ? values : Arrays.copyOf(values, Math.max(capacity, values.length * 2));
+        }
+    }
+}
@@ -1,12 +1,27 @@
 package model.wallet;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
-import lombok.Data;
+import lombok.Value;
+import model.amount.SatoshiAmount;
+import model.amount.Satoshis;
 
-@Data
+import java.math.BigDecimal;
+
+@Value
 @JsonIgnoreProperties(ignoreUnknown = true)
 public class BalanceApi {
+    @SatoshiAmount
     @JsonProperty("available_balance")
-    private String availableBalance;
+    long availableBalance;
+
+    @JsonCreator
+    public BalanceApi(@JsonProperty("available_balance") final long availableBalance) {
+        this.availableBalance = availableBalance;
+    }
+
+    public BigDecimal getAvailableBalanceAsNumber() {
+        return Satoshis.toBtc(availableBalance);
+    }
 }
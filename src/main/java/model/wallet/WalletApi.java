@@ -1,24 +1,71 @@
 package model.wallet;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
-import lombok.Data;
+import lombok.Builder;
+import lombok.Value;
+import lombok.With;
+import model.amount.SatoshiAmount;
+import model.amount.Satoshis;
 
 import java.math.BigDecimal;
 
-@Data
+/**
+ * Immutable wallet, changes of balance return a new wallet
+ */
+@Value
+@Builder(toBuilder = true)
+@With
 public class WalletApi {
     @JsonProperty("user_id")
-    private int userId;
-    private String address;
-    private String label;
+    int userId;
+    String address;
+    String label;
+    @SatoshiAmount
     @JsonProperty("pending_received_balance")
-    private String pendingReceivedBalance;
+    long pendingReceivedBalance;
+    @SatoshiAmount
     @JsonProperty("available_balance")
-    private String availableBalance;
+    long availableBalance;
     @JsonProperty("is_segwit")
-    private boolean isSegwit;
+    boolean isSegwit;
+
+    @JsonCreator
+    public WalletApi(@JsonProperty("user_id") final int userId,
+                     @JsonProperty("address") final String address,
+                     @JsonProperty("label") final String label,
+                     @JsonProperty("pending_received_balance") final long pendingReceivedBalance,
+                     @JsonProperty("available_balance") final long availableBalance,
+                     @JsonProperty("is_segwit") final boolean isSegwit) {
+        this.userId = userId;
+        this.address = address;
+        this.label = label;
+        this.pendingReceivedBalance = pendingReceivedBalance;
+        this.availableBalance = availableBalance;
+        this.isSegwit = isSegwit;
+    }
 
     public BigDecimal getAvailableBalanceAsNumber() {
-        return new BigDecimal(availableBalance);
+        return Satoshis.toBtc(availableBalance);
+    }
+
+    /**
+     * Use it ONLY for testing with manual operations! It is a stub for fake operation
+     *
+     * @param satoshis - amount with fee which leaves the wallet
+     * @return wallet with decreased available balance
+     */
+    public WalletApi withdrawBalance(final long satoshis) {
+        return withAvailableBalance(Satoshis.subtract(availableBalance, satoshis));
+    }
+
+    /**
+     * Use it ONLY for testing with manual operations! It is a stub for fake operation
+     *
+     * @param satoshis - amount which comes to the wallet
+     * @return wallet with increased available balance
+     */
+    public WalletApi depositBalance(final long satoshis) {
+        return withAvailableBalance(Satoshis.add(availableBalance, satoshis));
     }
 }
@@ -0,0 +1,56 @@
+package util;
+
+import exceptions.CustomRuntimeException;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Objects;
+
+/**
+ * Identifies accounts of requests without keeping raw api keys, an account is the SHA-256 hash of its api key
+ */
+public final class ApiKeys {
+    public static final String PARAMETER = "api_key=";
+    public static final String NO_ACCOUNT = "";
+
+    private ApiKeys() {
+    }
+
+    /**
+     * Gets the account of request
+     *
+     * @param uri - uri of request
+     * @return hash of the "api_key" query parameter or empty string if there is no api key
+     */
+    public static String accountOf(final URI uri) {
+        final String query = uri.getRawQuery();
+        if (Objects.isNull(query)) {
+            return NO_ACCOUNT;
+        }
+        for (final String parameter : query.split("&")) {
+            if (parameter.startsWith(PARAMETER)) {
+                return hash(parameter.substring(PARAMETER.length()));
+            }
+        }
+        return NO_ACCOUNT;
+    }
+
+    /**
+     * @param apiKey - key of account
+     * @return hex of SHA-256 hash of the key
+     */
+    public static String hash(final String apiKey) {
+        try {
+            final byte[] hash = MessageDigest.getInstance("SHA-256").digest(apiKey.getBytes(StandardCharsets.UTF_8));
+            final StringBuilder account = new StringBuilder(64);
+            for (final byte value : hash) {
+                account.append(Character.forDigit((value >> 4) & 0xF, 16)).append(Character.forDigit(value & 0xF, 16));
+            }
+            return account.toString();
+        } catch (final NoSuchAlgorithmException e) {
+            throw new CustomRuntimeException("SHA-256 is not supported", e);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package util;
+
+import lombok.RequiredArgsConstructor;
+import model.transaction.TransactionApi;
+import model.wallet.ResponseDataApi;
+import model.wallet.WalletApi;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Supplier;
+
+/**
+ * Non-blocking counterpart of {@link RequestsUtil}. Every action is run on the shared BlockIo executor,
+ * so independent requests can be fanned out and combined with {@link CompletableFuture} operators.
+ * Actions which wait for pages or batches of their own on the same executor run the tasks not started yet themselves,
+ * so more calls than threads of the executor can't deadlock
+ */
+@Component
+@RequiredArgsConstructor
+public class AsyncRequestsUtil {
+    private final RequestsUtil requestsUtil;
+
+    private final ExecutorService blockIoExecutor;
+
+    /**
+     * See {@link RequestsUtil#sendBTC(String, BigDecimal, BigDecimal, String)}
+     */
+    public CompletableFuture<String> sendBTC(final String apiKey, final BigDecimal fee, final BigDecimal amount,
+                                             final String destinationAddress) {
+        return supply(() -> requestsUtil.sendBTC(apiKey, fee, amount, destinationAddress));
+    }
+
+    /**
+     * See {@link RequestsUtil#createTransaction(String, BigDecimal, BigDecimal, String)}
+     */
+    public CompletableFuture<Void> createTransaction(final String apiKey, final BigDecimal fee, final BigDecimal amount,
+                                                     final String destinationAddress) {
+        return run(() -> requestsUtil.createTransaction(apiKey, fee, amount, destinationAddress));
+    }
+
+    /**
+     * See {@link RequestsUtil#prepareTransaction(String, BigDecimal, BigDecimal, String)}
+     */
+    public CompletableFuture<String> prepareTransaction(final String apiKey, final BigDecimal fee, final BigDecimal amount,
+                                                        final String destinationAddress) {
+        return supply(() -> requestsUtil.prepareTransaction(apiKey, fee, amount, destinationAddress));
+    }
+
+    /**
+     * See {@link RequestsUtil#createWalletWithGivenLabel(String, String)}
+     */
+    public CompletableFuture<Void> createWalletWithGivenLabel(final String apiKey, final String labelName) {
+        return run(() -> requestsUtil.createWalletWithGivenLabel(apiKey, labelName));
+    }
+
+    /**
+     * See {@link RequestsUtil#getWalletByAddress(String, String)}
+     */
+    public CompletableFuture<WalletApi> getWalletByAddress(final String apiKey, final String walletId) {
+        return supply(() -> requestsUtil.getWalletByAddress(apiKey, walletId));
+    }
+
+    /**
+     * See {@link RequestsUtil#getWalletByLabel(String, String)}
+     */
+    public CompletableFuture<WalletApi> getWalletByLabel(final String apiKey, final String label) {
+        return supply(() -> requestsUtil.getWalletByLabel(apiKey, label));
+    }
+
+    /**
+     * See {@link RequestsUtil#getWallets(String)}
+     */
+    public CompletableFuture<List<WalletApi>> getWallets(final String apiKey) {
+        return supply(() -> requestsUtil.getWallets(apiKey));
+    }
+
+    /**
+     * See {@link RequestsUtil#getArchivedWallets(String)}
+     */
+    public CompletableFuture<List<WalletApi>> getArchivedWallets(final String apiKey) {
+        return supply(() -> requestsUtil.getArchivedWallets(apiKey));
+    }
+
+    /**
+     * See {@link RequestsUtil#getWalletPage(String, String, int)}
+     */
+    public CompletableFuture<ResponseDataApi> getWalletPage(final String endpoint, final String apiKey, final int page) {
+        return supply(() -> requestsUtil.getWalletPage(endpoint, apiKey, page));
+    }
+
+    /**
+     * See {@link RequestsUtil#getSentTransactions()}
+     */
+    public CompletableFuture<List<TransactionApi>> getSentTransactions() {
+        return supply(requestsUtil::getSentTransactions);
+    }
+
+    /**
+     * See {@link RequestsUtil#getReceivedTransactions()}
+     */
+    public CompletableFuture<List<TransactionApi>> getReceivedTransactions() {
+        return supply(requestsUtil::getReceivedTransactions);
+    }
+
+    private <T> CompletableFuture<T> supply(final Supplier<T> action) {
+        return CompletableFuture.supplyAsync(action, blockIoExecutor);
+    }
+
+    private CompletableFuture<Void> run(final Runnable action) {
+        return CompletableFuture.runAsync(action, blockIoExecutor);
+    }
+}
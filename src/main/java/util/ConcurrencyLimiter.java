@@ -0,0 +1,45 @@
+package util;
+
+import config.BlockIoProperties;
+import exceptions.CustomRuntimeException;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+/**
+ * Limits the number of requests to BlockIo in flight at the same time.
+ * It doesn't depend on the executor, so thousands of virtual threads still respect BlockIo rate limits
+ */
+@Component
+public class ConcurrencyLimiter {
+    private final Semaphore permits;
+
+    public ConcurrencyLimiter(final BlockIoProperties properties) {
+        this.permits = new Semaphore(properties.getExecution().getMaxConcurrentRequests(), true);
+    }
+
+    /**
+     * Runs the action when a permit is available
+     *
+     * @param action - action to run
+     * @return result of the action
+     */
+    public <T> T call(final Supplier<T> action) {
+        try {
+            permits.acquire();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CustomRuntimeException("Interrupted while waiting for a permit to call BlockIo", e);
+        }
+        try {
+            return action.get();
+        } finally {
+            permits.release();
+        }
+    }
+
+    public int getAvailablePermits() {
+        return permits.availablePermits();
+    }
+}
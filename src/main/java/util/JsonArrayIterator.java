@@ -0,0 +1,83 @@
+package util;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectReader;
+import exceptions.CustomRuntimeException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+import static java.lang.String.format;
+
+/**
+ * Pull-based iterator over the elements of a JSON array. Elements are decoded one by one,
+ * so only the current element is kept in memory. The iterator must be closed to release the underlying stream
+ *
+ * @param <T> type of array element
+ */
+public class JsonArrayIterator<T> implements Iterator<T>, Closeable {
+    private final JsonParser parser;
+    private final ObjectReader reader;
+
+    private T next;
+    private boolean finished;
+
+    /**
+     * @param parser - parser positioned on the START_ARRAY token of the array or null if there is no array
+     * @param reader - reader of the type of array element to bind every element
+     */
+    JsonArrayIterator(final JsonParser parser, final ObjectReader reader) {
+        this.parser = parser;
+        this.reader = reader;
+        this.finished = parser.currentToken() != JsonToken.START_ARRAY;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (Objects.isNull(next) && !finished) {
+            next = readNext();
+        }
+        return Objects.nonNull(next);
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        final T current = next;
+        next = null;
+        return current;
+    }
+
+    @Override
+    public void close() {
+        try {
+            parser.close();
+        } catch (final IOException e) {
+            throw new CustomRuntimeException("Could not close json stream", e);
+        }
+    }
+
+    private T readNext() {
+        try {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null && token != JsonToken.END_ARRAY) {
+                if (token == JsonToken.START_OBJECT) {
+                    return reader.readValue(parser);
+                }
+                parser.skipChildren();
+            }
+            finished = true;
+            return null;
+        } catch (final IOException e) {
+            finished = true;
+            throw new CustomRuntimeException(format("Could not parse json array of %s",
+                    reader.getValueType().getRawClass().getSimpleName()), e);
+        }
+    }
+}
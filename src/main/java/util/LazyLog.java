@@ -0,0 +1,112 @@
+package util;
+
+import org.apache.commons.logging.Log;
+
+import java.util.regex.Pattern;
+
+import static java.lang.String.format;
+
+/**
+ * Wrapper of {@link Log} with parameterized debug messages. A message is formatted only when DEBUG is enabled,
+ * and arguments are passed without varargs, so a disabled call allocates nothing.
+ * Api keys are masked in every formatted message and in messages of logged throwables
+ */
+public class LazyLog {
+    private static final Pattern API_KEY = Pattern.compile("(?i)(api_?key=)([^&\\s},]+)");
+    private static final String MASK = "$1****";
+
+    private final Log logger;
+
+    public LazyLog(final Log logger) {
+        this.logger = logger;
+    }
+
+    public boolean isDebugEnabled() {
+        return logger.isDebugEnabled();
+    }
+
+    public void debug(final String message) {
+        if (logger.isDebugEnabled()) {
+            logger.debug(mask(message));
+        }
+    }
+
+    public void debug(final String pattern, final Object first) {
+        if (logger.isDebugEnabled()) {
+            logger.debug(mask(format(pattern, first)));
+        }
+    }
+
+    public void debug(final String pattern, final Object first, final Object second) {
+        if (logger.isDebugEnabled()) {
+            logger.debug(mask(format(pattern, first, second)));
+        }
+    }
+
+    public void debug(final String pattern, final Object first, final Object second, final Object third) {
+        if (logger.isDebugEnabled()) {
+            logger.debug(mask(format(pattern, first, second, third)));
+        }
+    }
+
+    public void debug(final String pattern, final Object first, final Object second, final Object third,
+                      final Object fourth) {
+        if (logger.isDebugEnabled()) {
+            logger.debug(mask(format(pattern, first, second, third, fourth)));
+        }
+    }
+
+    public void debug(final String pattern, final Object first, final Object second, final Object third,
+                      final Object fourth, final Object fifth) {
+        if (logger.isDebugEnabled()) {
+            logger.debug(mask(format(pattern, first, second, third, fourth, fifth)));
+        }
+    }
+
+    public void warn(final String message) {
+        logger.warn(mask(message));
+    }
+
+    public void warn(final String message, final Throwable cause) {
+        logger.warn(mask(message), masked(cause));
+    }
+
+    /**
+     * Replaces values of "api_key=" and "apiKey=" with a mask
+     *
+     * @param message - message to mask
+     * @return masked message
+     */
+    public static String mask(final String message) {
+        return API_KEY.matcher(message).replaceAll(MASK);
+    }
+
+    /**
+     * Copies a throwable and its causes with masked messages, because messages of request exceptions
+     * include urls with api keys. Stack traces are kept, the copy is printed with the name of the original class
+     *
+     * @param throwable - throwable to mask, can be null
+     * @return masked copy
+     */
+    public static Throwable masked(final Throwable throwable) {
+        if (throwable == null) {
+            return null;
+        }
+        final String message = throwable.getMessage();
+        final Throwable copy = new MaskedThrowable(throwable.getClass().getName()
+                + (message == null ? "" : ": " + mask(message)), masked(throwable.getCause()));
+        copy.setStackTrace(throwable.getStackTrace());
+        return copy;
+    }
+
+    private static final class MaskedThrowable extends Throwable {
+        private MaskedThrowable(final String description, final Throwable cause) {
+            super(description, cause, false, true);
+        }
+
+        @Override
+        public String toString() {
+            return getMessage();
+        }
+    }
+}
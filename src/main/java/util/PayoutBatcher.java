@@ -0,0 +1,196 @@
+package util;
+
+import config.BlockIoProperties;
+import exceptions.CustomRuntimeException;
+import lombok.Value;
+import model.transaction.Payout;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import static java.lang.String.format;
+
+/**
+ * Coalesces payouts of the same account and fee into multi-recipient transactions.
+ * A batch is sent when it reaches the max number of payouts or when its time window is over,
+ * the response of the transaction is passed to every payout of the batch.
+ * A destination address can appear only once per transaction, so a repeated address starts a new batch.
+ * Open batches are sent on shutdown by the closing thread, so they don't depend on the BlockIo executor
+ * which is shut down after this bean. A batch which can't be sent any more fails its payouts
+ */
+@Component
+public class PayoutBatcher implements DisposableBean {
+    private final LazyLog logger = new LazyLog(LogFactory.getLog(this.getClass()));
+
+    private final RequestsUtil requestsUtil;
+
+    private final BlockIoProperties properties;
+
+    private final ExecutorService blockIoExecutor;
+
+    private final ScheduledExecutorService scheduler;
+
+    private final Map<BatchKey, Batch> openBatches = new HashMap<>();
+
+    private boolean closed;
+
+    public PayoutBatcher(final RequestsUtil requestsUtil, final BlockIoProperties properties, final ExecutorService blockIoExecutor) {
+        this.requestsUtil = requestsUtil;
+        this.properties = properties;
+        this.blockIoExecutor = blockIoExecutor;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "blockio-payout-batcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Adds a payout to the open batch of the account
+     *
+     * @param apiKey - key of account
+     * @param fee    - number custom of fee
+     * @param payout - {@link Payout} to send
+     * @return body of response of the transaction which includes the payout
+     */
+    public CompletableFuture<String> submit(final String apiKey, final BigDecimal fee, final Payout payout) {
+        final CompletableFuture<String> result = new CompletableFuture<>();
+        final List<Batch> readyBatches = new ArrayList<>(2);
+        synchronized (openBatches) {
+            if (closed) {
+                result.completeExceptionally(new IllegalStateException("Payout batcher is shut down"));
+                return result;
+            }
+            final BatchKey key = new BatchKey(apiKey, fee.stripTrailingZeros());
+            Batch batch = openBatches.get(key);
+            if (Objects.nonNull(batch) && batch.destinations.contains(payout.getDestinationAddress())) {
+                openBatches.remove(key);
+                readyBatches.add(batch);
+                batch = null;
+            }
+            if (Objects.isNull(batch)) {
+                batch = openBatch(key, apiKey, fee);
+            }
+            batch.add(payout, result);
+            if (batch.payouts.size() >= properties.getPayoutBatch().getMaxPayouts()) {
+                openBatches.remove(key);
+                readyBatches.add(batch);
+            }
+        }
+        readyBatches.forEach(this::dispatch);
+        return result;
+    }
+
+    /**
+     * Sends all open batches without waiting for their windows
+     */
+    public void flush() {
+        final List<Batch> readyBatches;
+        synchronized (openBatches) {
+            readyBatches = new ArrayList<>(openBatches.values());
+            openBatches.clear();
+        }
+        readyBatches.forEach(this::dispatch);
+    }
+
+    @Override
+    public void destroy() {
+        final List<Batch> remainingBatches;
+        synchronized (openBatches) {
+            closed = true;
+            remainingBatches = new ArrayList<>(openBatches.values());
+            openBatches.clear();
+        }
+        scheduler.shutdownNow();
+        for (final Batch batch : remainingBatches) {
+            batch.timer.cancel(false);
+            send(batch);
+        }
+    }
+
+    private Batch openBatch(final BatchKey key, final String apiKey, final BigDecimal fee) {
+        final Batch batch = new Batch(key, apiKey, fee);
+        openBatches.put(key, batch);
+        batch.timer = scheduler.schedule(() -> flushOnTimeout(batch),
+                properties.getPayoutBatch().getWindow().toNanos(), TimeUnit.NANOSECONDS);
+        return batch;
+    }
+
+    private void flushOnTimeout(final Batch batch) {
+        final boolean open;
+        synchronized (openBatches) {
+            open = openBatches.remove(batch.key, batch);
+        }
+        if (open) {
+            dispatch(batch);
+        }
+    }
+
+    private void dispatch(final Batch batch) {
+        batch.timer.cancel(false);
+        try {
+            blockIoExecutor.execute(() -> send(batch));
+        } catch (final RejectedExecutionException e) {
+            final CustomRuntimeException failure = new CustomRuntimeException(
+                    format("Could not send a batch of %d payouts", batch.payouts.size()), e);
+            batch.results.forEach(result -> result.completeExceptionally(failure));
+        }
+    }
+
+    private void send(final Batch batch) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Send a batch of %d payouts for apiKey=%s", batch.payouts.size(), batch.apiKey);
+        }
+        try {
+            final String response = requestsUtil.sendBTC(batch.apiKey, batch.fee, batch.payouts);
+            batch.results.forEach(result -> result.complete(response));
+        } catch (final RuntimeException e) {
+            batch.results.forEach(result -> result.completeExceptionally(e));
+        }
+    }
+
+    @Value
+    private static class BatchKey {
+        String apiKey;
+
+        BigDecimal fee;
+    }
+
+    private static final class Batch {
+        private final BatchKey key;
+        private final String apiKey;
+        private final BigDecimal fee;
+        private final List<Payout> payouts = new ArrayList<>();
+        private final List<CompletableFuture<String>> results = new ArrayList<>();
+        private final Set<String> destinations = new HashSet<>();
+        private ScheduledFuture<?> timer;
+
+        private Batch(final BatchKey key, final String apiKey, final BigDecimal fee) {
+            this.key = key;
+            this.apiKey = apiKey;
+            this.fee = fee;
+        }
+
+        private void add(final Payout payout, final CompletableFuture<String> result) {
+            payouts.add(payout);
+            results.add(result);
+            destinations.add(payout.getDestinationAddress());
+        }
+    }
+}
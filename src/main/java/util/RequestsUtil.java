@@ -1,25 +1,51 @@
 package util;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.github.tomakehurst.wiremock.WireMockServer;
+import config.BlockIoProperties;
 import exceptions.CustomRuntimeException;
 import lombok.RequiredArgsConstructor;
 import model.TestConstants;
+import model.transaction.Payout;
 import model.transaction.TransactionApi;
-import model.transaction.TransactionResponseApi;
-import model.wallet.ResponseApi;
+import model.transaction.TransactionType;
+import model.transaction.compact.CompactTransactions;
+import model.transaction.compact.SymbolTable;
+import model.transaction.compact.TransactionColumns;
+import model.wallet.ResponseDataApi;
 import model.wallet.WalletApi;
-import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
+import org.springframework.web.client.ResponseExtractor;
 import org.springframework.web.client.RestTemplate;
+import util.cache.ResponseCacheInterceptor;
+import util.metrics.BlockIoMetrics;
+import util.snapshot.WalletSnapshot;
+import util.url.BaseUrlRouter;
+import util.url.UrlTemplate;
 import web.api.stubs.PrepareTransactionOKStub;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
-import java.util.Collections;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 import static java.lang.String.format;
 
@@ -29,13 +55,41 @@ import static java.lang.String.format;
 @Component
 @RequiredArgsConstructor
 public class RequestsUtil {
-    private final Log logger = LogFactory.getLog(this.getClass());
+    private static final UrlTemplate PREPARE_TRANSACTION = UrlTemplate.compile(
+            "prepare_transaction/?api_key={api_key}&priority=custom&custom_network_fee={fee}&amounts={amounts}&to_addresses={to_addresses}");
+    private static final UrlTemplate GET_NEW_ADDRESS = UrlTemplate.compile("get_new_address/?api_key={api_key}&label={label}");
+    private static final Map<String, UrlTemplate> WALLET_PAGES = Map.of(
+            "get_my_addresses", UrlTemplate.compile("get_my_addresses/?api_key={api_key}&page={page}"),
+            "get_my_archived_addresses", UrlTemplate.compile("get_my_archived_addresses/?api_key={api_key}&page={page}"));
+    private static final UrlTemplate GET_TRANSACTIONS = UrlTemplate.compile("get_transactions/?api_key={api_key}&type={type}");
+    private static final UrlTemplate GET_TRANSACTIONS_BEFORE = UrlTemplate.compile(
+            "get_transactions/?api_key={api_key}&type={type}&before_tx={before_tx}");
+
+    private final LazyLog logger = new LazyLog(LogFactory.getLog(this.getClass()));
 
     private final RestTemplate restTemplate;
 
     private final PrepareTransactionOKStub prepareTransactionOKStub;
 
-    private final ObjectMapper objectMapper;
+    private final StreamingResponseParser streamingResponseParser;
+
+    private final BlockIoProperties properties;
+
+    private final ExecutorService blockIoExecutor;
+
+    private final WalletIndexCache walletIndexCache;
+
+    private final ConcurrencyLimiter concurrencyLimiter;
+
+    private final BlockIoMetrics metrics;
+
+    private final ResponseCacheInterceptor responseCache;
+
+    private final WalletSnapshot walletSnapshot;
+
+    private final BaseUrlRouter baseUrlRouter;
+
+    private final AtomicLong loggedBodies = new AtomicLong();
 
     /**
      * Method to provide a couple of actions to make a transaction. Includes prepare and create a Transaction
@@ -47,24 +101,34 @@ public class RequestsUtil {
      * @return body of response
      */
     public String sendBTC(final String apiKey, final BigDecimal fee, final BigDecimal amount, final String destinationAddress) {
-        logger.debug(format("Send BTC with next params: {apiKey=%s}, {fee=%s}, {amount=%s}, {destinationAddress=%s}",
-                apiKey, fee.toString(), amount.toString(), destinationAddress));
+        logger.debug("Send BTC with next params: {apiKey=%s}, {fee=%s}, {amount=%s}, {destinationAddress=%s}",
+                apiKey, fee, amount, destinationAddress);
         final String responseBody = prepareTransaction(apiKey, fee, amount, destinationAddress);
         createTransaction(apiKey, fee, amount, destinationAddress);
+        walletIndexCache.invalidate(accountKey(apiKey));
+        responseCache.invalidate(accountKey(apiKey));
+        walletSnapshot.invalidate(accountKey(apiKey));
         return responseBody;
     }
 
     /**
-     * Use it ONLY for testing with manual operations! It is a stub for fake operation
+     * Makes a single transaction to many recipients. Includes prepare and create a Transaction
      *
-     * @param fromWallet - address from where will be transaction
-     * @param toWallet   - address to where will be transaction (destination)
-     * @param fee        - number of custom fee
-     * @param amount     - number of amount to pay
+     * @param apiKey  - key of account
+     * @param fee     - number custom of fee
+     * @param payouts - list of {@link Payout} with unique destination addresses
+     * @return body of response
      */
-    public void changeBalance(final WalletApi fromWallet, final WalletApi toWallet, final BigDecimal fee, final BigDecimal amount) {
-        fromWallet.setAvailableBalance(fromWallet.getAvailableBalanceAsNumber().subtract(fee).subtract(amount).toString());
-        toWallet.setAvailableBalance(toWallet.getAvailableBalanceAsNumber().add(amount).toString());
+    public String sendBTC(final String apiKey, final BigDecimal fee, final List<Payout> payouts) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Send BTC to %d recipients with next params: {apiKey=%s}, {fee=%s}", payouts.size(), apiKey, fee);
+        }
+        final String responseBody = prepareTransaction(apiKey, fee, payouts);
+        payouts.forEach(payout -> createTransaction(apiKey, fee, payout.getAmount(), payout.getDestinationAddress()));
+        walletIndexCache.invalidate(accountKey(apiKey));
+        responseCache.invalidate(accountKey(apiKey));
+        walletSnapshot.invalidate(accountKey(apiKey));
+        return responseBody;
     }
 
     /**
@@ -76,8 +140,8 @@ public class RequestsUtil {
      * @param destinationAddress - to address of wallet to where will be transaction
      */
     public void createTransaction(final String apiKey, final BigDecimal fee, final BigDecimal amount, final String destinationAddress) {
-        logger.debug(format("The transaction was created for api=%s, customFee=%s, amount=%s, destinationAddress=%s",
-                apiKey, fee, amount, destinationAddress));
+        logger.debug("The transaction was created for apiKey=%s, customFee=%s, amount=%s, destinationAddress=%s",
+                apiKey, fee, amount, destinationAddress);
     }
 
     /**
@@ -100,11 +164,47 @@ public class RequestsUtil {
      * @return body of response
      */
     public String prepareTransaction(final String apiKey, final BigDecimal fee, final BigDecimal amount, final String destinationAddress) {
-        final String url = format("%sprepare_transaction/?api_key=%s&priority=custom&custom_network_fee=%s&amounts=%s&to_addresses=%s",
-                TestConstants.BASE_URL, apiKey, fee, amount, destinationAddress);
-        logger.debug(format("Prepare a transaction with next params: {apiKey=%s}, {fee=%s}, {amount=%s}, {destinationAddress=%s} by url=%s",
-                apiKey, fee.toString(), amount.toString(), destinationAddress, url));
-        return sendFakeRequestAndGetResponse(url);
+        final URI url = PREPARE_TRANSACTION.expand(baseUrlRouter, apiKey, fee, amount, destinationAddress);
+        logger.debug("Prepare a transaction with next params: {apiKey=%s}, {fee=%s}, {amount=%s}, {destinationAddress=%s} by url=%s",
+                apiKey, fee, amount, destinationAddress, url);
+        return sendGetRequestAndGetResponse(url);
+    }
+
+    /**
+     * Send a request for a single transaction to many recipients
+     *
+     * @param apiKey  - key of account
+     * @param fee     - number custom of fee
+     * @param payouts - list of {@link Payout} with unique destination addresses
+     * @return body of response
+     */
+    public String prepareTransaction(final String apiKey, final BigDecimal fee, final List<Payout> payouts) {
+        final List<BigDecimal> amounts = new ArrayList<>(payouts.size());
+        final List<String> destinationAddresses = new ArrayList<>(payouts.size());
+        for (final Payout payout : payouts) {
+            amounts.add(payout.getAmount());
+            destinationAddresses.add(payout.getDestinationAddress());
+        }
+        final URI url = PREPARE_TRANSACTION.expand(baseUrlRouter, apiKey, fee, amounts, destinationAddresses);
+        if (logger.isDebugEnabled()) {
+            logger.debug("Prepare a transaction to %d recipients by url=%s", payouts.size(), url);
+        }
+        return sendGetRequestAndGetResponse(url);
+    }
+
+    /**
+     * Send requests for many transactions concurrently. The number of requests in flight is bounded by {@link ConcurrencyLimiter}
+     *
+     * @param apiKey  - key of account
+     * @param fee     - number custom of fee
+     * @param payouts - list of {@link Payout} to prepare
+     * @return bodies of responses in order of payouts
+     */
+    public List<String> prepareTransactions(final String apiKey, final BigDecimal fee, final List<Payout> payouts) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Prepare %d transactions for apiKey=%s", payouts.size(), apiKey);
+        }
+        return invokeAll(payouts, payout -> prepareTransaction(apiKey, fee, payout.getAmount(), payout.getDestinationAddress()));
     }
 
     /**
@@ -114,54 +214,144 @@ public class RequestsUtil {
      * @param labelName - custom label name to create
      */
     public void createWalletWithGivenLabel(final String apiKey, final String labelName) {
-        final String url = format("%sget_new_address/?api_key=%s&label=%s",
-                TestConstants.BASE_URL, TestConstants.FAKE_KEY, TestConstants.LABEL);
-        logger.debug(format("Send a request to create a wallet={%s}", url));
+        final URI url = GET_NEW_ADDRESS.expand(baseUrlRouter, accountKey(apiKey), labelName);
+        logger.debug("Send a request to create a wallet={%s}", url);
 
         sendGetRequestAndGetResponse(url);
+        walletIndexCache.invalidate(accountKey(apiKey));
+        responseCache.invalidate(accountKey(apiKey));
+        walletSnapshot.invalidate(accountKey(apiKey));
     }
 
     /**
-     * Find a wallet with specific address
+     * Find a wallet with specific address. Wallets are taken from {@link WalletIndexCache}
      *
      * @param apiKey   - key of account
      * @param walletId - address of wallet
      * @return {@link WalletApi} if exists or Threw an {@link java.util.NoSuchElementException} exception
      */
     public WalletApi getWalletByAddress(final String apiKey, final String walletId) {
-        logger.debug(format("Get wallet by address=%s", walletId));
-        return getWallets(apiKey).stream()
-                .filter(wallet -> wallet.getAddress().equals(walletId))
-                .findFirst()
+        logger.debug("Get wallet by address=%s", walletId);
+        return walletIndexCache.findByAddress(accountKey(apiKey), walletId, this::loadWallets)
+                .orElseThrow();
+    }
+
+    /**
+     * Find many wallets concurrently. The number of requests in flight is bounded by {@link ConcurrencyLimiter}
+     *
+     * @param apiKey    - key of account
+     * @param addresses - addresses of wallets
+     * @return map of address to {@link WalletApi}. Addresses without wallet are absent
+     */
+    public Map<String, WalletApi> getWalletsByAddresses(final String apiKey, final Collection<String> addresses) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Get %d wallets by addresses", addresses.size());
+        }
+        final Map<String, WalletApi> wallets = new LinkedHashMap<>();
+        invokeAll(addresses, address -> walletIndexCache.findByAddress(accountKey(apiKey), address, this::loadWallets))
+                .forEach(wallet -> wallet.ifPresent(found -> wallets.put(found.getAddress(), found)));
+        return wallets;
+    }
+
+    /**
+     * Find a wallet with specific label. Wallets are taken from {@link WalletIndexCache}
+     *
+     * @param apiKey - key of account
+     * @param label  - label of wallet
+     * @return {@link WalletApi} if exists or Threw an {@link java.util.NoSuchElementException} exception
+     */
+    public WalletApi getWalletByLabel(final String apiKey, final String label) {
+        logger.debug("Get wallet by label=%s", label);
+        return walletIndexCache.findByLabel(accountKey(apiKey), label, this::loadWallets)
                 .orElseThrow();
     }
 
     /**
-     * Gets all non-archived wallets
+     * Gets all non-archived wallets of all pages
      *
      * @param apiKey - key of account
      * @return list of wallets
      */
     public List<WalletApi> getWallets(final String apiKey) {
-        final String url = format("%sget_my_addresses/?api_key=%s&page=1",
-                TestConstants.BASE_URL, Objects.nonNull(apiKey) ? apiKey : TestConstants.VALID_KEY);
-        logger.debug(format("Get all non-archived wallets by url=%s", url));
+        final List<WalletApi> wallets = new ArrayList<>();
+        forEachWallet(apiKey, wallets::add);
+        return wallets;
+    }
 
-        return getListWallets(sendGetRequestAndGetResponse(url));
+    /**
+     * Passes all non-archived wallets of all pages one by one to the consumer without collecting them
+     *
+     * @param apiKey   - key of account
+     * @param consumer - callback for every wallet
+     */
+    public void forEachWallet(final String apiKey, final Consumer<WalletApi> consumer) {
+        try (WalletPageIterator wallets = getWalletIterator(apiKey)) {
+            wallets.forEachRemaining(consumer);
+        }
     }
 
     /**
-     * Gets all archived wallets
+     * Lazy iterator over non-archived wallets of all pages. Next pages are requested in advance
+     *
+     * @param apiKey - key of account
+     * @return iterator which should be closed if it is not read till the end
+     */
+    public WalletPageIterator getWalletIterator(final String apiKey) {
+        final String key = accountKey(apiKey);
+        return new WalletPageIterator(page -> getWalletPage("get_my_addresses", key, page),
+                properties.getPagination().getPrefetchPages(), blockIoExecutor);
+    }
+
+    /**
+     * Gets all archived wallets of all pages
      *
      * @param apiKey - key of account
      * @return list of archived wallets
      */
     public List<WalletApi> getArchivedWallets(final String apiKey) {
-        final String url = format("%sget_my_archived_addresses/?api_key=%s&page=1",
-                TestConstants.BASE_URL, TestConstants.VALID_KEY);
-        logger.debug(format("Get archived wallets for {%s} by url=%s", apiKey, url));
+        final List<WalletApi> wallets = new ArrayList<>();
+        try (WalletPageIterator archivedWallets = getArchivedWalletIterator(apiKey)) {
+            archivedWallets.forEachRemaining(wallets::add);
+        }
+        return wallets;
+    }
 
-        return getListWallets(sendGetRequestAndGetResponse(url));
+    /**
+     * Lazy iterator over archived wallets of all pages. Next pages are requested in advance
+     *
+     * @param apiKey - key of account
+     * @return iterator which should be closed if it is not read till the end
+     */
+    public WalletPageIterator getArchivedWalletIterator(final String apiKey) {
+        logger.debug("Get archived wallets for {apiKey=%s}", apiKey);
+        final String key = accountKey(apiKey);
+        return new WalletPageIterator(page -> getWalletPage("get_my_archived_addresses", key, page),
+                properties.getPagination().getPrefetchPages(), blockIoExecutor);
+    }
+
+    /**
+     * Gets a single page of wallets
+     *
+     * @param endpoint - "get_my_addresses" or "get_my_archived_addresses"
+     * @param apiKey   - key of account
+     * @param page     - number of page starting from 1
+     * @return {@link ResponseDataApi} with wallets of the page
+     */
+    public ResponseDataApi getWalletPage(final String endpoint, final String apiKey, final int page) {
+        final UrlTemplate template = WALLET_PAGES.get(endpoint);
+        if (Objects.isNull(template)) {
+            throw new IllegalArgumentException(format("Endpoint=%s does not return wallets", endpoint));
+        }
+        final URI url = template.expand(baseUrlRouter, apiKey, page);
+        if (logger.isDebugEnabled()) {
+            logger.debug("Get page %d of wallets by url=%s", page, url);
+        }
+
+        final List<WalletApi> wallets = new ArrayList<>();
+        final ResponseDataApi responseData = sendGetRequestAndExtract(url,
+                body -> streamingResponseParser.readWallets(body, wallets::add));
+        responseData.setAddresses(wallets);
+        return responseData;
     }
 
     /**
@@ -170,12 +360,9 @@ public class RequestsUtil {
      * @return list of transactions
      */
     public List<TransactionApi> getSentTransactions() {
-        final String url = String.format("%sget_transactions/?api_key=%s&type=sent",
-                TestConstants.BASE_URL, TestConstants.VALID_KEY);
-        logger.debug(format("Get SENT transactions by url=%s", url));
-
-        final String response = sendGetRequestAndGetResponse(url);
-        return getTransactionApis(response);
+        final List<TransactionApi> transactions = new ArrayList<>();
+        forEachTransaction(TransactionType.SENT, transactions::add);
+        return transactions;
     }
 
     /**
@@ -185,10 +372,7 @@ public class RequestsUtil {
      */
     public void updateTransactionList(final List<TransactionApi> transactions) {
         final TransactionApi transactionApi = transactions.get(0);
-        final TransactionApi clone = transactionApi.clone().toBuilder()
-                .txid("t".repeat(46))
-                .build();
-        transactions.add(clone);
+        transactions.add(transactionApi.withTxid("t".repeat(46)));
     }
 
     /**
@@ -197,51 +381,231 @@ public class RequestsUtil {
      * @return list of transactions
      */
     public List<TransactionApi> getReceivedTransactions() {
-        final String url = String.format("%sget_transactions/?api_key=%s&type=received",
-                TestConstants.BASE_URL, TestConstants.VALID_KEY);
-        logger.debug(format("Get RECEIVED transactions by url=%s", url));
+        final List<TransactionApi> transactions = new ArrayList<>();
+        forEachTransaction(TransactionType.RECEIVED, transactions::add);
+        return transactions;
+    }
 
-        final String response = sendGetRequestAndGetResponse(url);
+    /**
+     * Gets all transactions of given type in compact form. Every transaction is compacted as soon as it is parsed,
+     * so addresses are interned and the regular form of the history is never kept in memory
+     *
+     * @param type    - {@link TransactionType} of transactions
+     * @param symbols - table to intern addresses into, can be shared between calls
+     * @return compact transactions
+     */
+    public CompactTransactions getCompactTransactions(final TransactionType type, final SymbolTable symbols) {
+        final CompactTransactions transactions = new CompactTransactions(symbols);
+        forEachTransaction(type, transactions::add);
+        return transactions;
+    }
 
-        return getTransactionApis(response);
+    /**
+     * Gets the history of transactions of given type in columnar form for analytics. Pages are read from the newest one
+     * with "before_tx" paging until the history is over or "maxPages" pages are read. Every transaction is added
+     * to columns as soon as it is parsed, so the regular form of the history is never kept in memory
+     *
+     * @param apiKey   - key of account
+     * @param type     - {@link TransactionType} of transactions
+     * @param symbols  - table to intern addresses into, can be shared between calls
+     * @param maxPages - max number of pages to read, the older part of a longer history is not read
+     * @return columns of transactions from newest to oldest
+     */
+    public TransactionColumns getTransactionColumns(final String apiKey, final TransactionType type,
+                                                    final SymbolTable symbols, final int maxPages) {
+        final TransactionColumns.Builder columns = new TransactionColumns.Builder(symbols);
+        final String[] lastTxid = new String[1];
+        String beforeTx = null;
+        for (int pages = 0; pages < maxPages; pages++) {
+            forEachTransaction(apiKey, type, beforeTx, transaction -> {
+                columns.add(transaction);
+                lastTxid[0] = transaction.getTxid();
+            });
+            if (Objects.equals(lastTxid[0], beforeTx)) {
+                break;
+            }
+            beforeTx = lastTxid[0];
+        }
+        return columns.build();
     }
 
-    private List<TransactionApi> getTransactionApis(String response) {
-        final TransactionResponseApi transaction = mapJsonToObject(response, TransactionResponseApi.class);
-        return Objects.nonNull(transaction.getData().getTransactions())
-                ? transaction.getData().getTransactions()
-                : Collections.emptyList();
+    /**
+     * Streams all transactions of given type one by one without collecting them
+     *
+     * @param type     - {@link TransactionType} of transactions
+     * @param consumer - callback for every transaction
+     */
+    public void forEachTransaction(final TransactionType type, final Consumer<TransactionApi> consumer) {
+        forEachTransaction(TestConstants.VALID_KEY, type, null, consumer);
     }
 
-    private List<WalletApi> getListWallets(final String response) {
-        final ResponseApi responseApi = mapJsonToObject(response, ResponseApi.class);
-        return Objects.nonNull(responseApi)
-                && Objects.nonNull(responseApi.getData())
-                && Objects.nonNull(responseApi.getData().getAddresses())
-                ? responseApi.getData().getAddresses() : Collections.emptyList();
+    /**
+     * Gets a single page of transactions of given type, from newest to oldest
+     *
+     * @param apiKey   - key of account
+     * @param type     - {@link TransactionType} of transactions
+     * @param beforeTx - txid to get only transactions older than it, or null to get the newest ones
+     * @return list of transactions
+     */
+    public List<TransactionApi> getTransactions(final String apiKey, final TransactionType type, final String beforeTx) {
+        final List<TransactionApi> transactions = new ArrayList<>();
+        forEachTransaction(apiKey, type, beforeTx, transactions::add);
+        return transactions;
     }
 
-    private <T> T mapJsonToObject(final String json, final Class<T> clazz) {
-        try {
-            return objectMapper.readValue(json, clazz);
-        } catch (final Exception e) {
-            throw new CustomRuntimeException(format("Could not parse json=%s", json), e);
+    /**
+     * Streams a single page of transactions of given type one by one without collecting them
+     *
+     * @param apiKey   - key of account
+     * @param type     - {@link TransactionType} of transactions
+     * @param beforeTx - txid to get only transactions older than it, or null to get the newest ones
+     * @param consumer - callback for every transaction
+     */
+    public void forEachTransaction(final String apiKey, final TransactionType type, final String beforeTx,
+                                   final Consumer<TransactionApi> consumer) {
+        final URI url = Objects.nonNull(beforeTx)
+                ? GET_TRANSACTIONS_BEFORE.expand(baseUrlRouter, accountKey(apiKey), type.getRepresentation(), beforeTx)
+                : GET_TRANSACTIONS.expand(baseUrlRouter, accountKey(apiKey), type.getRepresentation());
+        logger.debug("Get %s transactions by url=%s", type, url);
+
+        sendGetRequestAndExtract(url, body -> streamingResponseParser.readTransactions(body, consumer));
+    }
+
+    /**
+     * Urls are passed to {@link RestTemplate} as {@link URI}, so values encoded by {@link UrlTemplate} are not encoded again
+     */
+    private String sendGetRequestAndGetResponse(final URI url) {
+        logger.debug("Sending request for url=%s", url);
+        final ResponseEntity<String> forEntity = concurrencyLimiter.call(() -> restTemplate.getForEntity(url, String.class));
+        final String body = forEntity.getBody();
+        logBody(url, body);
+
+        return body;
+    }
+
+    /**
+     * Logs the body on DEBUG level. Long bodies are truncated and only every n-th body is logged
+     */
+    private void logBody(final URI url, final String body) {
+        final BlockIoProperties.Logging logging = properties.getLogging();
+        if (!logger.isDebugEnabled() || Objects.isNull(body)
+                || loggedBodies.getAndIncrement() % Math.max(1, logging.getBodySampleRate()) != 0) {
+            return;
+        }
+        final int maxLength = logging.getMaxBodyLength();
+        if (body.length() > maxLength) {
+            logger.debug("Response of url=%s: %s... (%s of %s chars)", url, body.substring(0, maxLength), maxLength, body.length());
+        } else {
+            logger.debug("Response of url=%s: %s", url, body);
         }
     }
 
+    /**
+     * Loads wallets of {@link WalletIndexCache}: they are taken from {@link WalletSnapshot} if they are fresh there
+     */
+    private List<WalletApi> loadWallets(final String apiKey) {
+        return walletSnapshot.take(apiKey, this::newestTransactionTime).orElseGet(() -> getWallets(apiKey));
+    }
 
-    private String sendFakeRequestAndGetResponse(final String url) {
-        final String convertedUrl = url.replace("https://block.io", "http://localhost:9090");
-        return sendGetRequestAndGetResponse(convertedUrl);
+    /**
+     * Reads the newest page of sent and of received transactions concurrently
+     *
+     * @return time in seconds of the newest sent or received transaction, or 0 if there are none
+     */
+    private long newestTransactionTime(final String apiKey) {
+        long newest = 0;
+        for (final List<TransactionApi> page : invokeAll(List.of(TransactionType.values()),
+                type -> getTransactions(apiKey, type, null))) {
+            if (!page.isEmpty()) {
+                newest = Math.max(newest, page.get(0).getTime());
+            }
+        }
+        return newest;
     }
 
-    private String sendGetRequestAndGetResponse(final String url) {
-        logger.debug(format("Sending request for url=%s", url));
-        final ResponseEntity<String> forEntity = restTemplate.getForEntity(url, String.class);
-        String body = forEntity.getBody();
+    private String accountKey(final String apiKey) {
+        return Objects.nonNull(apiKey) ? apiKey : TestConstants.VALID_KEY;
+    }
 
-        logger.info(body);
+    private <T> T sendGetRequestAndExtract(final URI url, final BodyExtractor<T> extractor) {
+        logger.debug("Sending streaming request for url=%s", url);
+        final String endpoint = BlockIoMetrics.endpointOf(url);
+        final ResponseExtractor<T> responseExtractor = response -> {
+            final long start = System.nanoTime();
+            try {
+                return extractor.extract(response.getBody());
+            } catch (final JsonProcessingException e) {
+                throw new CustomRuntimeException(format("Could not parse response of url=%s", LazyLog.mask(url.toString())), e);
+            } finally {
+                metrics.recordParse(endpoint, System.nanoTime() - start);
+            }
+        };
+        return concurrencyLimiter.call(() -> restTemplate.execute(url, HttpMethod.GET, null, responseExtractor));
+    }
 
-        return body;
+    /**
+     * Runs the action for every item on the BlockIo executor and waits for all results. Items which have not been
+     * started by the executor yet are run by the waiting thread itself, so a call made on a thread of the same executor,
+     * for example by {@link AsyncRequestsUtil}, can't wait for tasks queued behind it
+     */
+    private <T, R> List<R> invokeAll(final Collection<T> items, final Function<T, R> action) {
+        final List<CallerRunsTask<R>> tasks = new ArrayList<>(items.size());
+        for (final T item : items) {
+            final CallerRunsTask<R> task = new CallerRunsTask<>(() -> action.apply(item));
+            tasks.add(task);
+            try {
+                blockIoExecutor.execute(task);
+            } catch (final RejectedExecutionException e) {
+                logger.debug("BlockIo executor rejected a task, it is run by the caller");
+            }
+        }
+        try {
+            final List<R> results = new ArrayList<>(tasks.size());
+            for (final CallerRunsTask<R> task : tasks) {
+                task.run();
+                results.add(task.result.join());
+            }
+            return results;
+        } catch (final CompletionException e) {
+            tasks.forEach(CallerRunsTask::cancel);
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new CustomRuntimeException("Could not complete a batch of BlockIo requests", e.getCause());
+        }
+    }
+
+    /**
+     * Task which is run either by the executor or by the waiting thread, whichever comes first
+     */
+    private static final class CallerRunsTask<R> implements Runnable {
+        private final Supplier<R> action;
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        private final CompletableFuture<R> result = new CompletableFuture<>();
+
+        private CallerRunsTask(final Supplier<R> action) {
+            this.action = action;
+        }
+
+        @Override
+        public void run() {
+            if (claimed.compareAndSet(false, true)) {
+                try {
+                    result.complete(action.get());
+                } catch (final RuntimeException e) {
+                    result.completeExceptionally(e);
+                }
+            }
+        }
+
+        private void cancel() {
+            claimed.set(true);
+            result.cancel(false);
+        }
+    }
+
+    @FunctionalInterface
+    private interface BodyExtractor<T> {
+        T extract(InputStream body) throws IOException;
     }
 }
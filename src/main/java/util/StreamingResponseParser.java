@@ -0,0 +1,203 @@
+package util;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import model.transaction.TransactionApi;
+import model.transaction.TransactionDataApi;
+import model.wallet.ResponseDataApi;
+import model.wallet.WalletApi;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * This class decodes BlockIo responses directly from the response stream.
+ * Wallets and transactions are emitted one by one, so memory doesn't depend on the size of the page.
+ * Elements are bound by an {@link ObjectReader} resolved once per type, so the deserializer is not looked up per element
+ */
+@Component
+public class StreamingResponseParser {
+    private static final String DATA = "data";
+    private static final String ADDRESSES = "addresses";
+    private static final String TRANSACTIONS = "txs";
+
+    private final ObjectMapper objectMapper;
+
+    private final ObjectReader walletReader;
+
+    private final ObjectReader transactionReader;
+
+    private final Map<Class<?>, ObjectReader> readers = new ConcurrentHashMap<>();
+
+    public StreamingResponseParser(final ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.walletReader = readerFor(WalletApi.class);
+        this.transactionReader = readerFor(TransactionApi.class);
+    }
+
+    /**
+     * Reads a response of "get_my_addresses"/"get_my_archived_addresses" and passes every wallet to the consumer
+     *
+     * @param body     - stream of response body
+     * @param consumer - callback for every wallet
+     * @return {@link ResponseDataApi} with network, page and has_more fields. Addresses are NOT collected
+     */
+    public ResponseDataApi readWallets(final InputStream body, final Consumer<WalletApi> consumer) throws IOException {
+        final ResponseDataApi envelope = new ResponseDataApi();
+        readData(body, ADDRESSES, walletReader, consumer, (field, parser) -> {
+            switch (field) {
+                case "network":
+                    envelope.setNetwork(parser.getValueAsString());
+                    break;
+                case "page":
+                    envelope.setPage(parser.getValueAsInt());
+                    break;
+                case "has_more":
+                    envelope.setHas_more(parser.getValueAsBoolean());
+                    break;
+                default:
+                    break;
+            }
+        });
+        return envelope;
+    }
+
+    /**
+     * Reads a response of "get_transactions" and passes every transaction to the consumer
+     *
+     * @param body     - stream of response body
+     * @param consumer - callback for every transaction
+     * @return {@link TransactionDataApi} with network field. Transactions are NOT collected
+     */
+    public TransactionDataApi readTransactions(final InputStream body, final Consumer<TransactionApi> consumer) throws IOException {
+        final TransactionDataApi envelope = new TransactionDataApi();
+        readData(body, TRANSACTIONS, transactionReader, consumer, (field, parser) -> {
+            if ("network".equals(field)) {
+                envelope.setNetwork(parser.getValueAsString());
+            }
+        });
+        return envelope;
+    }
+
+    /**
+     * Lazy stream of wallets. The stream must be closed to release the body
+     *
+     * @param body - stream of response body
+     * @return stream of wallets
+     */
+    public Stream<WalletApi> streamWallets(final InputStream body) throws IOException {
+        return toStream(iterate(body, ADDRESSES, WalletApi.class));
+    }
+
+    /**
+     * Lazy stream of transactions. The stream must be closed to release the body
+     *
+     * @param body - stream of response body
+     * @return stream of transactions
+     */
+    public Stream<TransactionApi> streamTransactions(final InputStream body) throws IOException {
+        return toStream(iterate(body, TRANSACTIONS, TransactionApi.class));
+    }
+
+    /**
+     * Creates an iterator over "data.{arrayField}". Fields placed after the array are not read
+     *
+     * @param body       - stream of response body
+     * @param arrayField - name of array inside "data" object
+     * @param type       - type of array element
+     * @return iterator which must be closed after usage
+     */
+    public <T> JsonArrayIterator<T> iterate(final InputStream body, final String arrayField, final Class<T> type) throws IOException {
+        final JsonParser parser = objectMapper.createParser(body);
+        try {
+            moveToArray(parser, arrayField);
+        } catch (final IOException | RuntimeException e) {
+            parser.close();
+            throw e;
+        }
+        return new JsonArrayIterator<>(parser, readerFor(type));
+    }
+
+    private <T> void readData(final InputStream body, final String arrayField, final ObjectReader reader,
+                              final Consumer<T> consumer, final FieldHandler envelopeHandler) throws IOException {
+        try (JsonParser parser = objectMapper.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                final String field = parser.getCurrentName();
+                if (parser.nextToken() == JsonToken.START_OBJECT && DATA.equals(field)) {
+                    readDataObject(parser, arrayField, reader, consumer, envelopeHandler);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+    }
+
+    private <T> void readDataObject(final JsonParser parser, final String arrayField, final ObjectReader reader,
+                                    final Consumer<T> consumer, final FieldHandler envelopeHandler) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            final String field = parser.getCurrentName();
+            final JsonToken token = parser.nextToken();
+            if (token == JsonToken.START_ARRAY && arrayField.equals(field)) {
+                JsonToken element;
+                while ((element = parser.nextToken()) != JsonToken.END_ARRAY) {
+                    if (element == JsonToken.START_OBJECT) {
+                        consumer.accept(reader.readValue(parser));
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            } else if (token.isScalarValue()) {
+                envelopeHandler.accept(field, parser);
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private void moveToArray(final JsonParser parser, final String arrayField) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            return;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            final String field = parser.getCurrentName();
+            if (parser.nextToken() == JsonToken.START_OBJECT && DATA.equals(field)) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    final String dataField = parser.getCurrentName();
+                    if (parser.nextToken() == JsonToken.START_ARRAY && arrayField.equals(dataField)) {
+                        return;
+                    }
+                    parser.skipChildren();
+                }
+                return;
+            }
+            parser.skipChildren();
+        }
+    }
+
+    private ObjectReader readerFor(final Class<?> type) {
+        return readers.computeIfAbsent(type, objectMapper::readerFor);
+    }
+
+    private <T> Stream<T> toStream(final JsonArrayIterator<T> iterator) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(iterator::close);
+    }
+
+    @FunctionalInterface
+    private interface FieldHandler {
+        void accept(String field, JsonParser parser) throws IOException;
+    }
+}
@@ -0,0 +1,214 @@
+package util;
+
+import config.BlockIoProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import model.wallet.WalletApi;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * In-memory index of wallets per api key. Wallets are indexed by address and by label,
+ * so repeated lookups don't require a request to BlockIo until the index expires or is invalidated.
+ * The number of cached accounts is bounded, the least recently used account is evicted first.
+ * Concurrent lookups of the same account wait for a single load instead of loading it again.
+ * Wallets are immutable, so cached instances are returned as is
+ */
+@Component
+@RequiredArgsConstructor
+public class WalletIndexCache {
+    private final LazyLog logger = new LazyLog(LogFactory.getLog(this.getClass()));
+
+    private final BlockIoProperties properties;
+
+    private final Map<String, WalletIndex> indexes = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final Map<String, CompletableFuture<WalletIndex>> loadingIndexes = new HashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Find a wallet with specific address
+     *
+     * @param apiKey  - key of account
+     * @param address - address of wallet
+     * @param loader  - loads all wallets of account if the index is absent or expired
+     * @return cached {@link WalletApi} or empty if there is no such address
+     */
+    public Optional<WalletApi> findByAddress(final String apiKey, final String address,
+                                             final Function<String, List<WalletApi>> loader) {
+        return Optional.ofNullable(getIndex(apiKey, loader).byAddress.get(address));
+    }
+
+    /**
+     * Find a wallet with specific label
+     *
+     * @param apiKey - key of account
+     * @param label  - label of wallet
+     * @param loader - loads all wallets of account if the index is absent or expired
+     * @return cached {@link WalletApi} or empty if there is no such label
+     */
+    public Optional<WalletApi> findByLabel(final String apiKey, final String label,
+                                           final Function<String, List<WalletApi>> loader) {
+        return Optional.ofNullable(getIndex(apiKey, loader).byLabel.get(label));
+    }
+
+    /**
+     * Drops the index of account. Should be called after any operation which changes wallets of the account
+     *
+     * @param apiKey - key of account
+     */
+    public void invalidate(final String apiKey) {
+        logger.debug("Invalidate wallet index of apiKey=%s", apiKey);
+        synchronized (indexes) {
+            indexes.remove(apiKey);
+            loadingIndexes.remove(apiKey);
+        }
+    }
+
+    /**
+     * Drops indexes of all accounts
+     */
+    public void invalidateAll() {
+        synchronized (indexes) {
+            indexes.clear();
+            loadingIndexes.clear();
+        }
+    }
+
+    /**
+     * @return wallets of accounts with indexes which are not expired, with the wall clock time they were loaded at
+     */
+    public List<CachedWallets> getCachedWallets() {
+        final long now = System.nanoTime();
+        final long nowMillis = System.currentTimeMillis();
+        final List<CachedWallets> cached = new ArrayList<>();
+        synchronized (indexes) {
+            indexes.forEach((apiKey, index) -> {
+                if (now - index.loadedAt < properties.getWalletCache().getTtl().toNanos()) {
+                    cached.add(new CachedWallets(apiKey, index.wallets,
+                            nowMillis - TimeUnit.NANOSECONDS.toMillis(now - index.loadedAt)));
+                }
+            });
+        }
+        return cached;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    private WalletIndex getIndex(final String apiKey, final Function<String, List<WalletApi>> loader) {
+        final long now = System.nanoTime();
+        final CompletableFuture<WalletIndex> inProgress;
+        final CompletableFuture<WalletIndex> loading;
+        synchronized (indexes) {
+            final WalletIndex index = indexes.get(apiKey);
+            if (Objects.nonNull(index) && now - index.loadedAt < properties.getWalletCache().getTtl().toNanos()) {
+                hits.increment();
+                return index;
+            }
+            if (Objects.nonNull(index)) {
+                indexes.remove(apiKey);
+                evictions.increment();
+            }
+            loading = new CompletableFuture<>();
+            inProgress = loadingIndexes.putIfAbsent(apiKey, loading);
+        }
+        if (Objects.nonNull(inProgress)) {
+            hits.increment();
+            return await(inProgress);
+        }
+
+        misses.increment();
+        try {
+            final WalletIndex index = new WalletIndex(loader.apply(apiKey), now);
+            synchronized (indexes) {
+                if (loadingIndexes.remove(apiKey, loading)) {
+                    indexes.put(apiKey, index);
+                    evictEldest();
+                }
+            }
+            loading.complete(index);
+            return index;
+        } catch (final RuntimeException e) {
+            synchronized (indexes) {
+                loadingIndexes.remove(apiKey, loading);
+            }
+            loading.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Waits for the index which is being loaded by another thread
+     */
+    private WalletIndex await(final CompletableFuture<WalletIndex> loading) {
+        try {
+            return loading.join();
+        } catch (final CompletionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+    }
+
+    private void evictEldest() {
+        final int maxAccounts = properties.getWalletCache().getMaxAccounts();
+        while (indexes.size() > maxAccounts) {
+            final String eldest = indexes.keySet().iterator().next();
+            indexes.remove(eldest);
+            evictions.increment();
+        }
+    }
+
+    @Value
+    public static class CachedWallets {
+        String apiKey;
+
+        List<WalletApi> wallets;
+
+        long loadedAtMillis;
+    }
+
+    private static final class WalletIndex {
+        private final List<WalletApi> wallets;
+        private final Map<String, WalletApi> byAddress;
+        private final Map<String, WalletApi> byLabel;
+        private final long loadedAt;
+
+        private WalletIndex(final List<WalletApi> wallets, final long loadedAt) {
+            this.wallets = wallets;
+            this.byAddress = new HashMap<>(wallets.size() * 2);
+            this.byLabel = new HashMap<>(wallets.size() * 2);
+            this.loadedAt = loadedAt;
+            wallets.forEach(wallet -> {
+                byAddress.put(wallet.getAddress(), wallet);
+                if (Objects.nonNull(wallet.getLabel())) {
+                    byLabel.put(wallet.getLabel(), wallet);
+                }
+            });
+        }
+    }
+}
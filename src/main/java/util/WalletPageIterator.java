@@ -0,0 +1,148 @@
+package util;
+
+import exceptions.CustomRuntimeException;
+import model.wallet.ResponseDataApi;
+import model.wallet.WalletApi;
+
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntFunction;
+
+import static java.lang.String.format;
+
+/**
+ * Iterates over wallets of all pages following "has_more" flag.
+ * The first page is requested alone. Once a page reports "has_more", up to {@code prefetchPages} next pages
+ * are requested concurrently while the current page is read, but wallets are always returned in page order.
+ * Pages requested beyond the last one are discarded.
+ * A page which has not been started by the executor yet is loaded by the reading thread itself,
+ * so the iterator can't starve when it is read on a thread of the same executor
+ */
+public class WalletPageIterator implements Iterator<WalletApi>, Closeable {
+    private final IntFunction<ResponseDataApi> pageLoader;
+    private final int prefetchPages;
+    private final Executor executor;
+
+    private final Deque<PageTask> requestedPages = new ArrayDeque<>();
+    private Iterator<WalletApi> currentPage = Collections.emptyIterator();
+    private int nextPage = 1;
+    private boolean morePages;
+    private boolean lastPageReached;
+
+    /**
+     * @param pageLoader    - loads a page by its number starting from 1
+     * @param prefetchPages - max number of pages requested at the same time
+     * @param executor      - executor to load pages
+     */
+    public WalletPageIterator(final IntFunction<ResponseDataApi> pageLoader, final int prefetchPages, final Executor executor) {
+        this.pageLoader = pageLoader;
+        this.prefetchPages = Math.max(1, prefetchPages);
+        this.executor = executor;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!currentPage.hasNext()) {
+            if (lastPageReached) {
+                return false;
+            }
+            requestPages();
+            final ResponseDataApi page = requestedPages.pollFirst().await();
+            if (Objects.isNull(page) || !page.isHas_more()) {
+                lastPageReached = true;
+                close();
+            } else {
+                morePages = true;
+            }
+            currentPage = Objects.nonNull(page) && Objects.nonNull(page.getAddresses())
+                    ? page.getAddresses().iterator()
+                    : Collections.emptyIterator();
+        }
+        return true;
+    }
+
+    @Override
+    public WalletApi next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return currentPage.next();
+    }
+
+    /**
+     * Cancels all pages requested in advance
+     */
+    @Override
+    public void close() {
+        requestedPages.forEach(PageTask::cancel);
+        requestedPages.clear();
+    }
+
+    /**
+     * Requests only the first page until it is known that there are more pages, so an account with a single page
+     * costs a single request
+     */
+    private void requestPages() {
+        final int limit = morePages ? prefetchPages : 1;
+        while (requestedPages.size() < limit) {
+            final PageTask task = new PageTask(nextPage++);
+            requestedPages.addLast(task);
+            executor.execute(task);
+        }
+    }
+
+    /**
+     * Loading of a page which is done either by the executor or by the reading thread, whichever comes first
+     */
+    private final class PageTask implements Runnable {
+        private final int page;
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        private final CompletableFuture<ResponseDataApi> result = new CompletableFuture<>();
+
+        private PageTask(final int page) {
+            this.page = page;
+        }
+
+        @Override
+        public void run() {
+            if (claimed.compareAndSet(false, true)) {
+                load();
+            }
+        }
+
+        private ResponseDataApi await() {
+            run();
+            try {
+                return result.join();
+            } catch (final CompletionException e) {
+                close();
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new CustomRuntimeException(format("Could not load page %d of wallets", page), e.getCause());
+            }
+        }
+
+        private void cancel() {
+            claimed.set(true);
+            result.cancel(false);
+        }
+
+        private void load() {
+            try {
+                result.complete(pageLoader.apply(page));
+            } catch (final RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        }
+    }
+}
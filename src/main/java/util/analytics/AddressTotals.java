@@ -0,0 +1,55 @@
+package util.analytics;
+
+import model.transaction.compact.SymbolTable;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Totals of addresses in satoshis, indexed by ids of the {@link SymbolTable} the addresses were interned into
+ */
+public class AddressTotals {
+    private final SymbolTable symbols;
+
+    private final long[] totals;
+
+    AddressTotals(final SymbolTable symbols, final long[] totals) {
+        this.symbols = symbols;
+        this.totals = totals;
+    }
+
+    /**
+     * @param address - address
+     * @return total of address or 0 if it is unknown
+     */
+    public long get(final String address) {
+        final int id = symbols.id(address);
+        return id != SymbolTable.NO_SYMBOL && id < totals.length ? totals[id] : 0;
+    }
+
+    /**
+     * @return address to its total, only addresses with non-zero totals
+     */
+    public Map<String, Long> asMap() {
+        final Map<String, Long> values = new LinkedHashMap<>();
+        for (int id = 0; id < totals.length; id++) {
+            if (totals[id] != 0) {
+                values.put(symbols.symbol(id), totals[id]);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * @param limit - max number of addresses
+     * @return addresses with the largest totals, from the largest one
+     */
+    public List<Map.Entry<String, Long>> top(final int limit) {
+        final List<Map.Entry<String, Long>> values = new ArrayList<>(asMap().entrySet());
+        values.sort(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()));
+        return values.subList(0, Math.min(limit, values.size()));
+    }
+}
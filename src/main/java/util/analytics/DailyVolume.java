@@ -0,0 +1,58 @@
+package util.analytics;
+
+import java.time.LocalDate;
+
+/**
+ * Number of transactions and total amount sent by days in UTC, from the day of the oldest transaction
+ * to the day of the newest one
+ */
+public class DailyVolume {
+    private final LocalDate firstDay;
+
+    private final long[] transactions;
+
+    private final long[] amounts;
+
+    DailyVolume(final LocalDate firstDay, final long[] transactions, final long[] amounts) {
+        this.firstDay = firstDay;
+        this.transactions = transactions;
+        this.amounts = amounts;
+    }
+
+    /**
+     * @return number of days, days without transactions included
+     */
+    public int getDays() {
+        return transactions.length;
+    }
+
+    public LocalDate getFirstDay() {
+        return firstDay;
+    }
+
+    /**
+     * @param day - day in UTC
+     * @return number of transactions of the day
+     */
+    public long getTransactions(final LocalDate day) {
+        final int index = indexOf(day);
+        return index < 0 ? 0 : transactions[index];
+    }
+
+    /**
+     * @param day - day in UTC
+     * @return total amount sent in satoshis of the day
+     */
+    public long getAmount(final LocalDate day) {
+        final int index = indexOf(day);
+        return index < 0 ? 0 : amounts[index];
+    }
+
+    private int indexOf(final LocalDate day) {
+        if (transactions.length == 0) {
+            return -1;
+        }
+        final long index = day.toEpochDay() - firstDay.toEpochDay();
+        return index >= 0 && index < transactions.length ? (int) index : -1;
+    }
+}
@@ -0,0 +1,191 @@
+package util.analytics;
+
+import model.transaction.compact.SymbolTable;
+import model.transaction.compact.TransactionColumns;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+
+import static java.lang.String.format;
+
+/**
+ * Aggregation queries over {@link TransactionColumns} on a {@link ForkJoinPool}. Rows are split into ranges,
+ * every range is aggregated by a plain loop over primitive arrays into its own dense array
+ * and arrays are summed element by element on join, so threads never share state and loops can be vectorized.
+ * Ranges are large enough to make a few of them per thread, so dense arrays of all addresses stay affordable
+ */
+public class TransactionAnalytics {
+    private static final int MIN_RANGE = 1 << 14;
+    private static final int RANGES_PER_THREAD = 4;
+    private static final long SECONDS_PER_DAY = TimeUnit.DAYS.toSeconds(1);
+    private static final int MAX_DAYS = 100_000;
+
+    private final ForkJoinPool pool;
+
+    /**
+     * @param pool - pool to run queries on
+     */
+    public TransactionAnalytics(final ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Sums "amounts_sent" by recipient, amounts without a recipient are skipped
+     *
+     * @param columns - transactions
+     * @return volume received by every recipient
+     */
+    public AddressTotals volumeByRecipient(final TransactionColumns columns) {
+        return totalsByAddress(columns.getSymbols(), columns.getSentRecipients(), columns.getSentAmounts());
+    }
+
+    /**
+     * Sums "amounts_received" by recipient, amounts without a recipient are skipped
+     *
+     * @param columns - transactions
+     * @return amount received by every address of the account
+     */
+    public AddressTotals receivedByAddress(final TransactionColumns columns) {
+        return totalsByAddress(columns.getSymbols(), columns.getReceivedRecipients(), columns.getReceivedAmounts());
+    }
+
+    /**
+     * Sums "total_amount_sent" by sender. The model has no amounts of inputs, so a transaction
+     * with several senders is attributed to the first one
+     *
+     * @param columns - transactions
+     * @return amount sent by every sender
+     */
+    public AddressTotals totalSentBySender(final TransactionColumns columns) {
+        final SymbolTable symbols = columns.getSymbols();
+        final int addresses = symbols.size();
+        final long[] totalAmountsSent = columns.getTotalAmountsSent();
+        return new AddressTotals(symbols, aggregate(columns.getSize(), (from, to) -> {
+            final long[] totals = new long[addresses];
+            for (int i = from; i < to; i++) {
+                final int sender = columns.firstSender(i);
+                if (sender != SymbolTable.NO_SYMBOL) {
+                    totals[sender] += totalAmountsSent[i];
+                }
+            }
+            return totals;
+        }));
+    }
+
+    /**
+     * Counts transactions and sums "total_amount_sent" by days of "time" in UTC
+     *
+     * @param columns - transactions
+     * @return daily buckets from the oldest transaction to the newest one
+     */
+    public DailyVolume dailyVolume(final TransactionColumns columns) {
+        if (columns.getSize() == 0) {
+            return new DailyVolume(LocalDate.EPOCH, new long[0], new long[0]);
+        }
+        final long firstDay = Math.floorDiv(columns.getMinTime(), SECONDS_PER_DAY);
+        final long span = Math.floorDiv(columns.getMaxTime(), SECONDS_PER_DAY) - firstDay + 1;
+        if (span > MAX_DAYS) {
+            throw new IllegalArgumentException(format("Transactions span %d days, at most %d are supported", span, MAX_DAYS));
+        }
+        final int days = (int) span;
+        final long[] times = columns.getTimes();
+        final long[] totalAmountsSent = columns.getTotalAmountsSent();
+        // the first half of buckets counts transactions, the second one sums amounts
+        final long[] buckets = aggregate(columns.getSize(), (from, to) -> {
+            final long[] values = new long[days * 2];
+            for (int i = from; i < to; i++) {
+                final int day = (int) (Math.floorDiv(times[i], SECONDS_PER_DAY) - firstDay);
+                values[day]++;
+                values[days + day] += totalAmountsSent[i];
+            }
+            return values;
+        });
+        return new DailyVolume(LocalDate.ofEpochDay(firstDay),
+                Arrays.copyOfRange(buckets, 0, days), Arrays.copyOfRange(buckets, days, days * 2));
+    }
+
+    /**
+     * Counts transactions by number of confirmations
+     *
+     * @param columns          - transactions
+     * @param maxConfirmations - the last bucket counts transactions with this number of confirmations or more
+     * @return array where index is number of confirmations and value is number of transactions
+     */
+    public long[] confirmationDistribution(final TransactionColumns columns, final int maxConfirmations) {
+        if (maxConfirmations < 0) {
+            throw new IllegalArgumentException("Max confirmations should not be negative");
+        }
+        final int[] confirmations = columns.getConfirmations();
+        return aggregate(columns.getSize(), (from, to) -> {
+            final long[] counts = new long[maxConfirmations + 1];
+            for (int i = from; i < to; i++) {
+                counts[Math.max(0, Math.min(confirmations[i], maxConfirmations))]++;
+            }
+            return counts;
+        });
+    }
+
+    private AddressTotals totalsByAddress(final SymbolTable symbols, final int[] recipients, final long[] amounts) {
+        final int addresses = symbols.size();
+        return new AddressTotals(symbols, aggregate(recipients.length, (from, to) -> {
+            final long[] totals = new long[addresses];
+            for (int i = from; i < to; i++) {
+                final int recipient = recipients[i];
+                if (recipient != SymbolTable.NO_SYMBOL) {
+                    totals[recipient] += amounts[i];
+                }
+            }
+            return totals;
+        }));
+    }
+
+    private long[] aggregate(final int rows, final Aggregation aggregation) {
+        final int range = Math.max(MIN_RANGE, rows / (pool.getParallelism() * RANGES_PER_THREAD) + 1);
+        if (rows <= range) {
+            return aggregation.compute(0, rows);
+        }
+        return pool.invoke(new RangeTask(aggregation, 0, rows, range));
+    }
+
+    /**
+     * Aggregates rows from "from" inclusive to "to" exclusive into a new array,
+     * arrays of ranges are summed element by element
+     */
+    @FunctionalInterface
+    private interface Aggregation {
+        long[] compute(int from, int to);
+    }
+
+    private static final class RangeTask extends RecursiveTask<long[]> {
+        private final Aggregation aggregation;
+        private final int from;
+        private final int to;
+        private final int range;
+
+        private RangeTask(final Aggregation aggregation, final int from, final int to, final int range) {
+            this.aggregation = aggregation;
+            this.from = from;
+            this.to = to;
+            this.range = range;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (to - from <= range) {
+                return aggregation.compute(from, to);
+            }
+            final int middle = (from + to) >>> 1;
+            final RangeTask left = new RangeTask(aggregation, from, middle, range);
+            left.fork();
+            final long[] right = new RangeTask(aggregation, middle, to, range).compute();
+            final long[] sum = left.join();
+            for (int i = 0; i < sum.length; i++) {
+                sum[i] += right[i];
+            }
+            return sum;
+        }
+    }
+}
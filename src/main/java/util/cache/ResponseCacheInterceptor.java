@@ -0,0 +1,437 @@
+package util.cache;
+
+import config.BlockIoProperties;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.support.HttpRequestWrapper;
+import org.springframework.stereotype.Component;
+import util.ApiKeys;
+import util.LazyLog;
+import util.metrics.BlockIoMetrics;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * HTTP response cache of read-only BlockIo endpoints for {@link org.springframework.web.client.RestTemplate}.
+ * Responses are cached by url with sorted query parameters, the api key is replaced with its SHA-256 hash,
+ * so accounts never share responses and raw keys are not kept.
+ * Every endpoint has its own ttl. An expired response with ETag or Last-Modified is revalidated
+ * with a conditional request and served again on 304. The total size of cached bodies is bounded,
+ * the least recently used response is evicted first.
+ * Concurrent identical requests wait for a single request instead of sending it again.
+ * A call of an invalidating endpoint, like "prepare_transaction", drops all responses of its account.
+ * A body is buffered only up to "max-size": a larger one, by Content-Length or once it is read past the limit,
+ * is not cached and is streamed to the caller
+ */
+@Component
+public class ResponseCacheInterceptor implements ClientHttpRequestInterceptor {
+    private final LazyLog logger = new LazyLog(LogFactory.getLog(this.getClass()));
+
+    private final BlockIoProperties.ResponseCache settings;
+
+    private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final Map<String, CompletableFuture<Entry>> loadingEntries = new HashMap<>();
+
+    private long size;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder revalidations = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public ResponseCacheInterceptor(final BlockIoProperties properties) {
+        this.settings = properties.getResponseCache();
+    }
+
+    @Override
+    public ClientHttpResponse intercept(final HttpRequest request, final byte[] body,
+                                        final ClientHttpRequestExecution execution) throws IOException {
+        if (!settings.isEnabled()) {
+            return execution.execute(request, body);
+        }
+        final URI uri = request.getURI();
+        final String endpoint = BlockIoMetrics.endpointOf(uri);
+        final Duration ttl = settings.getTtl().get(endpoint);
+        if (request.getMethod() != HttpMethod.GET || Objects.isNull(ttl)) {
+            try {
+                return execution.execute(request, body);
+            } finally {
+                if (settings.getInvalidatingEndpoints().contains(endpoint)) {
+                    invalidateAccount(ApiKeys.accountOf(uri));
+                }
+            }
+        }
+        return getOrLoad(request, body, execution, ApiKeys.accountOf(uri), ttl.toNanos());
+    }
+
+    /**
+     * Drops cached responses of account. Should be called after any operation which changes the account
+     *
+     * @param apiKey - key of account
+     */
+    public void invalidate(final String apiKey) {
+        invalidateAccount(ApiKeys.hash(apiKey));
+    }
+
+    /**
+     * Drops cached responses of all accounts
+     */
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+            loadingEntries.clear();
+            size = 0;
+        }
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getRevalidations() {
+        return revalidations.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * @return total size of cached bodies in bytes
+     */
+    public long getSize() {
+        synchronized (entries) {
+            return size;
+        }
+    }
+
+    private ClientHttpResponse getOrLoad(final HttpRequest request, final byte[] body,
+                                         final ClientHttpRequestExecution execution, final String account,
+                                         final long ttlNanos) throws IOException {
+        final String key = keyOf(request.getURI(), account);
+        final long now = System.nanoTime();
+        final Entry stale;
+        final CompletableFuture<Entry> inProgress;
+        final CompletableFuture<Entry> loading;
+        synchronized (entries) {
+            final Entry entry = entries.get(key);
+            if (Objects.nonNull(entry) && now - entry.storedAt < ttlNanos) {
+                hits.increment();
+                return entry.toResponse();
+            }
+            stale = entry;
+            loading = new CompletableFuture<>();
+            inProgress = loadingEntries.putIfAbsent(key, loading);
+        }
+        if (Objects.nonNull(inProgress)) {
+            final Entry shared = await(inProgress);
+            if (Objects.nonNull(shared)) {
+                hits.increment();
+                return shared.toResponse();
+            }
+            return execution.execute(request, body);
+        }
+
+        misses.increment();
+        Entry loaded = null;
+        try {
+            final ClientHttpResponse response = execution.execute(conditional(request, stale), body);
+            final int status = response.getRawStatusCode();
+            if (Objects.nonNull(stale) && status == HttpStatus.NOT_MODIFIED.value()) {
+                response.close();
+                revalidations.increment();
+                logger.debug("Response of url=%s is not modified", request.getURI());
+                loaded = stale.revalidated(now);
+            } else if (status >= 200 && status < 300) {
+                final long maxSize = settings.getMaxSize().toBytes();
+                if (response.getHeaders().getContentLength() > maxSize) {
+                    return response;
+                }
+                final InputStream stream = response.getBody();
+                final byte[] prefix;
+                try {
+                    prefix = readAtMost(stream, maxSize + 1);
+                } catch (final IOException e) {
+                    response.close();
+                    throw e;
+                }
+                if (prefix.length > maxSize) {
+                    if (logger.isDebugEnabled()) {
+                        logger.debug("Response of url=%s is larger than %d bytes, it is not cached", request.getURI(), maxSize);
+                    }
+                    return new StreamingResponse(response, new SequenceInputStream(new ByteArrayInputStream(prefix), stream));
+                }
+                loaded = Entry.read(account, response, prefix, now);
+            } else {
+                return response;
+            }
+            return loaded.toResponse();
+        } finally {
+            complete(key, loading, loaded);
+        }
+    }
+
+    /**
+     * Stores the loaded response unless the account was invalidated while it was loading,
+     * and passes it to requests which wait for it. Null lets them send their own requests
+     */
+    private void complete(final String key, final CompletableFuture<Entry> loading, final Entry loaded) {
+        synchronized (entries) {
+            if (loadingEntries.remove(key, loading) && Objects.nonNull(loaded)
+                    && loaded.body.length <= settings.getMaxSize().toBytes()) {
+                final Entry previous = entries.put(key, loaded);
+                size += loaded.body.length - (Objects.nonNull(previous) ? previous.body.length : 0);
+                evictEldest();
+            }
+        }
+        loading.complete(loaded);
+    }
+
+    /**
+     * Reads the stream until its end or the limit
+     */
+    private static byte[] readAtMost(final InputStream stream, final long limit) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[8192];
+        long remaining = limit;
+        int read;
+        while (remaining > 0 && (read = stream.read(buffer, 0, (int) Math.min(buffer.length, remaining))) >= 0) {
+            bytes.write(buffer, 0, read);
+            remaining -= read;
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Waits for the response which is being loaded by another thread
+     *
+     * @return loaded response or null if it can't be shared
+     */
+    private Entry await(final CompletableFuture<Entry> loading) {
+        try {
+            return loading.join();
+        } catch (final CompletionException e) {
+            return null;
+        }
+    }
+
+    private void evictEldest() {
+        final long maxSize = settings.getMaxSize().toBytes();
+        final Iterator<Entry> eldest = entries.values().iterator();
+        while (size > maxSize && eldest.hasNext()) {
+            size -= eldest.next().body.length;
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+
+    private void invalidateAccount(final String account) {
+        synchronized (entries) {
+            final Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+            while (iterator.hasNext()) {
+                final Entry entry = iterator.next().getValue();
+                if (entry.account.equals(account)) {
+                    size -= entry.body.length;
+                    iterator.remove();
+                }
+            }
+            loadingEntries.keySet().removeIf(key -> key.startsWith(account + ' '));
+        }
+    }
+
+    /**
+     * Adds validators of the stale response to the request
+     */
+    private HttpRequest conditional(final HttpRequest request, final Entry stale) {
+        if (Objects.isNull(stale) || (Objects.isNull(stale.eTag) && Objects.isNull(stale.lastModified))) {
+            return request;
+        }
+        final HttpHeaders headers = new HttpHeaders();
+        headers.putAll(request.getHeaders());
+        if (Objects.nonNull(stale.eTag)) {
+            headers.setIfNoneMatch(stale.eTag);
+        }
+        if (Objects.nonNull(stale.lastModified)) {
+            headers.set(HttpHeaders.IF_MODIFIED_SINCE, stale.lastModified);
+        }
+        return new HttpRequestWrapper(request) {
+            @Override
+            public HttpHeaders getHeaders() {
+                return headers;
+            }
+        };
+    }
+
+    /**
+     * Builds the key of response: account, host, path and sorted query parameters without the api key
+     */
+    private static String keyOf(final URI uri, final String account) {
+        final StringBuilder key = new StringBuilder(128)
+                .append(account).append(' ')
+                .append(uri.getRawAuthority()).append(uri.getRawPath());
+        final String query = uri.getRawQuery();
+        if (Objects.nonNull(query)) {
+            final String[] parameters = query.split("&");
+            Arrays.sort(parameters);
+            char separator = '?';
+            for (final String parameter : parameters) {
+                if (!parameter.startsWith(ApiKeys.PARAMETER)) {
+                    key.append(separator).append(parameter);
+                    separator = '&';
+                }
+            }
+        }
+        return key.toString();
+    }
+
+    /**
+     * Cached response with a fully read body
+     */
+    private static final class Entry {
+        private final String account;
+        private final int status;
+        private final String statusText;
+        private final HttpHeaders headers;
+        private final byte[] body;
+        private final String eTag;
+        private final String lastModified;
+        private final long storedAt;
+
+        private Entry(final String account, final int status, final String statusText, final HttpHeaders headers,
+                      final byte[] body, final long storedAt) {
+            this.account = account;
+            this.status = status;
+            this.statusText = statusText;
+            this.headers = HttpHeaders.readOnlyHttpHeaders(headers);
+            this.body = body;
+            this.eTag = headers.getETag();
+            this.lastModified = headers.getFirst(HttpHeaders.LAST_MODIFIED);
+            this.storedAt = storedAt;
+        }
+
+        private static Entry read(final String account, final ClientHttpResponse response, final byte[] body,
+                                  final long now) throws IOException {
+            try (ClientHttpResponse closing = response) {
+                final HttpHeaders headers = new HttpHeaders();
+                headers.putAll(closing.getHeaders());
+                return new Entry(account, closing.getRawStatusCode(), closing.getStatusText(), headers, body, now);
+            }
+        }
+
+        private Entry revalidated(final long now) {
+            return new Entry(account, status, statusText, headers, body, now);
+        }
+
+        private ClientHttpResponse toResponse() {
+            return new CachedResponse(this);
+        }
+    }
+
+    private static final class CachedResponse implements ClientHttpResponse {
+        private final Entry entry;
+        private final InputStream body;
+
+        private CachedResponse(final Entry entry) {
+            this.entry = entry;
+            this.body = new ByteArrayInputStream(entry.body);
+        }
+
+        @Override
+        public HttpStatus getStatusCode() {
+            return HttpStatus.valueOf(entry.status);
+        }
+
+        @Override
+        public int getRawStatusCode() {
+            return entry.status;
+        }
+
+        @Override
+        public String getStatusText() {
+            return entry.statusText;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return entry.headers;
+        }
+
+        @Override
+        public InputStream getBody() {
+            return body;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    /**
+     * Response which is not cached, the part of the body read before giving up caching is served first
+     */
+    private static final class StreamingResponse implements ClientHttpResponse {
+        private final ClientHttpResponse response;
+        private final InputStream body;
+
+        private StreamingResponse(final ClientHttpResponse response, final InputStream body) {
+            this.response = response;
+            this.body = body;
+        }
+
+        @Override
+        public HttpStatus getStatusCode() throws IOException {
+            return response.getStatusCode();
+        }
+
+        @Override
+        public int getRawStatusCode() throws IOException {
+            return response.getRawStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return response.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return response.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() {
+            return body;
+        }
+
+        @Override
+        public void close() {
+            response.close();
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package util.confirmation;
+
+import model.transaction.TransactionApi;
+
+/**
+ * Callback of {@link ConfirmationWatcher}, it is called on the thread of the watcher, so it should be fast
+ */
+@FunctionalInterface
+public interface ConfirmationListener {
+
+    /**
+     * @param apiKey      - key of account
+     * @param transaction - transaction which reached the confirmation threshold
+     */
+    void onConfirmed(String apiKey, TransactionApi transaction);
+}
@@ -0,0 +1,347 @@
+package util.confirmation;
+
+import config.BlockIoProperties;
+import model.transaction.TransactionApi;
+import model.transaction.TransactionType;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+import util.LazyLog;
+import util.RequestsUtil;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+import static java.lang.String.format;
+
+/**
+ * Watches pending transactions until they reach the confirmation threshold. Watched transactions are kept
+ * in a priority queue by the time of their next check, so a tick of the scheduler only takes the due ones.
+ * Due transactions of the same account are checked together: pages of history are read from the newest one
+ * until all of them are found, and every watched transaction found on these pages is updated as well.
+ * A check without new confirmations multiplies the interval to the next one up to the max interval,
+ * a new confirmation resets it. Watches and the state of a check are reused, so an idle tick allocates nothing
+ */
+@Component
+public class ConfirmationWatcher implements DisposableBean {
+    private final LazyLog logger = new LazyLog(LogFactory.getLog(this.getClass()));
+
+    private final RequestsUtil requestsUtil;
+
+    private final BlockIoProperties.Confirmation settings;
+
+    private final ScheduledExecutorService scheduler;
+
+    private final PriorityQueue<Watch> queue = new PriorityQueue<>(Comparator.comparingLong(watch -> watch.nextCheck));
+
+    private final Map<String, Account> accounts = new HashMap<>();
+
+    private final List<ConfirmationListener> listeners = new CopyOnWriteArrayList<>();
+
+    private final List<Watch> dueWatches = new ArrayList<>();
+
+    private final PageScan scan = new PageScan();
+
+    private long tick;
+
+    public ConfirmationWatcher(final RequestsUtil requestsUtil, final BlockIoProperties properties) {
+        this.requestsUtil = requestsUtil;
+        this.settings = properties.getConfirmation();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "blockio-confirmation-watcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        final long interval = settings.getTickInterval().toNanos();
+        scheduler.scheduleWithFixedDelay(this::tick, interval, interval, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Watches a sent transaction, for example a payout of {@link RequestsUtil#sendBTC}
+     *
+     * @param apiKey - key of account
+     * @param txid   - id of transaction
+     * @return transaction with confirmations over the threshold, it fails with {@link TimeoutException}
+     * if the transaction is not confirmed in "max-age"
+     */
+    public CompletableFuture<TransactionApi> watch(final String apiKey, final String txid) {
+        return watch(apiKey, TransactionType.SENT, txid);
+    }
+
+    /**
+     * Watches a transaction. Watching a transaction which is already watched returns the same future
+     *
+     * @param apiKey - key of account
+     * @param type   - {@link TransactionType} of history the transaction is in
+     * @param txid   - id of transaction
+     * @return transaction with confirmations over the threshold, it fails with {@link TimeoutException}
+     * if the transaction is not confirmed in "max-age"
+     */
+    public CompletableFuture<TransactionApi> watch(final String apiKey, final TransactionType type, final String txid) {
+        final long now = System.nanoTime();
+        synchronized (queue) {
+            final Account account = accounts.computeIfAbsent(apiKey + ':' + type.getRepresentation(),
+                    key -> new Account(apiKey, type));
+            final Watch existing = account.watches.get(txid);
+            if (Objects.nonNull(existing)) {
+                return existing.result;
+            }
+            final Watch watch = new Watch(account, txid, now, settings.getInitialInterval().toNanos());
+            account.watches.put(txid, watch);
+            queue.add(watch);
+            return watch.result;
+        }
+    }
+
+    /**
+     * Stops watching a transaction, its future is cancelled
+     *
+     * @param apiKey - key of account
+     * @param type   - {@link TransactionType} of history the transaction is in
+     * @param txid   - id of transaction
+     */
+    public void unwatch(final String apiKey, final TransactionType type, final String txid) {
+        final Watch watch;
+        synchronized (queue) {
+            final Account account = accounts.get(apiKey + ':' + type.getRepresentation());
+            watch = Objects.isNull(account) ? null : account.watches.get(txid);
+            if (Objects.nonNull(watch)) {
+                remove(watch);
+            }
+        }
+        if (Objects.nonNull(watch)) {
+            watch.result.cancel(false);
+        }
+    }
+
+    public void addListener(final ConfirmationListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(final ConfirmationListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * @return number of transactions which are watched
+     */
+    public int getWatched() {
+        synchronized (queue) {
+            return queue.size();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Checks all due transactions. It runs on the scheduler thread only
+     */
+    private void tick() {
+        final long now = System.nanoTime();
+        synchronized (queue) {
+            while (!queue.isEmpty() && queue.peek().nextCheck <= now) {
+                final Watch watch = queue.poll();
+                watch.due = true;
+                dueWatches.add(watch);
+            }
+        }
+        if (dueWatches.isEmpty()) {
+            return;
+        }
+        tick++;
+        try {
+            for (int i = 0; i < dueWatches.size(); i++) {
+                final Account account = dueWatches.get(i).account;
+                if (account.checkedTick != tick) {
+                    account.checkedTick = tick;
+                    check(account);
+                }
+            }
+            for (int i = 0; i < dueWatches.size(); i++) {
+                reschedule(dueWatches.get(i), now);
+            }
+        } finally {
+            dueWatches.clear();
+        }
+    }
+
+    /**
+     * Reads pages of history of the account until every due transaction of it is found
+     */
+    private void check(final Account account) {
+        int due = 0;
+        for (int i = 0; i < dueWatches.size(); i++) {
+            if (dueWatches.get(i).account == account) {
+                due++;
+            }
+        }
+        scan.reset(account, due);
+        try {
+            for (int pages = 0; pages < settings.getMaxPages() && scan.remaining > 0; pages++) {
+                final String beforeTx = scan.lastTxid;
+                scan.pageSize = 0;
+                requestsUtil.forEachTransaction(account.apiKey, account.type, beforeTx, scan);
+                if (scan.pageSize == 0) {
+                    break;
+                }
+            }
+        } catch (final RestClientException e) {
+            logger.warn(format("Failed to check %d %s transactions of apiKey=%s: %s",
+                    due, account.type.getRepresentation(), account.apiKey, e));
+        } catch (final RuntimeException e) {
+            logger.warn(format("Failed to check %d %s transactions of apiKey=%s",
+                    due, account.type.getRepresentation(), account.apiKey), e);
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("Checked %d %s transactions of apiKey=%s, %d are not found",
+                    due, account.type, account.apiKey, scan.remaining);
+        }
+    }
+
+    /**
+     * Completes a confirmed or expired transaction or puts it back to the queue with the next interval
+     */
+    private void reschedule(final Watch watch, final long now) {
+        final boolean expired = now - watch.started >= settings.getMaxAge().toNanos();
+        if (watch.progressed) {
+            watch.interval = settings.getInitialInterval().toNanos();
+        } else {
+            watch.interval = Math.min(settings.getMaxInterval().toNanos(),
+                    (long) (watch.interval * settings.getBackoffMultiplier()));
+        }
+        watch.progressed = false;
+        watch.nextCheck = now + watch.interval;
+        synchronized (queue) {
+            watch.due = false;
+            if (expired) {
+                remove(watch);
+            } else if (watch.account.watches.get(watch.txid) == watch) {
+                queue.add(watch);
+            }
+        }
+        if (expired) {
+            watch.result.completeExceptionally(new TimeoutException(format("Transaction %s has %d confirmations after %s",
+                    watch.txid, Math.max(0, watch.confirmations), settings.getMaxAge())));
+        }
+    }
+
+    private void confirm(final Watch watch, final TransactionApi transaction) {
+        synchronized (queue) {
+            remove(watch);
+        }
+        if (!watch.result.complete(transaction)) {
+            return;
+        }
+        for (final ConfirmationListener listener : listeners) {
+            try {
+                listener.onConfirmed(watch.account.apiKey, transaction);
+            } catch (final RuntimeException e) {
+                logger.warn(format("Listener failed on confirmation of transaction %s", watch.txid), e);
+            }
+        }
+    }
+
+    /**
+     * Must be called under the lock of the queue
+     */
+    private void remove(final Watch watch) {
+        if (watch.account.watches.remove(watch.txid, watch)) {
+            if (!watch.due) {
+                queue.remove(watch);
+            }
+            if (watch.account.watches.isEmpty()) {
+                accounts.remove(watch.account.apiKey + ':' + watch.account.type.getRepresentation());
+            }
+        }
+    }
+
+    /**
+     * Consumer of streamed pages of the account which is checked, it is reused by all checks
+     */
+    private final class PageScan implements Consumer<TransactionApi> {
+        private Account account;
+        private int remaining;
+        private int pageSize;
+        private String lastTxid;
+
+        private void reset(final Account account, final int remaining) {
+            this.account = account;
+            this.remaining = remaining;
+            this.pageSize = 0;
+            this.lastTxid = null;
+        }
+
+        @Override
+        public void accept(final TransactionApi transaction) {
+            pageSize++;
+            lastTxid = transaction.getTxid();
+            final Watch watch;
+            synchronized (queue) {
+                watch = account.watches.get(transaction.getTxid());
+            }
+            if (Objects.isNull(watch) || watch.seenTick == tick) {
+                return;
+            }
+            watch.seenTick = tick;
+            if (watch.due) {
+                remaining--;
+            }
+            if (transaction.getConfirmations() > watch.confirmations) {
+                watch.confirmations = transaction.getConfirmations();
+                watch.progressed = true;
+            }
+            if (transaction.getConfirmations() >= settings.getThreshold()) {
+                confirm(watch, transaction);
+            }
+        }
+    }
+
+    private static final class Account {
+        private final String apiKey;
+        private final TransactionType type;
+        private final Map<String, Watch> watches = new HashMap<>();
+        private long checkedTick;
+
+        private Account(final String apiKey, final TransactionType type) {
+            this.apiKey = apiKey;
+            this.type = type;
+        }
+    }
+
+    private static final class Watch {
+        private final Account account;
+        private final String txid;
+        private final long started;
+        private final CompletableFuture<TransactionApi> result = new CompletableFuture<>();
+        private long interval;
+        private long nextCheck;
+        private int confirmations = -1;
+        private boolean progressed;
+        private boolean due;
+        private long seenTick;
+
+        private Watch(final Account account, final String txid, final long started, final long interval) {
+            this.account = account;
+            this.txid = txid;
+            this.started = started;
+            this.interval = interval;
+            this.nextCheck = started;
+        }
+    }
+}
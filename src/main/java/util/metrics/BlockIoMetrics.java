@@ -0,0 +1,201 @@
+package util.metrics;
+
+import config.BlockIoProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meters of BlockIo requests per endpoint, like "prepare_transaction" or "get_my_addresses":
+ * <ul>
+ *     <li>{@value #REQUESTS} - time until the status and headers of a response are received, tagged by status</li>
+ *     <li>{@value #RESPONSE_SIZE} - size of a response body in bytes</li>
+ *     <li>{@value #PARSE} - time to read and parse a streamed response body</li>
+ *     <li>{@value #ERRORS} - failed requests, tagged by status or by exception</li>
+ *     <li>{@value #RETRIES} - repeated attempts of a request</li>
+ *     <li>{@value #REJECTIONS} - requests which were not sent by the resilience layer, tagged by reason</li>
+ *     <li>{@value #CIRCUIT_STATE} - state of the circuit breaker: 0 closed, 1 open, 2 half-open</li>
+ * </ul>
+ * Meters are created once per endpoint, so recording doesn't look them up in the registry
+ */
+@Component
+public class BlockIoMetrics {
+    public static final String REQUESTS = "blockio.client.requests";
+    public static final String RESPONSE_SIZE = "blockio.client.response.size";
+    public static final String PARSE = "blockio.client.parse";
+    public static final String ERRORS = "blockio.client.errors";
+    public static final String RETRIES = "blockio.client.retries";
+    public static final String REJECTIONS = "blockio.client.rejections";
+    public static final String CIRCUIT_STATE = "blockio.client.circuit.state";
+
+    public static final String ENDPOINT_TAG = "endpoint";
+    public static final String STATUS_TAG = "status";
+    public static final String TYPE_TAG = "type";
+    public static final String REASON_TAG = "reason";
+
+    private static final String UNKNOWN_ENDPOINT = "unknown";
+
+    private final MeterRegistry registry;
+
+    private final BlockIoProperties.Metrics settings;
+
+    private final Map<String, EndpointMeters> endpoints = new ConcurrentHashMap<>();
+
+    private final Map<String, Counter> rejections = new ConcurrentHashMap<>();
+
+    public BlockIoMetrics(final MeterRegistry registry, final BlockIoProperties properties) {
+        this.registry = registry;
+        this.settings = properties.getMetrics();
+    }
+
+    /**
+     * Records a request which received a response
+     *
+     * @param endpoint - name of endpoint
+     * @param status   - HTTP status of response
+     * @param nanos    - time until the response headers were received
+     */
+    public void recordRequest(final String endpoint, final int status, final long nanos) {
+        meters(endpoint).requests(status).record(nanos, TimeUnit.NANOSECONDS);
+        if (status >= 400) {
+            recordError(endpoint, String.valueOf(status));
+        }
+    }
+
+    /**
+     * Records a request which failed without a response
+     *
+     * @param endpoint - name of endpoint
+     * @param error    - cause of failure
+     */
+    public void recordFailure(final String endpoint, final Throwable error) {
+        recordError(endpoint, error.getClass().getSimpleName());
+    }
+
+    /**
+     * @param endpoint - name of endpoint
+     * @param bytes    - size of response body
+     */
+    public void recordResponseSize(final String endpoint, final long bytes) {
+        meters(endpoint).responseSize.record(bytes);
+    }
+
+    /**
+     * @param endpoint - name of endpoint
+     * @param nanos    - time to read and parse a response body
+     */
+    public void recordParse(final String endpoint, final long nanos) {
+        meters(endpoint).parse.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Should be called before every repeated attempt of a request
+     *
+     * @param endpoint - name of endpoint
+     */
+    public void recordRetry(final String endpoint) {
+        meters(endpoint).retries.increment();
+    }
+
+    /**
+     * Records a request which was not sent
+     *
+     * @param reason - "rate_limit", "circuit_open" or "bulkhead"
+     */
+    public void recordRejection(final String reason) {
+        rejections.computeIfAbsent(reason, name -> Counter.builder(REJECTIONS)
+                .tag(REASON_TAG, name)
+                .register(registry))
+                .increment();
+    }
+
+    public MeterRegistry getRegistry() {
+        return registry;
+    }
+
+    /**
+     * Gets name of endpoint from the last segment of url path, "https://block.io/api/v2/get_balance/?api_key=..."
+     * gives "get_balance"
+     *
+     * @param url - url of request
+     * @return name of endpoint
+     */
+    public static String endpointOf(final String url) {
+        int end = url.indexOf('?');
+        if (end < 0) {
+            end = url.length();
+        }
+        while (end > 0 && url.charAt(end - 1) == '/') {
+            end--;
+        }
+        final int start = url.lastIndexOf('/', end - 1) + 1;
+        return start < end && start > 0 ? url.substring(start, end) : UNKNOWN_ENDPOINT;
+    }
+
+    /**
+     * See {@link #endpointOf(String)}
+     */
+    public static String endpointOf(final URI uri) {
+        final String path = uri.getRawPath();
+        return path == null ? UNKNOWN_ENDPOINT : endpointOf(path);
+    }
+
+    private void recordError(final String endpoint, final String type) {
+        meters(endpoint).errors(type).increment();
+    }
+
+    private EndpointMeters meters(final String endpoint) {
+        final EndpointMeters meters = endpoints.get(endpoint);
+        return meters != null ? meters : endpoints.computeIfAbsent(endpoint, EndpointMeters::new);
+    }
+
+    private final class EndpointMeters {
+        private final String endpoint;
+        private final Map<Integer, Timer> requests = new ConcurrentHashMap<>();
+        private final Map<String, Counter> errors = new ConcurrentHashMap<>();
+        private final DistributionSummary responseSize;
+        private final Timer parse;
+        private final Counter retries;
+
+        private EndpointMeters(final String endpoint) {
+            this.endpoint = endpoint;
+            this.responseSize = DistributionSummary.builder(RESPONSE_SIZE)
+                    .baseUnit("bytes")
+                    .tag(ENDPOINT_TAG, endpoint)
+                    .publishPercentileHistogram(settings.isPercentileHistogram())
+                    .publishPercentiles(settings.getPercentiles())
+                    .register(registry);
+            this.parse = Timer.builder(PARSE)
+                    .tag(ENDPOINT_TAG, endpoint)
+                    .publishPercentileHistogram(settings.isPercentileHistogram())
+                    .publishPercentiles(settings.getPercentiles())
+                    .register(registry);
+            this.retries = Counter.builder(RETRIES)
+                    .tag(ENDPOINT_TAG, endpoint)
+                    .register(registry);
+        }
+
+        private Timer requests(final int status) {
+            return requests.computeIfAbsent(status, code -> Timer.builder(REQUESTS)
+                    .tag(ENDPOINT_TAG, endpoint)
+                    .tag(STATUS_TAG, String.valueOf(code))
+                    .publishPercentileHistogram(settings.isPercentileHistogram())
+                    .publishPercentiles(settings.getPercentiles())
+                    .register(registry));
+        }
+
+        private Counter errors(final String type) {
+            return errors.computeIfAbsent(type, name -> Counter.builder(ERRORS)
+                    .tag(ENDPOINT_TAG, endpoint)
+                    .tag(TYPE_TAG, name)
+                    .register(registry));
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package util.metrics;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Records {@link BlockIoMetrics} of every attempt of a request of {@link org.springframework.web.client.RestTemplate},
+ * it is called by {@link util.resilience.ResilienceInterceptor} for each of them.
+ * The request is timed until its response headers are received, the body is counted while it is read,
+ * so time of parsing a streamed body is not included into time of the request
+ */
+@Component
+@RequiredArgsConstructor
+public class MetricsInterceptor implements ClientHttpRequestInterceptor {
+    private final BlockIoMetrics metrics;
+
+    @Override
+    public ClientHttpResponse intercept(final HttpRequest request, final byte[] body,
+                                        final ClientHttpRequestExecution execution) throws IOException {
+        final String endpoint = BlockIoMetrics.endpointOf(request.getURI());
+        final long start = System.nanoTime();
+        final ClientHttpResponse response;
+        try {
+            response = execution.execute(request, body);
+            metrics.recordRequest(endpoint, response.getRawStatusCode(), System.nanoTime() - start);
+        } catch (final IOException | RuntimeException e) {
+            metrics.recordFailure(endpoint, e);
+            throw e;
+        }
+        return new CountingResponse(response, endpoint);
+    }
+
+    /**
+     * Counts bytes of the body and records the size when the response is closed
+     */
+    private final class CountingResponse implements ClientHttpResponse {
+        private final ClientHttpResponse response;
+        private final String endpoint;
+        private CountingInputStream body;
+
+        private CountingResponse(final ClientHttpResponse response, final String endpoint) {
+            this.response = response;
+            this.endpoint = endpoint;
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            if (body == null) {
+                body = new CountingInputStream(response.getBody());
+            }
+            return body;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return response.getHeaders();
+        }
+
+        @Override
+        public HttpStatus getStatusCode() throws IOException {
+            return response.getStatusCode();
+        }
+
+        @Override
+        public int getRawStatusCode() throws IOException {
+            return response.getRawStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return response.getStatusText();
+        }
+
+        @Override
+        public void close() {
+            if (body != null) {
+                metrics.recordResponseSize(endpoint, body.count);
+                body = null;
+            }
+            response.close();
+        }
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        private CountingInputStream(final InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int next = super.read();
+            if (next >= 0) {
+                count++;
+            }
+            return next;
+        }
+
+        @Override
+        public int read(final byte[] buffer, final int offset, final int length) throws IOException {
+            final int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(final long n) throws IOException {
+            final long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+}
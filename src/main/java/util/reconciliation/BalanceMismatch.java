@@ -0,0 +1,35 @@
+package util.reconciliation;
+
+import lombok.Value;
+
+/**
+ * Wallet which reported balance is above the balance expected from its transactions
+ * or below it by more than the network fees the wallet could have paid
+ */
+@Value
+public class BalanceMismatch {
+    String apiKey;
+
+    String address;
+
+    String label;
+
+    /**
+     * Received minus sent satoshis of all transactions of the wallet, without network fees
+     */
+    long expectedBalance;
+
+    /**
+     * Max network fees the wallet could have paid for its sent transactions
+     */
+    long maxFees;
+
+    /**
+     * Available plus pending received satoshis reported by BlockIo
+     */
+    long reportedBalance;
+
+    public long getDifference() {
+        return reportedBalance - expectedBalance;
+    }
+}
@@ -0,0 +1,184 @@
+package util.reconciliation;
+
+import config.BlockIoProperties;
+import model.transaction.TransactionApi;
+import model.transaction.TransactionType;
+import model.wallet.WalletApi;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+import util.LazyLog;
+import util.RequestsUtil;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.lang.String.format;
+
+/**
+ * Reconciles balances of many accounts. Wallets and the whole history of transactions of accounts are fetched
+ * concurrently, at most "max-concurrent-accounts" accounts at the same time. As soon as an account is fetched
+ * its expected balances are computed by {@link ExpectedBalances} on a fork-join pool of "parallelism" threads
+ * and compared with balances reported by BlockIo. The history has no network fees, so a wallet which sent
+ * transactions matches if it has less than expected by at most "max-fee" per sent transaction.
+ * Accounts are fetched by threads of the reconciler, not of the BlockIo executor, because pages of wallets
+ * are prefetched on the BlockIo executor and a task waiting for tasks of its own pool could starve it
+ */
+@Component
+public class BalanceReconciler implements DisposableBean {
+    private final LazyLog logger = new LazyLog(LogFactory.getLog(this.getClass()));
+
+    private final RequestsUtil requestsUtil;
+
+    private final BlockIoProperties.Reconciliation settings;
+
+    private final ExecutorService blockIoExecutor;
+
+    private final ExecutorService accountExecutor;
+
+    private final ForkJoinPool pool;
+
+    public BalanceReconciler(final RequestsUtil requestsUtil, final BlockIoProperties properties,
+                             final ExecutorService blockIoExecutor) {
+        this.requestsUtil = requestsUtil;
+        this.settings = properties.getReconciliation();
+        this.blockIoExecutor = blockIoExecutor;
+        final AtomicInteger counter = new AtomicInteger();
+        this.accountExecutor = Executors.newFixedThreadPool(settings.getMaxConcurrentAccounts(), runnable -> {
+            final Thread thread = new Thread(runnable, "blockio-reconciliation-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.pool = new ForkJoinPool(settings.getParallelism());
+    }
+
+    /**
+     * Compares balances reported by BlockIo with balances expected from transactions for all wallets of accounts
+     *
+     * @param apiKeys - keys of accounts
+     * @return {@link ReconciliationReport} with mismatched wallets and accounts which failed
+     */
+    public ReconciliationReport reconcile(final Collection<String> apiKeys) {
+        final Map<String, CompletableFuture<AccountResult>> results = new LinkedHashMap<>();
+        for (final String apiKey : apiKeys) {
+            results.put(apiKey, CompletableFuture.supplyAsync(() -> fetch(apiKey), accountExecutor)
+                    .thenApplyAsync(account -> account.reconcile(settings), pool));
+        }
+
+        int wallets = 0;
+        long transactions = 0;
+        final List<BalanceMismatch> mismatches = new ArrayList<>();
+        final Map<String, RuntimeException> failures = new LinkedHashMap<>();
+        for (final Map.Entry<String, CompletableFuture<AccountResult>> result : results.entrySet()) {
+            try {
+                final AccountResult account = result.getValue().join();
+                wallets += account.wallets;
+                transactions += account.transactions;
+                mismatches.addAll(account.mismatches);
+            } catch (final CompletionException e) {
+                failures.put(result.getKey(), e.getCause() instanceof RuntimeException
+                        ? (RuntimeException) e.getCause() : e);
+            }
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("Reconciled %d accounts: %d mismatches, %d failures",
+                    results.size(), mismatches.size(), failures.size());
+        }
+        return new ReconciliationReport(results.size(), wallets, transactions,
+                Collections.unmodifiableList(mismatches), Collections.unmodifiableMap(failures));
+    }
+
+    @Override
+    public void destroy() {
+        accountExecutor.shutdownNow();
+        pool.shutdownNow();
+    }
+
+    private Account fetch(final String apiKey) {
+        final CompletableFuture<List<TransactionApi>> sent =
+                CompletableFuture.supplyAsync(() -> history(apiKey, TransactionType.SENT), blockIoExecutor);
+        final CompletableFuture<List<TransactionApi>> received =
+                CompletableFuture.supplyAsync(() -> history(apiKey, TransactionType.RECEIVED), blockIoExecutor);
+        final List<WalletApi> wallets = requestsUtil.getWallets(apiKey);
+        return new Account(apiKey, wallets, sent.join(), received.join(), pool);
+    }
+
+    /**
+     * Reads all pages of transactions from the newest one with "before_tx" paging
+     */
+    private List<TransactionApi> history(final String apiKey, final TransactionType type) {
+        final List<TransactionApi> transactions = new ArrayList<>();
+        String beforeTx = null;
+        for (int pages = 0; pages < settings.getMaxPages(); pages++) {
+            final List<TransactionApi> page = requestsUtil.getTransactions(apiKey, type, beforeTx);
+            if (page.isEmpty()) {
+                return transactions;
+            }
+            transactions.addAll(page);
+            beforeTx = page.get(page.size() - 1).getTxid();
+        }
+        throw new IllegalStateException(format("History of %s transactions is longer than %d pages",
+                type.getRepresentation(), settings.getMaxPages()));
+    }
+
+    private static final class Account {
+        private static final ExpectedBalance NO_HISTORY = new ExpectedBalance(0, 0);
+
+        private final String apiKey;
+        private final List<WalletApi> wallets;
+        private final List<TransactionApi> sent;
+        private final List<TransactionApi> received;
+        private final ForkJoinPool pool;
+
+        private Account(final String apiKey, final List<WalletApi> wallets, final List<TransactionApi> sent,
+                        final List<TransactionApi> received, final ForkJoinPool pool) {
+            this.apiKey = apiKey;
+            this.wallets = wallets;
+            this.sent = sent;
+            this.received = received;
+            this.pool = pool;
+        }
+
+        /**
+         * Fees are not in the history, so a wallet which sent transactions may have less than expected,
+         * but at most by the max fee per sent transaction
+         */
+        private AccountResult reconcile(final BlockIoProperties.Reconciliation settings) {
+            final Map<String, ExpectedBalance> expected = ExpectedBalances.compute(pool, sent, received);
+            final List<BalanceMismatch> mismatches = new ArrayList<>();
+            for (final WalletApi wallet : wallets) {
+                final ExpectedBalance expectedBalance = expected.getOrDefault(wallet.getAddress(), NO_HISTORY);
+                final long maxFees = expectedBalance.getSentTransactions() * settings.getMaxFee();
+                final long reportedBalance = wallet.getAvailableBalance() + wallet.getPendingReceivedBalance();
+                final long difference = reportedBalance - expectedBalance.getBalance();
+                if (difference > settings.getTolerance() || difference < -maxFees - settings.getTolerance()) {
+                    mismatches.add(new BalanceMismatch(apiKey, wallet.getAddress(), wallet.getLabel(),
+                            expectedBalance.getBalance(), maxFees, reportedBalance));
+                }
+            }
+            return new AccountResult(wallets.size(), sent.size() + received.size(), mismatches);
+        }
+    }
+
+    private static final class AccountResult {
+        private final int wallets;
+        private final long transactions;
+        private final List<BalanceMismatch> mismatches;
+
+        private AccountResult(final int wallets, final long transactions, final List<BalanceMismatch> mismatches) {
+            this.wallets = wallets;
+            this.transactions = transactions;
+            this.mismatches = mismatches;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package util.reconciliation;
+
+import lombok.Value;
+
+/**
+ * Balance of an address expected from its transactions
+ */
+@Value
+public class ExpectedBalance {
+    /**
+     * Received minus sent satoshis, network fees are not included since the history doesn't show them
+     */
+    long balance;
+
+    /**
+     * Number of sent transactions debited from the address, each of them paid a network fee
+     */
+    long sentTransactions;
+}
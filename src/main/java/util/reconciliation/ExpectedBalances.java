@@ -0,0 +1,128 @@
+package util.reconciliation;
+
+import model.transaction.AmountApi;
+import model.transaction.TransactionApi;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Computes balances of addresses from transactions on a {@link ForkJoinPool}. Lists of transactions are split
+ * in halves until a part is small enough, every part sums its flows into its own map and maps are merged on join,
+ * so threads never share a map.
+ * Every amount received credits its recipient, every sent transaction debits its total from its first sender.
+ * "total_amount_sent" doesn't include the network fee and the history has no other field with it,
+ * so fees can't be debited. Instead the number of sent transactions of every address is counted,
+ * which bounds the fees it could have paid
+ */
+public final class ExpectedBalances {
+    private static final int THRESHOLD = 2048;
+
+    private ExpectedBalances() {
+    }
+
+    /**
+     * @param pool     - pool to compute on
+     * @param sent     - sent transactions
+     * @param received - received transactions
+     * @return address to its {@link ExpectedBalance}
+     */
+    public static Map<String, ExpectedBalance> compute(final ForkJoinPool pool, final List<TransactionApi> sent,
+                                                       final List<TransactionApi> received) {
+        final Map<String, long[]> flows = pool.invoke(new BalancesTask(sent, received));
+        final Map<String, ExpectedBalance> balances = new HashMap<>(flows.size() * 2);
+        flows.forEach((address, flow) -> balances.put(address, new ExpectedBalance(flow[0], flow[1])));
+        return balances;
+    }
+
+    private static Map<String, long[]> merge(final Map<String, long[]> left, final Map<String, long[]> right) {
+        final Map<String, long[]> larger = left.size() >= right.size() ? left : right;
+        final Map<String, long[]> smaller = larger == left ? right : left;
+        smaller.forEach((address, flow) -> add(larger, address, flow[0], flow[1]));
+        return larger;
+    }
+
+    /**
+     * Adds satoshis and a number of sent transactions to the flow of the address
+     */
+    private static void add(final Map<String, long[]> flows, final String address, final long satoshis,
+                            final long sentTransactions) {
+        final long[] flow = flows.get(address);
+        if (Objects.isNull(flow)) {
+            flows.put(address, new long[]{satoshis, sentTransactions});
+        } else {
+            flow[0] += satoshis;
+            flow[1] += sentTransactions;
+        }
+    }
+
+    /**
+     * Sums debits of sent and credits of received transactions in parallel and merges them
+     */
+    private static final class BalancesTask extends RecursiveTask<Map<String, long[]>> {
+        private final List<TransactionApi> sent;
+        private final List<TransactionApi> received;
+
+        private BalancesTask(final List<TransactionApi> sent, final List<TransactionApi> received) {
+            this.sent = sent;
+            this.received = received;
+        }
+
+        @Override
+        protected Map<String, long[]> compute() {
+            final FlowTask debits = new FlowTask(sent, 0, sent.size(), true);
+            final FlowTask credits = new FlowTask(received, 0, received.size(), false);
+            ForkJoinTask.invokeAll(debits, credits);
+            return merge(debits.join(), credits.join());
+        }
+    }
+
+    private static final class FlowTask extends RecursiveTask<Map<String, long[]>> {
+        private final List<TransactionApi> transactions;
+        private final int from;
+        private final int to;
+        private final boolean sent;
+
+        private FlowTask(final List<TransactionApi> transactions, final int from, final int to, final boolean sent) {
+            this.transactions = transactions;
+            this.from = from;
+            this.to = to;
+            this.sent = sent;
+        }
+
+        @Override
+        protected Map<String, long[]> compute() {
+            if (to - from <= THRESHOLD) {
+                return sumFlows();
+            }
+            final int middle = (from + to) >>> 1;
+            final FlowTask left = new FlowTask(transactions, from, middle, sent);
+            left.fork();
+            final Map<String, long[]> right = new FlowTask(transactions, middle, to, sent).compute();
+            return merge(left.join(), right);
+        }
+
+        private Map<String, long[]> sumFlows() {
+            final Map<String, long[]> flows = new HashMap<>();
+            for (int i = from; i < to; i++) {
+                final TransactionApi transaction = transactions.get(i);
+                if (sent) {
+                    final List<String> senders = transaction.getSenders();
+                    if (Objects.nonNull(senders) && !senders.isEmpty()) {
+                        add(flows, senders.get(0), -transaction.getTotalAmountSent(), 1);
+                    }
+                } else if (Objects.nonNull(transaction.getAmountsReceived())) {
+                    for (final AmountApi amount : transaction.getAmountsReceived()) {
+                        add(flows, amount.getRecipient(), amount.getAmount(), 0);
+                    }
+                }
+            }
+            return flows;
+        }
+    }
+}
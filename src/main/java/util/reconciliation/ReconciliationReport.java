@@ -0,0 +1,29 @@
+package util.reconciliation;
+
+import lombok.Value;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Result of reconciliation of many accounts. Accounts which could not be reconciled are listed in failures
+ */
+@Value
+public class ReconciliationReport {
+    int accounts;
+
+    int wallets;
+
+    long transactions;
+
+    List<BalanceMismatch> mismatches;
+
+    /**
+     * Api key to the cause of failure
+     */
+    Map<String, RuntimeException> failures;
+
+    public boolean isConsistent() {
+        return mismatches.isEmpty() && failures.isEmpty();
+    }
+}
@@ -0,0 +1,109 @@
+package util.resilience;
+
+import config.BlockIoProperties;
+
+/**
+ * Count-based circuit breaker. Outcomes of the last calls are kept in a ring, the circuit opens
+ * when the share of failures reaches the threshold. An open circuit rejects calls for the open duration,
+ * then a few trial calls are let through: the circuit closes when all of them succeed and opens again on a failure
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final BlockIoProperties.Resilience.CircuitBreaker settings;
+
+    private final boolean[] failed;
+    private int next;
+    private int calls;
+    private int failures;
+
+    private State state = State.CLOSED;
+    private long openedAt;
+    private int trialPermits;
+    private int trialSuccesses;
+
+    public CircuitBreaker(final BlockIoProperties.Resilience.CircuitBreaker settings) {
+        this.settings = settings;
+        this.failed = new boolean[settings.getWindowSize()];
+    }
+
+    /**
+     * Checks if a call can be made. Every permitted call must be followed by {@link #onSuccess()} or {@link #onFailure()}
+     *
+     * @return false if the circuit is open
+     */
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (System.nanoTime() - openedAt < settings.getOpenDuration().toNanos()) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+            trialPermits = settings.getHalfOpenCalls();
+            trialSuccesses = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (trialPermits == 0) {
+                return false;
+            }
+            trialPermits--;
+        }
+        return true;
+    }
+
+    public synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            if (++trialSuccesses >= settings.getHalfOpenCalls()) {
+                close();
+            }
+        } else if (state == State.CLOSED) {
+            record(false);
+        }
+    }
+
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            open();
+        } else if (state == State.CLOSED) {
+            record(true);
+            if (calls >= settings.getMinimumCalls() && failures >= settings.getFailureRateThreshold() * calls) {
+                open();
+            }
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    private void record(final boolean failure) {
+        if (calls == failed.length) {
+            if (failed[next]) {
+                failures--;
+            }
+        } else {
+            calls++;
+        }
+        failed[next] = failure;
+        if (failure) {
+            failures++;
+        }
+        next = (next + 1) % failed.length;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = System.nanoTime();
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        next = 0;
+        calls = 0;
+        failures = 0;
+    }
+}
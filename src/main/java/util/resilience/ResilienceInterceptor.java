@@ -0,0 +1,213 @@
+package util.resilience;
+
+import config.BlockIoProperties;
+import exceptions.CallRejectedException;
+import io.micrometer.core.instrument.Gauge;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+import util.ApiKeys;
+import util.LazyLog;
+import util.metrics.BlockIoMetrics;
+import util.metrics.MetricsInterceptor;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static java.lang.String.format;
+
+/**
+ * Resilience layer of {@link org.springframework.web.client.RestTemplate} requests to BlockIo:
+ * <ul>
+ *     <li>bulkhead - a call waits for a place among calls in progress for a limited time</li>
+ *     <li>rate limit - every attempt takes a token from the bucket of its api key</li>
+ *     <li>circuit breaker - attempts are not sent while BlockIo keeps failing with 5xx or I/O errors</li>
+ *     <li>retries - idempotent GET requests are repeated on I/O errors and retryable statuses
+ *     with exponential backoff and full jitter</li>
+ * </ul>
+ * A call which is not sent fails with {@link CallRejectedException}.
+ * Every attempt is sent through {@link MetricsInterceptor}, so retries are measured like first attempts:
+ * the execution of {@link org.springframework.web.client.RestTemplate} runs the interceptors after this one
+ * only for its first call
+ */
+@Component
+public class ResilienceInterceptor implements ClientHttpRequestInterceptor {
+    private static final String RETRY_AFTER = "Retry-After";
+
+    private final LazyLog logger = new LazyLog(LogFactory.getLog(this.getClass()));
+
+    private final BlockIoProperties.Resilience settings;
+
+    private final BlockIoMetrics metrics;
+
+    private final MetricsInterceptor metricsInterceptor;
+
+    private final CircuitBreaker circuitBreaker;
+
+    private final Semaphore bulkhead;
+
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+    public ResilienceInterceptor(final BlockIoProperties properties, final BlockIoMetrics metrics,
+                                 final MetricsInterceptor metricsInterceptor) {
+        this.settings = properties.getResilience();
+        this.metrics = metrics;
+        this.metricsInterceptor = metricsInterceptor;
+        this.circuitBreaker = new CircuitBreaker(settings.getCircuitBreaker());
+        this.bulkhead = new Semaphore(settings.getBulkhead().getMaxConcurrentCalls(), true);
+        Gauge.builder(BlockIoMetrics.CIRCUIT_STATE, circuitBreaker, breaker -> breaker.getState().ordinal())
+                .register(metrics.getRegistry());
+    }
+
+    @Override
+    public ClientHttpResponse intercept(final HttpRequest request, final byte[] body,
+                                        final ClientHttpRequestExecution execution) throws IOException {
+        if (!settings.isEnabled()) {
+            return metricsInterceptor.intercept(request, body, execution);
+        }
+        final String endpoint = BlockIoMetrics.endpointOf(request.getURI());
+        enterBulkhead(endpoint);
+        try {
+            return executeWithRetries(request, body, execution, endpoint);
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    public CircuitBreaker.State getCircuitState() {
+        return circuitBreaker.getState();
+    }
+
+    private ClientHttpResponse executeWithRetries(final HttpRequest request, final byte[] body,
+                                                  final ClientHttpRequestExecution execution,
+                                                  final String endpoint) throws IOException {
+        final BlockIoProperties.Resilience.Retry retry = settings.getRetry();
+        final int maxAttempts = isIdempotent(request, endpoint) ? Math.max(1, retry.getMaxAttempts()) : 1;
+        final TokenBucket bucket = bucket(ApiKeys.accountOf(request.getURI()));
+        for (int attempt = 1; ; attempt++) {
+            acquireToken(bucket, endpoint);
+            if (!circuitBreaker.tryAcquire()) {
+                metrics.recordRejection("circuit_open");
+                throw new CallRejectedException(format("Circuit breaker is open, %s is not sent", endpoint));
+            }
+
+            final ClientHttpResponse response;
+            try {
+                response = metricsInterceptor.intercept(request, body, execution);
+            } catch (final IOException e) {
+                circuitBreaker.onFailure();
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Attempt %d of %s failed with %s", attempt, endpoint, e.getClass().getSimpleName());
+                }
+                backOff(endpoint, attempt, -1);
+                continue;
+            } catch (final RuntimeException e) {
+                circuitBreaker.onFailure();
+                throw e;
+            }
+
+            final int status = response.getRawStatusCode();
+            if (status >= 500) {
+                circuitBreaker.onFailure();
+            } else {
+                circuitBreaker.onSuccess();
+            }
+            if (attempt >= maxAttempts || !retry.getStatuses().contains(status)) {
+                return response;
+            }
+            final long retryAfterNanos = retryAfter(response);
+            if (retryAfterNanos > retry.getMaxBackoff().toNanos()) {
+                return response;
+            }
+            response.close();
+            if (logger.isDebugEnabled()) {
+                logger.debug("Attempt %d of %s failed with status %d", attempt, endpoint, status);
+            }
+            backOff(endpoint, attempt, retryAfterNanos);
+        }
+    }
+
+    private boolean isIdempotent(final HttpRequest request, final String endpoint) {
+        return request.getMethod() == HttpMethod.GET && !settings.getRetry().getNonIdempotentEndpoints().contains(endpoint);
+    }
+
+    private void enterBulkhead(final String endpoint) throws IOException {
+        final long maxWait = settings.getBulkhead().getMaxWait().toNanos();
+        try {
+            if (!bulkhead.tryAcquire(maxWait, TimeUnit.NANOSECONDS)) {
+                metrics.recordRejection("bulkhead");
+                throw new CallRejectedException(format("Bulkhead is full, %s is not sent", endpoint));
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(format("Interrupted while waiting for bulkhead to send %s", endpoint));
+        }
+    }
+
+    private void acquireToken(final TokenBucket bucket, final String endpoint) throws IOException {
+        final long waitNanos = bucket.reserve(settings.getRateLimit().getMaxWait().toNanos());
+        if (waitNanos < 0) {
+            metrics.recordRejection("rate_limit");
+            throw new CallRejectedException(format("Rate limit is exceeded, %s is not sent", endpoint));
+        }
+        sleep(waitNanos, endpoint);
+    }
+
+    private TokenBucket bucket(final String account) {
+        final TokenBucket bucket = buckets.get(account);
+        return Objects.nonNull(bucket) ? bucket : buckets.computeIfAbsent(account, key -> new TokenBucket(
+                settings.getRateLimit().getRequestsPerSecond(), settings.getRateLimit().getBurst()));
+    }
+
+    /**
+     * Waits before the next attempt: a random time up to the exponential backoff, but not less than "Retry-After"
+     */
+    private void backOff(final String endpoint, final int attempt, final long retryAfterNanos) throws IOException {
+        final BlockIoProperties.Resilience.Retry retry = settings.getRetry();
+        final long maxBackoff = retry.getMaxBackoff().toNanos();
+        final long backoff = Math.min(maxBackoff, retry.getInitialBackoff().toNanos() << Math.min(attempt - 1, 30));
+        final long jittered = ThreadLocalRandom.current().nextLong(backoff + 1);
+        metrics.recordRetry(endpoint);
+        sleep(Math.max(jittered, retryAfterNanos), endpoint);
+    }
+
+    /**
+     * @return nanos of "Retry-After" header in seconds, or -1 if it is absent or not a number
+     */
+    private long retryAfter(final ClientHttpResponse response) {
+        final String retryAfter = response.getHeaders().getFirst(RETRY_AFTER);
+        if (Objects.isNull(retryAfter)) {
+            return -1;
+        }
+        try {
+            return TimeUnit.SECONDS.toNanos(Long.parseLong(retryAfter.trim()));
+        } catch (final NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private void sleep(final long nanos, final String endpoint) throws IOException {
+        if (nanos <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(format("Interrupted while waiting to send %s", endpoint));
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package util.resilience;
+
+/**
+ * Token bucket which refills continuously. A permit taken from an empty bucket is reserved in advance,
+ * so waiting callers are served in order and the rate is never exceeded
+ */
+public class TokenBucket {
+    private final double tokensPerNano;
+    private final double capacity;
+    private double tokens;
+    private long refilledAt;
+
+    /**
+     * @param permitsPerSecond - rate of refill
+     * @param burst            - max number of permits taken at once after idle time
+     */
+    public TokenBucket(final double permitsPerSecond, final int burst) {
+        if (permitsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Rate and burst of token bucket should be positive");
+        }
+        this.tokensPerNano = permitsPerSecond / 1_000_000_000d;
+        this.capacity = burst;
+        this.tokens = burst;
+        this.refilledAt = System.nanoTime();
+    }
+
+    /**
+     * Reserves a permit
+     *
+     * @param maxWaitNanos - max time the caller is ready to wait
+     * @return nanos to wait before the permit can be used, or -1 if it is longer than max wait and nothing is reserved
+     */
+    public synchronized long reserve(final long maxWaitNanos) {
+        final long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - refilledAt) * tokensPerNano);
+        refilledAt = now;
+        if (tokens >= 1) {
+            tokens--;
+            return 0;
+        }
+        final long waitNanos = (long) Math.ceil((1 - tokens) / tokensPerNano);
+        if (waitNanos > maxWaitNanos) {
+            return -1;
+        }
+        tokens--;
+        return waitNanos;
+    }
+}
@@ -0,0 +1,274 @@
+package util.snapshot;
+
+import config.BlockIoProperties;
+import model.wallet.WalletApi;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+import util.ApiKeys;
+import util.LazyLog;
+import util.WalletIndexCache;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
+
+import static java.lang.String.format;
+
+/**
+ * Warm-start snapshot of wallets. Wallets cached by {@link WalletIndexCache} are written to a local binary file
+ * on shutdown and the file is read on the first lookup after startup, so a short-lived job or test
+ * doesn't load all pages of wallets again. Wallets of an account are taken from the snapshot once and only if
+ * they are younger than "max-age" and, when "verify-transactions" is on, no transaction of the account is newer
+ * than them. The check of transactions costs requests, so wallets of an account with fewer than "min-wallets" wallets,
+ * which load in as few pages, are not taken when it is on. Api keys are not written to the file, only their SHA-256 hashes.
+ * A missing or broken file, or a file written for another base url of BlockIo, is ignored
+ * and wallets are loaded from BlockIo as usual.
+ * Freshness is checked only by the time of the newest transaction: a wallet created by another process
+ * with "get_new_address" leaves no transaction, so it is missing from the taken wallets for up to "max-age"
+ */
+@Component
+public class WalletSnapshot implements DisposableBean {
+    private static final int MAGIC = 0x424C4B57;
+    private static final int VERSION = 1;
+
+    private final LazyLog logger = new LazyLog(LogFactory.getLog(this.getClass()));
+
+    private final BlockIoProperties.Snapshot settings;
+
+    private final String baseUrl;
+
+    private final WalletIndexCache walletIndexCache;
+
+    private final LongAdder restored = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * Accounts restored from the snapshot to the time their wallets were really loaded at,
+     * so wallets which are written again keep their age
+     */
+    private final Map<String, Long> restoredAt = new HashMap<>();
+
+    private Map<String, Entry> entries;
+
+    public WalletSnapshot(final BlockIoProperties properties, final WalletIndexCache walletIndexCache) {
+        this.settings = properties.getSnapshot();
+        this.baseUrl = properties.getApi().getBaseUrl();
+        this.walletIndexCache = walletIndexCache;
+    }
+
+    /**
+     * Takes wallets of account from the snapshot if they are fresh
+     *
+     * @param apiKey                - key of account
+     * @param newestTransactionTime - gets the time in seconds of the newest transaction of account, or 0 if it has none
+     * @return wallets or empty if the snapshot has no fresh wallets of account
+     */
+    public Optional<List<WalletApi>> take(final String apiKey, final ToLongFunction<String> newestTransactionTime) {
+        if (!settings.isEnabled()) {
+            return Optional.empty();
+        }
+        final String account = ApiKeys.hash(apiKey);
+        final Entry entry;
+        synchronized (this) {
+            entry = load().remove(account);
+        }
+        if (Objects.isNull(entry)) {
+            return Optional.empty();
+        }
+        if (settings.isVerifyTransactions() && entry.wallets.size() < settings.getMinWallets()) {
+            if (logger.isDebugEnabled()) {
+                logger.debug("Only %d wallets of apiKey=%s are in the snapshot, they are loaded without checking transactions",
+                        entry.wallets.size(), apiKey);
+            }
+            return Optional.empty();
+        }
+        if (System.currentTimeMillis() - entry.loadedAtMillis > settings.getMaxAge().toMillis()
+                || settings.isVerifyTransactions()
+                && newestTransactionTime.applyAsLong(apiKey) >= TimeUnit.MILLISECONDS.toSeconds(entry.loadedAtMillis)) {
+            rejected.increment();
+            logger.debug("Wallets of apiKey=%s in the snapshot are stale", apiKey);
+            return Optional.empty();
+        }
+        synchronized (this) {
+            restoredAt.put(account, entry.loadedAtMillis);
+        }
+        restored.increment();
+        return Optional.of(entry.wallets);
+    }
+
+    /**
+     * Drops wallets of account from the snapshot. Should be called after any operation which changes wallets
+     *
+     * @param apiKey - key of account
+     */
+    public void invalidate(final String apiKey) {
+        if (!settings.isEnabled()) {
+            return;
+        }
+        final String account = ApiKeys.hash(apiKey);
+        synchronized (this) {
+            load().remove(account);
+            restoredAt.remove(account);
+        }
+    }
+
+    /**
+     * Writes wallets of the cache and fresh wallets of the snapshot which were not taken.
+     * The file is written to a temporary one and moved over the old one, so it is never left half-written
+     */
+    public synchronized void save() {
+        if (!settings.isEnabled()) {
+            return;
+        }
+        final Map<String, Entry> fresh = new HashMap<>();
+        final long oldest = System.currentTimeMillis() - settings.getMaxAge().toMillis();
+        load().forEach((account, entry) -> {
+            if (entry.loadedAtMillis >= oldest) {
+                fresh.put(account, entry);
+            }
+        });
+        for (final WalletIndexCache.CachedWallets cached : walletIndexCache.getCachedWallets()) {
+            final String account = ApiKeys.hash(cached.getApiKey());
+            final long loadedAtMillis = Math.min(cached.getLoadedAtMillis(),
+                    restoredAt.getOrDefault(account, Long.MAX_VALUE));
+            if (loadedAtMillis >= oldest) {
+                fresh.put(account, new Entry(cached.getWallets(), loadedAtMillis));
+            }
+        }
+
+        final Path file = settings.getFile();
+        try {
+            final Path directory = file.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            final Path temporary = Files.createTempFile(directory, "wallets", ".tmp");
+            try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                output.writeInt(MAGIC);
+                output.writeInt(VERSION);
+                output.writeUTF(baseUrl);
+                output.writeInt(fresh.size());
+                for (final Map.Entry<String, Entry> entry : fresh.entrySet()) {
+                    output.writeUTF(entry.getKey());
+                    write(output, entry.getValue());
+                }
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            if (logger.isDebugEnabled()) {
+                logger.debug("Saved wallets of %d accounts to %s", fresh.size(), file);
+            }
+        } catch (final IOException e) {
+            logger.warn(format("Could not write snapshot of wallets to %s", file), e);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        save();
+    }
+
+    /**
+     * @return number of accounts whose wallets were taken from the snapshot
+     */
+    public long getRestored() {
+        return restored.sum();
+    }
+
+    /**
+     * @return number of accounts whose wallets in the snapshot were stale
+     */
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    /**
+     * Reads the file once, on the first call
+     */
+    private Map<String, Entry> load() {
+        if (Objects.nonNull(entries)) {
+            return entries;
+        }
+        entries = new HashMap<>();
+        final Path file = settings.getFile();
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (input.readInt() != MAGIC || input.readInt() != VERSION) {
+                logger.debug("Snapshot of wallets %s has unknown format and is ignored", file);
+                return entries;
+            }
+            if (!baseUrl.equals(input.readUTF())) {
+                logger.debug("Snapshot of wallets %s is written for another BlockIo and is ignored", file);
+                return entries;
+            }
+            final int accounts = input.readInt();
+            for (int i = 0; i < accounts; i++) {
+                final String account = input.readUTF();
+                entries.put(account, read(input));
+            }
+        } catch (final NoSuchFileException e) {
+            logger.debug("There is no snapshot of wallets %s", file);
+        } catch (final IOException e) {
+            entries.clear();
+            logger.warn(format("Could not read snapshot of wallets from %s, it is ignored", file), e);
+        }
+        return entries;
+    }
+
+    private static void write(final DataOutputStream output, final Entry entry) throws IOException {
+        output.writeLong(entry.loadedAtMillis);
+        output.writeInt(entry.wallets.size());
+        for (final WalletApi wallet : entry.wallets) {
+            output.writeInt(wallet.getUserId());
+            writeNullable(output, wallet.getAddress());
+            writeNullable(output, wallet.getLabel());
+            output.writeLong(wallet.getPendingReceivedBalance());
+            output.writeLong(wallet.getAvailableBalance());
+            output.writeBoolean(wallet.isSegwit());
+        }
+    }
+
+    private static Entry read(final DataInputStream input) throws IOException {
+        final long loadedAtMillis = input.readLong();
+        final int size = input.readInt();
+        final List<WalletApi> wallets = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            wallets.add(new WalletApi(input.readInt(), readNullable(input), readNullable(input),
+                    input.readLong(), input.readLong(), input.readBoolean()));
+        }
+        return new Entry(wallets, loadedAtMillis);
+    }
+
+    private static void writeNullable(final DataOutputStream output, final String value) throws IOException {
+        output.writeBoolean(Objects.nonNull(value));
+        if (Objects.nonNull(value)) {
+            output.writeUTF(value);
+        }
+    }
+
+    private static String readNullable(final DataInputStream input) throws IOException {
+        return input.readBoolean() ? input.readUTF() : null;
+    }
+
+    private static final class Entry {
+        private final List<WalletApi> wallets;
+        private final long loadedAtMillis;
+
+        private Entry(final List<WalletApi> wallets, final long loadedAtMillis) {
+            this.wallets = wallets;
+            this.loadedAtMillis = loadedAtMillis;
+        }
+    }
+}
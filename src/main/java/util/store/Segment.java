@@ -0,0 +1,141 @@
+package util.store;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.IntConsumer;
+
+/**
+ * Memory-mapped file of fixed size with records appended one after another.
+ * Every record is prefixed with its length, a zero length marks the end of records.
+ * The length is written after the record itself, so a record interrupted by a crash is never read
+ */
+final class Segment implements Closeable {
+    private static final int MAGIC = 0x42494F54;
+    private static final int VERSION = 1;
+    static final int HEADER = Integer.BYTES * 2;
+
+    private final int id;
+    private final Path file;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private int position;
+    private long liveBytes;
+
+    private Segment(final int id, final Path file, final FileChannel channel, final MappedByteBuffer buffer) {
+        this.id = id;
+        this.file = file;
+        this.channel = channel;
+        this.buffer = buffer;
+    }
+
+    static Segment create(final int id, final Path file, final int size) throws IOException {
+        final FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        final Segment segment = new Segment(id, file, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+        segment.buffer.putInt(0, MAGIC);
+        segment.buffer.putInt(Integer.BYTES, VERSION);
+        segment.position = HEADER;
+        return segment;
+    }
+
+    /**
+     * Maps an existing segment and finds the end of its records
+     *
+     * @param id   - number of segment
+     * @param file - file of segment
+     */
+    static Segment open(final int id, final Path file) throws IOException {
+        final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        final Segment segment = new Segment(id, file, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size()));
+        if (segment.buffer.capacity() < HEADER || segment.buffer.getInt(0) != MAGIC
+                || segment.buffer.getInt(Integer.BYTES) != VERSION) {
+            segment.close();
+            throw new IOException(file + " is not a segment of transactions");
+        }
+        segment.position = HEADER;
+        while (segment.position + Integer.BYTES <= segment.buffer.capacity()) {
+            final int length = segment.buffer.getInt(segment.position);
+            if (length <= 0 || segment.position + Integer.BYTES + length > segment.buffer.capacity()) {
+                break;
+            }
+            segment.position += Integer.BYTES + length;
+        }
+        segment.liveBytes = segment.position - HEADER;
+        return segment;
+    }
+
+    boolean hasRoom(final int length) {
+        return position + Integer.BYTES + length <= buffer.capacity();
+    }
+
+    /**
+     * @param record - record to append, from position to limit
+     * @return offset of the record in the segment
+     */
+    int append(final ByteBuffer record) {
+        final int offset = position;
+        final int length = record.remaining();
+        buffer.put(offset + Integer.BYTES, record, record.position(), length);
+        buffer.putInt(offset, length);
+        position += Integer.BYTES + length;
+        liveBytes += Integer.BYTES + length;
+        return offset;
+    }
+
+    /**
+     * @param offset - offset of the record
+     * @return independent view of the record without its length
+     */
+    ByteBuffer record(final int offset) {
+        return buffer.slice(offset + Integer.BYTES, buffer.getInt(offset));
+    }
+
+    int recordSize(final int offset) {
+        return Integer.BYTES + buffer.getInt(offset);
+    }
+
+    /**
+     * Visits offsets of all records from the oldest one
+     */
+    void forEachOffset(final IntConsumer record) {
+        for (int offset = HEADER; offset < position; offset += recordSize(offset)) {
+            record.accept(offset);
+        }
+    }
+
+    void release(final int offset) {
+        liveBytes -= recordSize(offset);
+    }
+
+    /**
+     * @return share of bytes of records which were overwritten
+     */
+    double deadRatio() {
+        final int used = position - HEADER;
+        return used == 0 ? 0 : 1 - (double) liveBytes / used;
+    }
+
+    int getId() {
+        return id;
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    void delete() throws IOException {
+        close();
+        Files.deleteIfExists(file);
+    }
+}
@@ -0,0 +1,162 @@
+package util.store;
+
+import model.transaction.AmountApi;
+import model.transaction.TransactionApi;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Compact binary format of {@link TransactionApi}. Fields are written in a fixed order,
+ * strings and lists are prefixed with their length, -1 stands for null.
+ * propagated_by_nodes is never negative (see {@link TransactionApi}), so -1 is not ambiguous for it either.
+ * The txid is always the first field, so it can be checked without reading the whole record
+ */
+final class TransactionCodec {
+    private static final int NULL = -1;
+
+    private ByteBuffer buffer = ByteBuffer.allocate(1024);
+
+    /**
+     * @param transaction - transaction to encode
+     * @return buffer with the record, it is reused by the next call
+     */
+    ByteBuffer encode(final TransactionApi transaction) {
+        buffer.clear();
+        putString(transaction.getTxid());
+        ensure(1 + Long.BYTES + Integer.BYTES + Long.BYTES);
+        buffer.put((byte) (transaction.isFromGreenAddress() ? 1 : 0));
+        buffer.putLong(transaction.getTime());
+        buffer.putInt(transaction.getConfirmations());
+        buffer.putLong(transaction.getTotalAmountSent());
+        putAmounts(transaction.getAmountsSent());
+        putStrings(transaction.getSenders());
+        ensure(Double.BYTES + Integer.BYTES);
+        buffer.putDouble(transaction.getConfidence());
+        buffer.putInt(Objects.isNull(transaction.getPropagatedByNodes()) ? NULL : transaction.getPropagatedByNodes());
+        putAmounts(transaction.getAmountsReceived());
+        buffer.flip();
+        return buffer;
+    }
+
+    static TransactionApi decode(final ByteBuffer record) {
+        final TransactionApi.TransactionApiBuilder transaction = TransactionApi.builder()
+                .txid(getString(record))
+                .fromGreenAddress(record.get() != 0)
+                .time(record.getLong())
+                .confirmations(record.getInt())
+                .totalAmountSent(record.getLong())
+                .amountsSent(getAmounts(record))
+                .senders(getStrings(record))
+                .confidence(record.getDouble());
+        final int propagatedByNodes = record.getInt();
+        return transaction.propagatedByNodes(propagatedByNodes == NULL ? null : propagatedByNodes)
+                .amountsReceived(getAmounts(record))
+                .build();
+    }
+
+    static String readTxid(final ByteBuffer record) {
+        return getString(record.duplicate());
+    }
+
+    /**
+     * Compares the txid of the record with the given one without decoding it
+     *
+     * @param record - record of transaction
+     * @param txid   - UTF-8 bytes of txid
+     * @return true if the record has the txid
+     */
+    static boolean hasTxid(final ByteBuffer record, final byte[] txid) {
+        if (record.getInt(0) != txid.length) {
+            return false;
+        }
+        for (int i = 0; i < txid.length; i++) {
+            if (record.get(Integer.BYTES + i) != txid[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void putAmounts(final List<AmountApi> amounts) {
+        ensure(Integer.BYTES);
+        if (Objects.isNull(amounts)) {
+            buffer.putInt(NULL);
+            return;
+        }
+        buffer.putInt(amounts.size());
+        for (final AmountApi amount : amounts) {
+            putString(amount.getRecipient());
+            ensure(Long.BYTES);
+            buffer.putLong(amount.getAmount());
+        }
+    }
+
+    private void putStrings(final List<String> values) {
+        ensure(Integer.BYTES);
+        if (Objects.isNull(values)) {
+            buffer.putInt(NULL);
+            return;
+        }
+        buffer.putInt(values.size());
+        values.forEach(this::putString);
+    }
+
+    private void putString(final String value) {
+        if (Objects.isNull(value)) {
+            ensure(Integer.BYTES);
+            buffer.putInt(NULL);
+            return;
+        }
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        ensure(Integer.BYTES + bytes.length);
+        buffer.putInt(bytes.length);
+        buffer.put(bytes);
+    }
+
+    private void ensure(final int bytes) {
+        if (buffer.remaining() < bytes) {
+            final ByteBuffer larger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + bytes));
+            buffer.flip();
+            larger.put(buffer);
+            buffer = larger;
+        }
+    }
+
+    private static List<AmountApi> getAmounts(final ByteBuffer record) {
+        final int size = record.getInt();
+        if (size == NULL) {
+            return null;
+        }
+        final List<AmountApi> amounts = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            amounts.add(new AmountApi(getString(record), record.getLong()));
+        }
+        return amounts;
+    }
+
+    private static List<String> getStrings(final ByteBuffer record) {
+        final int size = record.getInt();
+        if (size == NULL) {
+            return null;
+        }
+        final List<String> values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            values.add(getString(record));
+        }
+        return values;
+    }
+
+    private static String getString(final ByteBuffer record) {
+        final int length = record.getInt();
+        if (length == NULL) {
+            return null;
+        }
+        final byte[] bytes = new byte[length];
+        record.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
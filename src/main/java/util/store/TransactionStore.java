@@ -0,0 +1,327 @@
+package util.store;
+
+import config.BlockIoProperties;
+import exceptions.CustomRuntimeException;
+import model.transaction.TransactionApi;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+import util.LazyLog;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+import static java.lang.String.format;
+
+/**
+ * Local append-only log of transactions, so the history can be read without requests to BlockIo.
+ * Records are kept in memory-mapped segment files and found by txid through an off-heap index.
+ * Putting a known txid appends a new record and makes the old one dead, compaction moves live records
+ * out of segments with many dead ones. The index is rebuilt from segments when the store is opened.
+ * Records are written to disk by the OS, {@link #flush()} forces them
+ */
+@Component
+public class TransactionStore implements DisposableBean {
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final int INITIAL_INDEX_CAPACITY = 1024;
+
+    private final LazyLog logger = new LazyLog(LogFactory.getLog(this.getClass()));
+
+    private final BlockIoProperties properties;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final NavigableMap<Integer, Segment> segments = new TreeMap<>();
+
+    private final TransactionCodec codec = new TransactionCodec();
+
+    private TxidIndex index;
+
+    private Segment active;
+
+    private volatile boolean opened;
+
+    public TransactionStore(final BlockIoProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Appends a transaction, a transaction with the same txid is replaced
+     *
+     * @param transaction - transaction to store
+     */
+    public void put(final TransactionApi transaction) {
+        putAll(List.of(transaction));
+    }
+
+    /**
+     * Appends transactions under a single lock
+     *
+     * @param transactions - transactions to store
+     */
+    public void putAll(final Collection<TransactionApi> transactions) {
+        open();
+        lock.writeLock().lock();
+        try {
+            for (final TransactionApi transaction : transactions) {
+                final byte[] txid = Objects.requireNonNull(transaction.getTxid(), "txid of transaction")
+                        .getBytes(StandardCharsets.UTF_8);
+                final long location = append(codec.encode(transaction));
+                final long previous = index.put(TxidIndex.hash(txid), location, candidate -> hasTxid(candidate, txid));
+                if (previous != TxidIndex.ABSENT) {
+                    segments.get(TxidIndex.segment(previous)).release(TxidIndex.offset(previous));
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Find a transaction with specific txid
+     *
+     * @param txid - id of transaction
+     * @return stored transaction or empty if there is no such txid
+     */
+    public Optional<TransactionApi> get(final String txid) {
+        open();
+        final byte[] bytes = txid.getBytes(StandardCharsets.UTF_8);
+        lock.readLock().lock();
+        try {
+            final long location = index.get(TxidIndex.hash(bytes), candidate -> hasTxid(candidate, bytes));
+            return location == TxidIndex.ABSENT ? Optional.empty() : Optional.of(TransactionCodec.decode(record(location)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean contains(final String txid) {
+        open();
+        final byte[] bytes = txid.getBytes(StandardCharsets.UTF_8);
+        lock.readLock().lock();
+        try {
+            return index.get(TxidIndex.hash(bytes), candidate -> hasTxid(candidate, bytes)) != TxidIndex.ABSENT;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Reads all stored transactions in the order they were put, replaced records are skipped
+     *
+     * @param consumer - callback for every transaction
+     */
+    public void forEach(final Consumer<TransactionApi> consumer) {
+        open();
+        lock.readLock().lock();
+        try {
+            for (final Segment segment : segments.values()) {
+                segment.forEachOffset(offset -> {
+                    final long location = TxidIndex.location(segment.getId(), offset);
+                    if (isLive(location)) {
+                        consumer.accept(TransactionCodec.decode(segment.record(offset)));
+                    }
+                });
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return number of stored transactions
+     */
+    public int size() {
+        open();
+        lock.readLock().lock();
+        try {
+            return index.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Moves live records of segments where the share of dead records exceeds the threshold
+     * to the active segment and deletes those segments
+     *
+     * @return number of deleted segments
+     */
+    public int compact() {
+        open();
+        lock.writeLock().lock();
+        try {
+            final double threshold = properties.getStore().getCompactionThreshold();
+            final List<Segment> candidates = new ArrayList<>();
+            segments.values().stream()
+                    .filter(segment -> segment != active && segment.deadRatio() >= threshold)
+                    .forEach(candidates::add);
+            for (final Segment segment : candidates) {
+                segment.forEachOffset(offset -> {
+                    final long location = TxidIndex.location(segment.getId(), offset);
+                    if (isLive(location)) {
+                        final ByteBuffer record = segment.record(offset);
+                        final long hash = TxidIndex.hash(TransactionCodec.readTxid(record).getBytes(StandardCharsets.UTF_8));
+                        index.replace(hash, location, append(record));
+                    }
+                });
+                active.force();
+                segments.remove(segment.getId());
+                segment.delete();
+            }
+            if (!candidates.isEmpty()) {
+                logger.debug("Compacted %s segments of transactions", candidates.size());
+            }
+            return candidates.size();
+        } catch (final IOException e) {
+            throw new CustomRuntimeException("Could not compact segments of transactions", e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Forces all records to disk
+     */
+    public void flush() {
+        if (opened) {
+            lock.writeLock().lock();
+            try {
+                segments.values().forEach(Segment::force);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        lock.writeLock().lock();
+        try {
+            if (opened) {
+                for (final Segment segment : segments.values()) {
+                    segment.force();
+                    segment.close();
+                }
+                segments.clear();
+                index = null;
+                active = null;
+                opened = false;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Maps existing segments and rebuilds the index on first use, so the store costs nothing until it is needed
+     */
+    private void open() {
+        if (opened) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (opened) {
+                return;
+            }
+            final Path directory = properties.getStore().getDirectory();
+            Files.createDirectories(directory);
+            index = new TxidIndex(INITIAL_INDEX_CAPACITY);
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+                final NavigableMap<Integer, Path> existing = new TreeMap<>();
+                files.forEach(file -> existing.put(segmentId(file), file));
+                for (final Map.Entry<Integer, Path> entry : existing.entrySet()) {
+                    final int id = entry.getKey();
+                    final Segment segment = Segment.open(id, entry.getValue());
+                    segments.put(id, segment);
+                    segment.forEachOffset(offset -> restore(segment, offset));
+                }
+            }
+            active = segments.isEmpty() ? createSegment(0) : segments.lastEntry().getValue();
+            opened = true;
+            if (logger.isDebugEnabled()) {
+                logger.debug("Opened %s transactions in %s segments", index.size(), segments.size());
+            }
+        } catch (final IOException e) {
+            throw new CustomRuntimeException(format("Could not open transactions in %s",
+                    properties.getStore().getDirectory()), e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Indexes a record of a segment being opened, later records of the same txid win
+     */
+    private void restore(final Segment segment, final int offset) {
+        final byte[] txid = TransactionCodec.readTxid(segment.record(offset)).getBytes(StandardCharsets.UTF_8);
+        final long previous = index.put(TxidIndex.hash(txid), TxidIndex.location(segment.getId(), offset),
+                candidate -> hasTxid(candidate, txid));
+        if (previous != TxidIndex.ABSENT) {
+            segments.get(TxidIndex.segment(previous)).release(TxidIndex.offset(previous));
+        }
+    }
+
+    private long append(final ByteBuffer record) {
+        if (Segment.HEADER + Integer.BYTES + record.remaining() > segmentSize()) {
+            throw new IllegalArgumentException(format("Transaction of %d bytes doesn't fit into a segment",
+                    record.remaining()));
+        }
+        if (!active.hasRoom(record.remaining())) {
+            active.force();
+            try {
+                active = createSegment(active.getId() + 1);
+            } catch (final IOException e) {
+                throw new CustomRuntimeException("Could not create a segment of transactions", e);
+            }
+        }
+        return TxidIndex.location(active.getId(), active.append(record));
+    }
+
+    private Segment createSegment(final int id) throws IOException {
+        final Path file = properties.getStore().getDirectory().resolve(format("%s%010d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX));
+        final Segment segment = Segment.create(id, file, segmentSize());
+        segments.put(id, segment);
+        return segment;
+    }
+
+    private int segmentSize() {
+        return (int) Math.min(properties.getStore().getSegmentSize().toBytes(), Integer.MAX_VALUE);
+    }
+
+    private ByteBuffer record(final long location) {
+        return segments.get(TxidIndex.segment(location)).record(TxidIndex.offset(location));
+    }
+
+    private boolean hasTxid(final long location, final byte[] txid) {
+        return TransactionCodec.hasTxid(record(location), txid);
+    }
+
+    private boolean isLive(final long location) {
+        final ByteBuffer record = record(location);
+        final byte[] txid = TransactionCodec.readTxid(record).getBytes(StandardCharsets.UTF_8);
+        return index.get(TxidIndex.hash(txid), candidate -> candidate == location) == location;
+    }
+
+    private static int segmentId(final Path file) {
+        final String name = file.getFileName().toString();
+        return Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+}
@@ -0,0 +1,141 @@
+package util.store;
+
+import java.nio.ByteBuffer;
+import java.util.function.LongPredicate;
+
+/**
+ * Open addressing hash table of txid hashes and record locations kept off-heap in a direct buffer,
+ * so the index of millions of transactions doesn't load the garbage collector.
+ * Different txids with the same hash are told apart by the caller, which checks the record at a location
+ */
+final class TxidIndex {
+    static final long ABSENT = -1;
+
+    private static final int SLOT = Long.BYTES * 2;
+    private static final long EMPTY = 0;
+    private static final double MAX_LOAD = 0.7;
+
+    private ByteBuffer slots;
+    private int capacity;
+    private int size;
+
+    TxidIndex(final int capacity) {
+        this.capacity = Integer.highestOneBit(Math.max(capacity, 16) - 1) << 1;
+        this.slots = ByteBuffer.allocateDirect(this.capacity * SLOT);
+    }
+
+    /**
+     * @param hash    - hash of txid, see {@link #hash(byte[])}
+     * @param matches - checks that the record at a location has the txid
+     * @return location of the record or {@link #ABSENT}
+     */
+    long get(final long hash, final LongPredicate matches) {
+        for (int slot = slot(hash); ; slot = next(slot)) {
+            final long key = slots.getLong(slot * SLOT);
+            if (key == EMPTY) {
+                return ABSENT;
+            }
+            final long location = slots.getLong(slot * SLOT + Long.BYTES);
+            if (key == hash && matches.test(location)) {
+                return location;
+            }
+        }
+    }
+
+    /**
+     * @param hash     - hash of txid, see {@link #hash(byte[])}
+     * @param location - new location of the record
+     * @param matches  - checks that the record at a location has the txid
+     * @return previous location of the record or {@link #ABSENT}
+     */
+    long put(final long hash, final long location, final LongPredicate matches) {
+        if (size + 1 > capacity * MAX_LOAD) {
+            resize();
+        }
+        for (int slot = slot(hash); ; slot = next(slot)) {
+            final long key = slots.getLong(slot * SLOT);
+            if (key == EMPTY) {
+                slots.putLong(slot * SLOT, hash);
+                slots.putLong(slot * SLOT + Long.BYTES, location);
+                size++;
+                return ABSENT;
+            }
+            final long previous = slots.getLong(slot * SLOT + Long.BYTES);
+            if (key == hash && matches.test(previous)) {
+                slots.putLong(slot * SLOT + Long.BYTES, location);
+                return previous;
+            }
+        }
+    }
+
+    /**
+     * Moves a record to a new location, used by compaction
+     *
+     * @return true if the index pointed to the old location
+     */
+    boolean replace(final long hash, final long oldLocation, final long newLocation) {
+        for (int slot = slot(hash); ; slot = next(slot)) {
+            final long key = slots.getLong(slot * SLOT);
+            if (key == EMPTY) {
+                return false;
+            }
+            if (key == hash && slots.getLong(slot * SLOT + Long.BYTES) == oldLocation) {
+                slots.putLong(slot * SLOT + Long.BYTES, newLocation);
+                return true;
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * 64-bit FNV-1a hash, zero is reserved for empty slots
+     */
+    static long hash(final byte[] txid) {
+        long hash = 0xcbf29ce484222325L;
+        for (final byte value : txid) {
+            hash = (hash ^ (value & 0xFF)) * 0x100000001b3L;
+        }
+        return hash == EMPTY ? 1 : hash;
+    }
+
+    static long location(final int segment, final int offset) {
+        return (long) segment << 32 | offset & 0xFFFFFFFFL;
+    }
+
+    static int segment(final long location) {
+        return (int) (location >>> 32);
+    }
+
+    static int offset(final long location) {
+        return (int) location;
+    }
+
+    private void resize() {
+        final ByteBuffer old = slots;
+        final int oldCapacity = capacity;
+        capacity *= 2;
+        slots = ByteBuffer.allocateDirect(capacity * SLOT);
+        for (int i = 0; i < oldCapacity; i++) {
+            final long key = old.getLong(i * SLOT);
+            if (key != EMPTY) {
+                int slot = slot(key);
+                while (slots.getLong(slot * SLOT) != EMPTY) {
+                    slot = next(slot);
+                }
+                slots.putLong(slot * SLOT, key);
+                slots.putLong(slot * SLOT + Long.BYTES, old.getLong(i * SLOT + Long.BYTES));
+            }
+        }
+    }
+
+    private int slot(final long hash) {
+        return (int) (hash ^ hash >>> 32) & capacity - 1;
+    }
+
+    private int next(final int slot) {
+        return slot + 1 & capacity - 1;
+    }
+}
@@ -0,0 +1,120 @@
+package util.sync;
+
+import config.BlockIoProperties;
+import exceptions.CustomRuntimeException;
+import model.transaction.TransactionType;
+import org.springframework.stereotype.Component;
+import util.ApiKeys;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Properties;
+
+import static java.lang.String.format;
+
+/**
+ * Keeps {@link TransactionCursor} and {@link TransactionGap} per api key and {@link TransactionType}
+ * in a local properties file.
+ * Api keys are not written to the file, only their SHA-256 hashes
+ */
+@Component
+public class FileCursorStore {
+    private static final String GAP = ".gap";
+
+    private final Path file;
+
+    private Properties cursors;
+
+    public FileCursorStore(final BlockIoProperties properties) {
+        this.file = properties.getSync().getCursorFile();
+    }
+
+    public synchronized Optional<TransactionCursor> get(final String apiKey, final TransactionType type) {
+        final String value = load().getProperty(key(apiKey, type));
+        if (Objects.isNull(value)) {
+            return Optional.empty();
+        }
+        final int separator = value.lastIndexOf(':');
+        return Optional.of(new TransactionCursor(value.substring(0, separator), Long.parseLong(value.substring(separator + 1))));
+    }
+
+    public synchronized void put(final String apiKey, final TransactionType type, final TransactionCursor cursor) {
+        load().setProperty(key(apiKey, type), cursor.getTxid() + ":" + cursor.getTime());
+        save();
+    }
+
+    public synchronized Optional<TransactionGap> getGap(final String apiKey, final TransactionType type) {
+        final String value = load().getProperty(key(apiKey, type) + GAP);
+        if (Objects.isNull(value)) {
+            return Optional.empty();
+        }
+        final int first = value.indexOf(':');
+        final int last = value.lastIndexOf(':');
+        return Optional.of(new TransactionGap(value.substring(0, first),
+                new TransactionCursor(value.substring(first + 1, last), Long.parseLong(value.substring(last + 1)))));
+    }
+
+    public synchronized void putGap(final String apiKey, final TransactionType type, final TransactionGap gap) {
+        final TransactionCursor until = gap.getUntil();
+        load().setProperty(key(apiKey, type) + GAP, gap.getBeforeTx() + ":" + until.getTxid() + ":" + until.getTime());
+        save();
+    }
+
+    public synchronized void removeGap(final String apiKey, final TransactionType type) {
+        if (Objects.nonNull(load().remove(key(apiKey, type) + GAP))) {
+            save();
+        }
+    }
+
+    /**
+     * Removes the cursor and the gap
+     */
+    public synchronized void remove(final String apiKey, final TransactionType type) {
+        final boolean removed = Objects.nonNull(load().remove(key(apiKey, type)));
+        if (Objects.nonNull(load().remove(key(apiKey, type) + GAP)) || removed) {
+            save();
+        }
+    }
+
+    private Properties load() {
+        if (Objects.isNull(cursors)) {
+            cursors = new Properties();
+            if (Files.exists(file)) {
+                try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                    cursors.load(reader);
+                } catch (final IOException e) {
+                    throw new CustomRuntimeException(format("Could not read transaction cursors from %s", file), e);
+                }
+            }
+        }
+        return cursors;
+    }
+
+    /**
+     * Writes a temporary file and moves it over the old one, so the file is never left half-written
+     */
+    private void save() {
+        try {
+            final Path directory = file.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            final Path temporary = Files.createTempFile(directory, "cursors", ".tmp");
+            try (Writer writer = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+                cursors.store(writer, "Last seen BlockIo transactions");
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (final IOException e) {
+            throw new CustomRuntimeException(format("Could not write transaction cursors to %s", file), e);
+        }
+    }
+
+    private String key(final String apiKey, final TransactionType type) {
+        return ApiKeys.hash(apiKey) + '.' + type.getRepresentation();
+    }
+}
@@ -0,0 +1,26 @@
+package util.sync;
+
+import lombok.Value;
+import model.transaction.TransactionApi;
+
+/**
+ * The newest transaction seen by the last synchronization
+ */
+@Value
+public class TransactionCursor {
+    String txid;
+
+    long time;
+
+    public static TransactionCursor of(final TransactionApi transaction) {
+        return new TransactionCursor(transaction.getTxid(), transaction.getTime());
+    }
+
+    /**
+     * @param transaction - transaction to check
+     * @return true if the transaction is this cursor or older than it
+     */
+    public boolean isReachedBy(final TransactionApi transaction) {
+        return txid.equals(transaction.getTxid()) || transaction.getTime() < time;
+    }
+}
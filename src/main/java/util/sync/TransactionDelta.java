@@ -0,0 +1,37 @@
+package util.sync;
+
+import lombok.Value;
+import model.transaction.TransactionApi;
+import model.transaction.TransactionType;
+
+import java.util.List;
+
+/**
+ * Transactions which appeared since the previous synchronization, from newest to oldest
+ */
+@Value
+public class TransactionDelta {
+    TransactionType type;
+
+    /**
+     * Cursor before the synchronization, null if it is the first one
+     */
+    TransactionCursor previous;
+
+    /**
+     * Cursor after the synchronization, null if there are no transactions at all
+     */
+    TransactionCursor current;
+
+    List<TransactionApi> transactions;
+
+    /**
+     * True if the newest known transaction was not reached within the page limit,
+     * the rest of transactions is returned by the next synchronizations
+     */
+    boolean truncated;
+
+    public boolean isEmpty() {
+        return transactions.isEmpty();
+    }
+}
@@ -0,0 +1,13 @@
+package util.sync;
+
+import lombok.Value;
+
+/**
+ * Transactions left unread by a truncated synchronization: older than "beforeTx" and newer than "until"
+ */
+@Value
+public class TransactionGap {
+    String beforeTx;
+
+    TransactionCursor until;
+}
@@ -0,0 +1,142 @@
+package util.sync;
+
+import config.BlockIoProperties;
+import lombok.RequiredArgsConstructor;
+import model.transaction.TransactionApi;
+import model.transaction.TransactionType;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.stereotype.Component;
+import util.LazyLog;
+import util.RequestsUtil;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Incremental synchronization of transactions. Only pages newer than the last seen transaction are requested:
+ * pages are read from the newest one with "before_tx" paging until the remembered transaction is reached.
+ * So the cost of a synchronization depends on the number of new transactions, not on the size of history.
+ * Transactions not read within "blockio.sync.max-pages" are not skipped: they are read by the next synchronizations
+ */
+@Component
+@RequiredArgsConstructor
+public class TransactionSyncEngine {
+    private final LazyLog logger = new LazyLog(LogFactory.getLog(this.getClass()));
+
+    private final RequestsUtil requestsUtil;
+
+    private final FileCursorStore cursorStore;
+
+    private final BlockIoProperties properties;
+
+    private final Map<String, Object> locks = new ConcurrentHashMap<>();
+
+    /**
+     * Gets transactions which appeared since the previous call and remembers the newest one.
+     * The first call returns the newest page of transactions. If the page limit is hit before the previous cursor
+     * is reached, the rest is remembered as a {@link TransactionGap} and read by the next calls before newer pages
+     *
+     * @param apiKey - key of account
+     * @param type   - {@link TransactionType} of transactions
+     * @return {@link TransactionDelta} with new transactions from newest to oldest
+     */
+    public TransactionDelta sync(final String apiKey, final TransactionType type) {
+        synchronized (locks.computeIfAbsent(apiKey + ':' + type, key -> new Object())) {
+            final TransactionCursor previous = cursorStore.get(apiKey, type).orElse(null);
+            final TransactionGap previousGap = cursorStore.getGap(apiKey, type).orElse(null);
+            final int maxPages = properties.getSync().getMaxPages();
+            TransactionCursor current = previous;
+            TransactionGap gap = previousGap;
+            List<TransactionApi> older = Collections.emptyList();
+            int pages = 0;
+            if (Objects.nonNull(gap)) {
+                final Scan scan = scan(apiKey, type, gap.getBeforeTx(), gap.getUntil(), maxPages);
+                pages += scan.pages;
+                older = scan.transactions;
+                gap = scan.reached ? null : new TransactionGap(scan.beforeTx, gap.getUntil());
+            }
+            List<TransactionApi> newer = Collections.emptyList();
+            boolean reached = false;
+            if (Objects.isNull(gap) && pages < maxPages) {
+                final Scan scan = scan(apiKey, type, null, previous, maxPages - pages);
+                pages += scan.pages;
+                newer = scan.transactions;
+                reached = scan.reached;
+                if (!newer.isEmpty()) {
+                    current = TransactionCursor.of(newer.get(0));
+                }
+                if (!reached) {
+                    gap = new TransactionGap(scan.beforeTx, previous);
+                }
+            }
+
+            if (Objects.nonNull(current) && !current.equals(previous)) {
+                cursorStore.put(apiKey, type, current);
+            }
+            if (Objects.isNull(gap) && Objects.nonNull(previousGap)) {
+                cursorStore.removeGap(apiKey, type);
+            } else if (Objects.nonNull(gap) && !gap.equals(previousGap)) {
+                cursorStore.putGap(apiKey, type, gap);
+            }
+            final List<TransactionApi> transactions = new ArrayList<>(newer.size() + older.size());
+            transactions.addAll(newer);
+            transactions.addAll(older);
+            if (logger.isDebugEnabled()) {
+                logger.debug("Synchronized %s new %s transactions in %s pages", transactions.size(), type, pages);
+            }
+            return new TransactionDelta(type, previous, current, transactions, !reached);
+        }
+    }
+
+    /**
+     * Forgets the last seen transaction, so the next synchronization starts from the newest page
+     *
+     * @param apiKey - key of account
+     * @param type   - {@link TransactionType} of transactions
+     */
+    public void reset(final String apiKey, final TransactionType type) {
+        cursorStore.remove(apiKey, type);
+    }
+
+    /**
+     * Reads pages older than "beforeTx" until the cursor is reached, the history ends or the page limit is hit.
+     * Without a cursor only one page is read
+     */
+    private Scan scan(final String apiKey, final TransactionType type, final String beforeTx,
+                      final TransactionCursor until, final int maxPages) {
+        final Scan scan = new Scan(beforeTx, Objects.isNull(until));
+        do {
+            final List<TransactionApi> page = requestsUtil.getTransactions(apiKey, type, scan.beforeTx);
+            scan.pages++;
+            if (page.isEmpty()) {
+                scan.reached = true;
+                break;
+            }
+            for (final TransactionApi transaction : page) {
+                if (Objects.nonNull(until) && until.isReachedBy(transaction)) {
+                    scan.reached = true;
+                    break;
+                }
+                scan.transactions.add(transaction);
+            }
+            scan.beforeTx = page.get(page.size() - 1).getTxid();
+        } while (!scan.reached && scan.pages < maxPages);
+        return scan;
+    }
+
+    private static final class Scan {
+        private final List<TransactionApi> transactions = new ArrayList<>();
+        private String beforeTx;
+        private boolean reached;
+        private int pages;
+
+        private Scan(final String beforeTx, final boolean reached) {
+            this.beforeTx = beforeTx;
+            this.reached = reached;
+        }
+    }
+}
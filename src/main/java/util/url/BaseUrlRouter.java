@@ -0,0 +1,33 @@
+package util.url;
+
+import config.BlockIoProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Chooses the base url of every BlockIo endpoint. Endpoints listed in "blockio.api.stub-endpoints" are sent
+ * to the local stand-in of "blockio.api.stub-base-url", all others to the real "blockio.api.base-url"
+ */
+@Component
+public class BaseUrlRouter {
+    private final String baseUrl;
+
+    private final Map<String, String> routes = new HashMap<>();
+
+    public BaseUrlRouter(final BlockIoProperties properties) {
+        this.baseUrl = properties.getApi().getBaseUrl();
+        for (final String endpoint : properties.getApi().getStubEndpoints()) {
+            routes.put(endpoint, properties.getApi().getStubBaseUrl());
+        }
+    }
+
+    /**
+     * @param endpoint - name of endpoint, for example "prepare_transaction"
+     * @return base url ending with '/' to send requests of the endpoint to
+     */
+    public String baseUrlOf(final String endpoint) {
+        return routes.getOrDefault(endpoint, baseUrl);
+    }
+}
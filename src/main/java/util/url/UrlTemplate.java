@@ -0,0 +1,199 @@
+package util.url;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+
+import static java.lang.String.format;
+
+/**
+ * Url of a BlockIo endpoint, compiled once from a template like "get_transactions/?api_key={api_key}&type={type}".
+ * The template is split into literal parts and placeholders when it is compiled, so building a url only appends
+ * them to a buffer which is reused by the thread. Values are percent-encoded as RFC 3986 query values:
+ * {@link BigDecimal} is written in plain notation and elements of {@link Iterable} are joined with ','.
+ * The base url is chosen by {@link BaseUrlRouter} for the endpoint of the template
+ */
+public final class UrlTemplate {
+    /**
+     * Buffers which grew over this size, for example for a payout to many recipients, are not kept by the thread
+     */
+    private static final int MAX_BUFFER_SIZE = 16 * 1024;
+
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(256));
+
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+    private static final boolean[] UNRESERVED = new boolean[128];
+
+    static {
+        for (char c = '0'; c <= '9'; c++) {
+            UNRESERVED[c] = true;
+        }
+        for (char c = 'A'; c <= 'Z'; c++) {
+            UNRESERVED[c] = true;
+            UNRESERVED[Character.toLowerCase(c)] = true;
+        }
+        UNRESERVED['-'] = true;
+        UNRESERVED['.'] = true;
+        UNRESERVED['_'] = true;
+        UNRESERVED['~'] = true;
+    }
+
+    private final String endpoint;
+
+    private final String[] literals;
+
+    private final String[] names;
+
+    private UrlTemplate(final String endpoint, final String[] literals, final String[] names) {
+        this.endpoint = endpoint;
+        this.literals = literals;
+        this.names = names;
+    }
+
+    /**
+     * Compiles a template
+     *
+     * @param template - path of endpoint relative to the base url with "{name}" placeholders of values
+     * @return compiled template
+     */
+    public static UrlTemplate compile(final String template) {
+        final List<String> literals = new ArrayList<>();
+        final List<String> names = new ArrayList<>();
+        int from = 0;
+        int open = template.indexOf('{');
+        while (open >= 0) {
+            final int close = template.indexOf('}', open);
+            if (close < 0) {
+                throw new IllegalArgumentException(format("Placeholder is not closed in template=%s", template));
+            }
+            literals.add(template.substring(from, open));
+            names.add(template.substring(open + 1, close));
+            from = close + 1;
+            open = template.indexOf('{', from);
+        }
+        literals.add(template.substring(from));
+
+        int end = 0;
+        while (end < template.length() && template.charAt(end) != '/' && template.charAt(end) != '?') {
+            end++;
+        }
+        if (end == 0) {
+            throw new IllegalArgumentException(format("Template=%s should start with the name of endpoint", template));
+        }
+        return new UrlTemplate(template.substring(0, end), literals.toArray(String[]::new), names.toArray(String[]::new));
+    }
+
+    /**
+     * @return name of endpoint, the first segment of the template
+     */
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    /**
+     * Builds the url of request
+     *
+     * @param router - chooses the base url of the endpoint
+     * @param values - values of placeholders in order
+     * @return url with encoded values
+     */
+    public URI expand(final BaseUrlRouter router, final Object... values) {
+        return URI.create(build(router.baseUrlOf(endpoint), values));
+    }
+
+    /**
+     * Builds the url of request as a string
+     *
+     * @param baseUrl - base url of BlockIo ending with '/'
+     * @param values  - values of placeholders in order
+     * @return url with encoded values
+     */
+    public String build(final String baseUrl, final Object... values) {
+        if (values.length != names.length) {
+            throw new IllegalArgumentException(format("Template of %s expects %d values, but got %d",
+                    endpoint, names.length, values.length));
+        }
+        final StringBuilder url = BUFFER.get();
+        url.setLength(0);
+        url.append(baseUrl).append(literals[0]);
+        for (int i = 0; i < values.length; i++) {
+            appendValue(url, names[i], values[i]);
+            url.append(literals[i + 1]);
+        }
+        final String result = url.toString();
+        if (url.capacity() > MAX_BUFFER_SIZE) {
+            BUFFER.remove();
+        }
+        return result;
+    }
+
+    private void appendValue(final StringBuilder url, final String name, final Object value) {
+        if (Objects.isNull(value)) {
+            throw new IllegalArgumentException(format("Value of %s in url of %s is null", name, endpoint));
+        }
+        if (value instanceof Iterable) {
+            final Iterator<?> elements = ((Iterable<?>) value).iterator();
+            while (elements.hasNext()) {
+                appendValue(url, name, elements.next());
+                if (elements.hasNext()) {
+                    url.append(',');
+                }
+            }
+        } else if (value instanceof Integer || value instanceof Long) {
+            url.append(((Number) value).longValue());
+        } else if (value instanceof BigDecimal) {
+            encode(url, ((BigDecimal) value).toPlainString());
+        } else if (value instanceof CharSequence) {
+            encode(url, (CharSequence) value);
+        } else {
+            encode(url, value.toString());
+        }
+    }
+
+    /**
+     * Appends UTF-8 bytes of the value, all but unreserved characters are percent-encoded
+     */
+    private static void encode(final StringBuilder url, final CharSequence value) {
+        int i = 0;
+        while (i < value.length()) {
+            final char c = value.charAt(i);
+            if (c < 0x80) {
+                if (UNRESERVED[c]) {
+                    url.append(c);
+                } else {
+                    appendByte(url, c);
+                }
+                i++;
+                continue;
+            }
+            int codePoint = Character.codePointAt(value, i);
+            i += Character.charCount(codePoint);
+            if (codePoint >= Character.MIN_SURROGATE && codePoint <= Character.MAX_SURROGATE) {
+                codePoint = '?';
+            }
+            if (codePoint < 0x80) {
+                appendByte(url, codePoint);
+            } else if (codePoint < 0x800) {
+                appendByte(url, 0xC0 | codePoint >> 6);
+                appendByte(url, 0x80 | codePoint & 0x3F);
+            } else if (codePoint < Character.MIN_SUPPLEMENTARY_CODE_POINT) {
+                appendByte(url, 0xE0 | codePoint >> 12);
+                appendByte(url, 0x80 | codePoint >> 6 & 0x3F);
+                appendByte(url, 0x80 | codePoint & 0x3F);
+            } else {
+                appendByte(url, 0xF0 | codePoint >> 18);
+                appendByte(url, 0x80 | codePoint >> 12 & 0x3F);
+                appendByte(url, 0x80 | codePoint >> 6 & 0x3F);
+                appendByte(url, 0x80 | codePoint & 0x3F);
+            }
+        }
+    }
+
+    private static void appendByte(final StringBuilder url, final int value) {
+        url.append('%').append(HEX[value >> 4 & 0xF]).append(HEX[value & 0xF]);
+    }
+}
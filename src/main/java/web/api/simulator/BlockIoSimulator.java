@@ -0,0 +1,67 @@
+package web.api.simulator;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
+
+import java.io.Closeable;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.any;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathMatching;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+
+/**
+ * Local stateful stand-in of BlockIo on WireMock. It implements "get_my_addresses", "get_my_archived_addresses",
+ * "get_new_address", "get_transactions" and "prepare_transaction" over a {@link SimulatorLedger},
+ * so the client can be load-tested offline. Point "blockio.api.base-url" and "blockio.api.stub-base-url"
+ * to {@link #getBaseUrl()} to send all requests to the simulator
+ */
+public class BlockIoSimulator implements Closeable {
+    private static final int SERVER_THREADS = 64;
+
+    private final SimulatorLedger ledger;
+
+    private final WireMockServer wireMockServer;
+
+    /**
+     * @param port    - port of the server, 0 to take a free one
+     * @param profile - {@link SimulatorProfile} of latency, failures and seeded data
+     */
+    public BlockIoSimulator(final int port, final SimulatorProfile profile) {
+        this.ledger = new SimulatorLedger(profile);
+        final WireMockConfiguration options = (port == 0 ? options().dynamicPort() : options().port(port))
+                .containerThreads(SERVER_THREADS)
+                .asynchronousResponseEnabled(true)
+                .asynchronousResponseThreads(SERVER_THREADS)
+                .disableRequestJournal()
+                .extensions(new BlockIoSimulatorTransformer(ledger, profile));
+        this.wireMockServer = new WireMockServer(options);
+        wireMockServer.stubFor(any(urlPathMatching("/api/v2/.*"))
+                .willReturn(aResponse().withTransformers(BlockIoSimulatorTransformer.NAME)));
+    }
+
+    public BlockIoSimulator start() {
+        wireMockServer.start();
+        return this;
+    }
+
+    @Override
+    public void close() {
+        wireMockServer.stop();
+    }
+
+    public SimulatorLedger getLedger() {
+        return ledger;
+    }
+
+    public int getPort() {
+        return wireMockServer.port();
+    }
+
+    /**
+     * @return url of the simulated API, like "http://localhost:8080/api/v2/". Available after {@link #start()}
+     */
+    public String getBaseUrl() {
+        return wireMockServer.baseUrl() + "/api/v2/";
+    }
+}
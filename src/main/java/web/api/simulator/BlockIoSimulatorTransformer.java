@@ -0,0 +1,296 @@
+package web.api.simulator;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.github.tomakehurst.wiremock.client.ResponseDefinitionBuilder;
+import com.github.tomakehurst.wiremock.common.FileSource;
+import com.github.tomakehurst.wiremock.extension.Parameters;
+import com.github.tomakehurst.wiremock.extension.ResponseDefinitionTransformer;
+import com.github.tomakehurst.wiremock.http.QueryParameter;
+import com.github.tomakehurst.wiremock.http.Request;
+import com.github.tomakehurst.wiremock.http.ResponseDefinition;
+import model.amount.Satoshis;
+import model.transaction.AmountApi;
+import model.transaction.TransactionApi;
+import model.transaction.TransactionType;
+import model.wallet.WalletApi;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+import static java.lang.String.format;
+
+/**
+ * Answers BlockIo requests from {@link SimulatorLedger} instead of static stub bodies.
+ * Latency, failures and the rate limit of {@link SimulatorProfile} are applied to every request
+ */
+public class BlockIoSimulatorTransformer extends ResponseDefinitionTransformer {
+    public static final String NAME = "blockio-simulator";
+
+    private static final String API_PATH = "/api/v2/";
+    private static final String NETWORK = "BTCTEST";
+
+    private final SimulatorLedger ledger;
+
+    private final SimulatorProfile profile;
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    private final Map<String, RateWindow> rateWindows = new ConcurrentHashMap<>();
+
+    public BlockIoSimulatorTransformer(final SimulatorLedger ledger, final SimulatorProfile profile) {
+        this.ledger = ledger;
+        this.profile = profile;
+    }
+
+    @Override
+    public ResponseDefinition transform(final Request request, final ResponseDefinition responseDefinition,
+                                        final FileSource files, final Parameters parameters) {
+        final int delay = delayMillis();
+        try {
+            final String apiKey = parameter(request, "api_key");
+            if (Objects.isNull(apiKey)) {
+                throw new SimulatorException(401, "Missing api_key");
+            }
+            if (isRateLimited(apiKey)) {
+                return response(429, fail("Rate limit exceeded"), delay).withHeader("Retry-After", "1").build();
+            }
+            if (profile.getErrorRate() > 0 && ThreadLocalRandom.current().nextDouble() < profile.getErrorRate()) {
+                throw new SimulatorException(500, "Simulated failure");
+            }
+            return response(200, handle(method(request), apiKey, request), delay).build();
+        } catch (final SimulatorException e) {
+            return response(e.getStatus(), fail(e.getMessage()), delay).build();
+        } catch (final NumberFormatException | ArithmeticException e) {
+            return response(400, fail("Invalid number: " + e.getMessage()), delay).build();
+        }
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public boolean applyGlobally() {
+        return false;
+    }
+
+    private byte[] handle(final String method, final String apiKey, final Request request) {
+        switch (method) {
+            case "get_my_addresses":
+                return wallets(ledger.getWallets(apiKey, page(request), false));
+            case "get_my_archived_addresses":
+                return wallets(ledger.getWallets(apiKey, page(request), true));
+            case "get_new_address":
+                return newWallet(ledger.createWallet(apiKey, required(request, "label")));
+            case "get_transactions":
+                return transactions(ledger.getTransactions(apiKey, type(required(request, "type")),
+                        parameter(request, "before_tx")));
+            case "prepare_transaction":
+                return prepared(ledger.prepareTransaction(apiKey,
+                        Satoshis.parse(required(request, "custom_network_fee")),
+                        split(required(request, "amounts")).stream().map(Satoshis::parse).collect(Collectors.toList()),
+                        split(required(request, "to_addresses")),
+                        parameter(request, "from_addresses")));
+            default:
+                throw new SimulatorException(404, format("Unknown method %s", method));
+        }
+    }
+
+    private byte[] wallets(final SimulatorPage<WalletApi> page) {
+        return write(json -> {
+            json.writeStringField("network", NETWORK);
+            json.writeArrayFieldStart("addresses");
+            for (final WalletApi wallet : page.getItems()) {
+                json.writeStartObject();
+                writeWallet(json, wallet);
+                json.writeStringField("pending_received_balance", Satoshis.format(wallet.getPendingReceivedBalance()));
+                json.writeStringField("available_balance", Satoshis.format(wallet.getAvailableBalance()));
+                json.writeBooleanField("is_segwit", wallet.isSegwit());
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+            json.writeNumberField("page", page.getPage());
+            json.writeBooleanField("has_more", page.isHasMore());
+        });
+    }
+
+    private byte[] newWallet(final WalletApi wallet) {
+        return write(json -> {
+            json.writeStringField("network", NETWORK);
+            writeWallet(json, wallet);
+        });
+    }
+
+    private byte[] transactions(final List<TransactionApi> transactions) {
+        return write(json -> {
+            json.writeStringField("network", NETWORK);
+            json.writeArrayFieldStart("txs");
+            for (final TransactionApi transaction : transactions) {
+                json.writeStartObject();
+                json.writeStringField("txid", transaction.getTxid());
+                json.writeBooleanField("from_green_address", transaction.isFromGreenAddress());
+                json.writeNumberField("time", transaction.getTime());
+                json.writeNumberField("confirmations", transaction.getConfirmations());
+                if (Objects.nonNull(transaction.getAmountsSent())) {
+                    json.writeStringField("total_amount_sent", Satoshis.format(transaction.getTotalAmountSent()));
+                    writeAmounts(json, "amounts_sent", transaction.getAmountsSent());
+                }
+                if (Objects.nonNull(transaction.getAmountsReceived())) {
+                    writeAmounts(json, "amounts_received", transaction.getAmountsReceived());
+                }
+                json.writeArrayFieldStart("senders");
+                for (final String sender : transaction.getSenders()) {
+                    json.writeString(sender);
+                }
+                json.writeEndArray();
+                json.writeNumberField("confidence", transaction.getConfidence());
+                json.writeNullField("propagated_by_nodes");
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+        });
+    }
+
+    /**
+     * The simulator doesn't need the summary, sign and submit steps, so a prepared transaction is executed at once
+     */
+    private byte[] prepared(final TransactionApi transaction) {
+        return write(json -> {
+            json.writeStringField("network", NETWORK);
+            json.writeStringField("txid", transaction.getTxid());
+            json.writeStringField("total_amount_sent", Satoshis.format(transaction.getTotalAmountSent()));
+            writeAmounts(json, "amounts_sent", transaction.getAmountsSent());
+        });
+    }
+
+    private void writeWallet(final JsonGenerator json, final WalletApi wallet) throws IOException {
+        json.writeNumberField("user_id", wallet.getUserId());
+        json.writeStringField("address", wallet.getAddress());
+        json.writeStringField("label", wallet.getLabel());
+    }
+
+    private void writeAmounts(final JsonGenerator json, final String field, final List<AmountApi> amounts) throws IOException {
+        json.writeArrayFieldStart(field);
+        for (final AmountApi amount : amounts) {
+            json.writeStartObject();
+            json.writeStringField("recipient", amount.getRecipient());
+            json.writeStringField("amount", Satoshis.format(amount.getAmount()));
+            json.writeEndObject();
+        }
+        json.writeEndArray();
+    }
+
+    private byte[] fail(final String message) {
+        return write("fail", json -> json.writeStringField("error_message", message));
+    }
+
+    private byte[] write(final DataWriter data) {
+        return write("success", data);
+    }
+
+    private byte[] write(final String status, final DataWriter data) {
+        final ByteArrayOutputStream body = new ByteArrayOutputStream(512);
+        try (JsonGenerator json = jsonFactory.createGenerator(body)) {
+            json.writeStartObject();
+            json.writeStringField("status", status);
+            json.writeObjectFieldStart("data");
+            data.write(json);
+            json.writeEndObject();
+            json.writeEndObject();
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return body.toByteArray();
+    }
+
+    private ResponseDefinitionBuilder response(final int status, final byte[] body, final int delay) {
+        return new ResponseDefinitionBuilder()
+                .withStatus(status)
+                .withHeader("Content-Type", "application/json")
+                .withBody(body)
+                .withFixedDelay(delay);
+    }
+
+    private int delayMillis() {
+        final long jitter = profile.getJitter().toMillis();
+        return (int) (profile.getLatency().toMillis() + (jitter > 0 ? ThreadLocalRandom.current().nextLong(jitter + 1) : 0));
+    }
+
+    private boolean isRateLimited(final String apiKey) {
+        return profile.getRateLimitPerSecond() > 0
+                && !rateWindows.computeIfAbsent(apiKey, key -> new RateWindow()).tryAcquire(profile.getRateLimitPerSecond());
+    }
+
+    private static String method(final Request request) {
+        final String url = request.getUrl();
+        final int query = url.indexOf('?');
+        final String path = query < 0 ? url : url.substring(0, query);
+        final int start = path.indexOf(API_PATH);
+        if (start < 0) {
+            throw new SimulatorException(404, format("Unknown path %s", path));
+        }
+        final String method = path.substring(start + API_PATH.length());
+        return method.endsWith("/") ? method.substring(0, method.length() - 1) : method;
+    }
+
+    private static int page(final Request request) {
+        final String page = parameter(request, "page");
+        return Objects.isNull(page) ? 1 : Integer.parseInt(page);
+    }
+
+    private static TransactionType type(final String representation) {
+        return Arrays.stream(TransactionType.values())
+                .filter(type -> type.getRepresentation().equals(representation))
+                .findFirst()
+                .orElseThrow(() -> new SimulatorException(400, format("Unknown type=%s", representation)));
+    }
+
+    private static List<String> split(final String values) {
+        return Arrays.asList(values.split(","));
+    }
+
+    private static String required(final Request request, final String name) {
+        final String value = parameter(request, name);
+        if (Objects.isNull(value)) {
+            throw new SimulatorException(400, format("Missing %s", name));
+        }
+        return value;
+    }
+
+    private static String parameter(final Request request, final String name) {
+        final QueryParameter parameter = request.queryParameter(name);
+        return parameter.isPresent() ? parameter.firstValue() : null;
+    }
+
+    @FunctionalInterface
+    private interface DataWriter {
+        void write(JsonGenerator json) throws IOException;
+    }
+
+    /**
+     * Counter of requests within the current second
+     */
+    private static final class RateWindow {
+        private long second;
+        private int requests;
+
+        private synchronized boolean tryAcquire(final int limit) {
+            final long now = System.currentTimeMillis() / 1000;
+            if (now != second) {
+                second = now;
+                requests = 0;
+            }
+            return ++requests <= limit;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package web.api.simulator;
+
+import lombok.Getter;
+
+/**
+ * Failure of a simulated operation, it is answered with the status and the message in BlockIo format
+ */
+@Getter
+public class SimulatorException extends RuntimeException {
+    private final int status;
+
+    public SimulatorException(final int status, final String message) {
+        super(message);
+        this.status = status;
+    }
+}
@@ -0,0 +1,410 @@
+package web.api.simulator;
+
+import model.transaction.AmountApi;
+import model.transaction.TransactionApi;
+import model.transaction.TransactionType;
+import model.wallet.WalletApi;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static java.lang.String.format;
+
+/**
+ * State of {@link BlockIoSimulator}: accounts, wallets, balances and transactions.
+ * Every account gets seeded wallets and transactions which are generated from their index when they are read,
+ * only wallets created or changed by requests are kept in memory.
+ * Wallets created by requests are listed before seeded ones, transactions are listed from newest to oldest
+ */
+public class SimulatorLedger {
+    private static final String ADDRESS_PREFIX = "2Nsim";
+    private static final int ADDRESS_LENGTH = ADDRESS_PREFIX.length() + 8 + 1 + 9;
+    private static final char WALLET = 'w';
+    private static final char ARCHIVED = 'a';
+    private static final long SEEDED_SENT = 0;
+    private static final long SEEDED_RECEIVED = 1;
+    private static final long LIVE = 2;
+    private static final long SEEDED_TIME = 1_600_000_000L;
+    private static final long SATOSHIS_PER_BTC = 100_000_000L;
+
+    private final SimulatorProfile profile;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, Account> accounts = new ConcurrentHashMap<>();
+
+    private final Map<Integer, Account> accountsByTag = new ConcurrentHashMap<>();
+
+    private final Map<String, Account> ownersOfAddresses = new HashMap<>();
+
+    private long transactionCounter;
+
+    public SimulatorLedger(final SimulatorProfile profile) {
+        this.profile = profile;
+    }
+
+    /**
+     * Adds a wallet with known address and balance, for example a wallet used by a test
+     *
+     * @param apiKey   - key of account
+     * @param address  - address of wallet
+     * @param label    - label of wallet
+     * @param satoshis - available balance
+     * @return created wallet
+     */
+    public WalletApi addWallet(final String apiKey, final String address, final String label, final long satoshis) {
+        lock.writeLock().lock();
+        try {
+            return addWallet(account(apiKey), address, label, satoshis);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * "get_new_address": creates a wallet with zero balance
+     *
+     * @param apiKey - key of account
+     * @param label  - unique label of wallet
+     * @return created wallet
+     */
+    public WalletApi createWallet(final String apiKey, final String label) {
+        lock.writeLock().lock();
+        try {
+            final Account account = account(apiKey);
+            return addWallet(account, format("%sn%08x%09d", ADDRESS_PREFIX, account.tag, account.wallets.size()), label, 0);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * "get_my_addresses" and "get_my_archived_addresses"
+     *
+     * @param apiKey   - key of account
+     * @param page     - number of page from 1
+     * @param archived - true for archived wallets
+     * @return wallets of the page
+     */
+    public SimulatorPage<WalletApi> getWallets(final String apiKey, final int page, final boolean archived) {
+        if (page < 1) {
+            throw new SimulatorException(400, "Page should be positive");
+        }
+        lock.readLock().lock();
+        try {
+            final Account account = account(apiKey);
+            final int created = archived ? 0 : account.wallets.size();
+            final long total = (long) created + (archived ? profile.getSeededArchivedWallets() : profile.getSeededWallets());
+            final long from = (long) (page - 1) * profile.getWalletPageSize();
+            final long to = Math.min(from + profile.getWalletPageSize(), total);
+            final List<WalletApi> wallets = new ArrayList<>((int) Math.max(to - from, 0));
+            for (long index = from; index < to; index++) {
+                wallets.add(index < created
+                        ? account.wallets.get((int) index).toWalletApi()
+                        : account.seededWallet(archived ? ARCHIVED : WALLET, (int) (index - created)));
+            }
+            return new SimulatorPage<>(wallets, page, to < total);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Find a wallet of any account by its address
+     *
+     * @param address - address of wallet
+     * @return wallet or empty if the address is unknown
+     */
+    public Optional<WalletApi> findWallet(final String address) {
+        lock.readLock().lock();
+        try {
+            return Optional.ofNullable(owner(address)).map(account -> account.wallet(address));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * "get_transactions": a page of transactions older than the given one
+     *
+     * @param apiKey   - key of account
+     * @param type     - {@link TransactionType} of transactions
+     * @param beforeTx - txid, or null for the newest transactions
+     * @return transactions from newest to oldest
+     */
+    public List<TransactionApi> getTransactions(final String apiKey, final TransactionType type, final String beforeTx) {
+        lock.readLock().lock();
+        try {
+            final Account account = account(apiKey);
+            final List<TransactionApi> live = account.transactions(type);
+            final long total = (long) live.size() + profile.getSeededTransactions();
+            final long from = Objects.isNull(beforeTx) ? 0 : account.position(type, beforeTx) + 1;
+            final long to = Math.min(from + profile.getTransactionPageSize(), total);
+            final List<TransactionApi> transactions = new ArrayList<>((int) Math.max(to - from, 0));
+            for (long position = from; position < to; position++) {
+                transactions.add(position < live.size()
+                        ? live.get(live.size() - 1 - (int) position)
+                        : account.seededTransaction(type, position - live.size()));
+            }
+            return transactions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * "prepare_transaction": moves amounts and fee from a wallet of the account to the destination addresses at once.
+     * Destinations which belong to known accounts are credited and get a received transaction
+     *
+     * @param apiKey      - key of account
+     * @param fee         - network fee in satoshis
+     * @param amounts     - amounts in satoshis
+     * @param addresses   - destination addresses, one per amount
+     * @param fromAddress - wallet to pay from, or null to take the first wallet with enough balance
+     * @return sent transaction
+     */
+    public TransactionApi prepareTransaction(final String apiKey, final long fee, final List<Long> amounts,
+                                             final List<String> addresses, final String fromAddress) {
+        if (amounts.isEmpty() || amounts.size() != addresses.size()) {
+            throw new SimulatorException(400, "Number of amounts and to_addresses should be the same");
+        }
+        final long total = amounts.stream().mapToLong(Long::longValue).sum() + fee;
+        lock.writeLock().lock();
+        try {
+            final Account account = account(apiKey);
+            final String source = Objects.nonNull(fromAddress) ? fromAddress : account.findPayer(total);
+            if (Objects.isNull(source) || owner(source) != account) {
+                throw new SimulatorException(400, format("Cannot withdraw %s satoshis from the account", total));
+            }
+            final long balance = account.wallet(source).getAvailableBalance();
+            if (balance < total) {
+                throw new SimulatorException(400, format("Cannot withdraw %d satoshis, max is %d", total, balance));
+            }
+            account.setBalance(source, balance - total);
+
+            final String txid = format("%08x%040x%016x", account.tag, LIVE, transactionCounter++);
+            final long time = System.currentTimeMillis() / 1000;
+            final List<AmountApi> sent = new ArrayList<>(amounts.size());
+            for (int i = 0; i < amounts.size(); i++) {
+                final String address = addresses.get(i);
+                sent.add(new AmountApi(address, amounts.get(i)));
+                final Account receiver = owner(address);
+                if (Objects.nonNull(receiver)) {
+                    receiver.setBalance(address, receiver.wallet(address).getAvailableBalance() + amounts.get(i));
+                    receiver.addTransaction(TransactionType.RECEIVED, TransactionApi.builder()
+                            .txid(txid)
+                            .time(time)
+                            .senders(List.of(source))
+                            .amountsReceived(List.of(new AmountApi(address, amounts.get(i))))
+                            .build());
+                }
+            }
+            final TransactionApi transaction = TransactionApi.builder()
+                    .txid(txid)
+                    .time(time)
+                    .totalAmountSent(total - fee)
+                    .amountsSent(sent)
+                    .senders(List.of(source))
+                    .build();
+            account.addTransaction(TransactionType.SENT, transaction);
+            return transaction;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private WalletApi addWallet(final Account account, final String address, final String label, final long satoshis) {
+        if (ownersOfAddresses.containsKey(address) || account.labels.containsKey(label)) {
+            throw new SimulatorException(400, format("Wallet with address=%s or label=%s already exists", address, label));
+        }
+        final Wallet wallet = new Wallet(profile.getSeededWallets() + account.wallets.size(), address, label, satoshis);
+        account.wallets.add(wallet);
+        account.walletsByAddress.put(address, wallet);
+        account.labels.put(label, wallet);
+        ownersOfAddresses.put(address, account);
+        return wallet.toWalletApi();
+    }
+
+    private Account account(final String apiKey) {
+        return accounts.computeIfAbsent(apiKey, key -> {
+            final Account account = new Account(key.hashCode());
+            accountsByTag.put(account.tag, account);
+            return account;
+        });
+    }
+
+    /**
+     * @return account which owns the address, null if the address is unknown
+     */
+    private Account owner(final String address) {
+        final Account owner = ownersOfAddresses.get(address);
+        if (Objects.nonNull(owner) || address.length() != ADDRESS_LENGTH || !address.startsWith(ADDRESS_PREFIX)
+                || address.charAt(ADDRESS_PREFIX.length() + 8) != WALLET) {
+            return owner;
+        }
+        try {
+            final int tag = Integer.parseUnsignedInt(address.substring(ADDRESS_PREFIX.length(), ADDRESS_PREFIX.length() + 8), 16);
+            final Account account = accountsByTag.get(tag);
+            final int index = seededIndex(address);
+            return Objects.nonNull(account) && index < profile.getSeededWallets() ? account : null;
+        } catch (final NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static int seededIndex(final String address) {
+        return Integer.parseInt(address.substring(ADDRESS_LENGTH - 9));
+    }
+
+    /**
+     * Deterministic balance of a seeded wallet, up to 1 BTC
+     */
+    private long seededBalance(final int tag, final int index) {
+        long value = profile.getSeed() ^ (long) tag << 32 ^ index;
+        value = (value ^ value >>> 33) * 0xff51afd7ed558ccdL;
+        value = (value ^ value >>> 33) * 0xc4ceb9fe1a85ec53L;
+        return Math.floorMod(value ^ value >>> 33, SATOSHIS_PER_BTC);
+    }
+
+    private final class Account {
+        private final int tag;
+        private final List<Wallet> wallets = new ArrayList<>();
+        private final Map<String, Wallet> walletsByAddress = new HashMap<>();
+        private final Map<String, Wallet> labels = new HashMap<>();
+        private final Map<Integer, Long> seededBalances = new HashMap<>();
+        private final Map<TransactionType, List<TransactionApi>> liveTransactions = new HashMap<>();
+        private final Map<String, Integer> liveIndexes = new HashMap<>();
+
+        private Account(final int tag) {
+            this.tag = tag;
+        }
+
+        private String seededAddress(final char kind, final int index) {
+            return format("%s%08x%c%09d", ADDRESS_PREFIX, tag, kind, index);
+        }
+
+        private WalletApi seededWallet(final char kind, final int index) {
+            final long balance = kind == WALLET
+                    ? seededBalances.getOrDefault(index, seededBalance(tag, index))
+                    : seededBalance(~tag, index);
+            return WalletApi.builder()
+                    .userId(index)
+                    .address(seededAddress(kind, index))
+                    .label(kind == ARCHIVED ? "archived-" + index : index == 0 ? "default" : "label-" + index)
+                    .availableBalance(balance)
+                    .isSegwit(true)
+                    .build();
+        }
+
+        private WalletApi wallet(final String address) {
+            final Wallet wallet = walletsByAddress.get(address);
+            return Objects.nonNull(wallet) ? wallet.toWalletApi() : seededWallet(WALLET, seededIndex(address));
+        }
+
+        private void setBalance(final String address, final long satoshis) {
+            final Wallet wallet = walletsByAddress.get(address);
+            if (Objects.nonNull(wallet)) {
+                wallet.balance = satoshis;
+            } else {
+                seededBalances.put(seededIndex(address), satoshis);
+            }
+        }
+
+        /**
+         * @return address of the first wallet in list order with enough balance, null if there is no such wallet
+         */
+        private String findPayer(final long satoshis) {
+            for (final Wallet wallet : wallets) {
+                if (wallet.balance >= satoshis) {
+                    return wallet.address;
+                }
+            }
+            for (int index = 0; index < profile.getSeededWallets(); index++) {
+                if (seededBalances.getOrDefault(index, seededBalance(tag, index)) >= satoshis) {
+                    return seededAddress(WALLET, index);
+                }
+            }
+            return null;
+        }
+
+        private List<TransactionApi> transactions(final TransactionType type) {
+            return liveTransactions.getOrDefault(type, List.of());
+        }
+
+        private void addTransaction(final TransactionType type, final TransactionApi transaction) {
+            final List<TransactionApi> transactions = liveTransactions.computeIfAbsent(type, key -> new ArrayList<>());
+            liveIndexes.put(type.getRepresentation() + transaction.getTxid(), transactions.size());
+            transactions.add(transaction);
+        }
+
+        /**
+         * @return position of the transaction in the list from newest to oldest
+         */
+        private long position(final TransactionType type, final String txid) {
+            final List<TransactionApi> live = transactions(type);
+            final Integer liveIndex = liveIndexes.get(type.getRepresentation() + txid);
+            if (Objects.nonNull(liveIndex)) {
+                return live.size() - 1 - liveIndex;
+            }
+            final long seeded = type == TransactionType.SENT ? SEEDED_SENT : SEEDED_RECEIVED;
+            if (txid.length() == 64 && txid.startsWith(format("%08x%040x", tag, seeded))) {
+                final long index = Long.parseUnsignedLong(txid.substring(48), 16);
+                if (index < profile.getSeededTransactions()) {
+                    return live.size() + index;
+                }
+            }
+            throw new SimulatorException(400, format("Unknown before_tx=%s", txid));
+        }
+
+        private TransactionApi seededTransaction(final TransactionType type, final long index) {
+            final long amount = 1_000 + index % 1_000;
+            final String own = seededAddress(WALLET, (int) (index % Math.max(profile.getSeededWallets(), 1)));
+            final String other = format("%s%08x%c%09d", ADDRESS_PREFIX, ~tag, WALLET, index % 1_000);
+            final TransactionApi.TransactionApiBuilder transaction = TransactionApi.builder()
+                    .txid(format("%08x%040x%016x", tag, type == TransactionType.SENT ? SEEDED_SENT : SEEDED_RECEIVED, index))
+                    .time(SEEDED_TIME - index * 600)
+                    .confirmations((int) Math.min(index + 1, 10_000))
+                    .confidence(1.0);
+            if (type == TransactionType.SENT) {
+                return transaction.totalAmountSent(amount)
+                        .amountsSent(List.of(new AmountApi(other, amount)))
+                        .senders(List.of(own))
+                        .build();
+            }
+            return transaction.amountsReceived(List.of(new AmountApi(own, amount)))
+                    .senders(List.of(other))
+                    .build();
+        }
+    }
+
+    private static final class Wallet {
+        private final int userId;
+        private final String address;
+        private final String label;
+        private long balance;
+
+        private Wallet(final int userId, final String address, final String label, final long balance) {
+            this.userId = userId;
+            this.address = address;
+            this.label = label;
+            this.balance = balance;
+        }
+
+        private WalletApi toWalletApi() {
+            return WalletApi.builder()
+                    .userId(userId)
+                    .address(address)
+                    .label(label)
+                    .availableBalance(balance)
+                    .isSegwit(true)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package web.api.simulator;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Page of items answered by {@link BlockIoSimulator}
+ */
+@Value
+public class SimulatorPage<T> {
+    List<T> items;
+
+    int page;
+
+    boolean hasMore;
+}
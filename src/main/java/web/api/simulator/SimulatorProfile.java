@@ -0,0 +1,89 @@
+package web.api.simulator;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Duration;
+
+/**
+ * Behaviour of {@link BlockIoSimulator}: latency, failures, rate limit and the size of seeded data.
+ * Seeded wallets and transactions are generated on request from their index, so millions of them cost no memory
+ */
+@Value
+@Builder(toBuilder = true)
+public class SimulatorProfile {
+    /**
+     * Min delay of every response
+     */
+    @Builder.Default
+    Duration latency = Duration.ZERO;
+
+    /**
+     * Random delay added to the latency, from zero to this value
+     */
+    @Builder.Default
+    Duration jitter = Duration.ZERO;
+
+    /**
+     * Share of requests answered with 500, from 0 to 1
+     */
+    @Builder.Default
+    double errorRate = 0;
+
+    /**
+     * Max requests per second of an api key, the rest are answered with 429. Zero means no limit
+     */
+    @Builder.Default
+    int rateLimitPerSecond = 0;
+
+    @Builder.Default
+    int seededWallets = 1_000;
+
+    @Builder.Default
+    int seededArchivedWallets = 100;
+
+    /**
+     * Number of seeded transactions of every type
+     */
+    @Builder.Default
+    int seededTransactions = 1_000;
+
+    @Builder.Default
+    int walletPageSize = 2_500;
+
+    @Builder.Default
+    int transactionPageSize = 25;
+
+    /**
+     * Seed of generated balances, the same seed gives the same data
+     */
+    @Builder.Default
+    long seed = 42;
+
+    /**
+     * No latency and no failures
+     */
+    public static SimulatorProfile instant() {
+        return SimulatorProfile.builder().build();
+    }
+
+    /**
+     * Latency close to the real BlockIo
+     */
+    public static SimulatorProfile realistic() {
+        return SimulatorProfile.builder()
+                .latency(Duration.ofMillis(80))
+                .jitter(Duration.ofMillis(120))
+                .build();
+    }
+
+    /**
+     * Realistic latency with failures and a rate limit
+     */
+    public static SimulatorProfile flaky() {
+        return realistic().toBuilder()
+                .errorRate(0.02)
+                .rateLimitPerSecond(50)
+                .build();
+    }
+}
@@ -73,7 +73,7 @@ public class SDKTest {
         final JSONObject updatedBalance = (JSONObject) sdk.GetAddressBalance(new JSONObject(Map.of("label", toWalletApi.getLabel()))).get("data");
         final BalanceApi updatedToWalletApi = mapJsonToObject(updatedBalance, BalanceApi.class);
 
-        Assert.assertEquals(new BigDecimal(updatedToWalletApi.getAvailableBalance()),
+        Assert.assertEquals(updatedToWalletApi.getAvailableBalanceAsNumber(),
                 toWalletApi.getAvailableBalanceAsNumber().add(amount));
     }
 
@@ -1,13 +1,31 @@
 package blockioTests.btcTests;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import config.ExecutorConfig;
+import config.JacksonConfig;
+import config.MetricsConfig;
 import config.RestTemplateConfig;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.testng.AbstractTestNGSpringContextTests;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
+import util.AsyncRequestsUtil;
+import util.ConcurrencyLimiter;
+import util.PayoutBatcher;
 import util.RequestsUtil;
+import util.StreamingResponseParser;
+import util.WalletIndexCache;
+import util.cache.ResponseCacheInterceptor;
+import util.confirmation.ConfirmationWatcher;
+import util.metrics.BlockIoMetrics;
+import util.metrics.MetricsInterceptor;
+import util.reconciliation.BalanceReconciler;
+import util.resilience.ResilienceInterceptor;
+import util.snapshot.WalletSnapshot;
+import util.store.TransactionStore;
+import util.sync.FileCursorStore;
+import util.sync.TransactionSyncEngine;
+import util.url.BaseUrlRouter;
 import web.api.stubs.PrepareTransactionOKStub;
 
 import java.lang.reflect.Method;
@@ -18,12 +36,37 @@ import static java.lang.String.format;
  * This class uses {@link AbstractTestNGSpringContextTests} to initialize
  * spring context and is also used as configuration and to include external dependencies.
  * The main idea in creating this class is to make a global parent class
- * for flexibility settings and configuration for a special scope of the tests
+ * for flexibility settings and configuration for a special scope of the tests.
+ * Beans are created lazily, so a test class pays only for the beans it uses.
+ * The warm-start snapshot is off, so tests neither write wallets to the user's home nor read ones of earlier runs
  */
 @SpringBootTest(classes = {RestTemplateConfig.class,
+        ExecutorConfig.class,
         RequestsUtil.class,
+        PayoutBatcher.class,
         PrepareTransactionOKStub.class,
-        ObjectMapper.class})
+        AsyncRequestsUtil.class,
+        ConcurrencyLimiter.class,
+        MetricsConfig.class,
+        BlockIoMetrics.class,
+        MetricsInterceptor.class,
+        ResponseCacheInterceptor.class,
+        ResilienceInterceptor.class,
+        BalanceReconciler.class,
+        ConfirmationWatcher.class,
+        StreamingResponseParser.class,
+        WalletIndexCache.class,
+        WalletSnapshot.class,
+        BaseUrlRouter.class,
+        FileCursorStore.class,
+        TransactionSyncEngine.class,
+        TransactionStore.class,
+        JacksonConfig.class},
+        properties = {
+                "spring.main.lazy-initialization=true",
+                "spring.main.banner-mode=off",
+                "spring.jmx.enabled=false",
+                "blockio.snapshot.enabled=false"})
 public class BaseTest extends AbstractTestNGSpringContextTests {
 
     @Autowired
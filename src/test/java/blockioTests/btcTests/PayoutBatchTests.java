@@ -0,0 +1,135 @@
+package blockioTests.btcTests;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import config.BlockIoProperties;
+import model.TestConstants;
+import model.transaction.Payout;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import util.PayoutBatcher;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathMatching;
+
+/**
+ * The main idea of this class is to show that payouts submitted at the same time are coalesced
+ * into a single multi-recipient "prepare_transaction" request handled by the stub
+ * and that no payout is left incomplete when the batcher is shut down or can't send its batch
+ */
+public class PayoutBatchTests extends BaseTest {
+
+    private final BigDecimal customFee = BigDecimal.valueOf(0.0000208);
+    private final BigDecimal amount = BigDecimal.valueOf(0.00001);
+
+    @Autowired
+    private PayoutBatcher payoutBatcher;
+
+    @Autowired
+    private BlockIoProperties properties;
+
+    @Autowired
+    private ExecutorService blockIoExecutor;
+
+    private WireMockServer wireMockServer;
+
+    @BeforeClass(alwaysRun = true)
+    public void setUp() {
+        wireMockServer = new WireMockServer(9090);
+        requestsUtil.prepareStubStatement(wireMockServer);
+
+        wireMockServer.start();
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown() {
+        wireMockServer.stop();
+    }
+
+    @BeforeMethod(alwaysRun = true)
+    public void resetRequests() {
+        wireMockServer.resetRequests();
+    }
+
+    @Test
+    public void verifyPayoutsAreCoalescedIntoOneTransaction() {
+        final List<CompletableFuture<String>> results = IntStream.range(0, 10)
+                .mapToObj(i -> payoutBatcher.submit(TestConstants.VALID_KEY, customFee, new Payout(amount, "address-" + i)))
+                .collect(Collectors.toList());
+        payoutBatcher.flush();
+
+        results.forEach(result -> Assert.assertEquals(result.join(), "{\"result\": \"success\"}"));
+        wireMockServer.verify(1, getRequestedFor(urlPathMatching("/api/v2/prepare_transaction/.*")));
+    }
+
+    @Test
+    public void verifyRepeatedDestinationStartsNewTransaction() {
+        final CompletableFuture<String> first = payoutBatcher.submit(TestConstants.VALID_KEY, customFee, new Payout(amount, "address"));
+        final CompletableFuture<String> second = payoutBatcher.submit(TestConstants.VALID_KEY, customFee, new Payout(amount, "address"));
+
+        CompletableFuture.allOf(first, second).join();
+        wireMockServer.verify(2, getRequestedFor(urlPathMatching("/api/v2/prepare_transaction/.*")));
+    }
+
+    @Test
+    public void verifyOpenBatchIsSentOnShutdown() {
+        final PayoutBatcher batcher = new PayoutBatcher(requestsUtil, properties, blockIoExecutor);
+        final CompletableFuture<String> open = batcher.submit(TestConstants.VALID_KEY, customFee, new Payout(amount, "address"));
+
+        batcher.destroy();
+        final CompletableFuture<String> late = batcher.submit(TestConstants.VALID_KEY, customFee, new Payout(amount, "address"));
+
+        Assert.assertEquals(open.join(), "{\"result\": \"success\"}");
+        Assert.assertTrue(late.isCompletedExceptionally());
+        wireMockServer.verify(1, getRequestedFor(urlPathMatching("/api/v2/prepare_transaction/.*")));
+    }
+
+    @Test
+    public void verifyOpenBatchIsSentWhenContextIsClosed() {
+        final SpringBootTest test = BaseTest.class.getAnnotation(SpringBootTest.class);
+        final CompletableFuture<String> result;
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(test.classes())
+                .web(WebApplicationType.NONE)
+                .bannerMode(Banner.Mode.OFF)
+                .properties(test.properties())
+                .properties("blockio.payout-batch.window=1h")
+                .run()) {
+            result = context.getBean(PayoutBatcher.class)
+                    .submit(TestConstants.VALID_KEY, customFee, new Payout(amount, "address"));
+            Assert.assertFalse(result.isDone());
+        }
+
+        Assert.assertEquals(result.getNow(null), "{\"result\": \"success\"}");
+        wireMockServer.verify(1, getRequestedFor(urlPathMatching("/api/v2/prepare_transaction/.*")));
+    }
+
+    @Test
+    public void verifyRejectedBatchFailsItsPayouts() {
+        final ExecutorService stoppedExecutor = Executors.newSingleThreadExecutor();
+        stoppedExecutor.shutdown();
+        final PayoutBatcher batcher = new PayoutBatcher(requestsUtil, properties, stoppedExecutor);
+        final CompletableFuture<String> result = batcher.submit(TestConstants.VALID_KEY, customFee, new Payout(amount, "address"));
+
+        batcher.flush();
+        batcher.destroy();
+
+        Assert.assertTrue(result.isCompletedExceptionally());
+        wireMockServer.verify(0, getRequestedFor(urlPathMatching("/api/v2/prepare_transaction/.*")));
+    }
+}
@@ -0,0 +1,162 @@
+package blockioTests.btcTests;
+
+import model.amount.Satoshis;
+import model.transaction.compact.SymbolTable;
+import model.transaction.compact.TransactionColumns;
+import model.transaction.TransactionApi;
+import model.transaction.TransactionType;
+import model.wallet.WalletApi;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestTemplate;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import web.api.simulator.BlockIoSimulator;
+import web.api.simulator.SimulatorProfile;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * The main idea of this class is to show that the whole flow of {@link util.RequestsUtil} can run offline
+ * against {@link BlockIoSimulator}: wallets are paged and created with the given label,
+ * sent BTC changes balances and appears in transactions
+ */
+@TestPropertySource(properties = {
+        "blockio.api.base-url=http://localhost:9091/api/v2/",
+        "blockio.api.stub-base-url=http://localhost:9091/api/v2/"})
+public class SimulatorTests extends BaseTest {
+
+    private static final String API_KEY = "simulator-key";
+    private static final int SEEDED_WALLETS = 1_050;
+
+    private final BigDecimal customFee = BigDecimal.valueOf(0.0000208);
+    private final BigDecimal amount = BigDecimal.valueOf(0.00001);
+
+    private BlockIoSimulator simulator;
+
+    @BeforeClass(alwaysRun = true)
+    public void setUp() {
+        simulator = new BlockIoSimulator(9091, SimulatorProfile.instant().toBuilder()
+                .seededWallets(SEEDED_WALLETS)
+                .walletPageSize(100)
+                .build()).start();
+        simulator.getLedger().addWallet(API_KEY, "from-address", "from", 100_000_000L);
+        simulator.getLedger().addWallet(API_KEY, "to-address", "to", 0);
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown() {
+        simulator.close();
+    }
+
+    @Test
+    public void verifyAllPagesOfWalletsAreRead() {
+        final List<WalletApi> wallets = requestsUtil.getWallets(API_KEY);
+
+        Assert.assertEquals(wallets.size(), SEEDED_WALLETS + 2);
+        Assert.assertEquals(wallets.get(0).getAddress(), "from-address");
+    }
+
+    @Test
+    public void verifyArchivedWalletsAreReadForGivenAccount() {
+        final List<WalletApi> archived = requestsUtil.getArchivedWallets(API_KEY);
+
+        Assert.assertEquals(archived.size(), 100);
+        Assert.assertEquals(archived.get(0),
+                requestsUtil.getWalletPage("get_my_archived_addresses", API_KEY, 1).getAddresses().get(0));
+        Assert.assertNotEquals(archived.get(0), requestsUtil.getArchivedWallets("another-key").get(0));
+    }
+
+    @Test
+    public void verifyWalletIsCreatedWithGivenLabel() {
+        final String apiKey = "label-key";
+        final String label = "my label&page=2/+\u00FC\u20AC\uD83D\uDE00";
+
+        requestsUtil.createWalletWithGivenLabel(apiKey, label);
+
+        Assert.assertEquals(requestsUtil.getWalletByLabel(apiKey, label).getLabel(), label);
+        Assert.assertEquals(simulator.getLedger().getWallets(apiKey, 1, false).getItems().stream()
+                .filter(wallet -> label.equals(wallet.getLabel())).count(), 1);
+    }
+
+    @Test
+    public void verifySentBtcChangesBalancesAndTransactions() {
+        final WalletApi from = requestsUtil.getWalletByAddress(API_KEY, "from-address");
+        final WalletApi to = requestsUtil.getWalletByAddress(API_KEY, "to-address");
+
+        requestsUtil.sendBTC(API_KEY, customFee, amount, "to-address");
+
+        Assert.assertEquals(requestsUtil.getWalletByAddress(API_KEY, "from-address").getAvailableBalance(),
+                from.getAvailableBalance() - Satoshis.of(amount.add(customFee)));
+        Assert.assertEquals(requestsUtil.getWalletByAddress(API_KEY, "to-address").getAvailableBalance(),
+                to.getAvailableBalance() + Satoshis.of(amount));
+        final TransactionApi sent = requestsUtil.getTransactions(API_KEY, TransactionType.SENT, null).get(0);
+        final TransactionApi received = requestsUtil.getTransactions(API_KEY, TransactionType.RECEIVED, null).get(0);
+        Assert.assertEquals(sent.getTxid(), received.getTxid());
+        Assert.assertEquals(sent.getAmountsSent().get(0).getRecipient(), "to-address");
+    }
+
+    @Test
+    public void verifyTransactionsArePagedByBeforeTx() {
+        final List<TransactionApi> first = requestsUtil.getTransactions(API_KEY, TransactionType.RECEIVED, null);
+        final List<TransactionApi> second = requestsUtil.getTransactions(API_KEY, TransactionType.RECEIVED,
+                first.get(first.size() - 1).getTxid());
+
+        Assert.assertEquals(first.size(), 25);
+        Assert.assertEquals(second.size(), 25);
+        Assert.assertTrue(second.get(0).getTime() <= first.get(first.size() - 1).getTime());
+    }
+
+    @Test
+    public void verifyColumnsAreReadFromAllPagesUpToLimit() {
+        final List<TransactionApi> history = new ArrayList<>();
+        List<TransactionApi> page = requestsUtil.getTransactions(API_KEY, TransactionType.SENT, null);
+        while (!page.isEmpty()) {
+            history.addAll(page);
+            page = requestsUtil.getTransactions(API_KEY, TransactionType.SENT, page.get(page.size() - 1).getTxid());
+        }
+
+        final TransactionColumns columns = requestsUtil.getTransactionColumns(API_KEY, TransactionType.SENT,
+                new SymbolTable(), Integer.MAX_VALUE);
+        final TransactionColumns limited = requestsUtil.getTransactionColumns(API_KEY, TransactionType.SENT,
+                new SymbolTable(), 3);
+
+        Assert.assertEquals(columns.getSize(), history.size());
+        Assert.assertEquals(columns.getTimes()[history.size() - 1], history.get(history.size() - 1).getTime());
+        Assert.assertEquals(limited.getSize(), 75);
+    }
+
+    @Test
+    public void verifyFailuresAndRateLimitAreSimulated() {
+        final RestTemplate restTemplate = new RestTemplate();
+        try (BlockIoSimulator failing = new BlockIoSimulator(0, SimulatorProfile.instant().toBuilder()
+                .errorRate(1)
+                .build()).start()) {
+            Assert.assertThrows(HttpServerErrorException.class,
+                    () -> restTemplate.getForObject(failing.getBaseUrl() + "get_my_addresses/?api_key=key", String.class));
+        }
+        try (BlockIoSimulator limited = new BlockIoSimulator(0, SimulatorProfile.instant().toBuilder()
+                .rateLimitPerSecond(2)
+                .build()).start()) {
+            final long rejected = IntStream.range(0, 10)
+                    .filter(i -> isRejected(restTemplate, limited.getBaseUrl() + "get_my_addresses/?api_key=key"))
+                    .count();
+            Assert.assertTrue(rejected >= 6, "Requests over the limit should be answered with 429");
+        }
+    }
+
+    private boolean isRejected(final RestTemplate restTemplate, final String url) {
+        try {
+            restTemplate.getForObject(url, String.class);
+            return false;
+        } catch (final HttpClientErrorException.TooManyRequests e) {
+            return true;
+        }
+    }
+}
@@ -2,6 +2,7 @@ package blockioTests.btcTests;
 
 import com.github.tomakehurst.wiremock.WireMockServer;
 import model.TestConstants;
+import model.amount.Satoshis;
 import model.transaction.TransactionApi;
 import model.wallet.WalletApi;
 import org.testng.Assert;
@@ -48,9 +49,10 @@ public class TransactionTests extends BaseTest {
 
         requestsUtil.sendBTC(TestConstants.VALID_KEY, customFee, amount, destinationAddress);
 
-        final WalletApi updatedFromWalletApi = requestsUtil.getWalletByAddress(TestConstants.VALID_KEY, fromAddress);
-        final WalletApi updatedToWalletApi = requestsUtil.getWalletByAddress(TestConstants.VALID_KEY, destinationAddress);
-        requestsUtil.changeBalance(updatedFromWalletApi, updatedToWalletApi, customFee, amount);
+        final WalletApi updatedFromWalletApi = requestsUtil.getWalletByAddress(TestConstants.VALID_KEY, fromAddress)
+                .withdrawBalance(Satoshis.of(amount.add(customFee)));
+        final WalletApi updatedToWalletApi = requestsUtil.getWalletByAddress(TestConstants.VALID_KEY, destinationAddress)
+                .depositBalance(Satoshis.of(amount));
 
         Assert.assertEquals(updatedFromWalletApi.getAvailableBalanceAsNumber(),
                 fromWalletApi.getAvailableBalanceAsNumber().subtract(amount.add(customFee)));
@@ -0,0 +1,66 @@
+package blockioTests.configTests;
+
+import blockioTests.btcTests.BaseTest;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import config.ConnectionPoolMonitor;
+import model.TestConstants;
+import org.apache.http.pool.PoolStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathMatching;
+
+/**
+ * The main idea of this class is to show that requests to the local WireMock server
+ * are served by a single kept-alive connection of the pool instead of a new connection per request
+ */
+public class HttpClientPoolTests extends BaseTest {
+
+    private static final int REQUESTS = 10;
+
+    private final BigDecimal customFee = BigDecimal.valueOf(0.0000208);
+    private final BigDecimal amount = BigDecimal.valueOf(0.00001);
+    private final String destinationAddress = "2N9zGCfYdRVaZW7LGwVeJVyuuhB5KoEfe7N";
+
+    @Autowired
+    private ConnectionPoolMonitor connectionPoolMonitor;
+
+    private WireMockServer wireMockServer;
+
+    @BeforeClass(alwaysRun = true)
+    public void setUp() {
+        wireMockServer = new WireMockServer(9090);
+        requestsUtil.prepareStubStatement(wireMockServer);
+
+        wireMockServer.start();
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown() {
+        wireMockServer.stop();
+    }
+
+    @Test
+    public void verifyConnectionIsReusedFromPool() {
+        for (int i = 0; i < REQUESTS; i++) {
+            requestsUtil.prepareTransaction(TestConstants.VALID_KEY, customFee, amount, destinationAddress);
+        }
+
+        wireMockServer.verify(REQUESTS, getRequestedFor(urlPathMatching("/api/v2/prepare_transaction/.*")));
+
+        final PoolStats localStats = connectionPoolMonitor.getRouteStats().entrySet().stream()
+                .filter(entry -> entry.getKey().getTargetHost().getPort() == wireMockServer.port())
+                .map(Map.Entry::getValue)
+                .findFirst()
+                .orElseThrow();
+        Assert.assertEquals(localStats.getLeased(), 0);
+        Assert.assertEquals(localStats.getAvailable(), 1);
+    }
+}
@@ -0,0 +1,75 @@
+package blockioTests.modelTests;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import model.transaction.TransactionApi;
+import model.transaction.TransactionResponseApi;
+import model.transaction.compact.CompactTransaction;
+import model.transaction.compact.CompactTransactions;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+import static java.lang.String.format;
+
+/**
+ * The main idea of this class is to show that the compact form of transactions keeps every field
+ * and that repeated addresses are stored once
+ */
+public class CompactTransactionsTests {
+
+    private static final int TRANSACTIONS = 300;
+    private static final int ADDRESSES = 10;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    public void verifyCompactFormKeepsAllFields() throws IOException {
+        final List<TransactionApi> transactions = parse();
+        final CompactTransactions compact = new CompactTransactions();
+        transactions.forEach(compact::add);
+
+        Assert.assertEquals(compact.size(), TRANSACTIONS);
+        for (int i = 0; i < TRANSACTIONS; i++) {
+            Assert.assertEquals(compact.getTransactionApi(i), transactions.get(i));
+        }
+    }
+
+    @Test
+    public void verifyAddressesAreInterned() throws IOException {
+        final CompactTransactions compact = new CompactTransactions();
+        parse().forEach(compact::add);
+
+        Assert.assertEquals(compact.getSymbols().size(), ADDRESSES);
+        Assert.assertEquals(compact.get(0).getSenders()[0], compact.get(ADDRESSES).getSenders()[0]);
+        Assert.assertSame(compact.getTransactionApi(0).getSenders().get(0),
+                compact.getTransactionApi(ADDRESSES).getSenders().get(0));
+    }
+
+    @Test
+    public void verifyPropagatedByNodesIsTyped() throws IOException {
+        final CompactTransactions compact = new CompactTransactions();
+        parse().forEach(compact::add);
+
+        Assert.assertEquals(compact.get(0).getPropagatedByNodes(), CompactTransaction.UNKNOWN_NODES);
+        Assert.assertEquals(compact.get(1).getPropagatedByNodes(), 1);
+    }
+
+    private List<TransactionApi> parse() throws IOException {
+        final StringBuilder transactions = new StringBuilder();
+        for (int i = 0; i < TRANSACTIONS; i++) {
+            if (i > 0) {
+                transactions.append(',');
+            }
+            transactions.append(format("{\"txid\":\"tx-%d\",\"from_green_address\":%b,\"time\":%d,\"confirmations\":%d,"
+                            + "\"total_amount_sent\":\"0.00001000\",\"amounts_sent\":[{\"recipient\":\"address-%d\","
+                            + "\"amount\":\"0.0000%04d\"}],\"senders\":[\"address-%d\"],\"confidence\":1.0,"
+                            + "\"propagated_by_nodes\":%s,\"amounts_received\":null}",
+                    i, i % 2 == 0, 1_600_000_000L + i, i % 12, (i + 1) % ADDRESSES, i, i % ADDRESSES,
+                    i % 3 == 0 ? "null" : String.valueOf(i % 100)));
+        }
+        final String json = format("{\"status\":\"success\",\"data\":{\"network\":\"BTCTEST\",\"txs\":[%s]}}", transactions);
+        return objectMapper.readValue(json, TransactionResponseApi.class).getData().getTransactions();
+    }
+}
@@ -0,0 +1,82 @@
+package blockioTests.modelTests;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import config.JacksonConfig;
+import model.transaction.TransactionApi;
+import model.transaction.TransactionResponseApi;
+import model.wallet.ResponseApi;
+import model.wallet.WalletApi;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import util.StreamingResponseParser;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The main idea of this class is to show that the shared mapper binds the model exactly like a default mapper does
+ * and that unknown fields of responses are skipped for every type of the model.
+ * propagated_by_nodes takes only null or a non-negative int, so it is stored without loss
+ */
+public class ModelBindingTests {
+
+    private static final String WALLET = "{\"user_id\":7,\"address\":\"address\",\"label\":\"label\","
+            + "\"pending_received_balance\":\"0.00000010\",\"available_balance\":\"0.00012345\",\"is_segwit\":true}";
+    private static final String TRANSACTION = "{\"txid\":\"a\",\"from_green_address\":true,\"time\":1600000000,"
+            + "\"confirmations\":3,\"total_amount_sent\":\"0.5\",\"amounts_sent\":[{\"recipient\":\"b\",\"amount\":\"0.1\"}],"
+            + "\"senders\":[\"c\"],\"confidence\":0.99,\"propagated_by_nodes\":null,"
+            + "\"amounts_received\":[{\"recipient\":\"d\",\"amount\":\"0.2\"}]}";
+
+    private final ObjectMapper objectMapper = JacksonConfig.newObjectMapper();
+
+    @Test
+    public void verifyModelIsBoundLikeWithDefaultMapper() throws Exception {
+        final ObjectMapper defaultMapper = new ObjectMapper();
+
+        Assert.assertEquals(objectMapper.readValue(WALLET, WalletApi.class), defaultMapper.readValue(WALLET, WalletApi.class));
+        Assert.assertEquals(objectMapper.readValue(TRANSACTION, TransactionApi.class),
+                defaultMapper.readValue(TRANSACTION, TransactionApi.class));
+        Assert.assertEquals(objectMapper.writeValueAsString(objectMapper.readValue(TRANSACTION, TransactionApi.class)),
+                defaultMapper.writeValueAsString(defaultMapper.readValue(TRANSACTION, TransactionApi.class)));
+    }
+
+    @Test
+    public void verifyPropagatedByNodesAcceptsOnlyNodeCounts() throws Exception {
+        Assert.assertEquals(objectMapper.readValue(TRANSACTION.replace("\"propagated_by_nodes\":null",
+                "\"propagated_by_nodes\":7"), TransactionApi.class).getPropagatedByNodes(), Integer.valueOf(7));
+        Assert.assertNull(objectMapper.readValue(TRANSACTION, TransactionApi.class).getPropagatedByNodes());
+
+        for (final String value : List.of("1.5", "\"7\"", "true", "{}", "[1]", "-1", "3000000000")) {
+            final String json = TRANSACTION.replace("\"propagated_by_nodes\":null", "\"propagated_by_nodes\":" + value);
+            Assert.expectThrows(JsonMappingException.class, () -> objectMapper.readValue(json, TransactionApi.class));
+        }
+    }
+
+    @Test
+    public void verifyUnknownFieldsAreSkipped() throws Exception {
+        final ResponseApi wallets = objectMapper.readValue("{\"status\":\"success\",\"unknown\":{\"a\":[1]},"
+                + "\"data\":{\"network\":\"BTCTEST\",\"unknown\":1,\"addresses\":["
+                + WALLET.replace("{\"user_id\"", "{\"unknown\":\"x\",\"user_id\"") + "]}}", ResponseApi.class);
+        Assert.assertEquals(wallets.getData().getAddresses(), List.of(objectMapper.readValue(WALLET, WalletApi.class)));
+
+        final TransactionResponseApi transactions = objectMapper.readValue("{\"status\":\"success\","
+                + "\"data\":{\"network\":\"BTCTEST\",\"txs\":["
+                + TRANSACTION.replace("\"amount\":\"0.1\"", "\"amount\":\"0.1\",\"unknown\":[]") + "]}}",
+                TransactionResponseApi.class);
+        Assert.assertEquals(transactions.getData().getTransactions().get(0).getAmountsSent().get(0).getAmount(), 10_000_000L);
+    }
+
+    @Test
+    public void verifyStreamedElementsSkipUnknownFields() throws Exception {
+        final StreamingResponseParser parser = new StreamingResponseParser(objectMapper);
+        final String body = "{\"data\":{\"addresses\":[" + WALLET.replace("}", ",\"unknown\":{\"b\":2}}") + "]}}";
+        final List<WalletApi> wallets = new ArrayList<>();
+
+        parser.readWallets(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), wallets::add);
+
+        Assert.assertEquals(wallets, List.of(objectMapper.readValue(WALLET, WalletApi.class)));
+    }
+}
@@ -0,0 +1,53 @@
+package blockioTests.modelTests;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import model.amount.Satoshis;
+import model.transaction.TransactionApi;
+import model.wallet.WalletApi;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.math.BigDecimal;
+
+/**
+ * The main idea of this class is to show that amounts of BTC are converted into satoshis exactly
+ * and that the json representation of the model doesn't change
+ */
+public class SatoshisTests {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    public void verifyAmountsAreParsedExactly() {
+        Assert.assertEquals(Satoshis.parse("0.00001000"), 1_000L);
+        Assert.assertEquals(Satoshis.parse("21000000"), 2_100_000_000_000_000L);
+        Assert.assertEquals(Satoshis.parse("-0.5"), -50_000_000L);
+        Assert.assertEquals(Satoshis.of(BigDecimal.valueOf(0.0000208)), 2_080L);
+        Assert.assertThrows(ArithmeticException.class, () -> Satoshis.parse("0.000000001"));
+        Assert.assertThrows(NumberFormatException.class, () -> Satoshis.parse("0.0.1"));
+    }
+
+    @Test
+    public void verifyAmountsAreFormattedWithEightDecimalPlaces() {
+        Assert.assertEquals(Satoshis.format(1_000L), "0.00001000");
+        Assert.assertEquals(Satoshis.format(-1_250_000_000L), "-12.50000000");
+        Assert.assertEquals(Satoshis.toBtc(1_000L), new BigDecimal("0.00001000"));
+    }
+
+    @Test
+    public void verifyModelKeepsJsonRepresentation() throws Exception {
+        final String json = "{\"user_id\":1,\"address\":\"address\",\"label\":\"label\","
+                + "\"pending_received_balance\":\"0.00000000\",\"available_balance\":\"0.00012345\",\"is_segwit\":true}";
+        final WalletApi wallet = objectMapper.readValue(json, WalletApi.class);
+
+        Assert.assertEquals(wallet.getAvailableBalance(), 12_345L);
+        Assert.assertEquals(wallet.getAvailableBalanceAsNumber(), new BigDecimal("0.00012345"));
+        Assert.assertTrue(objectMapper.writeValueAsString(wallet).contains("\"available_balance\":\"0.00012345\""));
+
+        final TransactionApi transaction = objectMapper.readValue(
+                "{\"txid\":\"a\",\"total_amount_sent\":0.5,\"amounts_sent\":[{\"recipient\":\"b\",\"amount\":\"0.1\"}]}",
+                TransactionApi.class);
+        Assert.assertEquals(transaction.getTotalAmountSent(), 50_000_000L);
+        Assert.assertEquals(transaction.getAmountsSent().get(0).getAmount(), 10_000_000L);
+    }
+}
@@ -0,0 +1,90 @@
+package blockioTests.utilTests;
+
+import blockioTests.btcTests.BaseTest;
+import model.TestConstants;
+import model.wallet.WalletApi;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import util.AsyncRequestsUtil;
+import web.api.simulator.BlockIoSimulator;
+import web.api.simulator.SimulatorProfile;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * The main idea of this class is to show that every action of {@link AsyncRequestsUtil} returns the same result
+ * as the blocking one and that fanning out more calls than threads of the BlockIo executor doesn't deadlock,
+ * although every call waits for pages of wallets loaded on the same executor
+ */
+@TestPropertySource(properties = {
+        "blockio.api.base-url=http://localhost:9093/api/v2/",
+        "blockio.api.stub-base-url=http://localhost:9093/api/v2/",
+        "blockio.execution.threads=2"})
+public class AsyncRequestsUtilTests extends BaseTest {
+
+    private static final String API_KEY = "async-key";
+    private static final int WALLETS = 50;
+    private static final int FAN_OUT = 16;
+
+    @Autowired
+    private AsyncRequestsUtil asyncRequestsUtil;
+
+    private BlockIoSimulator simulator;
+
+    @BeforeClass(alwaysRun = true)
+    public void setUp() {
+        simulator = new BlockIoSimulator(9093, SimulatorProfile.instant().toBuilder()
+                .seededWallets(WALLETS)
+                .walletPageSize(10)
+                .build()).start();
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown() {
+        simulator.close();
+    }
+
+    @Test
+    public void verifyAsyncActionsReturnWhatBlockingOnesDo() throws Exception {
+        final List<WalletApi> wallets = requestsUtil.getWallets(API_KEY);
+        final WalletApi wallet = wallets.get(WALLETS - 1);
+
+        Assert.assertEquals(asyncRequestsUtil.getWallets(API_KEY).get(10, TimeUnit.SECONDS), wallets);
+        Assert.assertEquals(asyncRequestsUtil.getWalletByAddress(API_KEY, wallet.getAddress()).get(10, TimeUnit.SECONDS),
+                requestsUtil.getWalletByAddress(API_KEY, wallet.getAddress()));
+        Assert.assertEquals(asyncRequestsUtil.getWalletByLabel(API_KEY, wallet.getLabel()).get(10, TimeUnit.SECONDS),
+                requestsUtil.getWalletByLabel(API_KEY, wallet.getLabel()));
+        Assert.assertEquals(asyncRequestsUtil.getArchivedWallets(API_KEY).get(10, TimeUnit.SECONDS),
+                requestsUtil.getArchivedWallets(API_KEY));
+        Assert.assertEquals(asyncRequestsUtil.getWalletPage("get_my_addresses", API_KEY, 2).get(10, TimeUnit.SECONDS),
+                requestsUtil.getWalletPage("get_my_addresses", API_KEY, 2));
+        Assert.assertEquals(asyncRequestsUtil.getSentTransactions().get(10, TimeUnit.SECONDS), requestsUtil.getSentTransactions());
+        Assert.assertEquals(asyncRequestsUtil.getReceivedTransactions().get(10, TimeUnit.SECONDS),
+                requestsUtil.getReceivedTransactions());
+    }
+
+    @Test
+    public void verifyFanOutOverThreadsCompletes() throws Exception {
+        final List<CompletableFuture<List<WalletApi>>> results = IntStream.range(0, FAN_OUT)
+                .mapToObj(i -> asyncRequestsUtil.getWallets(API_KEY + '-' + i))
+                .collect(Collectors.toList());
+        final List<CompletableFuture<WalletApi>> lookups = IntStream.range(0, FAN_OUT)
+                .mapToObj(i -> asyncRequestsUtil.getWalletByLabel(TestConstants.VALID_KEY + '-' + i, "label-" + (i + 1)))
+                .collect(Collectors.toList());
+
+        CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).get(30, TimeUnit.SECONDS);
+        CompletableFuture.allOf(lookups.toArray(CompletableFuture[]::new)).get(30, TimeUnit.SECONDS);
+
+        for (final CompletableFuture<List<WalletApi>> result : results) {
+            Assert.assertEquals(result.join().size(), WALLETS);
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package blockioTests.utilTests;
+
+import config.BlockIoProperties;
+import model.transaction.AmountApi;
+import model.transaction.TransactionApi;
+import model.transaction.TransactionType;
+import model.wallet.WalletApi;
+import org.mockito.Mockito;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import util.RequestsUtil;
+import util.reconciliation.BalanceMismatch;
+import util.reconciliation.BalanceReconciler;
+import util.reconciliation.ReconciliationReport;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+
+/**
+ * The main idea of this class is to show that balances of wallets of many accounts are compared with balances
+ * expected from the whole history of transactions, and that an account which can't be read fails alone
+ */
+public class BalanceReconcilerTests {
+
+    private static final int PAGE_SIZE = 25;
+    private static final int ACCOUNTS = 20;
+    private static final int TRANSACTIONS_PER_ACCOUNT = 5_000;
+
+    private final Map<String, List<TransactionApi>> sent = new HashMap<>();
+    private final Map<String, List<TransactionApi>> received = new HashMap<>();
+    private final Map<String, List<WalletApi>> wallets = new HashMap<>();
+
+    private ExecutorService executor;
+    private BlockIoProperties properties;
+    private RequestsUtil requestsUtil;
+    private BalanceReconciler reconciler;
+
+    @BeforeMethod(alwaysRun = true)
+    public void setUp() {
+        executor = Executors.newFixedThreadPool(8);
+        properties = new BlockIoProperties();
+        properties.getReconciliation().setMaxPages(1_000);
+        requestsUtil = Mockito.mock(RequestsUtil.class);
+        Mockito.when(requestsUtil.getWallets(anyString()))
+                .thenAnswer(invocation -> {
+                    final List<WalletApi> accountWallets = wallets.get(invocation.<String>getArgument(0));
+                    if (Objects.isNull(accountWallets)) {
+                        throw new IllegalStateException("Unknown account");
+                    }
+                    return accountWallets;
+                });
+        Mockito.when(requestsUtil.getTransactions(anyString(), any(TransactionType.class), any()))
+                .thenAnswer(invocation -> page(invocation.getArgument(0), invocation.getArgument(1), invocation.getArgument(2)));
+
+        for (int account = 0; account < ACCOUNTS; account++) {
+            addAccount("key-" + account);
+        }
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void tearDown() {
+        reconciler.destroy();
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void verifyBalancesOfAllAccountsAreReconciled() {
+        reconciler = new BalanceReconciler(requestsUtil, properties, executor);
+
+        final ReconciliationReport report = reconciler.reconcile(wallets.keySet());
+
+        Assert.assertEquals(report.getAccounts(), ACCOUNTS);
+        Assert.assertEquals(report.getWallets(), ACCOUNTS * 3);
+        Assert.assertEquals(report.getTransactions(), (long) ACCOUNTS * (TRANSACTIONS_PER_ACCOUNT + 1));
+        Assert.assertTrue(report.getFailures().isEmpty());
+        Assert.assertEquals(report.getMismatches().size(), ACCOUNTS);
+        for (final BalanceMismatch mismatch : report.getMismatches()) {
+            Assert.assertEquals(mismatch.getLabel(), "unexplained");
+            Assert.assertEquals(mismatch.getExpectedBalance(), 0);
+            Assert.assertEquals(mismatch.getDifference(), 999);
+        }
+    }
+
+    @Test
+    public void verifyFailedAccountDoesNotStopOthers() {
+        reconciler = new BalanceReconciler(requestsUtil, properties, executor);
+
+        final ReconciliationReport report = reconciler.reconcile(List.of("key-0", "unknown-key", "key-1"));
+
+        Assert.assertEquals(report.getFailures().keySet(), Set.of("unknown-key"));
+        Assert.assertEquals(report.getMismatches().size(), 2);
+        Assert.assertFalse(report.isConsistent());
+    }
+
+    @Test
+    public void verifyTooLongHistoryFailsAccount() {
+        properties.getReconciliation().setMaxPages(10);
+        reconciler = new BalanceReconciler(requestsUtil, properties, executor);
+
+        final ReconciliationReport report = reconciler.reconcile(List.of("key-0"));
+
+        Assert.assertTrue(report.getFailures().get("key-0") instanceof IllegalStateException);
+    }
+
+    /**
+     * Every account gets: "main" wallet which received many small amounts and sent one transaction,
+     * "savings" wallet which received a single amount and "unexplained" wallet with a balance without history
+     */
+    private void addAccount(final String apiKey) {
+        final String main = apiKey + "-main";
+        final String savings = apiKey + "-savings";
+        final List<TransactionApi> accountReceived = new ArrayList<>();
+        for (int i = 0; i < TRANSACTIONS_PER_ACCOUNT - 1; i++) {
+            accountReceived.add(transaction(apiKey + "-r" + i, List.of(), List.of(new AmountApi(main, 1_000))));
+        }
+        accountReceived.add(transaction(apiKey + "-savings", List.of(), List.of(new AmountApi(savings, 5_000))));
+        final List<TransactionApi> accountSent = List.of(
+                transaction(apiKey + "-s0", List.of(main), List.of()).withTotalAmountSent(300_000));
+
+        final long mainBalance = (TRANSACTIONS_PER_ACCOUNT - 1) * 1_000L - 300_000;
+        received.put(apiKey, accountReceived);
+        sent.put(apiKey, accountSent);
+        wallets.put(apiKey, List.of(
+                wallet(main, "main", mainBalance),
+                wallet(savings, "savings", 5_000),
+                wallet(apiKey + "-unexplained", "unexplained", 999)));
+    }
+
+    private List<TransactionApi> page(final String apiKey, final TransactionType type, final String beforeTx) {
+        final List<TransactionApi> history = type == TransactionType.SENT ? sent.get(apiKey) : received.get(apiKey);
+        int from = 0;
+        if (Objects.nonNull(beforeTx)) {
+            while (!history.get(from).getTxid().equals(beforeTx)) {
+                from++;
+            }
+            from++;
+        }
+        return history.subList(from, Math.min(history.size(), from + PAGE_SIZE));
+    }
+
+    private TransactionApi transaction(final String txid, final List<String> senders, final List<AmountApi> amountsReceived) {
+        return TransactionApi.builder()
+                .txid(txid)
+                .senders(senders)
+                .amountsReceived(amountsReceived)
+                .build();
+    }
+
+    private WalletApi wallet(final String address, final String label, final long balance) {
+        return WalletApi.builder()
+                .address(address)
+                .label(label)
+                .availableBalance(balance)
+                .build();
+    }
+}
@@ -0,0 +1,143 @@
+package blockioTests.utilTests;
+
+import blockioTests.btcTests.BaseTest;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import util.metrics.BlockIoMetrics;
+import web.api.simulator.BlockIoSimulator;
+import web.api.simulator.SimulatorProfile;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static com.github.tomakehurst.wiremock.stubbing.Scenario.STARTED;
+
+/**
+ * The main idea of this class is to show that every request to BlockIo is measured per endpoint
+ * in the local registry: time of request, size and parse time of response body and errors.
+ * A retried request is measured once per attempt.
+ * Requests are served by {@link BlockIoSimulator}, so no external service is needed
+ */
+@TestPropertySource(properties = {
+        "blockio.api.base-url=http://localhost:9092/api/v2/",
+        "blockio.api.stub-base-url=http://localhost:9092/api/v2/"})
+public class BlockIoMetricsTests extends BaseTest {
+
+    private static final String API_KEY = "metrics-key";
+    private static final int PAGES = 3;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Autowired
+    private RestTemplate restTemplate;
+
+    private BlockIoSimulator simulator;
+
+    @BeforeClass(alwaysRun = true)
+    public void setUp() {
+        simulator = new BlockIoSimulator(9092, SimulatorProfile.instant().toBuilder()
+                .seededWallets(PAGES * 10)
+                .walletPageSize(10)
+                .build()).start();
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown() {
+        simulator.close();
+    }
+
+    @Test
+    public void verifyPagesOfWalletsAreMeasured() {
+        final long requestsBefore = requests("get_my_addresses", "200");
+        final long parsedBefore = parsed("get_my_addresses");
+
+        for (int page = 1; page <= PAGES; page++) {
+            Assert.assertEquals(requestsUtil.getWalletPage("get_my_addresses", API_KEY, page).getAddresses().size(), 10);
+        }
+
+        Assert.assertEquals(requests("get_my_addresses", "200") - requestsBefore, PAGES);
+        Assert.assertEquals(parsed("get_my_addresses") - parsedBefore, PAGES);
+        Assert.assertTrue(registry.get(BlockIoMetrics.RESPONSE_SIZE).tag(BlockIoMetrics.ENDPOINT_TAG, "get_my_addresses")
+                .summary().totalAmount() > 0, "Sizes of response bodies should be recorded");
+    }
+
+    @Test
+    public void verifyErrorIsCountedByStatus() {
+        Assert.expectThrows(HttpClientErrorException.class,
+                () -> restTemplate.getForEntity(simulator.getBaseUrl() + "get_balance/", String.class));
+
+        Assert.assertEquals(requests("get_balance", "401"), 1);
+        Assert.assertEquals(registry.get(BlockIoMetrics.ERRORS)
+                .tag(BlockIoMetrics.ENDPOINT_TAG, "get_balance")
+                .tag(BlockIoMetrics.TYPE_TAG, "401")
+                .counter().count(), 1.0);
+    }
+
+    @Test
+    public void verifyEveryAttemptIsMeasured() {
+        final WireMockServer wireMockServer = new WireMockServer(options().dynamicPort());
+        wireMockServer.stubFor(get(urlPathEqualTo("/api/v2/get_network_fee_estimate/")).inScenario("retry")
+                .whenScenarioStateIs(STARTED)
+                .willReturn(aResponse().withStatus(503))
+                .willSetStateTo("recovered"));
+        wireMockServer.stubFor(get(urlPathEqualTo("/api/v2/get_network_fee_estimate/")).inScenario("retry")
+                .whenScenarioStateIs("recovered")
+                .willReturn(aResponse().withStatus(200).withBody("{\"status\":\"success\"}")));
+        wireMockServer.start();
+        try {
+            restTemplate.getForObject(wireMockServer.baseUrl() + "/api/v2/get_network_fee_estimate/?api_key=" + API_KEY,
+                    String.class);
+        } finally {
+            wireMockServer.stop();
+        }
+
+        Assert.assertEquals(registry.get(BlockIoMetrics.REQUESTS)
+                .tag(BlockIoMetrics.ENDPOINT_TAG, "get_network_fee_estimate")
+                .timers().stream()
+                .mapToLong(Timer::count)
+                .sum(), 2);
+        Assert.assertEquals(requests("get_network_fee_estimate", "503"), 1);
+        Assert.assertEquals(registry.get(BlockIoMetrics.ERRORS)
+                .tag(BlockIoMetrics.ENDPOINT_TAG, "get_network_fee_estimate")
+                .tag(BlockIoMetrics.TYPE_TAG, "503")
+                .counter().count(), 1.0);
+        Assert.assertEquals(registry.get(BlockIoMetrics.RETRIES)
+                .tag(BlockIoMetrics.ENDPOINT_TAG, "get_network_fee_estimate")
+                .counter().count(), 1.0);
+    }
+
+    @Test
+    public void verifyEndpointIsTakenFromUrlPath() {
+        Assert.assertEquals(BlockIoMetrics.endpointOf("https://block.io/api/v2/get_balance/?api_key=key"), "get_balance");
+        Assert.assertEquals(BlockIoMetrics.endpointOf("http://localhost:9090/api/v2/prepare_transaction"), "prepare_transaction");
+        Assert.assertEquals(BlockIoMetrics.endpointOf("/"), "unknown");
+    }
+
+    private long parsed(final String endpoint) {
+        return registry.find(BlockIoMetrics.PARSE)
+                .tag(BlockIoMetrics.ENDPOINT_TAG, endpoint)
+                .timers().stream()
+                .mapToLong(Timer::count)
+                .sum();
+    }
+
+    private long requests(final String endpoint, final String status) {
+        return registry.find(BlockIoMetrics.REQUESTS)
+                .tag(BlockIoMetrics.ENDPOINT_TAG, endpoint)
+                .tag(BlockIoMetrics.STATUS_TAG, status)
+                .timers().stream()
+                .mapToLong(Timer::count)
+                .sum();
+    }
+}
@@ -0,0 +1,58 @@
+package blockioTests.utilTests;
+
+import config.BlockIoProperties;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import util.ConcurrencyLimiter;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * The main idea of this class is to show that the number of calls in flight never exceeds the limit,
+ * even when the executor runs many more tasks at the same time
+ */
+public class ConcurrencyLimiterTests {
+
+    private static final int MAX_CONCURRENT_REQUESTS = 4;
+
+    @Test
+    public void verifyCallsInFlightAreLimited() {
+        final BlockIoProperties properties = new BlockIoProperties();
+        properties.getExecution().setMaxConcurrentRequests(MAX_CONCURRENT_REQUESTS);
+        final ConcurrencyLimiter limiter = new ConcurrencyLimiter(properties);
+
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicInteger maxInFlight = new AtomicInteger();
+        final ExecutorService executor = Executors.newFixedThreadPool(32);
+        try {
+            final List<CompletableFuture<Integer>> calls = IntStream.range(0, 200)
+                    .mapToObj(i -> CompletableFuture.supplyAsync(() -> limiter.call(() -> {
+                        maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                        sleep();
+                        inFlight.decrementAndGet();
+                        return i;
+                    }), executor))
+                    .collect(Collectors.toList());
+            calls.forEach(CompletableFuture::join);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Assert.assertTrue(maxInFlight.get() <= MAX_CONCURRENT_REQUESTS);
+        Assert.assertEquals(limiter.getAvailablePermits(), MAX_CONCURRENT_REQUESTS);
+    }
+
+    private void sleep() {
+        try {
+            Thread.sleep(2);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
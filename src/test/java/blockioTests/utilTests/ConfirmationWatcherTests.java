@@ -0,0 +1,189 @@
+package blockioTests.utilTests;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import config.BlockIoProperties;
+import model.transaction.TransactionApi;
+import model.transaction.TransactionType;
+import org.mockito.Mockito;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.client.ResourceAccessException;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import util.RequestsUtil;
+import util.confirmation.ConfirmationWatcher;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+
+/**
+ * The main idea of this class is to show that the watcher completes transactions when they reach the threshold,
+ * checks many transactions of an account with one request and backs off while a transaction is not confirmed.
+ * A failed check doesn't write the api key to the log
+ */
+public class ConfirmationWatcherTests {
+
+    private static final String API_KEY = "key";
+    private static final int PAGE_SIZE = 25;
+
+    private final List<TransactionApi> history = new CopyOnWriteArrayList<>();
+    private final AtomicInteger requests = new AtomicInteger();
+
+    private BlockIoProperties properties;
+    private RequestsUtil requestsUtil;
+    private ConfirmationWatcher watcher;
+
+    @BeforeMethod(alwaysRun = true)
+    public void setUp() {
+        history.clear();
+        requests.set(0);
+        for (int i = 0; i < 100; i++) {
+            history.add(transaction("tx-" + i, 0));
+        }
+        properties = new BlockIoProperties();
+        properties.getConfirmation().setThreshold(3);
+        properties.getConfirmation().setTickInterval(Duration.ofMillis(10));
+        properties.getConfirmation().setInitialInterval(Duration.ofMillis(20));
+        properties.getConfirmation().setMaxInterval(Duration.ofSeconds(1));
+        requestsUtil = Mockito.mock(RequestsUtil.class);
+        Mockito.doAnswer(invocation -> {
+            requests.incrementAndGet();
+            page(invocation.getArgument(2)).forEach(invocation.<Consumer<TransactionApi>>getArgument(3));
+            return null;
+        }).when(requestsUtil).forEachTransaction(anyString(), eq(TransactionType.SENT), any(), any());
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void tearDown() {
+        watcher.destroy();
+    }
+
+    @Test
+    public void verifyTransactionIsConfirmedAtThreshold() throws Exception {
+        watcher = new ConfirmationWatcher(requestsUtil, properties);
+        final List<String> confirmed = new CopyOnWriteArrayList<>();
+        watcher.addListener((apiKey, transaction) -> confirmed.add(transaction.getTxid()));
+
+        final CompletableFuture<TransactionApi> result = watcher.watch(API_KEY, "tx-30");
+        for (int confirmations = 1; confirmations <= 3; confirmations++) {
+            TimeUnit.MILLISECONDS.sleep(50);
+            Assert.assertFalse(result.isDone(), "The transaction is below the threshold");
+            history.set(30, transaction("tx-30", confirmations));
+        }
+
+        Assert.assertEquals(result.get(5, TimeUnit.SECONDS).getConfirmations(), 3);
+        Assert.assertEquals(confirmed, List.of("tx-30"));
+        Assert.assertEquals(watcher.getWatched(), 0);
+    }
+
+    @Test
+    public void verifyTransactionsOfAccountAreCheckedTogether() throws Exception {
+        properties.getConfirmation().setTickInterval(Duration.ofMillis(200));
+        for (int i = 0; i < history.size(); i++) {
+            history.set(i, transaction("tx-" + i, 6));
+        }
+        watcher = new ConfirmationWatcher(requestsUtil, properties);
+
+        final List<CompletableFuture<TransactionApi>> results = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            results.add(watcher.watch(API_KEY, "tx-" + i));
+        }
+        CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+
+        Assert.assertEquals(requests.get(), 2, "40 newest transactions are on 2 pages");
+    }
+
+    @Test
+    public void verifyChecksBackOffUntilTransactionExpires() throws Exception {
+        properties.getConfirmation().setMaxAge(Duration.ofSeconds(1));
+        properties.getConfirmation().setMaxPages(1);
+        watcher = new ConfirmationWatcher(requestsUtil, properties);
+
+        final CompletableFuture<TransactionApi> result = watcher.watch(API_KEY, "unknown");
+
+        final ExecutionException exception = Assert.expectThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+        Assert.assertTrue(exception.getCause() instanceof TimeoutException);
+        Assert.assertTrue(requests.get() <= 8, "Checks should back off, but there were " + requests.get());
+        Assert.assertEquals(watcher.getWatched(), 0);
+    }
+
+    @Test
+    public void verifyUnwatchedTransactionIsCancelled() {
+        properties.getConfirmation().setTickInterval(Duration.ofSeconds(10));
+        watcher = new ConfirmationWatcher(requestsUtil, properties);
+
+        final CompletableFuture<TransactionApi> result = watcher.watch(API_KEY, "tx-1");
+        watcher.unwatch(API_KEY, TransactionType.SENT, "tx-1");
+
+        Assert.assertTrue(result.isCancelled());
+        Assert.assertEquals(watcher.getWatched(), 0);
+    }
+
+    @Test
+    public void verifyFailedCheckDoesNotLogApiKey() throws Exception {
+        final String apiKey = "2701-0827-6937-ec93";
+        Mockito.doThrow(new ResourceAccessException("I/O error on GET request for "
+                        + "\"https://block.io/api/v2/get_transactions/?api_key=" + apiKey + "&type=sent\""))
+                .when(requestsUtil).forEachTransaction(eq(apiKey), eq(TransactionType.SENT), any(), any());
+        final Logger logger = (Logger) LoggerFactory.getLogger(ConfirmationWatcher.class);
+        final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+        appender.list = new CopyOnWriteArrayList<>();
+        appender.start();
+        logger.addAppender(appender);
+        try {
+            watcher = new ConfirmationWatcher(requestsUtil, properties);
+            watcher.watch(apiKey, "tx-30");
+            final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (appender.list.stream().noneMatch(event -> event.getFormattedMessage().startsWith("Failed"))
+                    && System.nanoTime() < deadline) {
+                TimeUnit.MILLISECONDS.sleep(10);
+            }
+        } finally {
+            logger.detachAppender(appender);
+        }
+
+        final List<ILoggingEvent> failures = new ArrayList<>();
+        appender.list.stream().filter(event -> event.getFormattedMessage().startsWith("Failed")).forEach(failures::add);
+        Assert.assertFalse(failures.isEmpty(), "The failed check should be logged");
+        for (final ILoggingEvent failure : failures) {
+            Assert.assertFalse(failure.getFormattedMessage().contains(apiKey), failure.getFormattedMessage());
+            Assert.assertTrue(failure.getFormattedMessage().contains(ResourceAccessException.class.getName()));
+            Assert.assertNull(failure.getThrowableProxy());
+        }
+    }
+
+    private List<TransactionApi> page(final String beforeTx) {
+        final List<TransactionApi> history = List.copyOf(this.history);
+        int from = 0;
+        if (Objects.nonNull(beforeTx)) {
+            while (!history.get(from).getTxid().equals(beforeTx)) {
+                from++;
+            }
+            from++;
+        }
+        return history.subList(from, Math.min(history.size(), from + PAGE_SIZE));
+    }
+
+    private TransactionApi transaction(final String txid, final int confirmations) {
+        return TransactionApi.builder()
+                .txid(txid)
+                .confirmations(confirmations)
+                .build();
+    }
+}
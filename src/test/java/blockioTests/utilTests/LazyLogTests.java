@@ -0,0 +1,144 @@
+package blockioTests.utilTests;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.impl.NoOpLog;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.web.client.ResourceAccessException;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import util.LazyLog;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static java.lang.String.format;
+
+/**
+ * The main idea of this class is to show that api keys never reach the log, neither in messages of
+ * {@link util.RequestsUtil} nor in logged exceptions, and that disabled debug messages are not built at all
+ */
+public class LazyLogTests {
+
+    private static final int CALLS = 100_000;
+    private static final String API_KEY = "2701-0827-6937-ec93";
+    private static final Pattern LOG_CALL = Pattern.compile("logger\\.(?:debug|warn)\\(\\s*\"((?:[^\"\\\\]|\\\\.)*)\"([^;]*?)\\);");
+    private static final Pattern CONVERSION = Pattern.compile("%[-#+ 0,(]*\\d*(?:\\.\\d+)?([a-zA-Z%])");
+
+    @Test
+    public void verifyApiKeysAreMasked() {
+        Assert.assertEquals(
+                LazyLog.mask("https://block.io/api/v2/get_transactions/?api_key=2701-0827-6937-ec93&type=sent"),
+                "https://block.io/api/v2/get_transactions/?api_key=****&type=sent");
+        Assert.assertEquals(
+                LazyLog.mask("Send BTC with next params: {apiKey=2701-0827-6937-ec93}, {fee=0.0000208}"),
+                "Send BTC with next params: {apiKey=****}, {fee=0.0000208}");
+    }
+
+    @Test
+    public void verifyMessagesOfRequestsUtilDontLeakApiKeys() throws IOException {
+        final String source = new String(Files.readAllBytes(Paths.get("src/main/java/util/RequestsUtil.java")),
+                StandardCharsets.UTF_8);
+        final Matcher call = LOG_CALL.matcher(source);
+        int calls = 0;
+        while (call.find()) {
+            calls++;
+            final String pattern = call.group(1).replace("\\\"", "\"");
+            final String message = LazyLog.mask(format(pattern, arguments(pattern, call.group(2))));
+            Assert.assertFalse(message.contains(API_KEY), "Api key is not masked in: " + message);
+        }
+        Assert.assertTrue(calls > 10, "Log calls of RequestsUtil should be found, found " + calls);
+    }
+
+    @Test
+    public void verifyMessagesOfLoggedExceptionsAreMasked() {
+        final Log log = Mockito.mock(Log.class);
+        final IOException cause = new IOException("Connection reset for api_key=" + API_KEY);
+        final ResourceAccessException error = new ResourceAccessException(
+                "I/O error on GET request for \"https://block.io/api/v2/get_transactions/?api_key=" + API_KEY + "\"", cause);
+
+        new LazyLog(log).warn("Failed to check transactions of apiKey=" + API_KEY, error);
+
+        final ArgumentCaptor<Object> message = ArgumentCaptor.forClass(Object.class);
+        final ArgumentCaptor<Throwable> logged = ArgumentCaptor.forClass(Throwable.class);
+        Mockito.verify(log).warn(message.capture(), logged.capture());
+        Assert.assertEquals(message.getValue(), "Failed to check transactions of apiKey=****");
+        Assert.assertEquals(logged.getValue().toString(), ResourceAccessException.class.getName()
+                + ": I/O error on GET request for \"https://block.io/api/v2/get_transactions/?api_key=****\"");
+        Assert.assertEquals(logged.getValue().getStackTrace(), error.getStackTrace());
+        Assert.assertEquals(logged.getValue().getCause().toString(), IOException.class.getName() + ": Connection reset for api_key=****");
+    }
+
+    @Test
+    public void verifyDisabledDebugAllocatesNothing() {
+        final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        final LazyLog logger = new LazyLog(new NoOpLog());
+        final BigDecimal fee = BigDecimal.valueOf(0.0000208);
+        final BigDecimal amount = BigDecimal.valueOf(0.00001);
+        final String apiKey = API_KEY;
+        final String destinationAddress = "2N9zGCfYdRVaZW7LGwVeJVyuuhB5KoEfe7N";
+        logDebug(logger, apiKey, fee, amount, destinationAddress);
+
+        final long threadId = Thread.currentThread().getId();
+        final long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < CALLS; i++) {
+            logDebug(logger, apiKey, fee, amount, destinationAddress);
+        }
+        final long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        Assert.assertTrue(allocated < 1024, "Disabled debug allocated " + allocated + " bytes");
+    }
+
+    private void logDebug(final LazyLog logger, final String apiKey, final BigDecimal fee, final BigDecimal amount,
+                          final String destinationAddress) {
+        logger.debug("Send BTC with next params: {apiKey=%s}, {fee=%s}, {amount=%s}, {destinationAddress=%s}",
+                apiKey, fee, amount, destinationAddress);
+    }
+
+    /**
+     * Builds arguments of a log call of {@link util.RequestsUtil}: api keys are passed as raw keys,
+     * urls include a raw key, numbers are passed for "%d" and any other value for the rest
+     */
+    private Object[] arguments(final String pattern, final String expressions) {
+        final List<String> values = new ArrayList<>();
+        int depth = 0;
+        int start = expressions.indexOf(',') + 1;
+        for (int i = start; i < expressions.length(); i++) {
+            final char next = expressions.charAt(i);
+            depth += next == '(' ? 1 : next == ')' ? -1 : 0;
+            if (next == ',' && depth == 0) {
+                values.add(expressions.substring(start, i).trim());
+                start = i + 1;
+            }
+        }
+        if (start > 0) {
+            values.add(expressions.substring(start).trim());
+        }
+        final List<Object> arguments = new ArrayList<>();
+        final Matcher conversion = CONVERSION.matcher(pattern);
+        while (conversion.find()) {
+            if ("%".equals(conversion.group(1))) {
+                continue;
+            }
+            final String expression = values.get(arguments.size());
+            if ("d".equals(conversion.group(1))) {
+                arguments.add(1);
+            } else if (expression.toLowerCase().contains("key")) {
+                arguments.add(API_KEY);
+            } else if (expression.toLowerCase().contains("url")) {
+                arguments.add("https://block.io/api/v2/get_balance/?api_key=" + API_KEY);
+            } else {
+                arguments.add("value");
+            }
+        }
+        return arguments.toArray();
+    }
+}
@@ -0,0 +1,96 @@
+package blockioTests.utilTests;
+
+import blockioTests.btcTests.BaseTest;
+import config.BlockIoProperties;
+import model.amount.Satoshis;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import util.reconciliation.BalanceMismatch;
+import util.reconciliation.BalanceReconciler;
+import util.reconciliation.ReconciliationReport;
+import web.api.simulator.BlockIoSimulator;
+import web.api.simulator.SimulatorProfile;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * The main idea of this class is to show that balances reported by {@link BlockIoSimulator} after transactions
+ * with a network fee are reconciled: the history doesn't show fees, so a wallet which paid them matches
+ * as long as they are within "max-fee" per sent transaction, and is reported otherwise
+ */
+@TestPropertySource(properties = {
+        "blockio.api.base-url=http://localhost:9094/api/v2/",
+        "blockio.api.stub-base-url=http://localhost:9094/api/v2/",
+        "blockio.reconciliation.max-fee=10000"})
+public class ReconciliationSimulatorTests extends BaseTest {
+
+    private static final String FUNDER_KEY = "funder-key";
+    private static final String API_KEY = "reconciliation-key";
+
+    private final BigDecimal customFee = BigDecimal.valueOf(0.0000208);
+
+    @Autowired
+    private BalanceReconciler reconciler;
+
+    @Autowired
+    private ExecutorService blockIoExecutor;
+
+    private BlockIoSimulator simulator;
+
+    @BeforeClass(alwaysRun = true)
+    public void setUp() {
+        simulator = new BlockIoSimulator(9094, SimulatorProfile.instant().toBuilder()
+                .seededWallets(0)
+                .seededArchivedWallets(0)
+                .seededTransactions(0)
+                .build()).start();
+        simulator.getLedger().addWallet(FUNDER_KEY, "funder-address", "funder", 100_000_000L);
+        simulator.getLedger().addWallet(API_KEY, "payer-address", "payer", 0);
+        simulator.getLedger().addWallet(API_KEY, "savings-address", "savings", 0);
+
+        requestsUtil.sendBTC(FUNDER_KEY, customFee, BigDecimal.valueOf(0.001), "payer-address");
+        requestsUtil.sendBTC(API_KEY, customFee, BigDecimal.valueOf(0.0002), "savings-address");
+        requestsUtil.sendBTC(API_KEY, customFee, BigDecimal.valueOf(0.0001), "savings-address");
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown() {
+        simulator.close();
+    }
+
+    @Test
+    public void verifyFeesWithinMaxFeeAreReconciled() {
+        final ReconciliationReport report = reconciler.reconcile(List.of(API_KEY));
+
+        Assert.assertEquals(report.getWallets(), 2);
+        Assert.assertEquals(report.getTransactions(), 5);
+        Assert.assertTrue(report.isConsistent(), report.toString());
+        Assert.assertEquals(requestsUtil.getWalletByAddress(API_KEY, "payer-address").getAvailableBalance(),
+                100_000 - 30_000 - 2 * Satoshis.of(customFee));
+    }
+
+    @Test
+    public void verifyFeesOverMaxFeeAreReported() {
+        final BlockIoProperties properties = new BlockIoProperties();
+        properties.getReconciliation().setMaxFee(Satoshis.of(customFee) - 1);
+        final BalanceReconciler strictReconciler = new BalanceReconciler(requestsUtil, properties, blockIoExecutor);
+        try {
+            final ReconciliationReport report = strictReconciler.reconcile(List.of(API_KEY));
+
+            Assert.assertEquals(report.getMismatches().size(), 1);
+            final BalanceMismatch mismatch = report.getMismatches().get(0);
+            Assert.assertEquals(mismatch.getAddress(), "payer-address");
+            Assert.assertEquals(mismatch.getExpectedBalance(), 100_000 - 30_000);
+            Assert.assertEquals(mismatch.getMaxFees(), 2 * (Satoshis.of(customFee) - 1));
+            Assert.assertEquals(mismatch.getDifference(), -2 * Satoshis.of(customFee));
+        } finally {
+            strictReconciler.destroy();
+        }
+    }
+}
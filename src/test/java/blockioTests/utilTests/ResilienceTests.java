@@ -0,0 +1,161 @@
+package blockioTests.utilTests;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.client.ResponseDefinitionBuilder;
+import com.github.tomakehurst.wiremock.http.Fault;
+import config.BlockIoProperties;
+import exceptions.CallRejectedException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestTemplate;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import util.metrics.BlockIoMetrics;
+import util.metrics.MetricsInterceptor;
+import util.resilience.CircuitBreaker;
+import util.resilience.ResilienceInterceptor;
+
+import java.time.Duration;
+import java.util.List;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static com.github.tomakehurst.wiremock.stubbing.Scenario.STARTED;
+
+/**
+ * The main idea of this class is to show that the resilience layer retries idempotent requests after faults
+ * injected by WireMock, respects "Retry-After", opens the circuit when BlockIo keeps failing
+ * and rejects requests over the rate limit
+ */
+public class ResilienceTests {
+
+    private static final String OK_BODY = "{\"status\":\"success\"}";
+
+    private WireMockServer wireMockServer;
+    private BlockIoProperties properties;
+    private MeterRegistry registry;
+    private ResilienceInterceptor interceptor;
+    private RestTemplate restTemplate;
+
+    @BeforeClass(alwaysRun = true)
+    public void setUp() {
+        wireMockServer = new WireMockServer(options().dynamicPort());
+        wireMockServer.start();
+    }
+
+    @BeforeMethod(alwaysRun = true)
+    public void resetServer() {
+        wireMockServer.resetAll();
+        properties = new BlockIoProperties();
+        properties.getResilience().getRetry().setInitialBackoff(Duration.ofMillis(10));
+        properties.getResilience().getRetry().setMaxBackoff(Duration.ofSeconds(2));
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown() {
+        wireMockServer.stop();
+    }
+
+    @Test
+    public void verifyServerErrorIsRetried() {
+        stubFailureThenSuccess("/api/v2/get_balance/", aResponse().withStatus(503));
+        createRestTemplate();
+
+        Assert.assertEquals(restTemplate.getForObject(url("get_balance"), String.class), OK_BODY);
+        wireMockServer.verify(2, getRequestedFor(urlPathEqualTo("/api/v2/get_balance/")));
+        Assert.assertEquals(registry.get(BlockIoMetrics.RETRIES).tag(BlockIoMetrics.ENDPOINT_TAG, "get_balance")
+                .counter().count(), 1.0);
+    }
+
+    @Test
+    public void verifyConnectionResetIsRetried() {
+        stubFailureThenSuccess("/api/v2/get_my_addresses/", aResponse().withFault(Fault.CONNECTION_RESET_BY_PEER));
+        createRestTemplate();
+
+        Assert.assertEquals(restTemplate.getForObject(url("get_my_addresses"), String.class), OK_BODY);
+        wireMockServer.verify(2, getRequestedFor(urlPathEqualTo("/api/v2/get_my_addresses/")));
+    }
+
+    @Test
+    public void verifyRetryAfterIsRespected() {
+        stubFailureThenSuccess("/api/v2/get_transactions/", aResponse().withStatus(429).withHeader("Retry-After", "1"));
+        createRestTemplate();
+
+        final long start = System.nanoTime();
+        Assert.assertEquals(restTemplate.getForObject(url("get_transactions"), String.class), OK_BODY);
+        Assert.assertTrue(System.nanoTime() - start >= Duration.ofSeconds(1).toNanos(),
+                "The next attempt should wait for Retry-After");
+    }
+
+    @Test
+    public void verifyNonIdempotentEndpointIsNotRetried() {
+        wireMockServer.stubFor(get(urlPathEqualTo("/api/v2/get_new_address/")).willReturn(aResponse().withStatus(503)));
+        createRestTemplate();
+
+        Assert.assertThrows(HttpServerErrorException.class, () -> restTemplate.getForObject(url("get_new_address"), String.class));
+        wireMockServer.verify(1, getRequestedFor(urlPathEqualTo("/api/v2/get_new_address/")));
+    }
+
+    @Test
+    public void verifyCircuitOpensWhenRequestsKeepFailing() {
+        wireMockServer.stubFor(get(urlPathEqualTo("/api/v2/get_balance/")).willReturn(aResponse().withStatus(500)));
+        properties.getResilience().getRetry().setMaxAttempts(1);
+        properties.getResilience().getCircuitBreaker().setWindowSize(4);
+        properties.getResilience().getCircuitBreaker().setMinimumCalls(4);
+        createRestTemplate();
+
+        for (int i = 0; i < 4; i++) {
+            Assert.assertThrows(HttpServerErrorException.class, () -> restTemplate.getForObject(url("get_balance"), String.class));
+        }
+        Assert.assertThrows(CallRejectedException.class, () -> restTemplate.getForObject(url("get_balance"), String.class));
+
+        Assert.assertEquals(interceptor.getCircuitState(), CircuitBreaker.State.OPEN);
+        wireMockServer.verify(4, getRequestedFor(urlPathEqualTo("/api/v2/get_balance/")));
+        Assert.assertEquals(registry.get(BlockIoMetrics.REJECTIONS).tag(BlockIoMetrics.REASON_TAG, "circuit_open")
+                .counter().count(), 1.0);
+    }
+
+    @Test
+    public void verifyRequestsOverRateLimitAreRejected() {
+        wireMockServer.stubFor(get(urlPathEqualTo("/api/v2/get_balance/")).willReturn(aResponse().withStatus(200).withBody(OK_BODY)));
+        properties.getResilience().getRateLimit().setRequestsPerSecond(1);
+        properties.getResilience().getRateLimit().setBurst(2);
+        properties.getResilience().getRateLimit().setMaxWait(Duration.ZERO);
+        createRestTemplate();
+
+        restTemplate.getForObject(url("get_balance"), String.class);
+        restTemplate.getForObject(url("get_balance"), String.class);
+        Assert.assertThrows(CallRejectedException.class, () -> restTemplate.getForObject(url("get_balance"), String.class));
+
+        wireMockServer.verify(2, getRequestedFor(urlPathEqualTo("/api/v2/get_balance/")));
+    }
+
+    private void createRestTemplate() {
+        registry = new SimpleMeterRegistry();
+        final BlockIoMetrics metrics = new BlockIoMetrics(registry, properties);
+        interceptor = new ResilienceInterceptor(properties, metrics, new MetricsInterceptor(metrics));
+        restTemplate = new RestTemplate();
+        restTemplate.setInterceptors(List.of(interceptor));
+    }
+
+    private void stubFailureThenSuccess(final String path, final ResponseDefinitionBuilder failure) {
+        wireMockServer.stubFor(get(urlPathEqualTo(path)).inScenario(path)
+                .whenScenarioStateIs(STARTED)
+                .willReturn(failure)
+                .willSetStateTo("recovered"));
+        wireMockServer.stubFor(get(urlPathEqualTo(path)).inScenario(path)
+                .whenScenarioStateIs("recovered")
+                .willReturn(aResponse().withStatus(200).withBody(OK_BODY)));
+    }
+
+    private String url(final String endpoint) {
+        return wireMockServer.baseUrl() + "/api/v2/" + endpoint + "/?api_key=key";
+    }
+}
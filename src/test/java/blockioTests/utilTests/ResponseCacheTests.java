@@ -0,0 +1,174 @@
+package blockioTests.utilTests;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import config.BlockIoProperties;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.client.RestTemplate;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import util.cache.ResponseCacheInterceptor;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+
+/**
+ * The main idea of this class is to show that responses of read-only endpoints are served from the cache
+ * per account, concurrent identical requests are sent once, write calls invalidate the account
+ * and expired responses are revalidated with ETag. Bodies over the size limit are streamed without being cached
+ */
+public class ResponseCacheTests {
+
+    private static final String WALLETS_PATH = "/api/v2/get_my_addresses/";
+    private static final String TRANSACTIONS_PATH = "/api/v2/get_transactions/";
+    private static final String ARCHIVED_PATH = "/api/v2/get_my_archived_addresses/";
+    private static final String ETAG = "\"page-1\"";
+    private static final String LARGE_BODY = "{\"status\":\"success\",\"data\":{\"addresses\":[\""
+            + String.join("", Collections.nCopies(1000, "a")) + "\"]}}";
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+    private WireMockServer wireMockServer;
+    private ResponseCacheInterceptor cache;
+    private RestTemplate restTemplate;
+
+    @BeforeClass(alwaysRun = true)
+    public void setUp() {
+        wireMockServer = new WireMockServer(options().dynamicPort());
+        wireMockServer.stubFor(get(urlPathEqualTo(WALLETS_PATH))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/json")
+                        .withFixedDelay(100)
+                        .withBody("{\"status\":\"success\",\"data\":{\"addresses\":[]}}")));
+        wireMockServer.stubFor(get(urlPathEqualTo(TRANSACTIONS_PATH))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/json")
+                        .withHeader("ETag", ETAG)
+                        .withBody("{\"status\":\"success\",\"data\":{\"txs\":[]}}")));
+        wireMockServer.stubFor(get(urlPathEqualTo(TRANSACTIONS_PATH))
+                .withHeader("If-None-Match", equalTo(ETAG))
+                .willReturn(aResponse().withStatus(304)));
+        wireMockServer.stubFor(get(urlPathEqualTo(ARCHIVED_PATH))
+                .willReturn(aResponse().withStatus(200).withBody(LARGE_BODY)));
+        wireMockServer.stubFor(get(urlPathEqualTo(ARCHIVED_PATH)).withQueryParam("chunked", equalTo("true"))
+                .willReturn(aResponse().withStatus(200).withBody(LARGE_BODY).withChunkedDribbleDelay(4, 20)));
+        wireMockServer.stubFor(get(urlPathEqualTo("/api/v2/prepare_transaction/"))
+                .willReturn(aResponse().withStatus(200).withBody("{\"status\":\"success\"}")));
+        wireMockServer.start();
+    }
+
+    @BeforeMethod(alwaysRun = true)
+    public void resetCache() {
+        final BlockIoProperties properties = new BlockIoProperties();
+        properties.getResponseCache().getTtl().put("get_transactions", Duration.ofMillis(50));
+        cache = new ResponseCacheInterceptor(properties);
+        restTemplate = new RestTemplate();
+        restTemplate.setInterceptors(List.of(cache));
+        wireMockServer.resetRequests();
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown() {
+        wireMockServer.stop();
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void verifyResponseIsCachedPerAccount() {
+        final String first = restTemplate.getForObject(url(WALLETS_PATH, "key-1", "page=1"), String.class);
+        final String second = restTemplate.getForObject(url(WALLETS_PATH, "key-1", "page=1"), String.class);
+        restTemplate.getForObject(url(WALLETS_PATH, "key-2", "page=1"), String.class);
+
+        Assert.assertEquals(second, first);
+        wireMockServer.verify(1, getRequestedFor(urlPathEqualTo(WALLETS_PATH)).withQueryParam("api_key", equalTo("key-1")));
+        wireMockServer.verify(1, getRequestedFor(urlPathEqualTo(WALLETS_PATH)).withQueryParam("api_key", equalTo("key-2")));
+        Assert.assertEquals(cache.getHits(), 1);
+        Assert.assertEquals(cache.getMisses(), 2);
+    }
+
+    @Test
+    public void verifyConcurrentIdenticalRequestsAreSentOnce() {
+        final List<CompletableFuture<String>> responses = IntStream.range(0, 8)
+                .mapToObj(i -> CompletableFuture.supplyAsync(
+                        () -> restTemplate.getForObject(url(WALLETS_PATH, "key-1", "page=2"), String.class), executor))
+                .collect(Collectors.toList());
+
+        responses.forEach(response -> Assert.assertNotNull(response.join()));
+        wireMockServer.verify(1, getRequestedFor(urlPathEqualTo(WALLETS_PATH)));
+    }
+
+    @Test
+    public void verifyWriteCallInvalidatesAccount() {
+        restTemplate.getForObject(url(WALLETS_PATH, "key-1", "page=1"), String.class);
+        restTemplate.getForObject(url(WALLETS_PATH, "key-2", "page=1"), String.class);
+
+        restTemplate.getForObject(url("/api/v2/prepare_transaction/", "key-1", "amounts=1"), String.class);
+        restTemplate.getForObject(url(WALLETS_PATH, "key-1", "page=1"), String.class);
+        restTemplate.getForObject(url(WALLETS_PATH, "key-2", "page=1"), String.class);
+
+        wireMockServer.verify(2, getRequestedFor(urlPathEqualTo(WALLETS_PATH)).withQueryParam("api_key", equalTo("key-1")));
+        wireMockServer.verify(1, getRequestedFor(urlPathEqualTo(WALLETS_PATH)).withQueryParam("api_key", equalTo("key-2")));
+    }
+
+    @Test
+    public void verifyExpiredResponseIsRevalidated() throws InterruptedException {
+        final String first = restTemplate.getForObject(url(TRANSACTIONS_PATH, "key-1", "type=sent"), String.class);
+        Thread.sleep(100);
+        final String revalidated = restTemplate.getForObject(url(TRANSACTIONS_PATH, "key-1", "type=sent"), String.class);
+
+        Assert.assertEquals(revalidated, first);
+        Assert.assertEquals(cache.getRevalidations(), 1);
+        wireMockServer.verify(1, getRequestedFor(urlPathEqualTo(TRANSACTIONS_PATH)).withHeader("If-None-Match", equalTo(ETAG)));
+    }
+
+    @Test
+    public void verifySizeOfCacheIsBounded() {
+        final BlockIoProperties properties = new BlockIoProperties();
+        properties.getResponseCache().setMaxSize(DataSize.ofBytes(100));
+        cache = new ResponseCacheInterceptor(properties);
+        restTemplate.setInterceptors(List.of(cache));
+
+        IntStream.rangeClosed(1, 5).forEach(page ->
+                restTemplate.getForObject(url(WALLETS_PATH, "key-1", "page=" + page), String.class));
+
+        Assert.assertTrue(cache.getSize() <= 100, "Total size of cached bodies should not exceed the limit");
+        Assert.assertTrue(cache.getEvictions() >= 3, "The least recently used responses should be evicted");
+    }
+
+    @Test
+    public void verifyBodyOverLimitIsStreamedWithoutCaching() {
+        final BlockIoProperties properties = new BlockIoProperties();
+        properties.getResponseCache().setMaxSize(DataSize.ofBytes(100));
+        cache = new ResponseCacheInterceptor(properties);
+        restTemplate.setInterceptors(List.of(cache));
+
+        for (final String query : List.of("chunked=false", "chunked=true")) {
+            Assert.assertEquals(restTemplate.getForObject(url(ARCHIVED_PATH, "key-1", query), String.class), LARGE_BODY);
+            Assert.assertEquals(restTemplate.getForObject(url(ARCHIVED_PATH, "key-1", query), String.class), LARGE_BODY);
+        }
+
+        wireMockServer.verify(4, getRequestedFor(urlPathEqualTo(ARCHIVED_PATH)));
+        Assert.assertEquals(cache.getSize(), 0);
+    }
+
+    private String url(final String path, final String apiKey, final String query) {
+        return wireMockServer.baseUrl() + path + "?api_key=" + apiKey + "&" + query;
+    }
+}
@@ -0,0 +1,86 @@
+package blockioTests.utilTests;
+
+import config.JacksonConfig;
+import model.transaction.TransactionApi;
+import model.transaction.TransactionDataApi;
+import model.wallet.ResponseDataApi;
+import model.wallet.WalletApi;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import util.StreamingResponseParser;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * The main idea of this class is to show that responses are decoded from the stream
+ * element by element without building the whole response object
+ */
+public class StreamingResponseParserTests {
+
+    private static final String WALLETS = "{\"status\":\"success\",\"data\":{\"network\":\"BTCTEST\",\"addresses\":["
+            + "{\"user_id\":0,\"address\":\"first\",\"label\":\"default\",\"pending_received_balance\":\"0.00000000\","
+            + "\"available_balance\":\"0.00010000\",\"is_segwit\":true},"
+            + "{\"user_id\":1,\"address\":\"second\",\"label\":\"privet\",\"pending_received_balance\":\"0.00000000\","
+            + "\"available_balance\":\"0.00020000\",\"is_segwit\":false}"
+            + "],\"page\":3,\"has_more\":true}}";
+
+    private static final String TRANSACTIONS = "{\"status\":\"success\",\"data\":{\"network\":\"BTCTEST\",\"txs\":["
+            + "{\"txid\":\"a\",\"from_green_address\":false,\"time\":1,\"confirmations\":5,\"total_amount_sent\":\"0.00001000\","
+            + "\"amounts_sent\":[{\"recipient\":\"second\",\"amount\":\"0.00001000\"}],\"senders\":[\"first\"],"
+            + "\"confidence\":1.0,\"propagated_by_nodes\":null},"
+            + "{\"txid\":\"b\",\"time\":2,\"confirmations\":0}"
+            + "]}}";
+
+    private final StreamingResponseParser parser = new StreamingResponseParser(JacksonConfig.newObjectMapper());
+
+    @Test
+    public void verifyWalletsAndEnvelopeAreRead() throws Exception {
+        final List<WalletApi> wallets = new ArrayList<>();
+        final ResponseDataApi envelope = parser.readWallets(toStream(WALLETS), wallets::add);
+
+        Assert.assertEquals(wallets.stream().map(WalletApi::getAddress).collect(Collectors.toList()), List.of("first", "second"));
+        Assert.assertEquals(envelope.getNetwork(), "BTCTEST");
+        Assert.assertEquals(envelope.getPage(), 3);
+        Assert.assertTrue(envelope.isHas_more());
+        Assert.assertNull(envelope.getAddresses());
+    }
+
+    @Test
+    public void verifyTransactionsAreRead() throws Exception {
+        final List<TransactionApi> transactions = new ArrayList<>();
+        final TransactionDataApi envelope = parser.readTransactions(toStream(TRANSACTIONS), transactions::add);
+
+        Assert.assertEquals(envelope.getNetwork(), "BTCTEST");
+        Assert.assertEquals(transactions.size(), 2);
+        Assert.assertEquals(transactions.get(0).getSenders(), List.of("first"));
+        Assert.assertEquals(transactions.get(1).getTxid(), "b");
+    }
+
+    @Test
+    public void verifyWalletsAreStreamedLazily() throws Exception {
+        try (Stream<WalletApi> wallets = parser.streamWallets(toStream(WALLETS))) {
+            Assert.assertEquals(wallets.findFirst().orElseThrow().getAddress(), "first");
+        }
+    }
+
+    @Test
+    public void verifyEmptyDataIsHandled() throws Exception {
+        final List<WalletApi> wallets = new ArrayList<>();
+        parser.readWallets(toStream("{\"status\":\"fail\",\"data\":{\"error_message\":\"Invalid API Key\"}}"), wallets::add);
+
+        Assert.assertTrue(wallets.isEmpty());
+        try (Stream<TransactionApi> transactions = parser.streamTransactions(toStream("{\"status\":\"fail\"}"))) {
+            Assert.assertEquals(transactions.count(), 0L);
+        }
+    }
+
+    private InputStream toStream(final String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
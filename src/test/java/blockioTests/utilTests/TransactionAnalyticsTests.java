@@ -0,0 +1,156 @@
+package blockioTests.utilTests;
+
+import model.transaction.AmountApi;
+import model.transaction.TransactionApi;
+import model.transaction.compact.SymbolTable;
+import model.transaction.compact.TransactionColumns;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import util.analytics.AddressTotals;
+import util.analytics.DailyVolume;
+import util.analytics.TransactionAnalytics;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The main idea of this class is to show that aggregates computed in parallel over the columnar form
+ * of transactions are the same as aggregates computed row by row over the regular form
+ * and that amounts without a recipient don't break them
+ */
+public class TransactionAnalyticsTests {
+
+    private static final int TRANSACTIONS = 200_000;
+    private static final int RECIPIENTS = 50;
+    private static final int SENDERS = 7;
+    private static final long START = LocalDate.of(2022, 3, 1).atStartOfDay().toEpochSecond(ZoneOffset.UTC);
+
+    private final List<TransactionApi> transactions = new ArrayList<>();
+
+    private ForkJoinPool pool;
+    private TransactionColumns columns;
+    private TransactionAnalytics analytics;
+
+    @BeforeClass(alwaysRun = true)
+    public void setUp() {
+        for (int i = 0; i < TRANSACTIONS; i++) {
+            transactions.add(TransactionApi.builder()
+                    .txid("tx-" + i)
+                    .time(START + i * 60L)
+                    .confirmations(i % 12)
+                    .totalAmountSent(1_000 + i % 10)
+                    .senders(i % 5 == 0 ? null : List.of("sender-" + i % SENDERS, "change"))
+                    .amountsSent(List.of(new AmountApi("recipient-" + i % RECIPIENTS, 100 + i % 3),
+                            new AmountApi("change", 1)))
+                    .amountsReceived(i % 2 == 0 ? List.of(new AmountApi("recipient-0", 7)) : null)
+                    .build());
+        }
+        columns = TransactionColumns.of(transactions, new SymbolTable());
+        pool = new ForkJoinPool(4);
+        analytics = new TransactionAnalytics(pool);
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    public void verifyVolumeByRecipient() {
+        final AddressTotals volume = analytics.volumeByRecipient(columns);
+
+        for (int recipient = 0; recipient < RECIPIENTS; recipient++) {
+            final String address = "recipient-" + recipient;
+            final long expected = transactions.stream()
+                    .flatMap(transaction -> transaction.getAmountsSent().stream())
+                    .filter(amount -> amount.getRecipient().equals(address))
+                    .mapToLong(AmountApi::getAmount)
+                    .sum();
+            Assert.assertEquals(volume.get(address), expected, address);
+        }
+        Assert.assertEquals(volume.get("change"), TRANSACTIONS);
+        Assert.assertEquals(volume.get("unknown"), 0);
+        final List<Map.Entry<String, Long>> top = volume.top(3);
+        Assert.assertEquals(top.size(), 3);
+        Assert.assertTrue(top.get(0).getValue() >= top.get(1).getValue() && top.get(1).getValue() >= top.get(2).getValue());
+    }
+
+    @Test
+    public void verifyTotalSentBySender() {
+        final Map<String, Long> totals = analytics.totalSentBySender(columns).asMap();
+
+        Assert.assertEquals(totals.size(), SENDERS);
+        for (int sender = 0; sender < SENDERS; sender++) {
+            final String address = "sender-" + sender;
+            final long expected = transactions.stream()
+                    .filter(transaction -> Objects.nonNull(transaction.getSenders()) && transaction.getSenders().get(0).equals(address))
+                    .mapToLong(TransactionApi::getTotalAmountSent)
+                    .sum();
+            Assert.assertEquals(totals.get(address).longValue(), expected, address);
+        }
+    }
+
+    @Test
+    public void verifyReceivedByAddress() {
+        Assert.assertEquals(analytics.receivedByAddress(columns).asMap(), Map.of("recipient-0", TRANSACTIONS / 2 * 7L));
+    }
+
+    @Test
+    public void verifyAmountsWithoutRecipientAreSkipped() {
+        final TransactionColumns withoutRecipient = TransactionColumns.of(List.of(TransactionApi.builder()
+                .txid("tx-null")
+                .amountsSent(List.of(new AmountApi(null, 5), new AmountApi("recipient-0", 3)))
+                .amountsReceived(List.of(new AmountApi(null, 7)))
+                .build()), new SymbolTable());
+
+        Assert.assertEquals(analytics.volumeByRecipient(withoutRecipient).asMap(), Map.of("recipient-0", 3L));
+        Assert.assertTrue(analytics.receivedByAddress(withoutRecipient).asMap().isEmpty());
+    }
+
+    @Test
+    public void verifyDailyVolume() {
+        final DailyVolume volume = analytics.dailyVolume(columns);
+        final int perDay = 24 * 60;
+
+        Assert.assertEquals(volume.getFirstDay(), LocalDate.of(2022, 3, 1));
+        Assert.assertEquals(volume.getDays(), (TRANSACTIONS + perDay - 1) / perDay);
+        Assert.assertEquals(volume.getTransactions(LocalDate.of(2022, 3, 2)), perDay);
+        Assert.assertEquals(volume.getAmount(LocalDate.of(2022, 3, 2)), perDay * 1_000L + perDay / 10 * 45);
+        Assert.assertEquals(volume.getTransactions(LocalDate.of(2022, 2, 28)), 0);
+        long total = 0;
+        for (int day = 0; day < volume.getDays(); day++) {
+            total += volume.getTransactions(volume.getFirstDay().plusDays(day));
+        }
+        Assert.assertEquals(total, TRANSACTIONS);
+    }
+
+    @Test
+    public void verifyConfirmationDistribution() {
+        final long[] distribution = analytics.confirmationDistribution(columns, 6);
+
+        Assert.assertEquals(distribution.length, 7);
+        for (int confirmations = 0; confirmations < 6; confirmations++) {
+            final int value = confirmations;
+            Assert.assertEquals(distribution[confirmations],
+                    transactions.stream().filter(transaction -> transaction.getConfirmations() == value).count());
+        }
+        Assert.assertEquals(distribution[6],
+                transactions.stream().filter(transaction -> transaction.getConfirmations() >= 6).count());
+    }
+
+    @Test
+    public void verifyEmptyHistory() {
+        final TransactionColumns empty = TransactionColumns.of(List.of(), new SymbolTable());
+
+        Assert.assertTrue(analytics.volumeByRecipient(empty).asMap().isEmpty());
+        Assert.assertEquals(analytics.dailyVolume(empty).getDays(), 0);
+        Assert.assertEquals(analytics.confirmationDistribution(empty, 2), new long[3]);
+    }
+}
@@ -0,0 +1,140 @@
+package blockioTests.utilTests;
+
+import config.BlockIoProperties;
+import model.transaction.AmountApi;
+import model.transaction.TransactionApi;
+import org.springframework.util.unit.DataSize;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import util.store.TransactionStore;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * The main idea of this class is to show that stored transactions are found by txid, are decoded equal to the stored ones,
+ * survive a reopen of the store,
+ * and that compaction deletes segments of overwritten records without losing live ones
+ */
+public class TransactionStoreTests {
+
+    private static final int TRANSACTIONS = 5000;
+
+    private Path directory;
+    private BlockIoProperties properties;
+    private TransactionStore store;
+
+    @BeforeMethod(alwaysRun = true)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("store");
+        properties = new BlockIoProperties();
+        properties.getStore().setDirectory(directory);
+        properties.getStore().setSegmentSize(DataSize.ofKilobytes(64));
+        store = new TransactionStore(properties);
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void tearDown() throws IOException {
+        store.destroy();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Test
+    public void verifyTransactionIsFoundByTxid() {
+        store.putAll(transactions(0));
+
+        final TransactionApi transaction = store.get("tx-42").orElseThrow();
+        Assert.assertEquals(store.size(), TRANSACTIONS);
+        Assert.assertEquals(transaction.getTime(), 42);
+        Assert.assertEquals(transaction.getAmountsSent().get(0).getAmount(), 42);
+        Assert.assertEquals(transaction.getSenders(), List.of("sender-42"));
+        Assert.assertEquals(transaction.getPropagatedByNodes(), Integer.valueOf(42));
+        Assert.assertNull(store.get("tx-43").orElseThrow().getPropagatedByNodes());
+        Assert.assertNull(transaction.getAmountsReceived());
+        Assert.assertTrue(store.get("tx-unknown").isEmpty());
+    }
+
+    @Test
+    public void verifyDecodedTransactionEqualsStoredOne() {
+        final TransactionApi full = transaction(12, 3).toBuilder()
+                .fromGreenAddress(true)
+                .totalAmountSent(123_456_789L)
+                .amountsReceived(List.of(new AmountApi("recipient-a", 1), new AmountApi("recipient-b", Long.MAX_VALUE)))
+                .confidence(0.987654321)
+                .propagatedByNodes(0)
+                .build();
+        final TransactionApi empty = TransactionApi.builder().txid("tx-empty").build();
+        final TransactionApi unknownNodes = transaction(13, 0);
+
+        store.putAll(List.of(full, empty, unknownNodes));
+
+        Assert.assertEquals(store.get(full.getTxid()).orElseThrow(), full);
+        Assert.assertEquals(store.get(empty.getTxid()).orElseThrow(), empty);
+        Assert.assertEquals(store.get(unknownNodes.getTxid()).orElseThrow(), unknownNodes);
+    }
+
+    @Test
+    public void verifyTransactionsSurviveReopen() throws IOException {
+        store.putAll(transactions(0));
+        store.put(transaction(7, 6));
+        store.destroy();
+
+        store = new TransactionStore(properties);
+        final List<TransactionApi> transactions = new ArrayList<>();
+        store.forEach(transactions::add);
+
+        Assert.assertEquals(store.size(), TRANSACTIONS);
+        Assert.assertEquals(transactions.size(), TRANSACTIONS);
+        Assert.assertEquals(store.get("tx-7").orElseThrow().getConfirmations(), 6);
+    }
+
+    @Test
+    public void verifyCompactionKeepsLiveTransactions() throws IOException {
+        store.putAll(transactions(0));
+        store.putAll(transactions(6));
+        final long segments = countSegments();
+
+        Assert.assertTrue(store.compact() > 0);
+
+        Assert.assertTrue(countSegments() < segments);
+        Assert.assertEquals(store.size(), TRANSACTIONS);
+        for (int i = 0; i < TRANSACTIONS; i += 100) {
+            Assert.assertEquals(store.get("tx-" + i).orElseThrow().getConfirmations(), 6);
+        }
+    }
+
+    private long countSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+
+    private List<TransactionApi> transactions(final int confirmations) {
+        final List<TransactionApi> transactions = new ArrayList<>(TRANSACTIONS);
+        for (int i = 0; i < TRANSACTIONS; i++) {
+            transactions.add(transaction(i, confirmations));
+        }
+        return transactions;
+    }
+
+    private TransactionApi transaction(final int index, final int confirmations) {
+        return TransactionApi.builder()
+                .txid("tx-" + index)
+                .time(index)
+                .confirmations(confirmations)
+                .amountsSent(List.of(new AmountApi("recipient-" + index, index)))
+                .senders(List.of("sender-" + index))
+                .propagatedByNodes(index % 2 == 0 ? index : null)
+                .build();
+    }
+}
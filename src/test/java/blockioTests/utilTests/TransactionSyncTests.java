@@ -0,0 +1,163 @@
+package blockioTests.utilTests;
+
+import config.BlockIoProperties;
+import model.transaction.TransactionApi;
+import model.transaction.TransactionType;
+import org.mockito.Mockito;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import util.RequestsUtil;
+import util.sync.FileCursorStore;
+import util.sync.TransactionCursor;
+import util.sync.TransactionDelta;
+import util.sync.TransactionSyncEngine;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+
+/**
+ * The main idea of this class is to show that a synchronization requests only the pages newer than the cursor,
+ * and that the cursor survives a restart because it is kept in a file.
+ * Transactions not read within the page limit are read by the next synchronizations, none is skipped
+ */
+public class TransactionSyncTests {
+
+    private static final String API_KEY = "secret-api-key";
+    private static final int PAGE_SIZE = 25;
+
+    private final List<TransactionApi> history = new ArrayList<>();
+
+    private Path directory;
+    private BlockIoProperties properties;
+    private RequestsUtil requestsUtil;
+
+    @BeforeMethod(alwaysRun = true)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("sync");
+        properties = new BlockIoProperties();
+        properties.getSync().setCursorFile(directory.resolve("cursors.properties"));
+        history.clear();
+        addTransactions(100);
+
+        requestsUtil = Mockito.mock(RequestsUtil.class);
+        Mockito.when(requestsUtil.getTransactions(anyString(), any(TransactionType.class), any()))
+                .thenAnswer(invocation -> page(invocation.getArgument(2)));
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Test
+    public void verifyFirstSyncReturnsNewestPage() {
+        final TransactionDelta delta = newEngine().sync(API_KEY, TransactionType.RECEIVED);
+
+        Assert.assertNull(delta.getPrevious());
+        Assert.assertEquals(delta.getTransactions().size(), PAGE_SIZE);
+        Assert.assertEquals(delta.getCurrent(), new TransactionCursor("tx-99", 99));
+        Mockito.verify(requestsUtil).getTransactions(eq(API_KEY), eq(TransactionType.RECEIVED), isNull());
+    }
+
+    @Test
+    public void verifyOnlyNewTransactionsAreRequested() {
+        newEngine().sync(API_KEY, TransactionType.RECEIVED);
+        addTransactions(30);
+        Mockito.clearInvocations(requestsUtil);
+
+        final TransactionDelta delta = newEngine().sync(API_KEY, TransactionType.RECEIVED);
+
+        Assert.assertEquals(delta.getTransactions().stream().map(TransactionApi::getTxid).collect(Collectors.toList()),
+                IntStream.range(100, 130).map(i -> 229 - i).mapToObj(i -> "tx-" + i).collect(Collectors.toList()));
+        Assert.assertEquals(delta.getCurrent(), new TransactionCursor("tx-129", 129));
+        Assert.assertFalse(delta.isTruncated());
+        Mockito.verify(requestsUtil, Mockito.times(2))
+                .getTransactions(anyString(), any(TransactionType.class), any());
+    }
+
+    @Test
+    public void verifyNothingChangesWithoutNewTransactions() {
+        final TransactionSyncEngine engine = newEngine();
+        engine.sync(API_KEY, TransactionType.SENT);
+
+        final TransactionDelta delta = engine.sync(API_KEY, TransactionType.SENT);
+
+        Assert.assertTrue(delta.isEmpty());
+        Assert.assertEquals(delta.getCurrent(), delta.getPrevious());
+    }
+
+    @Test
+    public void verifyApiKeyIsNotWrittenToCursorFile() throws IOException {
+        newEngine().sync(API_KEY, TransactionType.SENT);
+
+        final String content = Files.readString(properties.getSync().getCursorFile());
+        Assert.assertTrue(content.contains("tx-99:99"));
+        Assert.assertFalse(content.contains(API_KEY));
+    }
+
+    @Test
+    public void verifyTransactionsOverPageLimitAreNotSkipped() {
+        properties.getSync().setMaxPages(2);
+        newEngine().sync(API_KEY, TransactionType.RECEIVED);
+        addTransactions(100);
+
+        final List<TransactionApi> transactions = new ArrayList<>();
+        final TransactionDelta truncated = newEngine().sync(API_KEY, TransactionType.RECEIVED);
+        transactions.addAll(truncated.getTransactions());
+        Assert.assertTrue(truncated.isTruncated());
+        Assert.assertEquals(truncated.getCurrent(), new TransactionCursor("tx-199", 199));
+
+        TransactionDelta delta = truncated;
+        for (int i = 0; i < 5 && delta.isTruncated(); i++) {
+            delta = newEngine().sync(API_KEY, TransactionType.RECEIVED);
+            transactions.addAll(delta.getTransactions());
+        }
+
+        Assert.assertFalse(delta.isTruncated());
+        Assert.assertEquals(delta.getCurrent(), new TransactionCursor("tx-199", 199));
+        Assert.assertEquals(transactions.size(), 100);
+        Assert.assertEquals(transactions.stream().map(TransactionApi::getTxid).collect(Collectors.toSet()),
+                IntStream.range(100, 200).mapToObj(i -> "tx-" + i).collect(Collectors.toSet()));
+        Assert.assertTrue(newEngine().sync(API_KEY, TransactionType.RECEIVED).isEmpty());
+    }
+
+    private TransactionSyncEngine newEngine() {
+        return new TransactionSyncEngine(requestsUtil, new FileCursorStore(properties), properties);
+    }
+
+    private void addTransactions(final int count) {
+        final int first = history.size();
+        for (int i = first; i < first + count; i++) {
+            history.add(0, TransactionApi.builder().txid("tx-" + i).time(i).build());
+        }
+    }
+
+    private List<TransactionApi> page(final String beforeTx) {
+        int from = 0;
+        if (Objects.nonNull(beforeTx)) {
+            while (!history.get(from).getTxid().equals(beforeTx)) {
+                from++;
+            }
+            from++;
+        }
+        return new ArrayList<>(history.subList(from, Math.min(from + PAGE_SIZE, history.size())));
+    }
+}
@@ -0,0 +1,71 @@
+package blockioTests.utilTests;
+
+import config.BlockIoProperties;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import util.url.BaseUrlRouter;
+import util.url.UrlTemplate;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * The main idea of this class is to show that compiled templates build the same urls as formatting did,
+ * encode values once and send every endpoint to its base url
+ */
+public class UrlTemplateTests {
+
+    private static final String BASE_URL = "https://block.io/api/v2/";
+
+    private final UrlTemplate prepareTransaction = UrlTemplate.compile(
+            "prepare_transaction/?api_key={api_key}&priority=custom&custom_network_fee={fee}&amounts={amounts}&to_addresses={to_addresses}");
+    private final UrlTemplate getNewAddress = UrlTemplate.compile("get_new_address/?api_key={api_key}&label={label}");
+
+    @Test
+    public void verifyUrlIsBuiltFromTemplate() {
+        Assert.assertEquals(prepareTransaction.getEndpoint(), "prepare_transaction");
+        Assert.assertEquals(prepareTransaction.build(BASE_URL, "key", new BigDecimal("0.0000208"), new BigDecimal("1E-5"), "2N9zGC"),
+                BASE_URL + "prepare_transaction/?api_key=key&priority=custom&custom_network_fee=0.0000208&amounts=0.00001&to_addresses=2N9zGC");
+        Assert.assertEquals(UrlTemplate.compile("get_my_addresses/?api_key={api_key}&page={page}").build(BASE_URL, "key", 3),
+                BASE_URL + "get_my_addresses/?api_key=key&page=3");
+    }
+
+    @Test
+    public void verifyElementsOfListAreJoined() {
+        Assert.assertEquals(prepareTransaction.build(BASE_URL, "key", BigDecimal.ONE,
+                        List.of(new BigDecimal("0.5"), new BigDecimal("0.25")), List.of("first", "second")),
+                BASE_URL + "prepare_transaction/?api_key=key&priority=custom&custom_network_fee=1&amounts=0.5,0.25&to_addresses=first,second");
+    }
+
+    @Test
+    public void verifyValuesArePercentEncoded() {
+        final String label = "my label&page=2/\u00FC\u20AC\uD83D\uDE00";
+        final String url = getNewAddress.build(BASE_URL, "key", label);
+
+        Assert.assertEquals(url, BASE_URL + "get_new_address/?api_key=key&label=my%20label%26page%3D2%2F%C3%BC%E2%82%AC%F0%9F%98%80");
+        Assert.assertEquals(URI.create(url).getQuery(), "api_key=key&label=" + label);
+        Assert.assertEquals(URLDecoder.decode(url.substring(url.indexOf("label=") + 6), StandardCharsets.UTF_8), label);
+        Assert.assertEquals(getNewAddress.build(BASE_URL, "key", "a-b.c_d~e"), BASE_URL + "get_new_address/?api_key=key&label=a-b.c_d~e");
+    }
+
+    @Test
+    public void verifyEndpointsAreRouted() {
+        final BlockIoProperties properties = new BlockIoProperties();
+        final BaseUrlRouter router = new BaseUrlRouter(properties);
+
+        Assert.assertEquals(prepareTransaction.expand(router, "key", BigDecimal.ONE, BigDecimal.ONE, "to").toString(),
+                properties.getApi().getStubBaseUrl() + "prepare_transaction/?api_key=key&priority=custom&custom_network_fee=1&amounts=1&to_addresses=to");
+        Assert.assertEquals(getNewAddress.expand(router, "key", "label").toString(),
+                properties.getApi().getBaseUrl() + "get_new_address/?api_key=key&label=label");
+    }
+
+    @Test
+    public void verifyWrongValuesAreRejected() {
+        Assert.expectThrows(IllegalArgumentException.class, () -> getNewAddress.build(BASE_URL, "key"));
+        Assert.expectThrows(IllegalArgumentException.class, () -> getNewAddress.build(BASE_URL, "key", null));
+        Assert.expectThrows(IllegalArgumentException.class, () -> UrlTemplate.compile("get_balance/?api_key={api_key"));
+    }
+}
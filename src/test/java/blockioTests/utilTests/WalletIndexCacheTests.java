@@ -0,0 +1,83 @@
+package blockioTests.utilTests;
+
+import config.BlockIoProperties;
+import model.wallet.WalletApi;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import util.WalletIndexCache;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The main idea of this class is to show that repeated lookups of wallets are served from the index
+ * and that the index is reloaded after invalidation or eviction
+ */
+public class WalletIndexCacheTests {
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private BlockIoProperties properties;
+    private WalletIndexCache cache;
+
+    @BeforeMethod
+    public void setUp() {
+        loads.set(0);
+        properties = new BlockIoProperties();
+        properties.getWalletCache().setMaxAccounts(2);
+        cache = new WalletIndexCache(properties);
+    }
+
+    @Test
+    public void verifyRepeatedLookupsAreServedFromIndex() {
+        for (int i = 0; i < 4; i++) {
+            Assert.assertEquals(cache.findByAddress("key", "first", this::load).orElseThrow().getLabel(), "default");
+        }
+        Assert.assertEquals(cache.findByLabel("key", "privet", this::load).orElseThrow().getAddress(), "second");
+        Assert.assertTrue(cache.findByAddress("key", "unknown", this::load).isEmpty());
+
+        Assert.assertEquals(loads.get(), 1);
+        Assert.assertEquals(cache.getMisses(), 1);
+        Assert.assertEquals(cache.getHits(), 5);
+    }
+
+    @Test
+    public void verifyIndexIsReloadedAfterInvalidation() {
+        cache.findByAddress("key", "first", this::load);
+        cache.invalidate("key");
+        cache.findByAddress("key", "first", this::load);
+
+        Assert.assertEquals(loads.get(), 2);
+    }
+
+    @Test
+    public void verifyLeastRecentlyUsedAccountIsEvicted() {
+        cache.findByAddress("first-key", "first", this::load);
+        cache.findByAddress("second-key", "first", this::load);
+        cache.findByAddress("first-key", "first", this::load);
+        cache.findByAddress("third-key", "first", this::load);
+        cache.findByAddress("first-key", "first", this::load);
+        cache.findByAddress("second-key", "first", this::load);
+
+        Assert.assertEquals(loads.get(), 4);
+        Assert.assertEquals(cache.getEvictions(), 2);
+    }
+
+    @Test
+    public void verifyReturnedWalletDoesNotChangeIndex() {
+        final WalletApi wallet = cache.findByAddress("key", "first", this::load).orElseThrow();
+        final WalletApi changed = wallet.withAvailableBalance(100_000_000L);
+
+        Assert.assertNotSame(changed, wallet);
+        Assert.assertSame(cache.findByAddress("key", "first", this::load).orElseThrow(), wallet);
+        Assert.assertEquals(wallet.getAvailableBalance(), 10_000L);
+    }
+
+    private List<WalletApi> load(final String apiKey) {
+        loads.incrementAndGet();
+        return List.of(
+                WalletApi.builder().userId(0).address("first").label("default").availableBalance(10_000L).build(),
+                WalletApi.builder().userId(1).address("second").label("privet").availableBalance(20_000L).build());
+    }
+}
@@ -0,0 +1,146 @@
+package blockioTests.utilTests;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import config.JacksonConfig;
+import model.wallet.ResponseDataApi;
+import model.wallet.WalletApi;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.client.RestTemplate;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import util.StreamingResponseParser;
+import util.WalletPageIterator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static java.lang.String.format;
+
+/**
+ * The main idea of this class is to show that all pages of wallets are read in page order
+ * and that prefetching of pages hides the latency of every page. Each page is served by WireMock with a delay
+ */
+public class WalletPaginationTests {
+
+    private static final int PAGES = 200;
+    private static final int WALLETS_PER_PAGE = 5;
+    private static final int PAGE_DELAY_MILLIS = 20;
+
+    private final Log logger = LogFactory.getLog(this.getClass());
+
+    private final RestTemplate restTemplate = new RestTemplate();
+    private final StreamingResponseParser parser = new StreamingResponseParser(JacksonConfig.newObjectMapper());
+    private final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+    private WireMockServer wireMockServer;
+
+    @BeforeClass(alwaysRun = true)
+    public void setUp() {
+        wireMockServer = new WireMockServer(options().dynamicPort());
+        for (int page = 1; page <= PAGES + 10; page++) {
+            wireMockServer.stubFor(get(urlPathEqualTo("/api/v2/get_my_addresses/"))
+                    .withQueryParam("page", equalTo(String.valueOf(page)))
+                    .willReturn(aResponse()
+                            .withStatus(200)
+                            .withHeader("Content-Type", "application/json")
+                            .withFixedDelay(PAGE_DELAY_MILLIS)
+                            .withBody(pageBody(page))));
+        }
+        wireMockServer.start();
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown() {
+        wireMockServer.stop();
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void verifyAllPagesAreReadInOrder() {
+        final List<WalletApi> wallets = readAll(8);
+
+        Assert.assertEquals(wallets.size(), PAGES * WALLETS_PER_PAGE);
+        for (int i = 0; i < wallets.size(); i++) {
+            Assert.assertEquals(wallets.get(i).getUserId(), i);
+        }
+    }
+
+    @Test
+    public void verifyPrefetchIsFasterThanSequentialRead() {
+        final long sequential = measure(1);
+        final long prefetched = measure(8);
+        logger.info(format("Read %d pages: sequential=%dms, prefetch of 8 pages=%dms", PAGES, sequential, prefetched));
+
+        Assert.assertTrue(prefetched < sequential, "Prefetching should hide the latency of pages");
+    }
+
+    @Test
+    public void verifySinglePageIsRequestedOnce() {
+        final AtomicInteger requests = new AtomicInteger();
+        final List<WalletApi> wallets = new ArrayList<>();
+        try (WalletPageIterator iterator = new WalletPageIterator(page -> {
+            requests.incrementAndGet();
+            final ResponseDataApi data = new ResponseDataApi();
+            data.setAddresses(List.of(new WalletApi(page, "address", "label", 0, 1_000, true)));
+            return data;
+        }, 8, executor)) {
+            iterator.forEachRemaining(wallets::add);
+        }
+
+        Assert.assertEquals(wallets.size(), 1);
+        Assert.assertEquals(requests.get(), 1, "Pages should not be prefetched before has_more is known");
+    }
+
+    private long measure(final int prefetchPages) {
+        final long start = System.nanoTime();
+        readAll(prefetchPages);
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    private List<WalletApi> readAll(final int prefetchPages) {
+        final List<WalletApi> wallets = new ArrayList<>();
+        try (WalletPageIterator iterator = new WalletPageIterator(this::loadPage, prefetchPages, executor)) {
+            iterator.forEachRemaining(wallets::add);
+        }
+        return wallets;
+    }
+
+    private ResponseDataApi loadPage(final int page) {
+        final String url = format("%s/api/v2/get_my_addresses/?api_key=key&page=%d", wireMockServer.baseUrl(), page);
+        return restTemplate.execute(url, HttpMethod.GET, null, response -> {
+            final List<WalletApi> wallets = new ArrayList<>();
+            final ResponseDataApi data = parser.readWallets(response.getBody(), wallets::add);
+            data.setAddresses(wallets);
+            return data;
+        });
+    }
+
+    private String pageBody(final int page) {
+        final StringBuilder addresses = new StringBuilder();
+        if (page <= PAGES) {
+            for (int i = 0; i < WALLETS_PER_PAGE; i++) {
+                final int userId = (page - 1) * WALLETS_PER_PAGE + i;
+                if (i > 0) {
+                    addresses.append(',');
+                }
+                addresses.append(format("{\"user_id\":%d,\"address\":\"address-%d\",\"label\":\"label-%d\","
+                        + "\"pending_received_balance\":\"0.00000000\",\"available_balance\":\"0.00001000\","
+                        + "\"is_segwit\":true}", userId, userId, userId));
+            }
+        }
+        return format("{\"status\":\"success\",\"data\":{\"network\":\"BTCTEST\",\"addresses\":[%s],\"page\":%d,\"has_more\":%b}}",
+                addresses, page, page < PAGES);
+    }
+}
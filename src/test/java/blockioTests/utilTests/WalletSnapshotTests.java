@@ -0,0 +1,170 @@
+package blockioTests.utilTests;
+
+import config.BlockIoProperties;
+import model.wallet.WalletApi;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import util.WalletIndexCache;
+import util.snapshot.WalletSnapshot;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * The main idea of this class is to show that wallets cached before shutdown are taken from the snapshot
+ * after startup without loading, and that stale, invalidated or broken snapshots are not used.
+ * Wallets of an account are checked against its transactions only if there are enough of them to pay for the check
+ */
+public class WalletSnapshotTests {
+
+    private static final List<WalletApi> WALLETS = List.of(
+            new WalletApi(1, "first", "default", 0, 100_000, false),
+            new WalletApi(1, "second", null, 5, 2_000, true));
+
+    private final AtomicInteger transactionChecks = new AtomicInteger();
+
+    private Path directory;
+    private BlockIoProperties properties;
+
+    @BeforeMethod(alwaysRun = true)
+    public void setUp() throws IOException {
+        transactionChecks.set(0);
+        directory = Files.createTempDirectory("snapshot");
+        properties = new BlockIoProperties();
+        properties.getSnapshot().setFile(directory.resolve("wallets.snapshot"));
+        properties.getSnapshot().setMinWallets(0);
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Test
+    public void verifyWalletsAreTakenFromSnapshotAfterRestart() {
+        saveSnapshot("key");
+
+        final WalletSnapshot snapshot = new WalletSnapshot(properties, new WalletIndexCache(properties));
+        final Optional<List<WalletApi>> wallets = snapshot.take("key", this::oldTransactions);
+
+        Assert.assertEquals(wallets.orElseThrow(), WALLETS);
+        Assert.assertEquals(transactionChecks.get(), 1);
+        Assert.assertTrue(snapshot.take("key", this::oldTransactions).isEmpty(), "Wallets are taken only once");
+        Assert.assertTrue(snapshot.take("another-key", this::oldTransactions).isEmpty());
+        Assert.assertEquals(snapshot.getRestored(), 1);
+    }
+
+    @Test
+    public void verifyRestoredWalletsKeepTheirAge() throws InterruptedException {
+        properties.getSnapshot().setMaxAge(Duration.ofMillis(300));
+        saveSnapshot("key");
+        TimeUnit.MILLISECONDS.sleep(200);
+
+        final WalletIndexCache cache = new WalletIndexCache(properties);
+        final WalletSnapshot restarted = new WalletSnapshot(properties, cache);
+        cache.findByAddress("key", "first", apiKey -> restarted.take(apiKey, this::oldTransactions).orElseThrow());
+        restarted.destroy();
+        TimeUnit.MILLISECONDS.sleep(200);
+
+        Assert.assertTrue(new WalletSnapshot(properties, new WalletIndexCache(properties))
+                .take("key", this::oldTransactions).isEmpty(), "Wallets are older than max-age");
+    }
+
+    @Test
+    public void verifyWalletsOlderThanNewestTransactionAreNotTaken() {
+        saveSnapshot("key");
+
+        final WalletSnapshot snapshot = new WalletSnapshot(properties, new WalletIndexCache(properties));
+
+        Assert.assertTrue(snapshot.take("key", apiKey -> System.currentTimeMillis() / 1000).isEmpty());
+        Assert.assertEquals(snapshot.getRejected(), 1);
+    }
+
+    @Test
+    public void verifyTransactionsAreNotCheckedWhenVerificationIsOff() {
+        properties.getSnapshot().setVerifyTransactions(false);
+        saveSnapshot("key");
+
+        final WalletSnapshot snapshot = new WalletSnapshot(properties, new WalletIndexCache(properties));
+
+        Assert.assertTrue(snapshot.take("key", this::oldTransactions).isPresent());
+        Assert.assertEquals(transactionChecks.get(), 0);
+    }
+
+    @Test
+    public void verifyTooFewWalletsAreLoadedWithoutCheckingTransactions() {
+        properties.getSnapshot().setMinWallets(WALLETS.size() + 1);
+        saveSnapshot("key");
+
+        final WalletSnapshot snapshot = new WalletSnapshot(properties, new WalletIndexCache(properties));
+
+        Assert.assertTrue(snapshot.take("key", this::oldTransactions).isEmpty());
+        Assert.assertEquals(transactionChecks.get(), 0);
+    }
+
+    @Test
+    public void verifyInvalidatedWalletsAreNotTaken() {
+        saveSnapshot("key");
+
+        final WalletSnapshot snapshot = new WalletSnapshot(properties, new WalletIndexCache(properties));
+        snapshot.invalidate("key");
+        snapshot.destroy();
+
+        Assert.assertTrue(snapshot.take("key", this::oldTransactions).isEmpty());
+        Assert.assertTrue(new WalletSnapshot(properties, new WalletIndexCache(properties))
+                .take("key", this::oldTransactions).isEmpty());
+    }
+
+    @Test
+    public void verifySnapshotOfAnotherBlockIoIsIgnored() {
+        saveSnapshot("key");
+        properties.getApi().setBaseUrl("http://localhost:9999/api/v2/");
+
+        Assert.assertTrue(new WalletSnapshot(properties, new WalletIndexCache(properties))
+                .take("key", this::oldTransactions).isEmpty());
+    }
+
+    @Test
+    public void verifyBrokenSnapshotIsIgnored() throws IOException {
+        Files.write(properties.getSnapshot().getFile(), "not a snapshot".getBytes(StandardCharsets.UTF_8));
+
+        Assert.assertTrue(new WalletSnapshot(properties, new WalletIndexCache(properties))
+                .take("key", this::oldTransactions).isEmpty());
+    }
+
+    @Test
+    public void verifyApiKeysAreNotWritten() throws IOException {
+        saveSnapshot("secret-api-key");
+
+        final String content = new String(Files.readAllBytes(properties.getSnapshot().getFile()), StandardCharsets.ISO_8859_1);
+        Assert.assertFalse(content.contains("secret-api-key"));
+    }
+
+    /**
+     * Loads wallets to the cache and writes them on shutdown like the previous run of a job would do
+     */
+    private void saveSnapshot(final String apiKey) {
+        final WalletIndexCache cache = new WalletIndexCache(properties);
+        cache.findByAddress(apiKey, "first", key -> WALLETS);
+        new WalletSnapshot(properties, cache).destroy();
+    }
+
+    private long oldTransactions(final String apiKey) {
+        transactionChecks.incrementAndGet();
+        return 1_600_000_000L;
+    }
+}